@@ -4,6 +4,7 @@ module ModelA {
     requires ch.qos.logback.classic;
     requires sysout.over.slf4j;
     requires jcommander;
+    requires java.management;
     opens tech.anapad.modela to jcommander;
 
     // Google Guava
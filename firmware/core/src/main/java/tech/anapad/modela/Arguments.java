@@ -3,6 +3,17 @@ package tech.anapad.modela;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
+import tech.anapad.modela.loadsurface.power.PowerMode;
+import tech.anapad.modela.touchscreen.driver.ConfigurationProfile;
+import tech.anapad.modela.util.filter.FilterChain;
+import tech.anapad.modela.view.util.PressOnsetMode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static tech.anapad.modela.loadsurface.adc.ADC.SAMPLES_PER_SECOND;
 
 /**
  * {@link Arguments} contains the arguments parsed from the CLI.
@@ -21,6 +32,164 @@ public final class Arguments {
                     "defaults to the development-level environment.")
     private boolean runProduction = false;
 
+    @Parameter(names = {"--serialStartup"},
+            description = "Start the controllers one after another on the JavaFX application thread instead of " +
+                    "starting independent controllers concurrently (e.g. to debug startup).")
+    private boolean serialStartup = false;
+
+    @Parameter(names = {"--simulateI2C"},
+            description = "Use simulated I2C buses with in-memory models of the I2C chips instead of the real I2C " +
+                    "buses. This allows the firmware to run off the Model A hardware.")
+    private boolean simulateI2C = false;
+
+    @Parameter(names = {"--simulatedI2CLatencyMicros"},
+            description = "The latency in microseconds that each transfer on a simulated I2C bus takes.")
+    private int simulatedI2CLatencyMicros = 100;
+
+    @Parameter(names = {"--traceI2C"},
+            description = "Trace every I2C request and record I2C request latency histograms per I2C slave and " +
+                    "operation. The traces are logged when an I2C bus is stopped.")
+    private boolean traceI2C = false;
+
+    @Parameter(names = {"--i2cTraceCapacity"},
+            description = "The number of the most recent I2C requests that are kept per traced I2C bus (a power of " +
+                    "two).")
+    private int i2cTraceCapacity = 4096;
+
+    @Parameter(names = {"--i2cTraceDumpIntervalSeconds"},
+            description = "The interval in seconds at which the I2C traces are logged, or 0 to only log them when an " +
+                    "I2C bus is stopped.")
+    private int i2cTraceDumpIntervalSeconds = 0;
+
+    @Parameter(names = {"--touchInterruptGPIOChip"},
+            description = "The index of the GPIO chip (e.g. 0 for \"/dev/gpiochip0\") of the GT9110 INT line.")
+    private int touchInterruptGPIOChip = 0;
+
+    @Parameter(names = {"--touchInterruptGPIOLine"},
+            description = "The offset of the GPIO line that the GT9110 INT pin is connected to. Touch data is read " +
+                    "when the GT9110 pulses this line. If this is not set, touch data is polled instead.")
+    private int touchInterruptGPIOLine = -1;
+
+    @Parameter(names = {"--touchPollPeriodMicros"},
+            description = "The period in microseconds at which touch data is polled if no GT9110 INT line is set, or " +
+                    "0 to poll continuously.")
+    private int touchPollPeriodMicros = 1000;
+
+    @Parameter(names = {"--touchConfigurationProfile"},
+            description = "The GT9110 configuration profile while the touchscreen is in use: HIGH_RATE to report " +
+                    "every 5 ms, BALANCED to report every 10 ms, or LOW_POWER to report every 20 ms.")
+    private ConfigurationProfile touchConfigurationProfile = ConfigurationProfile.BALANCED;
+
+    @Parameter(names = {"--touchIdleConfigurationProfile"},
+            description = "The GT9110 configuration profile while the touchscreen is idle (see " +
+                    "\"--touchConfigurationProfile\"). Since the GT9110 recalibrates when it is configured, " +
+                    "profiles are only switched while the touchscreen isn't touched, so the first touch after idle " +
+                    "is reported at the rate of this profile.")
+    private ConfigurationProfile touchIdleConfigurationProfile = ConfigurationProfile.LOW_POWER;
+
+    @Parameter(names = {"--touchIdleSeconds"},
+            description = "The time in seconds without touches after which the touchscreen switches to " +
+                    "\"--touchIdleConfigurationProfile\", or 0 to always use \"--touchConfigurationProfile\".")
+    private int touchIdleSeconds = 30;
+
+    @Parameter(names = {"--touchPredictionMillis"},
+            description = "The horizon in milliseconds for which the location of each touch is predicted from its " +
+                    "filtered velocity and acceleration to compensate for the touchscreen latency in pointer motion " +
+                    "and hit testing, or 0 to use the sampled locations. The prediction error is logged every minute.")
+    private int touchPredictionMillis = 8;
+
+    @Parameter(names = {"--touchPredictionBenchmark"},
+            description = "Before sampling the touchscreen, replay a synthetic trace of touch strokes through the " +
+                    "touch tracker at several prediction horizons and log the prediction errors.")
+    private boolean touchPredictionBenchmark = false;
+
+    @Parameter(names = {"--nativeLoadSurfaceAcquisition"},
+            description = "Sample the load surface ADCs in a native thread that owns I2C-1 instead of in a Java " +
+                    "thread. This has no effect if I2C is simulated. The native acquisition reads all ADCs every " +
+                    "conversion cycle regardless of --loadSurfaceFarChannelRefreshDivisor and doesn't support " +
+                    "background recalibration, so --loadSurfaceRecalibrationIntervalSeconds has no effect.")
+    private boolean nativeLoadSurfaceAcquisition = false;
+
+    @Parameter(names = {"--loadSurfaceAcquisitionBenchmarkSeconds"},
+            description = "Before sampling the load surface, benchmark the frame rate and jitter of the Java and the " +
+                    "native load surface sample acquisitions for this many seconds each, or 0 to not benchmark.")
+    private int loadSurfaceAcquisitionBenchmarkSeconds = 0;
+
+    @Parameter(names = {"--forceMapFile"},
+            description = "The path of a load surface force map calibration file to weight the load surface samples " +
+                    "by. If this is not set, the force map is computed from the locations of the load surface ADCs.")
+    private String forceMapFile = null;
+
+    @Parameter(names = {"--logViewTiming"},
+            description = "Log the JavaFX pulse jitter and the latency from touch frame delivery to touch press " +
+                    "processing every minute.")
+    private boolean logViewTiming = false;
+
+    @Parameter(names = {"--pressOnsetDetection"},
+            description = "The press onset detection mode of keys: OFF to only press keys when their smoothed force " +
+                    "crosses the press threshold, SHADOW to detect press onsets from the load surface force slope, " +
+                    "confirm them once the raw force crosses the press threshold, and log their lead time and false " +
+                    "positive rate, or ON to also give haptic feedback on press onsets and press keys once they are " +
+                    "confirmed. An unconfirmed press onset never types a key.")
+    private PressOnsetMode pressOnsetMode = PressOnsetMode.SHADOW;
+
+    @Parameter(names = {"--loadSurfaceFilter"},
+            description = "The filter chain of all load surface samples of each ADC, as comma-separated stages of " +
+                    "colon-separated parameters: \"smoothing:<factor>\", \"median:<windowSize>\", " +
+                    "\"biquadLowPass:<cutoffHz>[:<q>]\", \"biquadHighPass:<cutoffHz>[:<q>]\", " +
+                    "\"oneEuro:<minCutoffHz>:<beta>[:<derivativeCutoffHz>]\", or " +
+                    "\"kalman:<processNoise>:<measurementNoise>\" (e.g. \"median:3,biquadLowPass:20\"). Smoothing " +
+                    "factors apply at the full conversion rate and are scaled, like the frequencies, to the rate at " +
+                    "which each ADC is actually read.")
+    private String loadSurfaceFilter = "smoothing:25";
+
+    @Parameter(names = {"--loadSurfaceBaselineFilter"},
+            description = "The filter chain of the baseline load surface samples of each ADC (see " +
+                    "\"--loadSurfaceFilter\").")
+    private String loadSurfaceBaselineFilter = "smoothing:100";
+
+    @Parameter(names = {"--loadSurfaceChannelFilter"},
+            description = "Overrides \"--loadSurfaceFilter\" for one ADC as \"<adcIndex>=<filterChain>\" (e.g. " +
+                    "\"2=median:5,smoothing:25\"). This can be repeated for multiple ADCs.")
+    private List<String> loadSurfaceChannelFilters = new ArrayList<>();
+
+    @Parameter(names = {"--loadSurfaceFilterBenchmark"},
+            description = "Before sampling the load surface, benchmark the step response, noise, and throughput of " +
+                    "the configured load surface filter chains against the default filter chain on a synthetic " +
+                    "signal.")
+    private boolean loadSurfaceFilterBenchmark = false;
+
+    @Parameter(names = {"--loadSurfaceIdleSeconds"},
+            description = "The time in seconds without touches after which the load surface ADCs switch to the " +
+                    "idle power mode, or 0 to always sample at the full conversion rate. The first touch switches " +
+                    "them back to the full conversion rate.")
+    private int loadSurfaceIdleSeconds = 30;
+
+    @Parameter(names = {"--loadSurfaceIdlePowerMode"},
+            description = "The idle power mode of the load surface ADCs: LOW_RATE to sample at " +
+                    "\"--loadSurfaceIdleSamplesPerSecond\" or POWER_DOWN to power them down.")
+    private PowerMode loadSurfaceIdlePowerMode = PowerMode.LOW_RATE;
+
+    @Parameter(names = {"--loadSurfaceIdleSamplesPerSecond"},
+            description = "The conversion rate of the load surface ADCs in the LOW_RATE idle power mode (10, 20, 40, " +
+                    "or 80).")
+    private int loadSurfaceIdleSamplesPerSecond = 10;
+
+    @Parameter(names = {"--loadSurfaceFarChannelRefreshDivisor"},
+            description = "While the touchscreen is touched, read the load surface ADCs far from the touches only " +
+                    "every this many conversion cycles, so the ADCs near the touches are read sooner after each " +
+                    "conversion cycle. 1 reads all ADCs every conversion cycle. This has no effect on the native " +
+                    "load surface sample acquisition.")
+    private int loadSurfaceFarChannelRefreshDivisor = 2;
+
+    @Parameter(names = {"--loadSurfaceRecalibrationIntervalSeconds"},
+            description = "The interval in seconds at which the load surface ADCs are recalibrated one at a time in " +
+                    "the background while the touchscreen isn't touched, or 0 to disable background recalibration. " +
+                    "This has no effect on the native load surface sample acquisition.")
+    private int loadSurfaceRecalibrationIntervalSeconds = 600;
+
+    private Map<Integer, String> loadSurfaceFiltersOfADCIndices;
+
     /**
      * Instantiates a new {@link Arguments}.
      *
@@ -43,6 +212,61 @@ public final class Arguments {
                 .addObject(this)
                 .build();
         jCommander.parse(cliArguments);
+        if (simulatedI2CLatencyMicros < 0) {
+            throw new IllegalArgumentException("Simulated I2C latency must not be negative!");
+        }
+        if (i2cTraceCapacity <= 0 || Integer.bitCount(i2cTraceCapacity) != 1) {
+            throw new IllegalArgumentException("I2C trace capacity must be a power of two!");
+        }
+        if (i2cTraceDumpIntervalSeconds < 0) {
+            throw new IllegalArgumentException("I2C trace dump interval must not be negative!");
+        }
+        if (touchPollPeriodMicros < 0) {
+            throw new IllegalArgumentException("Touch poll period must not be negative!");
+        }
+        if (touchIdleSeconds < 0) {
+            throw new IllegalArgumentException("Touch idle time must not be negative!");
+        }
+        if (touchPredictionMillis < 0) {
+            throw new IllegalArgumentException("Touch prediction horizon must not be negative!");
+        }
+        if (loadSurfaceAcquisitionBenchmarkSeconds < 0) {
+            throw new IllegalArgumentException("Load surface acquisition benchmark duration must not be negative!");
+        }
+        if (loadSurfaceIdleSeconds < 0) {
+            throw new IllegalArgumentException("Load surface idle time must not be negative!");
+        }
+        if (loadSurfaceIdlePowerMode == PowerMode.ACTIVE) {
+            throw new IllegalArgumentException("Load surface idle power mode must be LOW_RATE or POWER_DOWN!");
+        }
+        if (loadSurfaceIdleSamplesPerSecond != 10 && loadSurfaceIdleSamplesPerSecond != 20 &&
+                loadSurfaceIdleSamplesPerSecond != 40 && loadSurfaceIdleSamplesPerSecond != 80) {
+            throw new IllegalArgumentException("Load surface idle conversion rate must be 10, 20, 40, or 80!");
+        }
+        if (loadSurfaceFarChannelRefreshDivisor < 1) {
+            throw new IllegalArgumentException("Load surface far channel refresh divisor must be at least 1!");
+        }
+        if (loadSurfaceRecalibrationIntervalSeconds < 0) {
+            throw new IllegalArgumentException("Load surface recalibration interval must not be negative!");
+        }
+        FilterChain.parse(loadSurfaceFilter, 1, SAMPLES_PER_SECOND);
+        FilterChain.parse(loadSurfaceBaselineFilter, 1, SAMPLES_PER_SECOND);
+        loadSurfaceFiltersOfADCIndices = new HashMap<>();
+        for (String loadSurfaceChannelFilter : loadSurfaceChannelFilters) {
+            final String[] adcIndexAndFilter = loadSurfaceChannelFilter.split("=", 2);
+            if (adcIndexAndFilter.length != 2) {
+                throw new IllegalArgumentException("Load surface channel filter must be <adcIndex>=<filterChain>!");
+            }
+            final int adcIndex;
+            try {
+                adcIndex = Integer.parseInt(adcIndexAndFilter[0].trim());
+            } catch (NumberFormatException exception) {
+                throw new IllegalArgumentException("Invalid load surface channel filter ADC index: " +
+                        loadSurfaceChannelFilter, exception);
+            }
+            FilterChain.parse(adcIndexAndFilter[1], 1, SAMPLES_PER_SECOND);
+            loadSurfaceFiltersOfADCIndices.put(adcIndex, adcIndexAndFilter[1]);
+        }
     }
 
     public JCommander getJCommander() {
@@ -56,4 +280,119 @@ public final class Arguments {
     public boolean runProduction() {
         return runProduction;
     }
+
+    public boolean serialStartup() {
+        return serialStartup;
+    }
+
+    public boolean simulateI2C() {
+        return simulateI2C;
+    }
+
+    public int getSimulatedI2CLatencyMicros() {
+        return simulatedI2CLatencyMicros;
+    }
+
+    public boolean traceI2C() {
+        return traceI2C;
+    }
+
+    public int getI2CTraceCapacity() {
+        return i2cTraceCapacity;
+    }
+
+    public int getI2CTraceDumpIntervalSeconds() {
+        return i2cTraceDumpIntervalSeconds;
+    }
+
+    public int getTouchInterruptGPIOChip() {
+        return touchInterruptGPIOChip;
+    }
+
+    public int getTouchInterruptGPIOLine() {
+        return touchInterruptGPIOLine;
+    }
+
+    public int getTouchPollPeriodMicros() {
+        return touchPollPeriodMicros;
+    }
+
+    public ConfigurationProfile getTouchConfigurationProfile() {
+        return touchConfigurationProfile;
+    }
+
+    public ConfigurationProfile getTouchIdleConfigurationProfile() {
+        return touchIdleConfigurationProfile;
+    }
+
+    public int getTouchIdleSeconds() {
+        return touchIdleSeconds;
+    }
+
+    public int getTouchPredictionMillis() {
+        return touchPredictionMillis;
+    }
+
+    public boolean touchPredictionBenchmark() {
+        return touchPredictionBenchmark;
+    }
+
+    public boolean nativeLoadSurfaceAcquisition() {
+        return nativeLoadSurfaceAcquisition;
+    }
+
+    public int getLoadSurfaceAcquisitionBenchmarkSeconds() {
+        return loadSurfaceAcquisitionBenchmarkSeconds;
+    }
+
+    public String getForceMapFile() {
+        return forceMapFile;
+    }
+
+    public boolean logViewTiming() {
+        return logViewTiming;
+    }
+
+    public PressOnsetMode getPressOnsetMode() {
+        return pressOnsetMode;
+    }
+
+    /**
+     * Gets the filter chain of all load surface samples of the given ADC.
+     *
+     * @param adcIndex the ADC index
+     *
+     * @return the {@link FilterChain} specification
+     */
+    public String getLoadSurfaceFilter(int adcIndex) {
+        return loadSurfaceFiltersOfADCIndices.getOrDefault(adcIndex, loadSurfaceFilter);
+    }
+
+    public String getLoadSurfaceBaselineFilter() {
+        return loadSurfaceBaselineFilter;
+    }
+
+    public boolean loadSurfaceFilterBenchmark() {
+        return loadSurfaceFilterBenchmark;
+    }
+
+    public int getLoadSurfaceIdleSeconds() {
+        return loadSurfaceIdleSeconds;
+    }
+
+    public PowerMode getLoadSurfaceIdlePowerMode() {
+        return loadSurfaceIdlePowerMode;
+    }
+
+    public int getLoadSurfaceIdleSamplesPerSecond() {
+        return loadSurfaceIdleSamplesPerSecond;
+    }
+
+    public int getLoadSurfaceFarChannelRefreshDivisor() {
+        return loadSurfaceFarChannelRefreshDivisor;
+    }
+
+    public int getLoadSurfaceRecalibrationIntervalSeconds() {
+        return loadSurfaceRecalibrationIntervalSeconds;
+    }
 }
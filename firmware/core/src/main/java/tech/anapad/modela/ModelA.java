@@ -8,8 +8,22 @@ import tech.anapad.modela.hapticsboard.HapticsBoardController;
 import tech.anapad.modela.loadsurface.LoadSurfaceController;
 import tech.anapad.modela.touchscreen.TouchscreenController;
 import tech.anapad.modela.usb.USBController;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.NativeI2CBus;
+import tech.anapad.modela.util.i2c.simulated.SimulatedI2CHardware;
+import tech.anapad.modela.util.i2c.trace.TracingI2CBus;
+import tech.anapad.modela.util.startup.StartupOrchestrator;
 import tech.anapad.modela.view.ViewController;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.lang.management.ManagementFactory.getRuntimeMXBean;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static javafx.application.Platform.exit;
 
 /**
@@ -21,15 +35,21 @@ public class ModelA extends Application {
     private static final Logger LOGGER = LoggerFactory.getLogger(ModelA.class);
     protected static Arguments arguments;
 
+    private final List<TracingI2CBus> tracingI2CBuses = new ArrayList<>();
+
     private boolean stopCalled;
     private ViewController viewController;
     private USBController usbController;
     private TouchscreenController touchscreenController;
     private HapticsBoardController hapticsBoardController;
     private LoadSurfaceController loadSurfaceController;
+    private StartupOrchestrator startupOrchestrator;
+    private SimulatedI2CHardware simulatedI2CHardware;
+    private ScheduledExecutorService i2cTraceDumpScheduler;
 
     /**
-     * Starts {@link ModelA}.
+     * Starts {@link ModelA}. The controllers use independent I2C buses and configfs, so they are started concurrently
+     * with a {@link StartupOrchestrator} and only the {@link ViewController} waits for them.
      */
     @Override
     public void start(Stage stage) {
@@ -43,17 +63,28 @@ public class ModelA extends Application {
             hapticsBoardController = new HapticsBoardController(this);
             loadSurfaceController = new LoadSurfaceController(this);
             viewController = new ViewController(this);
-            usbController.start();
-            touchscreenController.start();
-            hapticsBoardController.start();
-            loadSurfaceController.start();
-            viewController.start(stage);
+
+            startupOrchestrator = new StartupOrchestrator(!arguments.serialStartup());
+            startupOrchestrator.addPhase("USBController", usbController::start, usbController::stop);
+            startupOrchestrator.addPhase("TouchscreenController",
+                    touchscreenController::start, touchscreenController::stop);
+            startupOrchestrator.addPhase("HapticsBoardController",
+                    hapticsBoardController::start, hapticsBoardController::stop);
+            // The LoadSurfaceController only adds a touch listener to the constructed TouchscreenController while
+            // starting, so it doesn't wait for the TouchscreenController to start
+            startupOrchestrator.addPhase("LoadSurfaceController",
+                    loadSurfaceController::start, loadSurfaceController::stop);
+            // The ViewController uses all controllers and must start on the JavaFX application thread
+            startupOrchestrator.addCallingThreadPhase("ViewController",
+                    () -> viewController.start(stage), viewController::stop,
+                    "USBController", "TouchscreenController", "HapticsBoardController", "LoadSurfaceController");
+            startupOrchestrator.start();
         } catch (Exception exception) {
             LOGGER.error("A fatal error occurred while starting!", exception);
             stop();
             return;
         }
-        LOGGER.info("Started.");
+        LOGGER.info("Started {} ms after the JVM started.", getRuntimeMXBean().getUptime());
     }
 
     /**
@@ -67,44 +98,58 @@ public class ModelA extends Application {
         stopCalled = true;
 
         LOGGER.info("Stopping...");
-        // Stop the instances in reverse order
-        if (loadSurfaceController != null) {
-            try {
-                loadSurfaceController.stop();
-            } catch (Exception exception) {
-                LOGGER.error("Error stopping LoadSurfaceController!", exception);
-            }
+        // Stop the startup phases in reverse dependency order
+        if (startupOrchestrator != null) {
+            startupOrchestrator.stop();
         }
-        if (hapticsBoardController != null) {
-            try {
-                hapticsBoardController.stop();
-            } catch (Exception exception) {
-                LOGGER.error("Error stopping HapticsBoardController!", exception);
+        synchronized (this) {
+            if (i2cTraceDumpScheduler != null) {
+                i2cTraceDumpScheduler.shutdown();
             }
         }
-        if (touchscreenController != null) {
-            try {
-                touchscreenController.stop();
-            } catch (Exception exception) {
-                LOGGER.error("Error stopping TouchscreenController!", exception);
+        LOGGER.info("Stopped.");
+        exit();
+    }
+
+    /**
+     * Starts the {@link I2CBus} of the given I2C device index. This is a simulated {@link I2CBus} of
+     * {@link #getSimulatedI2CHardware()} if {@link Arguments#simulateI2C()} is <code>true</code>, otherwise a
+     * {@link NativeI2CBus}. If {@link Arguments#traceI2C()} is <code>true</code>, the {@link I2CBus} is decorated with
+     * a {@link TracingI2CBus}.
+     *
+     * @param i2cDeviceIndex the I2C linux sysfs device index (e.g. for "/dev/i2c-1" pass <code>1</code> here)
+     *
+     * @return the started {@link I2CBus}
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public synchronized I2CBus startI2CBus(int i2cDeviceIndex) throws Exception {
+        final I2CBus i2cBus;
+        if (!arguments.simulateI2C()) {
+            i2cBus = NativeI2CBus.start(i2cDeviceIndex);
+        } else {
+            if (simulatedI2CHardware == null) {
+                LOGGER.info("Using simulated I2C hardware.");
+                simulatedI2CHardware = new SimulatedI2CHardware(
+                        MICROSECONDS.toNanos(arguments.getSimulatedI2CLatencyMicros()));
             }
+            i2cBus = simulatedI2CHardware.startI2CBus(i2cDeviceIndex);
         }
-        if (usbController != null) {
-            try {
-                usbController.stop();
-            } catch (Exception exception) {
-                LOGGER.error("Error stopping USBController!", exception);
-            }
+        if (!arguments.traceI2C()) {
+            return i2cBus;
         }
-        if (viewController != null) {
-            try {
-                viewController.stop();
-            } catch (Exception exception) {
-                LOGGER.error("Error stopping ViewController!", exception);
+
+        LOGGER.info("Tracing I2C-{}.", i2cDeviceIndex);
+        final TracingI2CBus tracingI2CBus = new TracingI2CBus(i2cBus, arguments.getI2CTraceCapacity());
+        tracingI2CBuses.add(tracingI2CBus);
+        if (arguments.getI2CTraceDumpIntervalSeconds() > 0) {
+            if (i2cTraceDumpScheduler == null) {
+                i2cTraceDumpScheduler = newSingleThreadScheduledExecutor(runnable ->
+                        new Thread(runnable, "I2C Trace Dump Scheduler"));
             }
+            i2cTraceDumpScheduler.scheduleAtFixedRate(() -> tracingI2CBus.dump(0),
+                    arguments.getI2CTraceDumpIntervalSeconds(), arguments.getI2CTraceDumpIntervalSeconds(), SECONDS);
         }
-        LOGGER.info("Stopped.");
-        exit();
+        return tracingI2CBus;
     }
 
     public Arguments getArguments() {
@@ -130,4 +175,12 @@ public class ModelA extends Application {
     public LoadSurfaceController getLoadSurfaceController() {
         return loadSurfaceController;
     }
+
+    public synchronized SimulatedI2CHardware getSimulatedI2CHardware() {
+        return simulatedI2CHardware;
+    }
+
+    public synchronized List<TracingI2CBus> getTracingI2CBuses() {
+        return unmodifiableList(new ArrayList<>(tracingI2CBuses));
+    }
 }
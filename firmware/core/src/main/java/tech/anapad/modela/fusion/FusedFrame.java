@@ -0,0 +1,104 @@
+package tech.anapad.modela.fusion;
+
+import tech.anapad.modela.loadsurface.acquisition.ChannelPriority;
+import tech.anapad.modela.loadsurface.forcemap.ForceDecompositionSolver;
+import tech.anapad.modela.loadsurface.sample.SampleResult;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+
+import static tech.anapad.modela.touchscreen.driver.TouchscreenDriver.GT9110_TOUCH_CAPACITY;
+
+/**
+ * {@link FusedFrame} is a {@link TouchFrame} fused with the load surface force at the capture instant of the
+ * {@link TouchFrame} (see {@link TouchForceFusion}). A {@link FusedFrame} is reused by its consumer, so it is only
+ * valid until it is fused again, and it references the fused {@link TouchFrame}, which is only valid as long as its
+ * consumer holds it.
+ */
+public class FusedFrame {
+
+    private final SampleResult sampleResult;
+    private final double[] touchForces;
+
+    private TouchFrame touchFrame;
+    private long timestampNanos;
+    private boolean forceInterpolated;
+
+    /**
+     * Instantiates a new {@link FusedFrame}.
+     *
+     * @param sampleResult the {@link SampleResult} to fuse the load surface force into
+     */
+    FusedFrame(SampleResult sampleResult) {
+        this.sampleResult = sampleResult;
+        touchForces = new double[GT9110_TOUCH_CAPACITY];
+    }
+
+    /**
+     * Gets the force of the touch at the given index of {@link #getTouchFrame()}, which is the
+     * {@link SampleResult#weightedPercentOffset(double, double)} at the touch for a single touch or the
+     * {@link ForceDecompositionSolver} force of the touch for multiple touches.
+     *
+     * @param index the index of the touch
+     *
+     * @return the force as a percent offset
+     */
+    public double getTouchForce(int index) {
+        return touchForces[index];
+    }
+
+    double[] getTouchForces() {
+        return touchForces;
+    }
+
+    /**
+     * Gets the age of the load surface sample of the given channel at {@link #getTimestampNanos()}, which is the time
+     * since the conversion cycle in which the channel was last read (see {@link ChannelPriority}). Channels near the
+     * touches are read every conversion cycle, so their age is at most about a conversion period.
+     *
+     * @param channel the channel
+     *
+     * @return the age in nanoseconds
+     */
+    public long getChannelUpdateAgeNanos(int channel) {
+        return timestampNanos - sampleResult.getSampleFrame().getChannelUpdateTimestampsNanos()[channel];
+    }
+
+    /**
+     * Gets the {@link SampleResult} of the load surface at {@link #getTimestampNanos()}.
+     *
+     * @return the {@link SampleResult}
+     */
+    public SampleResult getSampleResult() {
+        return sampleResult;
+    }
+
+    public TouchFrame getTouchFrame() {
+        return touchFrame;
+    }
+
+    void setTouchFrame(TouchFrame touchFrame) {
+        this.touchFrame = touchFrame;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    void setTimestampNanos(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+    }
+
+    /**
+     * Returns <code>true</code> if the force was interpolated between the conversion cycles around
+     * {@link #getTimestampNanos()}, <code>false</code> if the nearest conversion cycle was held because none had
+     * completed after {@link #getTimestampNanos()} yet (or none was left in the history before it).
+     *
+     * @return a boolean
+     */
+    public boolean isForceInterpolated() {
+        return forceInterpolated;
+    }
+
+    void setForceInterpolated(boolean forceInterpolated) {
+        this.forceInterpolated = forceInterpolated;
+    }
+}
@@ -0,0 +1,125 @@
+package tech.anapad.modela.fusion;
+
+import tech.anapad.modela.loadsurface.LoadSurfaceController;
+import tech.anapad.modela.loadsurface.forcemap.ForceDecompositionSolver;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+import tech.anapad.modela.loadsurface.sample.SampleFramePublisher;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * {@link TouchForceFusion} fuses {@link TouchFrame}s with the load surface force at the capture instant of each
+ * {@link TouchFrame}. The touchscreen and the load surface are sampled by independent threads, so the force is linearly
+ * interpolated between the two conversion cycles around the capture instant, which are looked up in the history of the
+ * {@link SampleFramePublisher}. If no conversion cycle has completed since the capture instant, the latest one is held
+ * instead of waiting for the next one, so fusing never blocks. The force of each of multiple touches is estimated with
+ * a {@link ForceDecompositionSolver}. A {@link TouchForceFusion} is not thread-safe, so each consumer thread should use
+ * its own.
+ */
+public class TouchForceFusion {
+
+    private static final double FORCE_DECOMPOSITION_REGULARIZATION = 0.01;
+
+    private final LoadSurfaceController loadSurfaceController;
+    private final ForceDecompositionSolver forceDecompositionSolver;
+
+    private SampleFrame earlierSampleFrame;
+    private SampleFrame laterSampleFrame;
+
+    /**
+     * Instantiates a new {@link TouchForceFusion}. This must be called after the {@link LoadSurfaceController} has
+     * started.
+     *
+     * @param loadSurfaceController the {@link LoadSurfaceController}
+     */
+    public TouchForceFusion(LoadSurfaceController loadSurfaceController) {
+        this.loadSurfaceController = loadSurfaceController;
+        final SampleFramePublisher sampleFramePublisher = loadSurfaceController.getSampleFramePublisher();
+        forceDecompositionSolver = new ForceDecompositionSolver(sampleFramePublisher.getADCLocations(),
+                sampleFramePublisher.getForceMap(), FORCE_DECOMPOSITION_REGULARIZATION);
+        earlierSampleFrame = new SampleFrame();
+        laterSampleFrame = new SampleFrame();
+    }
+
+    /**
+     * Creates a {@link FusedFrame} for {@link #fuse(TouchFrame, FusedFrame)}.
+     *
+     * @return a new {@link FusedFrame}
+     */
+    public FusedFrame createFusedFrame() {
+        return new FusedFrame(loadSurfaceController.createSampleResult());
+    }
+
+    /**
+     * Fuses the given {@link TouchFrame} with the load surface force at its capture instant without blocking.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     * @param fusedFrame the {@link FusedFrame} from {@link #createFusedFrame()} to fuse into
+     *
+     * @return <code>true</code> if the {@link TouchFrame} was fused, <code>false</code> if no load surface force is
+     * available yet
+     */
+    public boolean fuse(TouchFrame touchFrame, FusedFrame fusedFrame) {
+        final long timestampNanos = touchFrame.getTimestampNanos() != 0 ? touchFrame.getTimestampNanos() : nanoTime();
+        if (!fuseForce(timestampNanos, fusedFrame)) {
+            return false;
+        }
+        fusedFrame.setTouchFrame(touchFrame);
+        fusedFrame.setTimestampNanos(timestampNanos);
+
+        final double[] touchForces = fusedFrame.getTouchForces();
+        if (touchFrame.getCount() >= 2) {
+            // Weighting would give each touch a similar share of the total force, so decompose it instead (only
+            // within the rectangle of the load cells, outside of it the solver falls back to weighting)
+            forceDecompositionSolver.solve(touchFrame,
+                    fusedFrame.getSampleResult().getSampleFrame().getPercentOffsetSamples(), touchForces);
+        } else if (touchFrame.getCount() == 1) {
+            touchForces[0] = fusedFrame.getSampleResult().weightedPercentOffset(touchFrame.getX(0),
+                    touchFrame.getY(0));
+        }
+        return true;
+    }
+
+    /**
+     * Fuses the load surface force at the given instant into the {@link FusedFrame#getSampleResult()}.
+     *
+     * @param timestampNanos the {@link System#nanoTime()} instant
+     * @param fusedFrame     the {@link FusedFrame}
+     *
+     * @return <code>true</code> if the force was fused, <code>false</code> if no force is available yet
+     */
+    private boolean fuseForce(long timestampNanos, FusedFrame fusedFrame) {
+        final SampleFramePublisher sampleFramePublisher = loadSurfaceController.getSampleFramePublisher();
+        final SampleFrame fusedSampleFrame = fusedFrame.getSampleResult().getSampleFrame();
+        if (sampleFramePublisher == null || !sampleFramePublisher.copyLatest(laterSampleFrame)) {
+            return false;
+        }
+
+        // Walk back through the history until the conversion cycle before the instant is found
+        if (laterSampleFrame.getTimestampNanos() > timestampNanos) {
+            final long latestSequence = laterSampleFrame.getSequence();
+            for (long sequence = latestSequence - 1; sequence > latestSequence - SampleFramePublisher.POOL_SIZE;
+                    sequence--) {
+                if (!sampleFramePublisher.copySequence(sequence, earlierSampleFrame)) {
+                    break;
+                }
+                if (earlierSampleFrame.getTimestampNanos() <= timestampNanos) {
+                    final double ratio = (double) (timestampNanos - earlierSampleFrame.getTimestampNanos()) /
+                            (laterSampleFrame.getTimestampNanos() - earlierSampleFrame.getTimestampNanos());
+                    fusedSampleFrame.interpolate(earlierSampleFrame, laterSampleFrame, ratio);
+                    fusedFrame.setForceInterpolated(true);
+                    return true;
+                }
+                final SampleFrame swapSampleFrame = laterSampleFrame;
+                laterSampleFrame = earlierSampleFrame;
+                earlierSampleFrame = swapSampleFrame;
+            }
+        }
+
+        // The instant is after the latest conversion cycle (or before the history), so hold the nearest one
+        fusedSampleFrame.copyFrom(laterSampleFrame);
+        fusedFrame.setForceInterpolated(false);
+        return true;
+    }
+}
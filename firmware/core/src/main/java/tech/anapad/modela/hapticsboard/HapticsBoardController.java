@@ -9,19 +9,24 @@ import tech.anapad.modela.hapticsboard.lra.LRA;
 import tech.anapad.modela.hapticsboard.lra.reference.Column;
 import tech.anapad.modela.hapticsboard.lra.reference.Reference;
 import tech.anapad.modela.hapticsboard.lra.reference.Row;
-import tech.anapad.modela.util.i2c.I2CNative;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.dispatcher.I2CDispatcher;
+import tech.anapad.modela.util.i2c.dispatcher.I2CPriority;
 import tech.anapad.modela.util.location.Location;
 
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static java.util.Collections.unmodifiableMap;
 import static java.util.List.of;
+import static java.util.concurrent.CompletableFuture.allOf;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toUnmodifiableList;
 import static java.util.stream.Collectors.toUnmodifiableMap;
@@ -44,11 +49,16 @@ import static tech.anapad.modela.hapticsboard.lra.reference.Row._2;
 import static tech.anapad.modela.hapticsboard.lra.reference.Row._3;
 import static tech.anapad.modela.hapticsboard.lra.reference.Row._4;
 import static tech.anapad.modela.hapticsboard.lra.reference.Row._5;
+import static tech.anapad.modela.util.i2c.dispatcher.I2CPriority.HAPTIC_START;
+import static tech.anapad.modela.util.i2c.dispatcher.I2CPriority.HAPTIC_STOP;
+import static tech.anapad.modela.util.i2c.dispatcher.I2CPriority.NORMAL;
 import static tech.anapad.modela.util.math.BitUtil.setBit;
 import static tech.anapad.modela.view.ViewController.mmLoc;
 
 /**
- * {@link HapticsBoardController} is a controller for the haptics board.
+ * {@link HapticsBoardController} is a controller for the haptics board. All I2C requests to the haptics board are
+ * made on the dispatcher thread of an {@link I2CDispatcher} so that actuating and stopping {@link LRA}s never blocks
+ * the calling thread (e.g. the JavaFX thread).
  */
 public class HapticsBoardController {
 
@@ -57,7 +67,8 @@ public class HapticsBoardController {
 
     private final ModelA modelA;
 
-    private Integer i2cFD;
+    private I2CBus i2cBus;
+    private I2CDispatcher i2cDispatcher;
     private List<IOPortExpander> ioPortExpanders;
     private Map<Integer, IOPortExpander> ioPortExpandersOfIndexes;
     private List<LRA> lraList;
@@ -83,20 +94,26 @@ public class HapticsBoardController {
         LOGGER.info("Starting HapticsBoardController...");
 
         LOGGER.info("Starting I2C-{}...", I2C_DEVICE_INDEX);
-        i2cFD = I2CNative.start(I2C_DEVICE_INDEX);
+        i2cBus = modelA.startI2CBus(I2C_DEVICE_INDEX);
         LOGGER.info("Started I2C-{}...", I2C_DEVICE_INDEX);
 
+        i2cDispatcher = new I2CDispatcher(i2cBus);
+        i2cDispatcher.start();
+
         LOGGER.info("Configuring IO port expanders (the TCA9534 chips)...");
         ioPortExpanders = of(
-                new IOPortExpander(i2cFD, 1, (short) 0x20),
-                new IOPortExpander(i2cFD, 2, (short) 0x21),
-                new IOPortExpander(i2cFD, 3, (short) 0x22),
-                new IOPortExpander(i2cFD, 4, (short) 0x23),
-                new IOPortExpander(i2cFD, 5, (short) 0x24));
+                new IOPortExpander(i2cBus, 1, (short) 0x20),
+                new IOPortExpander(i2cBus, 2, (short) 0x21),
+                new IOPortExpander(i2cBus, 3, (short) 0x22),
+                new IOPortExpander(i2cBus, 4, (short) 0x23),
+                new IOPortExpander(i2cBus, 5, (short) 0x24));
         ioPortExpandersOfIndexes = ioPortExpanders.stream()
                 .collect(toUnmodifiableMap(IOPortExpander::getIndex, identity()));
         for (IOPortExpander ioPortExpander : ioPortExpanders) {
-            ioPortExpander.configure();
+            i2cDispatcher.submit(NORMAL, i2cBus -> {
+                ioPortExpander.configure();
+                return null;
+            }).get();
             LOGGER.info("Configured IO port expander: {}", ioPortExpander.getIndex());
         }
         LOGGER.info("Configured IO port expanders.");
@@ -150,9 +167,14 @@ public class HapticsBoardController {
         lraReferenceMap = unmodifiableMap(tempLRAReferenceMap);
 
         LOGGER.info("Configuring the haptic motor controller (the DRV2605L)...");
-        hapticMotorController = new HapticMotorController(i2cFD);
-        hapticMotorController.configure();
-        LOGGER.info("Configured the haptic motor controller.");
+        hapticMotorController = new HapticMotorController(i2cBus);
+        i2cDispatcher.submit(NORMAL, i2cBus -> {
+            hapticMotorController.configure();
+            return null;
+        }).get();
+        LOGGER.info("Configured the haptic motor controller (register shadow read hits: {}, read misses: {}).",
+                hapticMotorController.getRegisterShadow().getReadHitCount(),
+                hapticMotorController.getRegisterShadow().getReadMissCount());
 
         LOGGER.info("Creating haptic scheduler...");
         hapticScheduler = newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "Haptic Scheduler"));
@@ -171,28 +193,24 @@ public class HapticsBoardController {
 
         if (hapticScheduler != null) {
             LOGGER.info("Shutting down haptic scheduler...");
-            hapticScheduler.shutdown();
+            // Cancel the delayed impulse tasks so that none of them fires against the stopped I2C dispatcher
+            hapticScheduler.shutdownNow();
+            hapticScheduler.awaitTermination(1, SECONDS);
             LOGGER.info("Shut down haptic scheduler.");
         }
 
-        if (hapticMotorController != null) {
-            LOGGER.info("Stopping haptic motor controller...");
-            hapticMotorController.setRTPMode(false);
-            hapticMotorController.setRTPValue((byte) 0);
-            LOGGER.info("Stopped haptic motor controller.");
-        }
-
-        if (ioPortExpanders != null) {
-            LOGGER.info("Zeroing all IO port expanders...");
-            for (IOPortExpander ioPortExpander : ioPortExpanders) {
-                ioPortExpander.zeroOutput();
+        if (i2cDispatcher != null) {
+            if (hapticMotorController != null) {
+                LOGGER.info("Stopping all LRAs...");
+                stopAllLRAs().get(1, SECONDS);
+                LOGGER.info("Stopped all LRAs.");
             }
-            LOGGER.info("Zeroed all IO port expanders.");
+            i2cDispatcher.stop();
         }
 
-        if (i2cFD != null) {
+        if (i2cBus != null) {
             LOGGER.info("Stopping I2C-{}...", I2C_DEVICE_INDEX);
-            I2CNative.stop(i2cFD);
+            i2cBus.stop();
             LOGGER.info("Stopped I2C-{}...", I2C_DEVICE_INDEX);
         }
 
@@ -210,71 +228,83 @@ public class HapticsBoardController {
      */
     public void scheduleLRAImpulse(Location location, double radius, byte rtpValue,
             long delayMillis, long durationMillis) {
-        hapticScheduler.schedule(() -> {
-            try {
-                setLRAsWithin(location, radius, rtpValue);
-            } catch (Exception exception) {
-                LOGGER.error("Error setting LRAs within location!", exception);
-            }
-        }, delayMillis, MILLISECONDS);
-        hapticScheduler.schedule(() -> {
-            try {
-                stopAllLRAs();
-            } catch (Exception exception) {
-                LOGGER.error("Error stopping all LRAs!", exception);
-            }
-        }, delayMillis + durationMillis, MILLISECONDS);
+        hapticScheduler.schedule(() -> setLRAsWithin(location, radius, rtpValue), delayMillis, MILLISECONDS);
+        hapticScheduler.schedule(this::stopAllLRAs, delayMillis + durationMillis, MILLISECONDS);
     }
 
     /**
-     * Actuate the haptics board {@link LRA}s within the given <code>radius</code> of the given {@link Location}.
+     * Actuate the haptics board {@link LRA}s within the given <code>radius</code> of the given {@link Location}. The
+     * register writes are submitted to the {@link I2CDispatcher} with {@link I2CPriority#HAPTIC_START} and this
+     * method returns without waiting for them.
      *
      * @param location the {@link Location} to calculate the distance from
      * @param radius   the radius that LRAs have to be in to be actuated
      * @param rtpValue the {@link HapticMotorController#getRTPValue()}
      *
      * @return the {@link LRA} {@link List} containing the actuated LRAs
-     * @throws Exception thrown for {@link Exception}s
      */
-    public synchronized List<LRA> setLRAsWithin(Location location, double radius, byte rtpValue) throws Exception {
-        // Zero out IO port expander internal output registers
-        for (IOPortExpander ioPortExpander : ioPortExpanders) {
-            ioPortExpander.setOutputRegister((byte) 0);
-        }
-
+    public List<LRA> setLRAsWithin(Location location, double radius, byte rtpValue) {
         // Get the LRAs within the 'radius'
         final List<LRA> lrasActuated = lraDistancesFrom(location).entrySet().stream()
                 .filter(entry -> entry.getValue() <= radius)
                 .map(Map.Entry::getKey)
-                .peek(lra -> lra.getIOPortExpander().setOutputRegister(
-                        (byte) setBit(lra.getIOPortExpander().getOutputRegister(), 1, lra.getPortIndex())))
                 .collect(toUnmodifiableList());
 
-        // Write IO port expander internal output registers
-        for (IOPortExpander ioPortExpander : ioPortExpanders) {
-            ioPortExpander.writeOutputRegister();
+        // Compute the IO port expander output registers locally so concurrent callers don't share any state
+        final byte[] outputRegisters = new byte[ioPortExpanders.size()];
+        for (LRA lra : lrasActuated) {
+            final int ioPortExpanderIndex = ioPortExpanders.indexOf(lra.getIOPortExpander());
+            outputRegisters[ioPortExpanderIndex] =
+                    (byte) setBit(outputRegisters[ioPortExpanderIndex], 1, lra.getPortIndex());
         }
 
-        // Update haptic motor controller
-        hapticMotorController.setRTPValue(rtpValue);
-        if (!hapticMotorController.isRTPModeEnabled()) {
-            hapticMotorController.setRTPMode(true);
+        // The dispatcher writes the IO port expanders and the haptic motor controller in one transfer
+        final CompletableFuture<?>[] writeFutures = new CompletableFuture<?>[ioPortExpanders.size() + 2];
+        for (int index = 0; index < ioPortExpanders.size(); index++) {
+            writeFutures[index] = ioPortExpanders.get(index)
+                    .dispatchOutputRegister(i2cDispatcher, HAPTIC_START, outputRegisters[index]);
         }
+        writeFutures[ioPortExpanders.size()] =
+                hapticMotorController.dispatchRTPValue(i2cDispatcher, HAPTIC_START, rtpValue);
+        writeFutures[ioPortExpanders.size() + 1] =
+                hapticMotorController.dispatchRTPMode(i2cDispatcher, HAPTIC_START, true);
+        logFailure(allOf(writeFutures), "Error setting LRAs within location!");
 
         return lrasActuated;
     }
 
     /**
-     * Stops all the {@link LRA}s.
+     * Stops all the {@link LRA}s. The register writes are submitted to the {@link I2CDispatcher} with
+     * {@link I2CPriority#HAPTIC_STOP} so they supersede pending writes that actuate {@link LRA}s.
      *
-     * @throws Exception thrown for {@link Exception}s
+     * @return the {@link CompletableFuture} that completes once all the {@link LRA}s are stopped
      */
-    public void stopAllLRAs() throws Exception {
-        hapticMotorController.setRTPMode(false);
-        hapticMotorController.setRTPValue((byte) 0);
-        for (IOPortExpander ioPortExpander : ioPortExpanders) {
-            ioPortExpander.zeroOutput();
+    public CompletableFuture<Void> stopAllLRAs() {
+        final CompletableFuture<?>[] writeFutures = new CompletableFuture<?>[ioPortExpanders.size() + 2];
+        writeFutures[0] = hapticMotorController.dispatchRTPMode(i2cDispatcher, HAPTIC_STOP, false);
+        writeFutures[1] = hapticMotorController.dispatchRTPValue(i2cDispatcher, HAPTIC_STOP, (byte) 0);
+        for (int index = 0; index < ioPortExpanders.size(); index++) {
+            writeFutures[index + 2] = ioPortExpanders.get(index)
+                    .dispatchOutputRegister(i2cDispatcher, HAPTIC_STOP, (byte) 0);
         }
+        return logFailure(allOf(writeFutures), "Error stopping all LRAs!");
+    }
+
+    /**
+     * Logs the failure of the given {@link CompletableFuture} of dispatched I2C requests, if any.
+     *
+     * @param future  the {@link CompletableFuture}
+     * @param message the error message
+     *
+     * @return the given {@link CompletableFuture}
+     */
+    private CompletableFuture<Void> logFailure(CompletableFuture<Void> future, String message) {
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                LOGGER.error(message, throwable);
+            }
+        });
+        return future;
     }
 
     /**
@@ -328,6 +358,10 @@ public class HapticsBoardController {
         return lraReferenceMap;
     }
 
+    public I2CDispatcher getI2CDispatcher() {
+        return i2cDispatcher;
+    }
+
     public HapticMotorController getHapticMotorController() {
         return hapticMotorController;
     }
@@ -1,6 +1,12 @@
 package tech.anapad.modela.hapticsboard.hapticmotorcontroller;
 
-import static tech.anapad.modela.util.i2c.I2CNative.writeRegisterByte;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.RegisterShadow;
+import tech.anapad.modela.util.i2c.dispatcher.I2CDispatcher;
+import tech.anapad.modela.util.i2c.dispatcher.I2CPriority;
+
+import java.util.concurrent.CompletableFuture;
+
 import static tech.anapad.modela.util.i2c.I2CUtil.resetRegisterBit;
 import static tech.anapad.modela.util.i2c.I2CUtil.setRegisterBit;
 
@@ -10,19 +16,26 @@ import static tech.anapad.modela.util.i2c.I2CUtil.setRegisterBit;
 public class HapticMotorController {
 
     private static final short DRV2605L_I2C_ADDRESS = 0x5A;
+    private static final short DRV2605L_REGISTER_STATUS = 0x00;
+    private static final short DRV2605L_REGISTER_MODE = 0x01;
+    private static final short DRV2605L_REGISTER_RTP_INPUT = 0x02;
+    private static final short DRV2605L_REGISTER_GO = 0x0C;
 
-    private final int i2cFD;
+    private final RegisterShadow registerShadow;
 
-    private boolean rtpModeEnabled;
-    private byte rtpValue;
+    private volatile boolean rtpModeEnabled;
+    private volatile byte rtpValue;
 
     /**
      * Instantiates a new {@link HapticMotorController}.
      *
-     * @param i2cFD the low-level I2C device file descriptor
+     * @param i2cBus the {@link I2CBus}
      */
-    public HapticMotorController(int i2cFD) {
-        this.i2cFD = i2cFD;
+    public HapticMotorController(I2CBus i2cBus) {
+        registerShadow = new RegisterShadow(i2cBus, DRV2605L_I2C_ADDRESS, true)
+                .markVolatile(DRV2605L_REGISTER_STATUS, 0xFF)
+                .markVolatile(DRV2605L_REGISTER_MODE, 0b1000_0000) // DEV_RESET
+                .markVolatile(DRV2605L_REGISTER_GO, 0b0000_0001); // GO
         rtpModeEnabled = false;
         rtpValue = 0;
     }
@@ -38,11 +51,11 @@ public class HapticMotorController {
         // Set RTP mode
         setRTPMode(true);
         // Set overdrive voltage-clamp to max value
-        writeRegisterByte(i2cFD, DRV2605L_I2C_ADDRESS, (byte) 0x17, (byte) 0xFF, true);
+        registerShadow.writeRegister((short) 0x17, (byte) 0xFF);
         // Set LRA mode
-        setRegisterBit(i2cFD, DRV2605L_I2C_ADDRESS, (short) 0x1A, true, 7);
+        setRegisterBit(registerShadow, (short) 0x1A, 7);
         // Set open-loop LRA mode
-        resetRegisterBit(i2cFD, DRV2605L_I2C_ADDRESS, (short) 0x1D, true, 0);
+        resetRegisterBit(registerShadow, (short) 0x1D, 0);
         // No need to set DRV2605 resonant frequency as it defaults to 205Hz which is what the resonant frequency
         // of the LRAs on the haptics board are.
     }
@@ -55,12 +68,26 @@ public class HapticMotorController {
      * @throws Exception thrown for {@link Exception}s
      */
     public void setRTPMode(boolean set) throws Exception {
-        if (set) {
-            writeRegisterByte(i2cFD, DRV2605L_I2C_ADDRESS, (byte) 0x01, (byte) 0x05, true);
-        } else {
-            writeRegisterByte(i2cFD, DRV2605L_I2C_ADDRESS, (byte) 0x01, (byte) 0x00, true);
-        }
+        registerShadow.writeRegister(DRV2605L_REGISTER_MODE, rtpModeRegisterOf(set));
+        rtpModeEnabled = set;
+    }
+
+    /**
+     * Submits {@link #setRTPMode(boolean)} to the given {@link I2CDispatcher}. This also sets
+     * {@link #isRTPModeEnabled()} under the assumption that the write will succeed.
+     *
+     * @param i2cDispatcher the {@link I2CDispatcher}
+     * @param priority      the {@link I2CPriority}
+     * @param set           <code>true</code> to set, <code>false</code> otherwise
+     *
+     * @return the {@link CompletableFuture} of the write
+     */
+    public CompletableFuture<Void> dispatchRTPMode(I2CDispatcher i2cDispatcher, I2CPriority priority, boolean set) {
         rtpModeEnabled = set;
+        // The dispatched write bypasses the register shadow
+        registerShadow.invalidate(DRV2605L_REGISTER_MODE);
+        return i2cDispatcher.writeRegisterByte(priority, DRV2605L_I2C_ADDRESS, DRV2605L_REGISTER_MODE,
+                rtpModeRegisterOf(set), true);
     }
 
     /**
@@ -71,8 +98,41 @@ public class HapticMotorController {
      * @throws Exception thrown for {@link Exception}s
      */
     public void setRTPValue(byte value) throws Exception {
-        writeRegisterByte(i2cFD, DRV2605L_I2C_ADDRESS, (byte) 0x02, value, true);
+        registerShadow.writeRegister(DRV2605L_REGISTER_RTP_INPUT, value);
+        rtpValue = value;
+    }
+
+    /**
+     * Submits {@link #setRTPValue(byte)} to the given {@link I2CDispatcher}. This also sets {@link #getRTPValue()}
+     * under the assumption that the write will succeed.
+     *
+     * @param i2cDispatcher the {@link I2CDispatcher}
+     * @param priority      the {@link I2CPriority}
+     * @param value         the RTP value
+     *
+     * @return the {@link CompletableFuture} of the write
+     */
+    public CompletableFuture<Void> dispatchRTPValue(I2CDispatcher i2cDispatcher, I2CPriority priority, byte value) {
         rtpValue = value;
+        // The dispatched write bypasses the register shadow
+        registerShadow.invalidate(DRV2605L_REGISTER_RTP_INPUT);
+        return i2cDispatcher.writeRegisterByte(priority, DRV2605L_I2C_ADDRESS, DRV2605L_REGISTER_RTP_INPUT, value,
+                true);
+    }
+
+    /**
+     * Gets the mode register value for the given RTP mode.
+     *
+     * @param set <code>true</code> for RTP mode, <code>false</code> for internal trigger mode
+     *
+     * @return the mode register byte
+     */
+    private static byte rtpModeRegisterOf(boolean set) {
+        return set ? (byte) 0x05 : (byte) 0x00;
+    }
+
+    public RegisterShadow getRegisterShadow() {
+        return registerShadow;
     }
 
     public boolean isRTPModeEnabled() {
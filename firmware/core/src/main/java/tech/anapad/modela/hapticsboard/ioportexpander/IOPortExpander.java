@@ -1,6 +1,11 @@
 package tech.anapad.modela.hapticsboard.ioportexpander;
 
-import static tech.anapad.modela.util.i2c.I2CNative.writeRegisterByte;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.dispatcher.I2CDispatcher;
+import tech.anapad.modela.util.i2c.dispatcher.I2CPriority;
+
+import java.util.concurrent.CompletableFuture;
+
 import static tech.anapad.modela.util.math.BitUtil.setBit;
 
 /**
@@ -11,20 +16,20 @@ public class IOPortExpander {
     private static final short TCA9534_REGISTER_OUTPUT_PORT = 0x01;
     private static final short TCA9534_REGISTER_CONFIGURATION = 0x03;
 
-    private final int i2cFD;
+    private final I2CBus i2cBus;
     private final int index;
     private final short address;
-    private byte outputRegister;
+    private volatile byte outputRegister;
 
     /**
      * Instantiates a new {@link IOPortExpander}.
      *
-     * @param i2cFD   the low-level I2C device file descriptor
+     * @param i2cBus  the {@link I2CBus}
      * @param index   the chip index
      * @param address the I2C address
      */
-    public IOPortExpander(int i2cFD, int index, short address) {
-        this.i2cFD = i2cFD;
+    public IOPortExpander(I2CBus i2cBus, int index, short address) {
+        this.i2cBus = i2cBus;
         this.index = index;
         this.address = address;
     }
@@ -36,7 +41,7 @@ public class IOPortExpander {
      */
     public void configure() throws Exception {
         zeroOutput();
-        writeRegisterByte(i2cFD, address, TCA9534_REGISTER_CONFIGURATION, (byte) 0x00, true);
+        i2cBus.writeRegisterByte(address, TCA9534_REGISTER_CONFIGURATION, (byte) 0x00, true);
     }
 
     /**
@@ -75,7 +80,23 @@ public class IOPortExpander {
      * @throws Exception thrown for {@link Exception}s
      */
     public void writeOutputRegister() throws Exception {
-        writeRegisterByte(i2cFD, address, TCA9534_REGISTER_OUTPUT_PORT, outputRegister, true);
+        i2cBus.writeRegisterByte(address, TCA9534_REGISTER_OUTPUT_PORT, outputRegister, true);
+    }
+
+    /**
+     * Submits the write of the given output register to {@link #TCA9534_REGISTER_OUTPUT_PORT} to the given
+     * {@link I2CDispatcher} and sets {@link #getOutputRegister()} to it.
+     *
+     * @param i2cDispatcher  the {@link I2CDispatcher}
+     * @param priority       the {@link I2CPriority}
+     * @param outputRegister the output register
+     *
+     * @return the {@link CompletableFuture} of the write
+     */
+    public CompletableFuture<Void> dispatchOutputRegister(I2CDispatcher i2cDispatcher, I2CPriority priority,
+            byte outputRegister) {
+        this.outputRegister = outputRegister;
+        return i2cDispatcher.writeRegisterByte(priority, address, TCA9534_REGISTER_OUTPUT_PORT, outputRegister, true);
     }
 
     public int getIndex() {
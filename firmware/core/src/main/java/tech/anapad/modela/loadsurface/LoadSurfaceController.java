@@ -3,12 +3,28 @@ package tech.anapad.modela.loadsurface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.anapad.modela.ModelA;
+import tech.anapad.modela.loadsurface.acquisition.ChannelPriority;
+import tech.anapad.modela.loadsurface.acquisition.I2CBusSampleAcquisition;
+import tech.anapad.modela.loadsurface.acquisition.NativeSampleAcquisition;
+import tech.anapad.modela.loadsurface.acquisition.SampleAcquisition;
+import tech.anapad.modela.loadsurface.acquisition.SampleAcquisitionBenchmark;
+import tech.anapad.modela.loadsurface.acquisition.SampleFrameRingBuffer;
 import tech.anapad.modela.loadsurface.adc.ADC;
+import tech.anapad.modela.loadsurface.calibration.RecalibrationService;
+import tech.anapad.modela.loadsurface.forcemap.ForceMap;
 import tech.anapad.modela.loadsurface.i2cmultiplexer.Channel;
 import tech.anapad.modela.loadsurface.i2cmultiplexer.I2CMultiplexer;
-import tech.anapad.modela.loadsurface.sample.Sample;
+import tech.anapad.modela.loadsurface.power.PowerMode;
+import tech.anapad.modela.loadsurface.power.PowerModeController;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+import tech.anapad.modela.loadsurface.sample.SampleFramePublisher;
+import tech.anapad.modela.loadsurface.sample.SampleHistory;
 import tech.anapad.modela.loadsurface.sample.SampleResult;
-import tech.anapad.modela.util.i2c.I2CNative;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+import tech.anapad.modela.util.filter.FilterChain;
+import tech.anapad.modela.util.filter.FilterChainBenchmark;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.location.Location;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -18,12 +34,24 @@ import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
+import static java.lang.System.nanoTime;
 import static java.util.Collections.synchronizedList;
 import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+import static tech.anapad.modela.loadsurface.acquisition.SampleFrameRingBuffer.STATE_FAILED;
+import static tech.anapad.modela.loadsurface.adc.ADC.SAMPLES_PER_SECOND;
 import static tech.anapad.modela.loadsurface.i2cmultiplexer.Channel._0;
 import static tech.anapad.modela.loadsurface.i2cmultiplexer.Channel._1;
 import static tech.anapad.modela.loadsurface.i2cmultiplexer.Channel._2;
 import static tech.anapad.modela.loadsurface.i2cmultiplexer.Channel._3;
+import static tech.anapad.modela.loadsurface.power.PowerMode.ACTIVE;
+import static tech.anapad.modela.loadsurface.power.PowerMode.POWER_DOWN;
+import static tech.anapad.modela.view.ViewController.VIEW_HEIGHT;
+import static tech.anapad.modela.view.ViewController.VIEW_WIDTH;
 import static tech.anapad.modela.view.ViewController.mmLoc;
 
 /**
@@ -31,22 +59,42 @@ import static tech.anapad.modela.view.ViewController.mmLoc;
  */
 public class LoadSurfaceController implements Runnable {
 
+    /**
+     * The load surface {@link Location}s of the {@link ADC}s of {@link Channel#_0} to {@link Channel#_3}.
+     */
+    public static final List<Location> ADC_LOCATIONS = List.of(
+            mmLoc(94.752, 20.751), mmLoc(214.548, 20.751), mmLoc(94.752, 62.249), mmLoc(214.548, 62.249));
+
     private static final Logger LOGGER = LoggerFactory.getLogger(LoadSurfaceController.class);
     private static final int I2C_DEVICE_INDEX = 1;
     private static final int MAX_SAMPLE_FAILURES = 100;
+    private static final long SAMPLE_DEADLINE_MARGIN_NANOS = MICROSECONDS.toNanos(100);
+    private static final int SAMPLE_FRAME_CAPACITY = 64;
+    private static final long SAMPLE_FRAME_POLL_PERIOD_NANOS = MICROSECONDS.toNanos(100);
+    private static final double FORCE_MAP_CELL_SIZE = 16;
+    private static final String REFERENCE_FILTER = "smoothing:25";
+    private static final long POWER_DOWN_PARK_NANOS = MILLISECONDS.toNanos(100);
+    private static final long RECALIBRATION_QUIET_NANOS = SECONDS.toNanos(2);
 
     private final ModelA modelA;
     private final List<Consumer<SampleResult>> sampleResultListeners;
     private final List<CompletableFuture<SampleResult>> sampleResultFutures;
     private final List<Runnable> failureListeners;
+    private final SampleHistory sampleHistory;
 
-    private Integer i2cFD;
+    private I2CBus i2cBus;
     private I2CMultiplexer i2CMultiplexer;
     private Map<Channel, ADC> adcsOfChannels;
+    private Channel[] channels;
+    private ADC[] adcs;
+    private volatile SampleAcquisition sampleAcquisition;
+    private SampleFramePublisher sampleFramePublisher;
+    private ChannelPriority channelPriority;
+    private PowerModeController powerModeController;
+    private RecalibrationService recalibrationService;
+    private Consumer<TouchFrame> touchListener;
     private Thread sampleThread;
     private volatile boolean sampleLoop;
-    private int sampleFailures;
-    private SampleResult lastSampleResult;
 
     /**
      * Instantiates a new {@link LoadSurfaceController}.
@@ -58,8 +106,8 @@ public class LoadSurfaceController implements Runnable {
         sampleResultListeners = synchronizedList(new ArrayList<>());
         sampleResultFutures = synchronizedList(new ArrayList<>());
         failureListeners = synchronizedList(new ArrayList<>());
+        sampleHistory = new SampleHistory();
         sampleLoop = false;
-        sampleFailures = 0;
     }
 
     /**
@@ -71,44 +119,100 @@ public class LoadSurfaceController implements Runnable {
         LOGGER.info("Starting LoadSurfaceController...");
 
         LOGGER.info("Starting I2C-{}...", I2C_DEVICE_INDEX);
-        i2cFD = I2CNative.start(I2C_DEVICE_INDEX);
+        i2cBus = modelA.startI2CBus(I2C_DEVICE_INDEX);
         LOGGER.info("Started I2C-{}...", I2C_DEVICE_INDEX);
 
         LOGGER.info("Testing I2C multiplexer...");
-        i2CMultiplexer = new I2CMultiplexer(i2cFD);
+        i2CMultiplexer = new I2CMultiplexer(i2cBus);
         i2CMultiplexer.disable();
         LOGGER.info("Successfully tested I2C multiplexer.");
 
         LOGGER.info("Configuring ADCs...");
         final LinkedHashMap<Channel, ADC> tempADCsOfChannels = new LinkedHashMap<>();
-        tempADCsOfChannels.put(_0, new ADC(i2cFD, 1, mmLoc(94.752, 20.751)));
-        tempADCsOfChannels.put(_1, new ADC(i2cFD, 2, mmLoc(214.548, 20.751)));
-        tempADCsOfChannels.put(_2, new ADC(i2cFD, 3, mmLoc(94.752, 62.249)));
-        tempADCsOfChannels.put(_3, new ADC(i2cFD, 4, mmLoc(214.548, 62.249)));
+        tempADCsOfChannels.put(_0, createADC(1, ADC_LOCATIONS.get(0)));
+        tempADCsOfChannels.put(_1, createADC(2, ADC_LOCATIONS.get(1)));
+        tempADCsOfChannels.put(_2, createADC(3, ADC_LOCATIONS.get(2)));
+        tempADCsOfChannels.put(_3, createADC(4, ADC_LOCATIONS.get(3)));
         adcsOfChannels = unmodifiableMap(tempADCsOfChannels);
+        channels = adcsOfChannels.keySet().toArray(new Channel[0]);
+        adcs = adcsOfChannels.values().toArray(new ADC[0]);
         for (Entry<Channel, ADC> adcOfChannel : adcsOfChannels.entrySet()) {
             final Channel channel = adcOfChannel.getKey();
             final ADC adc = adcOfChannel.getValue();
             i2CMultiplexer.setChannel(channel);
             adc.configure();
             adc.configure(); // TODO calling this twice is a temporary fix to actually force x128 PGA on the ADC chip
-            LOGGER.info("Configured ADC: {}", adc.getIndex());
-        }
-        for (Entry<Channel, ADC> adcOfChannel : adcsOfChannels.entrySet()) {
-            final Channel channel = adcOfChannel.getKey();
-            final ADC adc = adcOfChannel.getValue();
-            i2CMultiplexer.setChannel(channel);
-            adc.synchronizeSampleCycle();
+            LOGGER.info("Configured ADC: {} (register shadow read hits: {}, read misses: {}, skipped writes: {})",
+                    adc.getIndex(), adc.getRegisterShadow().getReadHitCount(),
+                    adc.getRegisterShadow().getReadMissCount(), adc.getRegisterShadow().getWriteSkipCount());
         }
-        LOGGER.info("Synchronized ADC sample cycles.");
         LOGGER.info("Configured ADCs.");
 
+        final int[] adcIndices = new int[adcs.length];
+        final Location[] adcLocations = new Location[adcs.length];
+        for (int index = 0; index < adcs.length; index++) {
+            adcIndices[index] = adcs[index].getIndex();
+            adcLocations[index] = adcs[index].getLoadSurfaceLocation();
+        }
+        final String forceMapFile = modelA.getArguments().getForceMapFile();
+        final ForceMap forceMap;
+        if (forceMapFile != null) {
+            LOGGER.info("Reading force map: {}", forceMapFile);
+            forceMap = ForceMap.read(forceMapFile);
+            if (forceMap.getChannelCount() != adcs.length) {
+                throw new IllegalArgumentException("Force map channel count doesn't match the ADC count!");
+            }
+        } else {
+            forceMap = ForceMap.fromLocations(adcLocations, VIEW_WIDTH, VIEW_HEIGHT, FORCE_MAP_CELL_SIZE);
+        }
+        LOGGER.info("Using {}x{} force map.", forceMap.getColumns(), forceMap.getRows());
+        sampleFramePublisher = new SampleFramePublisher(adcIndices, adcLocations, forceMap);
+        channelPriority = new ChannelPriority(adcLocations,
+                modelA.getArguments().getLoadSurfaceFarChannelRefreshDivisor());
+
+        if (modelA.getArguments().loadSurfaceFilterBenchmark()) {
+            benchmarkFilters();
+        }
+
+        final int benchmarkSeconds = modelA.getArguments().getLoadSurfaceAcquisitionBenchmarkSeconds();
+        if (benchmarkSeconds > 0) {
+            new SampleAcquisitionBenchmark("Java", createSampleAcquisition(false))
+                    .run(SECONDS.toNanos(benchmarkSeconds));
+            if (!modelA.getArguments().simulateI2C()) {
+                new SampleAcquisitionBenchmark("Native", createSampleAcquisition(true))
+                        .run(SECONDS.toNanos(benchmarkSeconds));
+            }
+        }
+
+        powerModeController = new PowerModeController(
+                SECONDS.toNanos(modelA.getArguments().getLoadSurfaceIdleSeconds()),
+                modelA.getArguments().getLoadSurfaceIdlePowerMode());
+        final int recalibrationIntervalSeconds = modelA.getArguments().getLoadSurfaceRecalibrationIntervalSeconds();
+        if (recalibrationIntervalSeconds > 0) {
+            recalibrationService = new RecalibrationService(adcs, SECONDS.toNanos(recalibrationIntervalSeconds),
+                    RECALIBRATION_QUIET_NANOS, nanoTime());
+        }
+
+        LOGGER.info("Starting sample acquisition...");
+        sampleAcquisition = createSampleAcquisition(modelA.getArguments().nativeLoadSurfaceAcquisition());
+        sampleAcquisition.start();
+        LOGGER.info("Started sample acquisition.");
+
         LOGGER.info("Starting sample thread...");
         sampleLoop = true;
         sampleThread = new Thread(this, "LoadSurfaceController Sample Thread");
         sampleThread.start();
         LOGGER.info("Started sample thread.");
 
+        // Touches prioritize the channels near them and wake the sample thread to switch to the active power mode
+        touchListener = touchFrame -> {
+            channelPriority.update(touchFrame);
+            if (powerModeController.recordTouches(touchFrame)) {
+                unpark(sampleThread);
+            }
+        };
+        modelA.getTouchscreenController().getTouchListeners().add(touchListener);
+
         LOGGER.info("Started LoadSurfaceController.");
     }
 
@@ -120,104 +224,268 @@ public class LoadSurfaceController implements Runnable {
     public void stop() throws Exception {
         LOGGER.info("Stopping LoadSurfaceController...");
 
+        if (touchListener != null) {
+            modelA.getTouchscreenController().getTouchListeners().remove(touchListener);
+        }
+
         if (sampleThread != null) {
             LOGGER.info("Stopping sample thread...");
             sampleLoop = false;
+            unpark(sampleThread);
+            // Wait for a power mode switch to end, since it may start a new sample acquisition
             sampleThread.join(1000);
-            LOGGER.info("Stopped sample thread.");
+            if (sampleThread.isAlive()) {
+                LOGGER.warn("Sample thread did not stop in time! (e.g. an ADC calibration is blocked on the I2C bus)");
+            } else {
+                LOGGER.info("Stopped sample thread.");
+            }
         }
 
-        if (i2cFD != null) {
+        if (sampleAcquisition != null) {
+            LOGGER.info("Stopping sample acquisition...");
+            sampleAcquisition.stop();
+            final SampleFrameRingBuffer ringBuffer = sampleAcquisition.getRingBuffer();
+            LOGGER.info("Stopped sample acquisition. (frames: {}, dropped frames: {}, missed cycles: {}, " +
+                            "synchronizations: {}, late drifts: {}, early drifts: {}, errors: {})",
+                    ringBuffer.getWrittenFrameCount(), ringBuffer.getDroppedFrameCount(),
+                    ringBuffer.getMissedCycleCount(), ringBuffer.getSynchronizationCount(),
+                    ringBuffer.getLateDriftCount(), ringBuffer.getEarlyDriftCount(), ringBuffer.getErrorCount());
+        }
+
+        if (i2cBus != null) {
             LOGGER.info("Stopping I2C-{}...", I2C_DEVICE_INDEX);
-            I2CNative.stop(i2cFD);
+            i2cBus.stop();
             LOGGER.info("Stopped I2C-{}...", I2C_DEVICE_INDEX);
         }
 
         LOGGER.info("Stopped LoadSurfaceController.");
     }
 
+    /**
+     * Creates an {@link ADC} with the configured {@link FilterChain}s.
+     *
+     * @param index               the index
+     * @param loadSurfaceLocation the load surface {@link Location}
+     *
+     * @return the {@link ADC}
+     */
+    private ADC createADC(int index, Location loadSurfaceLocation) {
+        final FilterChain baselineSamplesFilter = FilterChain.parse(
+                modelA.getArguments().getLoadSurfaceBaselineFilter(), 1, SAMPLES_PER_SECOND);
+        final FilterChain allSamplesFilter = FilterChain.parse(
+                modelA.getArguments().getLoadSurfaceFilter(index), 1, SAMPLES_PER_SECOND);
+        LOGGER.info("ADC {} filter chain: \"{}\", baseline filter chain: \"{}\"", index, allSamplesFilter,
+                baselineSamplesFilter);
+        return new ADC(i2cBus, index, loadSurfaceLocation, baselineSamplesFilter, allSamplesFilter);
+    }
+
+    /**
+     * Switches the {@link ADC}s to the given {@link PowerMode}. The {@link SampleAcquisition} owns the I2C bus while it
+     * is started, so it is stopped during the switch and a new one is started at the new conversion rate, which
+     * resynchronizes the sample cycles. Switching to {@link PowerMode#ACTIVE} also recalibrates the {@link ADC}s. No
+     * new {@link SampleAcquisition} is started once {@link #stop()} has ended the sample loop.
+     *
+     * @param powerMode the {@link PowerMode}
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private void switchPowerMode(PowerMode powerMode) throws Exception {
+        LOGGER.info("Switching load surface power mode from {} to {}...", powerModeController.getPowerMode(),
+                powerMode);
+        sampleAcquisition.stop();
+        for (int index = 0; index < adcs.length; index++) {
+            final ADC adc = adcs[index];
+            i2CMultiplexer.setChannel(channels[index]);
+            if (powerMode == POWER_DOWN) {
+                adc.powerDown();
+                continue;
+            }
+            if (adc.isPoweredDown()) {
+                adc.powerUp();
+            }
+            if (powerMode == ACTIVE) {
+                adc.setSamplesPerSecond(SAMPLES_PER_SECOND);
+                if (!adc.calibrate()) {
+                    LOGGER.error("Could not calibrate ADC: {}", adc.getIndex());
+                }
+            } else {
+                adc.setSamplesPerSecond(modelA.getArguments().getLoadSurfaceIdleSamplesPerSecond());
+            }
+        }
+        if (powerMode != POWER_DOWN) {
+            if (!sampleLoop) {
+                LOGGER.info("Stopped switching load surface power mode to {}, since the sample loop was stopped.",
+                        powerMode);
+                return;
+            }
+            sampleAcquisition = createSampleAcquisition(modelA.getArguments().nativeLoadSurfaceAcquisition());
+            sampleAcquisition.start();
+        }
+        powerModeController.setPowerMode(powerMode);
+        LOGGER.info("Switched load surface power mode to {}.", powerMode);
+    }
+
+    /**
+     * Benchmarks the configured {@link FilterChain}s against the reference {@link FilterChain} with a
+     * {@link FilterChainBenchmark}.
+     */
+    private void benchmarkFilters() {
+        // The noise and the press step are on the order of NAU7802 counts at x128 gain
+        final FilterChainBenchmark benchmark = new FilterChainBenchmark(SAMPLES_PER_SECOND, 500, 20_000, 20_000);
+        benchmark.run("Reference", FilterChain.parse(REFERENCE_FILTER, 1, SAMPLES_PER_SECOND));
+        for (ADC adc : adcs) {
+            benchmark.run("ADC " + adc.getIndex(), FilterChain.parse(
+                    modelA.getArguments().getLoadSurfaceFilter(adc.getIndex()), 1, SAMPLES_PER_SECOND));
+        }
+    }
+
+    /**
+     * Creates a {@link SampleAcquisition}.
+     *
+     * @param nativeAcquisition <code>true</code> to create a {@link NativeSampleAcquisition} unless I2C is simulated,
+     *                          <code>false</code> to create an {@link I2CBusSampleAcquisition}
+     *
+     * @return the {@link SampleAcquisition}
+     */
+    private SampleAcquisition createSampleAcquisition(boolean nativeAcquisition) {
+        if (nativeAcquisition) {
+            if (!modelA.getArguments().simulateI2C()) {
+                return new NativeSampleAcquisition(I2C_DEVICE_INDEX, adcs[0].getConversionPeriodNanos(),
+                        SAMPLE_DEADLINE_MARGIN_NANOS, SAMPLE_FRAME_CAPACITY, MAX_SAMPLE_FAILURES);
+            }
+            LOGGER.info("Native sample acquisition is unavailable on simulated I2C, so using Java sample acquisition.");
+        }
+        return new I2CBusSampleAcquisition(i2cBus, i2CMultiplexer, channels, adcs, channelPriority,
+                SAMPLE_DEADLINE_MARGIN_NANOS, SAMPLE_FRAME_CAPACITY, MAX_SAMPLE_FAILURES);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
-     * This run loop is used for reading load surface samples and passing it to listeners.
+     * This run loop is used for consuming the {@link SampleFrame}s of the {@link SampleAcquisition}, filtering them
+     * into pooled {@link SampleFrame}s of the {@link SampleFramePublisher}, and passing them to listeners. This loop
+     * doesn't allocate, unless there are {@link SampleResult} futures to complete. This loop also switches the
+     * {@link PowerMode} of the {@link ADC}s as requested by the {@link PowerModeController} and drives the
+     * {@link RecalibrationService}.
      */
     @Override
     public void run() {
+        SampleFrameRingBuffer ringBuffer = sampleAcquisition.getRingBuffer();
+        final SampleFrame acquiredSampleFrame = new SampleFrame();
+        long nextSampleFrameNanos = 0;
         while (sampleLoop) {
-            // TODO implement a way to add a delay for power saving and such
-
-            // Sample ADCs
-            final List<Sample> samples = new ArrayList<>();
-            for (Entry<Channel, ADC> adcOfChannel : adcsOfChannels.entrySet()) {
+            // Switch the power mode if requested
+            final PowerMode requestedPowerMode = powerModeController.getRequestedPowerMode(nanoTime());
+            if (requestedPowerMode != powerModeController.getPowerMode()) {
                 try {
-                    // Select ADC channel
-                    i2CMultiplexer.setChannel(adcOfChannel.getKey());
-
-                    // Acquire sample
-                    final ADC adc = adcOfChannel.getValue();
-                    final Sample.Builder sampleBuilder = new Sample.Builder();
-                    sampleBuilder.index(adc.getIndex());
-                    sampleBuilder.location(adc.getLoadSurfaceLocation());
-                    final double percentOffsetSample =
-                            adc.samplePercentOffset(!modelA.getTouchscreenController().didLatestSampleHaveTouches());
-                    sampleBuilder.rawSample(adc.getLastSample());
-                    sampleBuilder.filteredSample(adc.getLastAllSamplesFilterValue());
-                    sampleBuilder.filteredBaselineSample(adc.getLastBaselineSamplesFilterValue());
-                    sampleBuilder.percentOffsetSample(percentOffsetSample);
-                    samples.add(sampleBuilder.build());
+                    switchPowerMode(requestedPowerMode);
                 } catch (Exception exception) {
-                    if (++sampleFailures > MAX_SAMPLE_FAILURES) {
-                        LOGGER.error("Sample failures exceeded {}!", MAX_SAMPLE_FAILURES, exception);
-                        LOGGER.info("Stopping sample loop and calling failure listeners...");
-                        synchronized (failureListeners) {
-                            failureListeners.forEach(Runnable::run);
-                        }
-                        LOGGER.info("Called failure listeners.");
-                        return;
-                    } else {
-                        continue;
-                    }
+                    LOGGER.error("Could not switch load surface power mode to {}!", requestedPowerMode, exception);
+                    callFailureListeners();
+                    return;
                 }
-                sampleFailures = 0;
+                ringBuffer = sampleAcquisition.getRingBuffer();
+                nextSampleFrameNanos = 0;
+                continue;
+            }
+            if (requestedPowerMode == POWER_DOWN) {
+                parkNanos(POWER_DOWN_PARK_NANOS); // Touches unpark this thread
+                continue;
+            }
+
+            if (!ringBuffer.poll(acquiredSampleFrame)) {
+                if (ringBuffer.getState() == STATE_FAILED) {
+                    LOGGER.error("Sample acquisition failed! (errors: {}, last errno: {})", ringBuffer.getErrorCount(),
+                            ringBuffer.getLastErrorNumber());
+                    callFailureListeners();
+                    return;
+                }
+                // Park until the next frame is expected to be read, then poll until it is
+                final long remainingNanos = nextSampleFrameNanos - nanoTime();
+                parkNanos(remainingNanos > 0 ? remainingNanos : SAMPLE_FRAME_POLL_PERIOD_NANOS);
+                continue;
+            }
+            nextSampleFrameNanos = acquiredSampleFrame.getReadTimestampNanos() +
+                    sampleAcquisition.getConversionPeriodNanos();
+
+            // Recalibrate before filtering, so that the filters of a recalibrated ADC are reset before its new samples
+            final boolean applyToBaseline = !modelA.getTouchscreenController().didLatestSampleHaveTouches();
+            if (recalibrationService != null) {
+                recalibrationService.update(sampleAcquisition, nanoTime(), !applyToBaseline);
             }
 
-            // Build result
-            final SampleResult sampleResult = new SampleResult.Builder()
-                    .percentOffsetSampleAverage(samples.stream()
-                            .mapToDouble(Sample::getPercentOffsetSample)
-                            .average()
-                            .orElseThrow())
-                    .samples(samples)
-                    .build();
-            lastSampleResult = sampleResult;
+            // Filter samples into a pooled frame
+            final SampleFrame sampleFrame = sampleFramePublisher.claim();
+            sampleFrame.setTimestampNanos(acquiredSampleFrame.getTimestampNanos());
+            sampleFrame.setReadTimestampNanos(acquiredSampleFrame.getReadTimestampNanos());
+            final int[] acquiredRawSamples = acquiredSampleFrame.getRawSamples();
+            final long[] channelUpdateTimestampsNanos = acquiredSampleFrame.getChannelUpdateTimestampsNanos();
+            double percentOffsetSampleSum = 0;
+            for (int index = 0; index < adcs.length; index++) {
+                final ADC adc = adcs[index];
+                // A channel that wasn't read in this cycle holds its filtered values instead of refiltering them
+                final double percentOffsetSample =
+                        channelUpdateTimestampsNanos[index] == acquiredSampleFrame.getTimestampNanos() ?
+                                adc.filterSample(acquiredRawSamples[index], channelUpdateTimestampsNanos[index],
+                                        applyToBaseline) :
+                                adc.getLastPercentOffset();
+                sampleFrame.getChannelUpdateTimestampsNanos()[index] = channelUpdateTimestampsNanos[index];
+                sampleFrame.getRawSamples()[index] = adc.getLastSample();
+                sampleFrame.getFilteredSamples()[index] = adc.getLastAllSamplesFilterValue();
+                sampleFrame.getFilteredBaselineSamples()[index] = adc.getLastBaselineSamplesFilterValue();
+                sampleFrame.getPercentOffsetSamples()[index] = percentOffsetSample;
+                percentOffsetSampleSum += percentOffsetSample;
+            }
+            sampleFrame.setPercentOffsetSampleAverage(percentOffsetSampleSum / adcs.length);
+            final SampleResult sampleResult = sampleFramePublisher.publish();
+            sampleHistory.record(sampleFrame, !applyToBaseline);
+            if (requestedPowerMode == ACTIVE) {
+                powerModeController.recordActiveFrame(nanoTime());
+            }
 
             // Call sample listeners
             synchronized (sampleResultListeners) {
-                for (Consumer<SampleResult> sampleResultListener : sampleResultListeners) {
+                for (int index = 0; index < sampleResultListeners.size(); index++) {
                     try {
-                        sampleResultListener.accept(sampleResult);
+                        sampleResultListeners.get(index).accept(sampleResult);
                     } catch (Exception exception) {
                         LOGGER.error("Error calling sample result listener!", exception);
                     }
                 }
             }
 
-            // Call futures
+            // Call futures with a copy, since they may be used after the pooled frame is reused
             synchronized (sampleResultFutures) {
-                for (CompletableFuture<SampleResult> sampleResultFuture : sampleResultFutures) {
-                    try {
-                        sampleResultFuture.complete(sampleResult);
-                    } catch (Exception exception) {
-                        LOGGER.error("Error calling sample result future!", exception);
+                if (!sampleResultFutures.isEmpty()) {
+                    final SampleResult sampleResultCopy = sampleResult.copy();
+                    for (int index = 0; index < sampleResultFutures.size(); index++) {
+                        try {
+                            sampleResultFutures.get(index).complete(sampleResultCopy);
+                        } catch (Exception exception) {
+                            LOGGER.error("Error calling sample result future!", exception);
+                        }
                     }
+                    sampleResultFutures.clear();
                 }
-                sampleResultFutures.clear();
             }
         }
     }
 
+    /**
+     * Calls the failure listeners after the sample loop has stopped.
+     */
+    private void callFailureListeners() {
+        LOGGER.info("Stopping sample loop and calling failure listeners...");
+        synchronized (failureListeners) {
+            failureListeners.forEach(Runnable::run);
+        }
+        LOGGER.info("Called failure listeners.");
+    }
+
     /**
      * Gets a new {@link CompletableFuture} which is completed when the next percent offset sample cycle is complete.
+     * This should not be waited on by latency-sensitive threads (e.g. the JavaFX application thread), which should use
+     * {@link #copyLatestSampleResult(SampleResult)} instead.
      *
      * @return a {@link SampleResult} {@link CompletableFuture}
      */
@@ -227,6 +495,66 @@ public class LoadSurfaceController implements Runnable {
         return future;
     }
 
+    /**
+     * Creates a {@link SampleResult} that can be passed to {@link #copyLatestSampleResult(SampleResult)} and
+     * {@link #awaitSampleResultNewerThan(long, SampleResult, long)}. This must be called after {@link #start()}.
+     *
+     * @return a new {@link SampleResult}
+     */
+    public SampleResult createSampleResult() {
+        return sampleFramePublisher.createSampleResult();
+    }
+
+    /**
+     * Copies the latest {@link SampleResult} into the given {@link SampleResult} without blocking.
+     *
+     * @param destination the {@link SampleResult} from {@link #createSampleResult()}
+     *
+     * @return <code>true</code> if a {@link SampleResult} was copied, <code>false</code> if none is available yet
+     */
+    public boolean copyLatestSampleResult(SampleResult destination) {
+        return sampleFramePublisher != null && sampleFramePublisher.copyLatest(destination.getSampleFrame());
+    }
+
+    /**
+     * Waits for a {@link SampleResult} newer than the given sequence number for at most the given timeout, then copies
+     * the latest {@link SampleResult} into the given {@link SampleResult}.
+     *
+     * @param sequence     the sequence number, e.g. {@link SampleResult#getSequence()} of the last copied
+     *                     {@link SampleResult} or <code>-1</code> for any {@link SampleResult}
+     * @param destination  the {@link SampleResult} from {@link #createSampleResult()}
+     * @param timeoutNanos the maximum time to wait in nanoseconds
+     *
+     * @return <code>true</code> if a newer {@link SampleResult} was copied, <code>false</code> otherwise
+     */
+    public boolean awaitSampleResultNewerThan(long sequence, SampleResult destination, long timeoutNanos) {
+        return sampleFramePublisher != null &&
+                sampleFramePublisher.awaitNewerThan(sequence, destination.getSampleFrame(), timeoutNanos);
+    }
+
+    public PowerModeController getPowerModeController() {
+        return powerModeController;
+    }
+
+    public RecalibrationService getRecalibrationService() {
+        return recalibrationService;
+    }
+
+    /**
+     * Gets the {@link SampleHistory}, which is recorded before the {@link SampleResult} listeners are called.
+     *
+     * @return the {@link SampleHistory}
+     */
+    public SampleHistory getSampleHistory() {
+        return sampleHistory;
+    }
+
+    /**
+     * Gets the {@link SampleResult} listeners. The {@link SampleResult} passed to a listener is a view of a pooled
+     * {@link SampleFrame}, so it is only valid during the call. Use {@link SampleResult#copy()} to keep it.
+     *
+     * @return the {@link SampleResult} listeners
+     */
     public List<Consumer<SampleResult>> getSampleResultListeners() {
         return sampleResultListeners;
     }
@@ -244,6 +572,10 @@ public class LoadSurfaceController implements Runnable {
     }
 
     public SampleResult getLastSampleResult() {
-        return lastSampleResult;
+        return sampleFramePublisher == null ? null : sampleFramePublisher.getLatestSampleResult();
+    }
+
+    public SampleFramePublisher getSampleFramePublisher() {
+        return sampleFramePublisher;
     }
 }
@@ -0,0 +1,149 @@
+package tech.anapad.modela.loadsurface.acquisition;
+
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+import tech.anapad.modela.util.location.Location;
+
+/**
+ * {@link ChannelPriority} decides which load surface channels a {@link SampleAcquisition} reads in each conversion
+ * cycle and in which order, based on the current touch locations. Every ADC completes one conversion per conversion
+ * cycle, so reading a channel more often than that doesn't yield new conversions. Instead, the channels are read in
+ * order of their distance to the nearest touch, so the channels that matter most for the force at the touches are read
+ * first after the conversions complete, and the channel nearest to each touch (a near channel) is read every
+ * conversion cycle while the other (far) channels are only read every <code>farChannelRefreshDivisor</code> conversion
+ * cycles. This shortens the I2C reads of most conversion cycles, so the {@link SampleFrame}s are published earlier.
+ * Without touches, all channels are near channels.
+ * <p>
+ * The priority is encoded in a single <code>int</code> schedule, so the touchscreen thread can update it and the
+ * acquisition thread can read it without locks or allocation.
+ */
+public class ChannelPriority {
+
+    private static final int SLOT_BITS = 2;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int NEAR_CHANNELS_SHIFT = SampleFrame.CHANNEL_COUNT * SLOT_BITS;
+    private static final int ALL_CHANNELS = (1 << SampleFrame.CHANNEL_COUNT) - 1;
+    private static final int DEFAULT_SCHEDULE = encodeDefaultSchedule();
+
+    private final Location[] adcLocations;
+    private final int farChannelRefreshDivisor;
+    private final double[] channelDistances;
+    private final int[] channelOrder;
+
+    private volatile int schedule;
+
+    /**
+     * Instantiates a new {@link ChannelPriority}.
+     *
+     * @param adcLocations             the {@link Location} of the ADC of each channel
+     * @param farChannelRefreshDivisor the number of conversion cycles per read of a far channel (<code>1</code> to
+     *                                 read all channels every conversion cycle)
+     */
+    public ChannelPriority(Location[] adcLocations, int farChannelRefreshDivisor) {
+        if (adcLocations.length != SampleFrame.CHANNEL_COUNT) {
+            throw new IllegalArgumentException("Channel priority requires " + SampleFrame.CHANNEL_COUNT + " ADCs!");
+        }
+        if (farChannelRefreshDivisor < 1) {
+            throw new IllegalArgumentException("Far channel refresh divisor must be at least 1!");
+        }
+        this.adcLocations = adcLocations;
+        this.farChannelRefreshDivisor = farChannelRefreshDivisor;
+        channelDistances = new double[SampleFrame.CHANNEL_COUNT];
+        channelOrder = new int[SampleFrame.CHANNEL_COUNT];
+        schedule = DEFAULT_SCHEDULE;
+    }
+
+    private static int encodeDefaultSchedule() {
+        int schedule = ALL_CHANNELS << NEAR_CHANNELS_SHIFT;
+        for (int slot = 0; slot < SampleFrame.CHANNEL_COUNT; slot++) {
+            schedule |= slot << (slot * SLOT_BITS);
+        }
+        return schedule;
+    }
+
+    /**
+     * Updates the schedule for the touches of the given {@link TouchFrame}. Only one thread (e.g. the touchscreen
+     * thread) may call this.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     */
+    public void update(TouchFrame touchFrame) {
+        if (touchFrame.isEmpty()) {
+            schedule = DEFAULT_SCHEDULE;
+            return;
+        }
+
+        int nearChannels = 0;
+        for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+            channelDistances[channel] = Double.MAX_VALUE;
+        }
+        for (int touchIndex = 0; touchIndex < touchFrame.getCount(); touchIndex++) {
+            int nearestChannel = 0;
+            double nearestDistanceSquared = Double.MAX_VALUE;
+            for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+                final double deltaX = touchFrame.getX(touchIndex) - adcLocations[channel].getX();
+                final double deltaY = touchFrame.getY(touchIndex) - adcLocations[channel].getY();
+                final double distanceSquared = deltaX * deltaX + deltaY * deltaY;
+                if (distanceSquared < channelDistances[channel]) {
+                    channelDistances[channel] = distanceSquared;
+                }
+                if (distanceSquared < nearestDistanceSquared) {
+                    nearestDistanceSquared = distanceSquared;
+                    nearestChannel = channel;
+                }
+            }
+            nearChannels |= 1 << nearestChannel;
+        }
+
+        // Insertion sort the channels by their distance to the nearest touch
+        for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+            int slot = channel;
+            while (slot > 0 && channelDistances[channelOrder[slot - 1]] > channelDistances[channel]) {
+                channelOrder[slot] = channelOrder[slot - 1];
+                slot--;
+            }
+            channelOrder[slot] = channel;
+        }
+
+        int newSchedule = nearChannels << NEAR_CHANNELS_SHIFT;
+        for (int slot = 0; slot < SampleFrame.CHANNEL_COUNT; slot++) {
+            newSchedule |= channelOrder[slot] << (slot * SLOT_BITS);
+        }
+        schedule = newSchedule;
+    }
+
+    /**
+     * Gets the channel of the given read slot of the given schedule.
+     *
+     * @param schedule the schedule from {@link #getSchedule()}
+     * @param slot     the read slot (<code>0</code> is read first)
+     *
+     * @return the channel
+     */
+    public static int channelOfSlot(int schedule, int slot) {
+        return (schedule >>> (slot * SLOT_BITS)) & SLOT_MASK;
+    }
+
+    /**
+     * Returns <code>true</code> if the given channel is due to be read in the current conversion cycle.
+     *
+     * @param schedule                 the schedule from {@link #getSchedule()}
+     * @param channel                  the channel
+     * @param cyclesSinceLastRead      the number of conversion cycles since the channel was last read
+     * @param farChannelRefreshDivisor see {@link #getFarChannelRefreshDivisor()}
+     *
+     * @return a boolean
+     */
+    public static boolean isDue(int schedule, int channel, long cyclesSinceLastRead, int farChannelRefreshDivisor) {
+        return (schedule & (1 << (NEAR_CHANNELS_SHIFT + channel))) != 0 ||
+                cyclesSinceLastRead >= farChannelRefreshDivisor;
+    }
+
+    public int getSchedule() {
+        return schedule;
+    }
+
+    public int getFarChannelRefreshDivisor() {
+        return farChannelRefreshDivisor;
+    }
+}
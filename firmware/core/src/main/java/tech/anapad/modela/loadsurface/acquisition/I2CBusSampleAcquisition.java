@@ -0,0 +1,404 @@
+package tech.anapad.modela.loadsurface.acquisition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.loadsurface.adc.ADC;
+import tech.anapad.modela.loadsurface.adc.ADCSampleScheduler;
+import tech.anapad.modela.loadsurface.calibration.CalibrationRecord;
+import tech.anapad.modela.loadsurface.i2cmultiplexer.Channel;
+import tech.anapad.modela.loadsurface.i2cmultiplexer.I2CMultiplexer;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.I2CException;
+import tech.anapad.modela.util.i2c.I2CTransaction;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static tech.anapad.modela.loadsurface.acquisition.SampleFrameRingBuffer.STATE_FAILED;
+import static tech.anapad.modela.loadsurface.acquisition.SampleFrameRingBuffer.STATE_STOPPED;
+
+/**
+ * {@link I2CBusSampleAcquisition} is a {@link SampleAcquisition} that runs in a Java thread on an {@link I2CBus}. It
+ * parks until the deadline of each conversion cycle via an {@link ADCSampleScheduler} and then reads the conversions of
+ * the due {@link ADC}s back-to-back in the order of their {@link ChannelPriority}. This works on any {@link I2CBus}
+ * (e.g. a simulated one). A requested background calibration (see {@link #requestCalibration(int)}) is started after
+ * the reads of a cycle and its CALS bit is polled once per cycle, so the other {@link ADC}s keep being read while the
+ * calibrating {@link ADC} holds its last sample. An {@link ADC} whose conversion isn't ready by the deadline has
+ * drifted late, and the conversion ready bits of the {@link ADC}s are periodically read in the middle of a cycle to
+ * detect an {@link ADC} that has drifted early (see {@link ADCSampleScheduler#awaitPhaseCheck(long)}). Drift in
+ * either direction resynchronizes the sample cycles.
+ */
+public class I2CBusSampleAcquisition implements SampleAcquisition, Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(I2CBusSampleAcquisition.class);
+    private static final int SAMPLE_TRANSACTION_BUFFER_CAPACITY = 16;
+    private static final long CALIBRATION_TIMEOUT_NANOS = SECONDS.toNanos(1);
+    private static final int PHASE_CHECK_INTERVAL_CYCLES = 16;
+
+    private final I2CBus i2cBus;
+    private final I2CMultiplexer i2cMultiplexer;
+    private final Channel[] channels;
+    private final ADC[] adcs;
+    private final ChannelPriority channelPriority;
+    private final ADCSampleScheduler sampleScheduler;
+    private final int maxConsecutiveErrors;
+    private final SampleFrameRingBuffer ringBuffer;
+    private final I2CTransaction sampleTransaction;
+    private final int[] samples;
+    private final int[] readOrder;
+    private final int[] checkOrder;
+    private final long[] lastReadCycles;
+    private final long[] phaseOffsetsNanos;
+    private final long[] lastReadNanos;
+
+    private long cycle;
+    private long nextPhaseCheckCycle;
+    private int selectedIndex;
+    private int calibratingIndex;
+    private long calibrationStartNanos;
+    private volatile int calibrationRequestIndex;
+    private volatile CalibrationRecord calibrationRecord;
+    private Thread acquisitionThread;
+    private volatile boolean acquisitionLoop;
+
+    /**
+     * Instantiates a new {@link I2CBusSampleAcquisition}.
+     *
+     * @param i2cBus               the load surface {@link I2CBus}
+     * @param i2cMultiplexer       the {@link I2CMultiplexer}
+     * @param channels             the {@link Channel}s of the {@link ADC}s
+     * @param adcs                 the {@link ADC}s, in the order of their {@link SampleFrame} samples
+     * @param channelPriority      the {@link ChannelPriority} of the {@link ADC}s
+     * @param deadlineMarginNanos  the margin in nanoseconds added to the nominal end of each conversion cycle
+     * @param frameCapacity        the frame capacity of the {@link SampleFrameRingBuffer} (a power of two)
+     * @param maxConsecutiveErrors the number of consecutive I2C errors after which the acquisition fails
+     */
+    public I2CBusSampleAcquisition(I2CBus i2cBus, I2CMultiplexer i2cMultiplexer, Channel[] channels, ADC[] adcs,
+            ChannelPriority channelPriority, long deadlineMarginNanos, int frameCapacity, int maxConsecutiveErrors) {
+        this.i2cBus = i2cBus;
+        this.i2cMultiplexer = i2cMultiplexer;
+        this.channels = channels;
+        this.adcs = adcs;
+        this.channelPriority = channelPriority;
+        this.maxConsecutiveErrors = maxConsecutiveErrors;
+        sampleScheduler = new ADCSampleScheduler(adcs[0].getConversionPeriodNanos(), deadlineMarginNanos);
+        ringBuffer = new SampleFrameRingBuffer(frameCapacity);
+        sampleTransaction = new I2CTransaction(SAMPLE_TRANSACTION_BUFFER_CAPACITY);
+        samples = new int[SampleFrame.CHANNEL_COUNT];
+        readOrder = new int[SampleFrame.CHANNEL_COUNT];
+        checkOrder = new int[SampleFrame.CHANNEL_COUNT];
+        lastReadCycles = new long[SampleFrame.CHANNEL_COUNT];
+        phaseOffsetsNanos = new long[SampleFrame.CHANNEL_COUNT];
+        lastReadNanos = new long[SampleFrame.CHANNEL_COUNT];
+        calibratingIndex = -1;
+        calibrationRequestIndex = -1;
+    }
+
+    @Override
+    public void start() {
+        acquisitionLoop = true;
+        acquisitionThread = new Thread(this, "LoadSurface Sample Acquisition Thread");
+        acquisitionThread.start();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (acquisitionThread != null) {
+            acquisitionLoop = false;
+            acquisitionThread.join(1000);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This run loop is used for reading the {@link ADC} conversions of each conversion cycle and publishing them as
+     * {@link SampleFrame}s.
+     */
+    @Override
+    public void run() {
+        boolean cyclesSynchronized = false;
+        int consecutiveErrors = 0;
+        while (acquisitionLoop) {
+            try {
+                if (!cyclesSynchronized) {
+                    synchronizeSampleCycles();
+                    cyclesSynchronized = true;
+                }
+
+                // An ADC that has drifted early is still ready by the deadline, so periodically check for it mid-cycle
+                if (cycle >= nextPhaseCheckCycle) {
+                    nextPhaseCheckCycle = cycle + PHASE_CHECK_INTERVAL_CYCLES;
+                    if (checkEarlyDrift()) {
+                        cyclesSynchronized = false;
+                        continue;
+                    }
+                }
+
+                // Wait for the conversions of the next sample cycle, then sample the due ADCs back-to-back
+                final long missedCycleCount = sampleScheduler.getMissedCycleCount();
+                final long cycleNanos = sampleScheduler.awaitNextCycle();
+                if (sampleScheduler.getMissedCycleCount() != missedCycleCount) {
+                    ringBuffer.addMissedCycles(sampleScheduler.getMissedCycleCount() - missedCycleCount);
+                }
+                cycle += 1 + sampleScheduler.getMissedCycleCount() - missedCycleCount;
+                final int readCount = scheduleReads();
+                if (selectedIndex != readOrder[0]) {
+                    i2cMultiplexer.setChannel(channels[readOrder[0]]);
+                    selectedIndex = readOrder[0];
+                }
+                final long halfPeriodNanos = sampleScheduler.getConversionPeriodNanos() / 2;
+                boolean driftedLate = false;
+                int updatedChannels = 0;
+                for (int slot = 0; slot < readCount; slot++) {
+                    final int index = readOrder[slot];
+                    // The last read selects the first channel of this cycle, which is likely first next cycle too
+                    if (sampleADC(index, readOrder[(slot + 1) % readCount])) {
+                        updatedChannels |= 1 << index;
+                    } else if (lastReadNanos[index] < cycleNanos - phaseOffsetsNanos[index] - halfPeriodNanos) {
+                        driftedLate = true;
+                    }
+                    // Otherwise the last read was delayed (e.g. by preemption) until the conversion of this cycle may
+                    // have completed, as it may be up to half a period early, so it may have already been read
+                }
+                selectedIndex = readOrder[0];
+                consecutiveErrors = 0;
+                if (driftedLate) {
+                    // A conversion wasn't ready by the cycle deadline, so an ADC has drifted late
+                    LOGGER.debug("An ADC drifted late, so resynchronizing sample cycles.");
+                    ringBuffer.recordLateDrift();
+                    cyclesSynchronized = false;
+                    continue;
+                }
+                for (int index = 0; index < adcs.length; index++) {
+                    if ((updatedChannels & (1 << index)) != 0) {
+                        lastReadCycles[index] = cycle;
+                    }
+                }
+                ringBuffer.offer(cycleNanos, nanoTime(), samples, updatedChannels);
+                if (calibratingIndex >= 0 || calibrationRequestIndex >= 0) {
+                    cyclesSynchronized = !advanceCalibration();
+                }
+            } catch (Exception exception) {
+                // The channel selection is unknown, so resynchronize, which also reselects the first channel
+                cyclesSynchronized = false;
+                ringBuffer.recordError(exception instanceof I2CException ?
+                        ((I2CException) exception).getErrorNumber() : 0);
+                if (++consecutiveErrors > maxConsecutiveErrors) {
+                    LOGGER.error("Sample acquisition errors exceeded {}!", maxConsecutiveErrors, exception);
+                    ringBuffer.setState(STATE_FAILED);
+                    return;
+                }
+            }
+        }
+        ringBuffer.setState(STATE_STOPPED);
+    }
+
+    /**
+     * Synchronizes the sample cycles of all {@link ADC}s and {@link #sampleScheduler} to them, then selects the
+     * {@link Channel} of the first {@link ADC}. The sample cycles are stopped first and then started back-to-back with
+     * one I2C transfer per {@link ADC}, which also selects the next {@link Channel}, so that the {@link ADC}s are
+     * closely in phase.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private void synchronizeSampleCycles() throws Exception {
+        for (int index = 0; index < adcs.length; index++) {
+            i2cMultiplexer.setChannel(channels[index]);
+            adcs[index].stopSampleCycle();
+        }
+        i2cMultiplexer.setChannel(channels[0]);
+        for (int index = 0; index < adcs.length; index++) {
+            sampleTransaction.reset();
+            adcs[index].queueStartSampleCycle(sampleTransaction);
+            i2cMultiplexer.queueChannel(sampleTransaction, channels[(index + 1) % adcs.length]);
+            sampleTransaction.submit(i2cBus);
+            phaseOffsetsNanos[index] = nanoTime();
+        }
+        // The last ADC started its cycle last, so its conversions complete last
+        final long cycleStartNanos = phaseOffsetsNanos[adcs.length - 1];
+        for (int index = 0; index < adcs.length; index++) {
+            phaseOffsetsNanos[index] = cycleStartNanos - phaseOffsetsNanos[index];
+        }
+        sampleScheduler.synchronize(cycleStartNanos);
+        ringBuffer.recordSynchronization();
+        selectedIndex = 0;
+        // Read all channels in the first cycle after a synchronization
+        for (int index = 0; index < adcs.length; index++) {
+            lastReadCycles[index] = Long.MIN_VALUE / 2;
+        }
+    }
+
+    /**
+     * Fills {@link #readOrder} with the indices of the {@link ADC}s that are due in the current cycle in the order of
+     * the {@link ChannelPriority}.
+     *
+     * @return the number of {@link ADC}s to read
+     */
+    private int scheduleReads() {
+        final int schedule = channelPriority.getSchedule();
+        final int farChannelRefreshDivisor = channelPriority.getFarChannelRefreshDivisor();
+        int readCount = 0;
+        for (int slot = 0; slot < adcs.length; slot++) {
+            final int index = ChannelPriority.channelOfSlot(schedule, slot);
+            if (index != calibratingIndex &&
+                    ChannelPriority.isDue(schedule, index, cycle - lastReadCycles[index], farChannelRefreshDivisor)) {
+                readOrder[readCount++] = index;
+            }
+        }
+        // Only a calibrating ADC can leave no due ADCs, so read the next ADC in the schedule to keep publishing frames
+        for (int slot = 0; readCount == 0; slot++) {
+            final int index = ChannelPriority.channelOfSlot(schedule, slot);
+            if (index != calibratingIndex) {
+                readOrder[readCount++] = index;
+            }
+        }
+        return readCount;
+    }
+
+    /**
+     * Starts the requested calibration or polls the CALS bit of the calibrating {@link ADC} after the reads of a
+     * cycle. The first {@link ADC} of the next cycle is reselected afterwards, so this costs two I2C transfers per
+     * cycle while a calibration is in progress.
+     *
+     * @return <code>true</code> if a calibration completed, which requires a resynchronization of the sample cycles,
+     * <code>false</code> otherwise
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private boolean advanceCalibration() throws Exception {
+        final int index = calibratingIndex >= 0 ? calibratingIndex : calibrationRequestIndex;
+        final int firstIndex = selectedIndex;
+        i2cMultiplexer.setChannel(channels[index]);
+        selectedIndex = index;
+        final ADC adc = adcs[index];
+        if (calibratingIndex < 0) {
+            adc.startCalibration();
+            calibratingIndex = index;
+            calibrationStartNanos = nanoTime();
+        } else {
+            final long calibrationNanos = nanoTime() - calibrationStartNanos;
+            final boolean timedOut = calibrationNanos > CALIBRATION_TIMEOUT_NANOS;
+            if (!timedOut && adc.isCalibrating()) {
+                i2cMultiplexer.setChannel(channels[firstIndex]);
+                selectedIndex = firstIndex;
+                return false;
+            }
+            // The calibration restarted the conversions of the ADC, so it is out of phase with the others
+            calibrationRecord = new CalibrationRecord(adc.getIndex(), calibrationStartNanos, calibrationNanos,
+                    !timedOut && !adc.didCalibrationFail());
+            calibratingIndex = -1;
+            calibrationRequestIndex = -1;
+            return true;
+        }
+        i2cMultiplexer.setChannel(channels[firstIndex]);
+        selectedIndex = firstIndex;
+        return false;
+    }
+
+    /**
+     * Reads the conversion ready bits of the {@link ADC}s that were read in the previous cycle in the middle of the
+     * current cycle, then reselects the currently selected {@link Channel}. Each read is combined with the selection of
+     * the next {@link Channel}, so this costs up to five I2C transfers every {@link #PHASE_CHECK_INTERVAL_CYCLES}
+     * cycles.
+     *
+     * @return <code>true</code> if an {@link ADC} has drifted early, <code>false</code> otherwise or if no
+     * {@link ADC} could be checked
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private boolean checkEarlyDrift() throws Exception {
+        // The conversion of an ADC that wasn't read in the previous cycle is ready regardless of its phase
+        int checkCount = 0;
+        long maxPhaseOffsetNanos = 0;
+        for (int slot = 0; slot < adcs.length; slot++) {
+            final int index = (selectedIndex + slot) % adcs.length;
+            if (index != calibratingIndex && lastReadCycles[index] == cycle) {
+                checkOrder[checkCount++] = index;
+                maxPhaseOffsetNanos = Math.max(maxPhaseOffsetNanos, phaseOffsetsNanos[index]);
+            }
+        }
+        if (checkCount == 0 || !sampleScheduler.awaitPhaseCheck(maxPhaseOffsetNanos)) {
+            return false;
+        }
+
+        if (checkOrder[0] != selectedIndex) {
+            i2cMultiplexer.setChannel(channels[checkOrder[0]]);
+        }
+        boolean driftedEarly = false;
+        for (int slot = 0; slot < checkCount; slot++) {
+            final int index = checkOrder[slot];
+            final int nextIndex = slot + 1 < checkCount ? checkOrder[slot + 1] : selectedIndex;
+            final ADC adc = adcs[index];
+            sampleTransaction.reset();
+            adc.queueConversionReady(sampleTransaction);
+            if (nextIndex != index) {
+                i2cMultiplexer.queueChannel(sampleTransaction, channels[nextIndex]);
+            }
+            sampleTransaction.submit(i2cBus);
+            // A check that was delayed until shortly before the conversion is due can't tell an early conversion apart
+            // (see ADCSampleScheduler.awaitPhaseCheck())
+            final long conversionNanos = sampleScheduler.getNextCycleNanos() - phaseOffsetsNanos[index];
+            if (adc.readQueuedConversionReady(sampleTransaction) &&
+                    conversionNanos - nanoTime() >= sampleScheduler.getConversionPeriodNanos() / 4) {
+                LOGGER.debug("ADC {} drifted early, so resynchronizing sample cycles.", adc.getIndex());
+                driftedEarly = true;
+            }
+        }
+        if (driftedEarly) {
+            ringBuffer.recordEarlyDrift();
+        }
+        return driftedEarly;
+    }
+
+    /**
+     * Samples the {@link ADC} at the given index, which must be on the currently selected {@link Channel}, into
+     * {@link #samples}. The ready bit and result reads are combined with the selection of the next {@link Channel} into
+     * a single {@link I2CTransaction}, so sampling costs one I2C transfer.
+     *
+     * @param index     the index of the {@link ADC} in {@link #adcs}
+     * @param nextIndex the index of the {@link ADC} in {@link #adcs} to select next
+     *
+     * @return <code>true</code> if the conversion was ready and was sampled, <code>false</code> otherwise
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private boolean sampleADC(int index, int nextIndex) throws Exception {
+        final ADC adc = adcs[index];
+        sampleTransaction.reset();
+        adc.queueSample(sampleTransaction);
+        i2cMultiplexer.queueChannel(sampleTransaction, channels[nextIndex]);
+        sampleTransaction.submit(i2cBus);
+        if (!adc.readQueuedSample(sampleTransaction)) {
+            return false;
+        }
+        lastReadNanos[index] = nanoTime();
+        samples[index] = adc.getQueuedSample();
+        return true;
+    }
+
+    @Override
+    public boolean requestCalibration(int index) {
+        if (calibrationRequestIndex >= 0) {
+            return false;
+        }
+        calibrationRequestIndex = index;
+        return true;
+    }
+
+    @Override
+    public CalibrationRecord pollCalibrationRecord() {
+        final CalibrationRecord record = calibrationRecord;
+        if (record != null) {
+            calibrationRecord = null;
+        }
+        return record;
+    }
+
+    @Override
+    public SampleFrameRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    @Override
+    public long getConversionPeriodNanos() {
+        return sampleScheduler.getConversionPeriodNanos();
+    }
+}
@@ -0,0 +1,81 @@
+package tech.anapad.modela.loadsurface.acquisition;
+
+import tech.anapad.modela.loadsurface.calibration.CalibrationRecord;
+
+/**
+ * {@link NativeSampleAcquisition} is a {@link SampleAcquisition} that runs in a native C thread via
+ * {@link SampleAcquisitionNative}, so that no JNI calls or safepoints occur per I2C transfer. It opens its own file
+ * descriptor to the load surface I2C bus, so the {@link tech.anapad.modela.util.i2c.I2CBus} of the load surface must
+ * not be used while this is started. Unlike {@link I2CBusSampleAcquisition}, this reads all ADCs every conversion
+ * cycle without a {@link ChannelPriority} and doesn't support background calibrations (see
+ * {@link #requestCalibration(int)}), so the {@link tech.anapad.modela.loadsurface.calibration.RecalibrationService}
+ * skips its recalibrations.
+ */
+public class NativeSampleAcquisition implements SampleAcquisition {
+
+    private final int i2cDeviceIndex;
+    private final long conversionPeriodNanos;
+    private final long deadlineMarginNanos;
+    private final int maxConsecutiveErrors;
+    private final SampleFrameRingBuffer ringBuffer;
+
+    private long handle;
+
+    /**
+     * Instantiates a new {@link NativeSampleAcquisition}.
+     *
+     * @param i2cDeviceIndex        the I2C linux sysfs device index of the load surface
+     * @param conversionPeriodNanos the conversion period of the ADCs in nanoseconds
+     * @param deadlineMarginNanos   the margin in nanoseconds added to the nominal end of each conversion cycle
+     * @param frameCapacity         the frame capacity of the {@link SampleFrameRingBuffer} (a power of two)
+     * @param maxConsecutiveErrors  the number of consecutive I2C errors after which the acquisition fails
+     */
+    public NativeSampleAcquisition(int i2cDeviceIndex, long conversionPeriodNanos, long deadlineMarginNanos,
+            int frameCapacity, int maxConsecutiveErrors) {
+        this.i2cDeviceIndex = i2cDeviceIndex;
+        this.conversionPeriodNanos = conversionPeriodNanos;
+        this.deadlineMarginNanos = deadlineMarginNanos;
+        this.maxConsecutiveErrors = maxConsecutiveErrors;
+        ringBuffer = new SampleFrameRingBuffer(frameCapacity);
+    }
+
+    @Override
+    public void start() throws Exception {
+        handle = SampleAcquisitionNative.start(i2cDeviceIndex, ringBuffer.getBuffer(), ringBuffer.getFrameCapacity(),
+                conversionPeriodNanos, deadlineMarginNanos, maxConsecutiveErrors);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (handle != 0) {
+            SampleAcquisitionNative.stop(handle);
+            handle = 0;
+        }
+    }
+
+    @Override
+    public SampleFrameRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    @Override
+    public long getConversionPeriodNanos() {
+        return conversionPeriodNanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The native acquisition thread doesn't support background calibrations, so this always returns
+     * <code>false</code>.
+     */
+    @Override
+    public boolean requestCalibration(int index) {
+        return false;
+    }
+
+    @Override
+    public CalibrationRecord pollCalibrationRecord() {
+        return null;
+    }
+}
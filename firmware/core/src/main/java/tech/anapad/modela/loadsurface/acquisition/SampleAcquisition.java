@@ -0,0 +1,64 @@
+package tech.anapad.modela.loadsurface.acquisition;
+
+import tech.anapad.modela.loadsurface.LoadSurfaceController;
+import tech.anapad.modela.loadsurface.adc.ADC;
+import tech.anapad.modela.loadsurface.calibration.CalibrationRecord;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+
+/**
+ * {@link SampleAcquisition} is the producer of the {@link SampleFrame}s of the load surface ADCs. It owns the load
+ * surface I2C bus while it is started and publishes a {@link SampleFrame} into its {@link SampleFrameRingBuffer} for
+ * each conversion cycle, which the {@link LoadSurfaceController} consumes.
+ */
+public interface SampleAcquisition {
+
+    /**
+     * Starts this {@link SampleAcquisition}. The ADCs must already be configured.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void start() throws Exception;
+
+    /**
+     * Stops this {@link SampleAcquisition}.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void stop() throws Exception;
+
+    /**
+     * Gets the {@link SampleFrameRingBuffer} that this {@link SampleAcquisition} publishes {@link SampleFrame}s into.
+     *
+     * @return the {@link SampleFrameRingBuffer}
+     */
+    SampleFrameRingBuffer getRingBuffer();
+
+    /**
+     * Gets the conversion period of the ADCs, which is the nominal period between {@link SampleFrame}s.
+     *
+     * @return the conversion period in nanoseconds
+     */
+    long getConversionPeriodNanos();
+
+    /**
+     * Requests a background calibration of the {@link ADC} at the given index while this {@link SampleAcquisition}
+     * keeps publishing {@link SampleFrame}s of the other {@link ADC}s. The {@link SampleFrame}s don't update the
+     * channel of the calibrating {@link ADC} until the calibration is complete (see
+     * {@link #pollCalibrationRecord()}).
+     *
+     * @param index the index of the {@link ADC} in the {@link SampleFrame} channels
+     *
+     * @return <code>true</code> if the calibration was requested, <code>false</code> if this {@link SampleAcquisition}
+     * doesn't support background calibrations or a calibration is already requested or in progress
+     */
+    boolean requestCalibration(int index);
+
+    /**
+     * Polls the {@link CalibrationRecord} of the calibration requested by {@link #requestCalibration(int)}. The
+     * {@link CalibrationRecord} is published before the first {@link SampleFrame} that updates the channel of the
+     * calibrated {@link ADC} again.
+     *
+     * @return the {@link CalibrationRecord} or <code>null</code> if no calibration has completed since the last poll
+     */
+    CalibrationRecord pollCalibrationRecord();
+}
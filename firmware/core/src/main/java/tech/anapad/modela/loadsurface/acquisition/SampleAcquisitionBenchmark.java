@@ -0,0 +1,103 @@
+package tech.anapad.modela.loadsurface.acquisition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+
+import static java.lang.Math.sqrt;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * {@link SampleAcquisitionBenchmark} measures the achieved {@link SampleFrame} rate and the timing jitter of a
+ * {@link SampleAcquisition} by consuming its {@link SampleFrame}s for a fixed duration. The jitter is the standard
+ * deviation of the period between the read timestamps of consecutive {@link SampleFrame}s. The read latency is the time
+ * between the completion of the conversions and the end of their reads.
+ */
+public class SampleAcquisitionBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampleAcquisitionBenchmark.class);
+    private static final long POLL_PERIOD_NANOS = MICROSECONDS.toNanos(100);
+
+    private final String name;
+    private final SampleAcquisition sampleAcquisition;
+
+    /**
+     * Instantiates a new {@link SampleAcquisitionBenchmark}.
+     *
+     * @param name              the name of the benchmarked {@link SampleAcquisition} for logging
+     * @param sampleAcquisition the {@link SampleAcquisition}, which must not be started
+     */
+    public SampleAcquisitionBenchmark(String name, SampleAcquisition sampleAcquisition) {
+        this.name = name;
+        this.sampleAcquisition = sampleAcquisition;
+    }
+
+    /**
+     * Starts the {@link SampleAcquisition}, consumes its {@link SampleFrame}s for the given duration, stops it, and
+     * logs the results.
+     *
+     * @param durationNanos the duration in nanoseconds
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public void run(long durationNanos) throws Exception {
+        LOGGER.info("Benchmarking {} sample acquisition for {} ms...", name, NANOSECONDS.toMillis(durationNanos));
+        final SampleFrameRingBuffer ringBuffer = sampleAcquisition.getRingBuffer();
+        final SampleFrame sampleFrame = new SampleFrame();
+        long frameCount = 0;
+        long lastReadTimestampNanos = 0;
+        long periodCount = 0;
+        double periodSum = 0;
+        double periodSquareSum = 0;
+        long maxPeriodNanos = 0;
+        double latencySum = 0;
+        long maxLatencyNanos = 0;
+
+        sampleAcquisition.start();
+        final long startNanos = nanoTime();
+        try {
+            while (nanoTime() - startNanos < durationNanos &&
+                    ringBuffer.getState() == SampleFrameRingBuffer.STATE_RUNNING) {
+                if (!ringBuffer.poll(sampleFrame)) {
+                    parkNanos(POLL_PERIOD_NANOS);
+                    continue;
+                }
+                frameCount++;
+                final long latencyNanos = sampleFrame.getReadTimestampNanos() - sampleFrame.getTimestampNanos();
+                latencySum += latencyNanos;
+                maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+                if (lastReadTimestampNanos != 0) {
+                    final long periodNanos = sampleFrame.getReadTimestampNanos() - lastReadTimestampNanos;
+                    periodCount++;
+                    periodSum += periodNanos;
+                    periodSquareSum += (double) periodNanos * periodNanos;
+                    maxPeriodNanos = Math.max(maxPeriodNanos, periodNanos);
+                }
+                lastReadTimestampNanos = sampleFrame.getReadTimestampNanos();
+            }
+        } finally {
+            sampleAcquisition.stop();
+        }
+        final double elapsedSeconds = (nanoTime() - startNanos) / 1e9;
+
+        final double periodMean = periodCount == 0 ? 0 : periodSum / periodCount;
+        final double periodStandardDeviation = periodCount == 0 ? 0 :
+                sqrt(Math.max(0, periodSquareSum / periodCount - periodMean * periodMean));
+        LOGGER.info("{} sample acquisition: {} frames/s (nominal: {} frames/s), period jitter: {} us, max period: {} " +
+                        "us, mean read latency: {} us, max read latency: {} us, dropped frames: {}, missed cycles: " +
+                        "{}, synchronizations: {}, late drifts: {}, early drifts: {}, errors: {}",
+                name, format(frameCount / elapsedSeconds), format(1e9 / sampleAcquisition.getConversionPeriodNanos()),
+                format(periodStandardDeviation / 1e3), format(maxPeriodNanos / 1e3),
+                format(frameCount == 0 ? 0 : latencySum / frameCount / 1e3), format(maxLatencyNanos / 1e3),
+                ringBuffer.getDroppedFrameCount(), ringBuffer.getMissedCycleCount(),
+                ringBuffer.getSynchronizationCount(), ringBuffer.getLateDriftCount(),
+                ringBuffer.getEarlyDriftCount(), ringBuffer.getErrorCount());
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
@@ -0,0 +1,43 @@
+package tech.anapad.modela.loadsurface.acquisition;
+
+import java.nio.ByteBuffer;
+
+import static java.lang.System.loadLibrary;
+
+/**
+ * {@link SampleAcquisitionNative} is used to run the load surface sample acquisition loop in a native C thread via
+ * JNI, which owns the load surface I2C bus and publishes into a {@link SampleFrameRingBuffer}.
+ */
+public final class SampleAcquisitionNative {
+
+    static {
+        // Load the .so shared library that should be placed in '/lib' and be named exactly "libmodela.so"
+        loadLibrary("modela");
+    }
+
+    /**
+     * Opens the I2C device and starts the native sample acquisition thread.
+     *
+     * @param i2cDeviceIndex        the I2C linux sysfs device index (e.g. for "/dev/i2c-1" pass <code>1</code> here)
+     * @param ringBuffer            the {@link SampleFrameRingBuffer#getBuffer()}, which must stay reachable until
+     *                              {@link #stop(long)} returns
+     * @param frameCapacity         the {@link SampleFrameRingBuffer#getFrameCapacity()}
+     * @param conversionPeriodNanos the conversion period of the ADCs in nanoseconds
+     * @param deadlineMarginNanos   the margin in nanoseconds added to the nominal end of each conversion cycle
+     * @param maxConsecutiveErrors  the number of consecutive I2C errors after which the acquisition fails
+     *
+     * @return the handle of the acquisition to be used in subsequent calls
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public static native long start(int i2cDeviceIndex, ByteBuffer ringBuffer, int frameCapacity,
+            long conversionPeriodNanos, long deadlineMarginNanos, int maxConsecutiveErrors) throws Exception;
+
+    /**
+     * Stops the native sample acquisition thread and closes the I2C device.
+     *
+     * @param handle the handle of the acquisition
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public static native void stop(long handle) throws Exception;
+}
@@ -0,0 +1,242 @@
+package tech.anapad.modela.loadsurface.acquisition;
+
+import tech.anapad.modela.loadsurface.adc.ADC;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link SampleFrameRingBuffer} is a single-producer/single-consumer ring buffer of {@link SampleFrame}s that is
+ * stored in a direct {@link ByteBuffer} so that it can be shared with native code (see
+ * <code>acquisition.h</code>). The producer publishes a frame by incrementing the write sequence with release
+ * semantics and the consumer frees a frame by incrementing the read sequence with release semantics, so no locks are
+ * needed. If the ring buffer is full, the producer drops new frames instead of overwriting unread frames.
+ */
+public class SampleFrameRingBuffer {
+
+    public static final int STATE_RUNNING = 0;
+    public static final int STATE_STOPPED = 1;
+    public static final int STATE_FAILED = 2;
+
+    // The layout must match the layout in 'acquisition.h'
+    private static final int WRITE_SEQUENCE_OFFSET = 0;
+    private static final int READ_SEQUENCE_OFFSET = 64;
+    private static final int DROPPED_FRAME_COUNT_OFFSET = 128;
+    private static final int MISSED_CYCLE_COUNT_OFFSET = 136;
+    private static final int SYNCHRONIZATION_COUNT_OFFSET = 144;
+    private static final int ERROR_COUNT_OFFSET = 152;
+    private static final int STATE_OFFSET = 160;
+    private static final int LAST_ERROR_NUMBER_OFFSET = 164;
+    private static final int LATE_DRIFT_COUNT_OFFSET = 168;
+    private static final int EARLY_DRIFT_COUNT_OFFSET = 176;
+    private static final int FRAMES_OFFSET = 192;
+    private static final int FRAME_TIMESTAMP_OFFSET = 0;
+    private static final int FRAME_READ_TIMESTAMP_OFFSET = 8;
+    private static final int FRAME_SAMPLES_OFFSET = 16;
+    private static final int FRAME_UPDATED_CHANNELS_OFFSET = 32;
+    private static final int FRAME_LENGTH = 40;
+    private static final int ALIGNMENT = 64;
+
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT_VIEW =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final int frameCapacity;
+
+    /**
+     * Instantiates a new {@link SampleFrameRingBuffer}.
+     *
+     * @param frameCapacity the number of {@link SampleFrame}s that the ring buffer can hold (a power of two)
+     */
+    public SampleFrameRingBuffer(int frameCapacity) {
+        if (frameCapacity <= 0 || Integer.bitCount(frameCapacity) != 1) {
+            throw new IllegalArgumentException("Frame capacity must be a power of two!");
+        }
+        this.frameCapacity = frameCapacity;
+        final int length = FRAMES_OFFSET + frameCapacity * FRAME_LENGTH;
+        // Align to a cache line so that the sequences don't share cache lines with other data
+        buffer = ByteBuffer.allocateDirect(length + ALIGNMENT - 1)
+                .alignedSlice(ALIGNMENT)
+                .limit(length)
+                .slice()
+                .order(ByteOrder.nativeOrder());
+        INT_VIEW.setRelease(buffer, STATE_OFFSET, STATE_RUNNING);
+    }
+
+    /**
+     * Publishes a {@link SampleFrame}. Only the producer may call this.
+     *
+     * @param timestampNanos     the {@link System#nanoTime()} at which the conversions completed
+     * @param readTimestampNanos the {@link System#nanoTime()} at which the conversions were read
+     * @param samples            the samples array of length {@link SampleFrame#CHANNEL_COUNT}
+     * @param updatedChannels    the bit mask of the channels whose samples were read in this conversion cycle (the
+     *                           other samples are the ones read in an earlier conversion cycle)
+     *
+     * @return <code>true</code> if the {@link SampleFrame} was published, <code>false</code> if it was dropped because
+     * the ring buffer is full
+     */
+    public boolean offer(long timestampNanos, long readTimestampNanos, int[] samples, int updatedChannels) {
+        final long writeSequence = (long) LONG_VIEW.getOpaque(buffer, WRITE_SEQUENCE_OFFSET);
+        final long readSequence = (long) LONG_VIEW.getAcquire(buffer, READ_SEQUENCE_OFFSET);
+        if (writeSequence - readSequence >= frameCapacity) {
+            incrementCounter(DROPPED_FRAME_COUNT_OFFSET, 1);
+            return false;
+        }
+
+        final int frameOffset = frameOffsetOf(writeSequence);
+        buffer.putLong(frameOffset + FRAME_TIMESTAMP_OFFSET, timestampNanos);
+        buffer.putLong(frameOffset + FRAME_READ_TIMESTAMP_OFFSET, readTimestampNanos);
+        for (int index = 0; index < SampleFrame.CHANNEL_COUNT; index++) {
+            buffer.putInt(frameOffset + FRAME_SAMPLES_OFFSET + index * Integer.BYTES, samples[index]);
+        }
+        buffer.putInt(frameOffset + FRAME_UPDATED_CHANNELS_OFFSET, updatedChannels);
+        LONG_VIEW.setRelease(buffer, WRITE_SEQUENCE_OFFSET, writeSequence + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest published {@link SampleFrame}. Only the consumer may call this. The
+     * {@link SampleFrame#getChannelUpdateTimestampsNanos()} of the channels that were updated in the taken
+     * {@link SampleFrame} are set to its timestamp, so when the same {@link SampleFrame} is reused for every poll, they
+     * hold the timestamp of the last update of each channel.
+     *
+     * @param sampleFrame the {@link SampleFrame} to read into
+     *
+     * @return <code>true</code> if a {@link SampleFrame} was read, <code>false</code> if the ring buffer is empty
+     */
+    public boolean poll(SampleFrame sampleFrame) {
+        final long readSequence = (long) LONG_VIEW.getOpaque(buffer, READ_SEQUENCE_OFFSET);
+        final long writeSequence = (long) LONG_VIEW.getAcquire(buffer, WRITE_SEQUENCE_OFFSET);
+        if (readSequence == writeSequence) {
+            return false;
+        }
+
+        final int frameOffset = frameOffsetOf(readSequence);
+        sampleFrame.setTimestampNanos(buffer.getLong(frameOffset + FRAME_TIMESTAMP_OFFSET));
+        sampleFrame.setReadTimestampNanos(buffer.getLong(frameOffset + FRAME_READ_TIMESTAMP_OFFSET));
+        final int[] samples = sampleFrame.getRawSamples();
+        final long[] channelUpdateTimestampsNanos = sampleFrame.getChannelUpdateTimestampsNanos();
+        final int updatedChannels = buffer.getInt(frameOffset + FRAME_UPDATED_CHANNELS_OFFSET);
+        for (int index = 0; index < SampleFrame.CHANNEL_COUNT; index++) {
+            samples[index] = buffer.getInt(frameOffset + FRAME_SAMPLES_OFFSET + index * Integer.BYTES);
+            if ((updatedChannels & (1 << index)) != 0) {
+                channelUpdateTimestampsNanos[index] = sampleFrame.getTimestampNanos();
+            }
+        }
+        LONG_VIEW.setRelease(buffer, READ_SEQUENCE_OFFSET, readSequence + 1);
+        return true;
+    }
+
+    private int frameOffsetOf(long sequence) {
+        return FRAMES_OFFSET + (int) (sequence & (frameCapacity - 1)) * FRAME_LENGTH;
+    }
+
+    /**
+     * Increments a counter. Counters are only written by the producer.
+     *
+     * @param offset the offset of the counter
+     * @param amount the amount to increment by
+     */
+    private void incrementCounter(int offset, long amount) {
+        LONG_VIEW.setOpaque(buffer, offset, (long) LONG_VIEW.getOpaque(buffer, offset) + amount);
+    }
+
+    /**
+     * Adds to the number of conversion cycles that were skipped. Only the producer may call this.
+     *
+     * @param missedCycles the number of missed conversion cycles
+     */
+    public void addMissedCycles(long missedCycles) {
+        incrementCounter(MISSED_CYCLE_COUNT_OFFSET, missedCycles);
+    }
+
+    /**
+     * Records a synchronization of the conversion cycles. Only the producer may call this.
+     */
+    public void recordSynchronization() {
+        incrementCounter(SYNCHRONIZATION_COUNT_OFFSET, 1);
+    }
+
+    /**
+     * Records an {@link ADC} whose conversion wasn't ready by the cycle deadline. Only the producer may call this.
+     */
+    public void recordLateDrift() {
+        incrementCounter(LATE_DRIFT_COUNT_OFFSET, 1);
+    }
+
+    /**
+     * Records an {@link ADC} whose next conversion was already ready in the middle of a cycle. Only the producer may
+     * call this.
+     */
+    public void recordEarlyDrift() {
+        incrementCounter(EARLY_DRIFT_COUNT_OFFSET, 1);
+    }
+
+    /**
+     * Records an error. Only the producer may call this.
+     *
+     * @param errorNumber the <code>errno</code> of the error or <code>0</code> if there is none
+     */
+    public void recordError(int errorNumber) {
+        INT_VIEW.setOpaque(buffer, LAST_ERROR_NUMBER_OFFSET, errorNumber);
+        incrementCounter(ERROR_COUNT_OFFSET, 1);
+    }
+
+    /**
+     * Sets the state of the producer. Only the producer may call this.
+     *
+     * @param state {@link #STATE_STOPPED} or {@link #STATE_FAILED}
+     */
+    public void setState(int state) {
+        INT_VIEW.setRelease(buffer, STATE_OFFSET, state);
+    }
+
+    public int getState() {
+        return (int) INT_VIEW.getAcquire(buffer, STATE_OFFSET);
+    }
+
+    public long getWrittenFrameCount() {
+        return (long) LONG_VIEW.getAcquire(buffer, WRITE_SEQUENCE_OFFSET);
+    }
+
+    public long getDroppedFrameCount() {
+        return (long) LONG_VIEW.getOpaque(buffer, DROPPED_FRAME_COUNT_OFFSET);
+    }
+
+    public long getMissedCycleCount() {
+        return (long) LONG_VIEW.getOpaque(buffer, MISSED_CYCLE_COUNT_OFFSET);
+    }
+
+    public long getSynchronizationCount() {
+        return (long) LONG_VIEW.getOpaque(buffer, SYNCHRONIZATION_COUNT_OFFSET);
+    }
+
+    public long getLateDriftCount() {
+        return (long) LONG_VIEW.getOpaque(buffer, LATE_DRIFT_COUNT_OFFSET);
+    }
+
+    public long getEarlyDriftCount() {
+        return (long) LONG_VIEW.getOpaque(buffer, EARLY_DRIFT_COUNT_OFFSET);
+    }
+
+    public long getErrorCount() {
+        return (long) LONG_VIEW.getOpaque(buffer, ERROR_COUNT_OFFSET);
+    }
+
+    public int getLastErrorNumber() {
+        return (int) INT_VIEW.getOpaque(buffer, LAST_ERROR_NUMBER_OFFSET);
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getFrameCapacity() {
+        return frameCapacity;
+    }
+}
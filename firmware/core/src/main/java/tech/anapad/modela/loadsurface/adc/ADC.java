@@ -1,16 +1,24 @@
 package tech.anapad.modela.loadsurface.adc;
 
 import tech.anapad.modela.hapticsboard.hapticmotorcontroller.HapticMotorController;
-import tech.anapad.modela.util.filter.LowPassFilter;
+import tech.anapad.modela.util.filter.Filter;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.I2CTransaction;
+import tech.anapad.modela.util.i2c.RegisterShadow;
 import tech.anapad.modela.util.location.Location;
 
 import static java.lang.Math.abs;
+import static java.lang.System.nanoTime;
 import static java.lang.Thread.sleep;
-import static tech.anapad.modela.util.i2c.I2CNative.readRegisterBytes;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
 import static tech.anapad.modela.util.i2c.I2CUtil.getRegisterBit;
 import static tech.anapad.modela.util.i2c.I2CUtil.resetRegisterBit;
 import static tech.anapad.modela.util.i2c.I2CUtil.setRegisterBit;
 import static tech.anapad.modela.util.i2c.I2CUtil.setRegisterBits;
+import static tech.anapad.modela.util.math.BitUtil.getBit;
 
 /**
  * {@link ADC} represents the NAU7802 24-bit ADC chip.
@@ -27,28 +35,58 @@ public class ADC {
             NAU7802_REGISTER_RESULT_START + 1;
     private static final double NAU7802_RESULT_MAX_VALUE = Math.pow(2, 24) / 2; // Result is a signed 24-bit value
     private static final short NAU7802_REGISTER_POWER_CONTROL = 0x1C;
+    private static final int NAU7802_CRS = 0b111; // 320 sps
+    private static final int[] NAU7802_SAMPLES_PER_SECOND_OF_CRS = {10, 20, 40, 80, 80, 80, 80, 320};
+    private static final long REGISTER_POLL_PERIOD_NANOS = MICROSECONDS.toNanos(500);
+    private static final long POWER_UP_TIMEOUT_NANOS = MILLISECONDS.toNanos(100);
+    private static final long CALIBRATION_TIMEOUT_NANOS = SECONDS.toNanos(1);
 
-    private final int i2cFD;
+    /**
+     * The maximum interval between two samples that sets the sample rate of the filters. Longer gaps (e.g. while
+     * powered down) don't reflect the rate at which samples are read.
+     */
+    private static final long MAX_FILTER_SAMPLE_INTERVAL_NANOS = SECONDS.toNanos(1);
+
+    /**
+     * The full conversion rate in samples per second, which {@link #configure()} configures.
+     */
+    public static final int SAMPLES_PER_SECOND = NAU7802_SAMPLES_PER_SECOND_OF_CRS[NAU7802_CRS];
+
+    private final RegisterShadow registerShadow;
     private final int index;
     private final Location loadSurfaceLocation;
-    private final LowPassFilter baselineSamplesFilter;
-    private final LowPassFilter allSamplesFilter;
+    private final Filter baselineSamplesFilter;
+    private final Filter allSamplesFilter;
 
+    private int crs;
+    private boolean poweredDown;
     private int lastSample;
+    private long lastSampleTimestampNanos;
+    private long lastSampleIntervalNanos;
+    private double lastPercentOffset;
+    private int queuedPUControlOffset;
+    private int queuedResultOffset;
+    private int queuedSample;
 
     /**
      * Instantiates a new {@link HapticMotorController}.
      *
-     * @param i2cFD               the low-level I2C device file descriptor
-     * @param index               the index
-     * @param loadSurfaceLocation the load surface {@link Location}
+     * @param i2cBus                the {@link I2CBus}
+     * @param index                 the index
+     * @param loadSurfaceLocation   the load surface {@link Location}
+     * @param baselineSamplesFilter the {@link Filter} of the baseline samples (channel <code>0</code> is used)
+     * @param allSamplesFilter      the {@link Filter} of all samples (channel <code>0</code> is used)
      */
-    public ADC(int i2cFD, int index, Location loadSurfaceLocation) {
-        this.i2cFD = i2cFD;
+    public ADC(I2CBus i2cBus, int index, Location loadSurfaceLocation, Filter baselineSamplesFilter,
+            Filter allSamplesFilter) {
+        registerShadow = new RegisterShadow(i2cBus, NAU7802_I2C_ADDRESS, true)
+                .markVolatile(NAU7802_REGISTER_PU_CONTROL, 0b0011_1001) // CR, CS, PUR, RR
+                .markVolatile(NAU7802_REGISTER_CONTROL_2, 0b0000_1100); // CAL_ERR, CALS
         this.index = index;
         this.loadSurfaceLocation = loadSurfaceLocation;
-        baselineSamplesFilter = new LowPassFilter(100);
-        allSamplesFilter = new LowPassFilter(25);
+        this.baselineSamplesFilter = baselineSamplesFilter;
+        this.allSamplesFilter = allSamplesFilter;
+        crs = NAU7802_CRS;
     }
 
     /**
@@ -58,23 +96,25 @@ public class ADC {
      */
     public void configure() throws Exception {
         // Reset registers
-        setRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true, 0); // RR
+        setRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 0); // RR
+        registerShadow.invalidateAll();
         sleep(1);
-        resetRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true, 0); // RR
+        resetRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 0); // RR
 
         // Power up digital
-        setRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true, 1); // PUD
+        setRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 1); // PUD
 
         // Configuration
-        setRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true, 7); // AVDDS = Internal LDO
-        setRegisterBits(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_CONTROL_1, true, 0b111, 2, 0); // GAINS = x128
-        setRegisterBits(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_CONTROL_1, true, 0b100, 5, 3); // VLDO = 3.3V
-        setRegisterBits(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_CONTROL_2, true, 0b111, 6, 4); // CRS = 320 sps
-        setRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_POWER_CONTROL, true, 7); // PGA_CAP_EN
+        setRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 7); // AVDDS = Internal LDO
+        setRegisterBits(registerShadow, NAU7802_REGISTER_CONTROL_1, 0b111, 2, 0); // GAINS = x128
+        setRegisterBits(registerShadow, NAU7802_REGISTER_CONTROL_1, 0b100, 5, 3); // VLDO = 3.3V
+        crs = NAU7802_CRS;
+        setRegisterBits(registerShadow, NAU7802_REGISTER_CONTROL_2, crs, 6, 4); // CRS
+        setRegisterBit(registerShadow, NAU7802_REGISTER_POWER_CONTROL, 7); // PGA_CAP_EN
 
         // Power up analog
-        setRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true, 2); // PUA
-        while (!getRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true, 3)) {} // PUR
+        setRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 2); // PUA
+        awaitPowerUpReady();
 
         // Calibration
         calibrate();
@@ -87,45 +127,264 @@ public class ADC {
      * @throws Exception thrown for {@link Exception}s
      */
     public boolean calibrate() throws Exception {
-        setRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_CONTROL_2, true, 2); // CALS
-        while (getRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_CONTROL_2, true, 2)) {} // CALS
-        if (getRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_CONTROL_2, true, 3)) { // CAL_ERR
+        startCalibration();
+        if (!awaitRegisterBit(NAU7802_REGISTER_CONTROL_2, 2, false, CALIBRATION_TIMEOUT_NANOS)) { // CALS
             return false;
-        } else {
-            return true;
         }
+        return !didCalibrationFail();
+    }
+
+    /**
+     * Starts a calibration of this {@link ADC} without waiting for it to complete. Conversions are invalid until
+     * {@link #isCalibrating()} returns <code>false</code>.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public void startCalibration() throws Exception {
+        setRegisterBit(registerShadow, NAU7802_REGISTER_CONTROL_2, 2); // CALS
+    }
+
+    /**
+     * Returns <code>true</code> if the calibration started by {@link #startCalibration()} is still in progress,
+     * <code>false</code> otherwise.
+     *
+     * @return a boolean
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public boolean isCalibrating() throws Exception {
+        return getRegisterBit(registerShadow, NAU7802_REGISTER_CONTROL_2, 2); // CALS
+    }
+
+    /**
+     * Returns <code>true</code> if the last calibration failed, <code>false</code> otherwise.
+     *
+     * @return a boolean
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public boolean didCalibrationFail() throws Exception {
+        return getRegisterBit(registerShadow, NAU7802_REGISTER_CONTROL_2, 3); // CAL_ERR
+    }
+
+    /**
+     * Waits for the PUR bit after powering up the analog circuit.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private void awaitPowerUpReady() throws Exception {
+        if (!awaitRegisterBit(NAU7802_REGISTER_PU_CONTROL, 3, true, POWER_UP_TIMEOUT_NANOS)) { // PUR
+            throw new IllegalStateException("ADC " + index + " did not power up!");
+        }
+        poweredDown = false;
+    }
+
+    /**
+     * Polls the given register bit with bounded sleeps until it has the given value.
+     *
+     * @param registerAddress the register address
+     * @param bitIndex        the bit index
+     * @param value           the value to wait for
+     * @param timeoutNanos    the maximum time to wait in nanoseconds
+     *
+     * @return <code>true</code> if the bit has the value, <code>false</code> if the wait timed out
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private boolean awaitRegisterBit(short registerAddress, int bitIndex, boolean value, long timeoutNanos)
+            throws Exception {
+        final long deadlineNanos = nanoTime() + timeoutNanos;
+        while (getRegisterBit(registerShadow, registerAddress, bitIndex) != value) {
+            if (nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            parkNanos(REGISTER_POLL_PERIOD_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Stops the conversion cycle of this {@link ADC} by clearing the CS bit, since conversion cycles start on the
+     * rising edge of the CS bit. This should be followed by {@link #queueStartSampleCycle(I2CTransaction)}.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public void stopSampleCycle() throws Exception {
+        resetRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 4); // CS
+    }
+
+    /**
+     * Queues the write that sets the CS bit after {@link #stopSampleCycle()} into the given {@link I2CTransaction}, so
+     * that the start of this {@link ADC}'s samples is synchronized to the submission of the {@link I2CTransaction}.
+     * The write doesn't read the register first, so the sample cycles of several {@link ADC}s can be started
+     * back-to-back with one I2C transfer each.
+     *
+     * @param transaction the {@link I2CTransaction}
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public void queueStartSampleCycle(I2CTransaction transaction) throws Exception {
+        // The register is known after stopSampleCycle(), so this doesn't read it, and the read-only bits are ignored
+        final int puControl = registerShadow.readRegister(NAU7802_REGISTER_PU_CONTROL, 0);
+        transaction.writeRegisterByte(NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL,
+                (byte) (puControl | 1 << 4), true); // CS
+        registerShadow.invalidate(NAU7802_REGISTER_PU_CONTROL);
+    }
+
+    /**
+     * Sets the conversion rate. This should be followed by {@link #calibrate()} and a synchronization of the sample
+     * cycle (see {@link #stopSampleCycle()}).
+     *
+     * @param samplesPerSecond the conversion rate in samples per second (10, 20, 40, 80, or 320)
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public void setSamplesPerSecond(int samplesPerSecond) throws Exception {
+        int newCRS = -1;
+        for (int index = 0; index < NAU7802_SAMPLES_PER_SECOND_OF_CRS.length; index++) {
+            if (NAU7802_SAMPLES_PER_SECOND_OF_CRS[index] == samplesPerSecond) {
+                newCRS = index;
+                break;
+            }
+        }
+        if (newCRS < 0) {
+            throw new IllegalArgumentException("Unsupported ADC conversion rate: " + samplesPerSecond);
+        }
+        setRegisterBits(registerShadow, NAU7802_REGISTER_CONTROL_2, newCRS, 6, 4); // CRS
+        crs = newCRS;
     }
 
     /**
-     * Synchronizes the start of this {@link ADC}'s samples to the exact time of this method call.
+     * Powers down the digital and analog circuits of this {@link ADC}, which stops conversions. The configuration
+     * registers are retained.
      *
      * @throws Exception thrown for {@link Exception}s
      */
-    public void synchronizeSampleCycle() throws Exception {
-        setRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true, 4); // CS
+    public void powerDown() throws Exception {
+        resetRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 4); // CS
+        resetRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 2); // PUA
+        resetRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 1); // PUD
+        poweredDown = true;
     }
 
     /**
-     * Triggers an {@link ADC} sample.
+     * Powers up this {@link ADC} after {@link #powerDown()}. This should be followed by {@link #calibrate()} and a
+     * synchronization of the sample cycle (see {@link #stopSampleCycle()}).
      *
-     * @return the sample integer value
      * @throws Exception thrown for {@link Exception}s
      */
-    public int sample() throws Exception {
-        while (!getRegisterBit(i2cFD, NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true, 5)) {} // CR
-        final byte[] sampleBytes = readRegisterBytes(i2cFD, NAU7802_I2C_ADDRESS,
+    public void powerUp() throws Exception {
+        setRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 1); // PUD
+        setRegisterBit(registerShadow, NAU7802_REGISTER_PU_CONTROL, 2); // PUA
+        awaitPowerUpReady();
+    }
+
+    /**
+     * Gets the conversion period of the configured conversion rate.
+     *
+     * @return the conversion period in nanoseconds
+     */
+    public long getConversionPeriodNanos() {
+        return SECONDS.toNanos(1) / NAU7802_SAMPLES_PER_SECOND_OF_CRS[crs];
+    }
+
+    /**
+     * Queues the read of the conversion ready bit of this {@link ADC} into the given {@link I2CTransaction}. Call
+     * {@link #readQueuedConversionReady(I2CTransaction)} after the {@link I2CTransaction} has been submitted.
+     *
+     * @param transaction the {@link I2CTransaction}
+     */
+    public void queueConversionReady(I2CTransaction transaction) {
+        queuedPUControlOffset = transaction.readRegisterByte(NAU7802_I2C_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true);
+    }
+
+    /**
+     * Reads the conversion ready bit queued via {@link #queueConversionReady(I2CTransaction)} or
+     * {@link #queueSample(I2CTransaction)} from the given submitted {@link I2CTransaction}.
+     *
+     * @param transaction the submitted {@link I2CTransaction}
+     *
+     * @return <code>true</code> if a conversion completed since the last read of the conversion result,
+     * <code>false</code> otherwise
+     */
+    public boolean readQueuedConversionReady(I2CTransaction transaction) {
+        return getBit(transaction.getByte(queuedPUControlOffset), 5) == 1; // CR
+    }
+
+    /**
+     * Queues the reads of the conversion ready bit and the conversion result of this {@link ADC} into the given
+     * {@link I2CTransaction}. Call {@link #readQueuedSample(I2CTransaction)} after the {@link I2CTransaction} has been
+     * submitted.
+     *
+     * @param transaction the {@link I2CTransaction}
+     */
+    public void queueSample(I2CTransaction transaction) {
+        queueConversionReady(transaction);
+        queuedResultOffset = transaction.readRegisterBytes(NAU7802_I2C_ADDRESS,
                 NAU7802_REGISTER_RESULT_START, NAU7802_REGISTER_RESULT_LENGTH, true);
-        int sampleValue = (sampleBytes[0] & 0xFF) << 16 | (sampleBytes[1] & 0xFF) << 8 | (sampleBytes[2] & 0xFF);
+    }
+
+    /**
+     * Reads the sample queued via {@link #queueSample(I2CTransaction)} from the given submitted
+     * {@link I2CTransaction}. If the conversion was ready, {@link #getQueuedSample()} is set to the read sample.
+     *
+     * @param transaction the submitted {@link I2CTransaction}
+     *
+     * @return <code>true</code> if the conversion was ready and the sample was read, <code>false</code> if the
+     * conversion was not ready and the read result should be discarded
+     */
+    public boolean readQueuedSample(I2CTransaction transaction) {
+        if (!readQueuedConversionReady(transaction)) {
+            return false;
+        }
+        queuedSample = toSampleValue(transaction.getByte(queuedResultOffset),
+                transaction.getByte(queuedResultOffset + 1), transaction.getByte(queuedResultOffset + 2));
+        return true;
+    }
+
+    /**
+     * Converts the given NAU7802 result register bytes to a sample value.
+     *
+     * @param byte2 the result register byte 2 (MSB)
+     * @param byte1 the result register byte 1
+     * @param byte0 the result register byte 0 (LSB)
+     *
+     * @return the signed sample value
+     */
+    private static int toSampleValue(byte byte2, byte byte1, byte byte0) {
+        int sampleValue = (byte2 & 0xFF) << 16 | (byte1 & 0xFF) << 8 | (byte0 & 0xFF);
         // Shift left, then sign-extended shift right the value by 8 bits so the sign bit is in correct place
         sampleValue = sampleValue << 8;
         sampleValue = sampleValue >> 8;
-        lastSample = sampleValue;
         return sampleValue;
     }
 
     /**
-     * Calls {@link #sample()} and filters it via {@link LowPassFilter#filter(double, boolean)} for both baseline and
-     * all samples and returns the percent off the baseline.
+     * Sets {@link #getLastSample()} to the given sample (e.g. one that was acquired by a sample acquisition thread),
+     * then calls {@link #filterLastSample(boolean)}. The interval since the previous sample sets the sample rate of the
+     * filters (see {@link Filter#setSampleRate(double)}), since it depends on the conversion rate and on how often
+     * this {@link ADC} is read.
+     *
+     * @param sample          the sample integer value
+     * @param timestampNanos  the {@link System#nanoTime()} of the conversion cycle of the sample
+     * @param applyToBaseline see {@link #filterLastSample(boolean)}
+     *
+     * @return see {@link #filterLastSample(boolean)}
+     */
+    public double filterSample(int sample, long timestampNanos, boolean applyToBaseline) {
+        final long sampleIntervalNanos = timestampNanos - lastSampleTimestampNanos;
+        if (sampleIntervalNanos > 0 && sampleIntervalNanos <= MAX_FILTER_SAMPLE_INTERVAL_NANOS &&
+                sampleIntervalNanos != lastSampleIntervalNanos) {
+            final double sampleRateHz = (double) SECONDS.toNanos(1) / sampleIntervalNanos;
+            baselineSamplesFilter.setSampleRate(sampleRateHz);
+            allSamplesFilter.setSampleRate(sampleRateHz);
+            lastSampleIntervalNanos = sampleIntervalNanos;
+        }
+        lastSampleTimestampNanos = timestampNanos;
+        lastSample = sample;
+        return filterLastSample(applyToBaseline);
+    }
+
+    /**
+     * Filters {@link #getLastSample()} via {@link Filter#filter(int, double)} for both baseline and all samples and
+     * returns the percent off the baseline.
      *
      * @param applyToBaseline <code>true</code> if this sample should also apply to the baseline samples,
      *                        <code>false</code> otherwise. Baseline samples are used for differentiating between an
@@ -134,40 +393,69 @@ public class ADC {
      *
      * @return a double between <code>0.0</code> and <code>1.0</code> that represents the percent the sample is off the
      * baseline
-     * @throws Exception thrown for {@link Exception}s
      */
-    public double samplePercentOffset(boolean applyToBaseline) throws Exception {
-        final double sample = sample();
-        final double filteredSample = allSamplesFilter.filter(sample);
+    public double filterLastSample(boolean applyToBaseline) {
+        final double sample = lastSample;
+        final double filteredSample = allSamplesFilter.filter(0, sample);
         if (applyToBaseline) {
-            baselineSamplesFilter.filter(sample);
+            baselineSamplesFilter.filter(0, sample);
         }
-        final double baselineFilteredSample = baselineSamplesFilter.getValue();
-        return abs((filteredSample - baselineFilteredSample)) / NAU7802_RESULT_MAX_VALUE;
+        final double baselineFilteredSample = baselineSamplesFilter.getValue(0);
+        lastPercentOffset = percentOffset(filteredSample, baselineFilteredSample);
+        return lastPercentOffset;
+    }
+
+    /**
+     * Gets the percent that the given sample is off the given baseline sample.
+     *
+     * @param sample         the sample
+     * @param baselineSample the baseline sample
+     *
+     * @return a double between <code>0.0</code> and <code>1.0</code>
+     */
+    public static double percentOffset(double sample, double baselineSample) {
+        return abs(sample - baselineSample) / NAU7802_RESULT_MAX_VALUE;
     }
 
     /**
-     * Calls {@link LowPassFilter#getValue()} for {@link #baselineSamplesFilter}.
+     * Calls {@link Filter#getValue(int)} for {@link #baselineSamplesFilter}.
      *
      * @return a double
      */
     public double getLastBaselineSamplesFilterValue() {
-        return baselineSamplesFilter.getValue();
+        return baselineSamplesFilter.getValue(0);
     }
 
     /**
-     * Calls {@link LowPassFilter#getValue()} for {@link #allSamplesFilter}.
+     * Calls {@link Filter#getValue(int)} for {@link #allSamplesFilter}.
      *
      * @return a double
      */
     public double getLastAllSamplesFilterValue() {
-        return allSamplesFilter.getValue();
+        return allSamplesFilter.getValue(0);
+    }
+
+    /**
+     * Resets the baseline and all samples {@link Filter}s, so that they are initialized by the next sample (e.g. after
+     * a recalibration shifted the offset of the samples).
+     */
+    public void resetFilters() {
+        baselineSamplesFilter.reset(0);
+        allSamplesFilter.reset(0);
     }
 
     public int getIndex() {
         return index;
     }
 
+    public RegisterShadow getRegisterShadow() {
+        return registerShadow;
+    }
+
+    public boolean isPoweredDown() {
+        return poweredDown;
+    }
+
     public Location getLoadSurfaceLocation() {
         return loadSurfaceLocation;
     }
@@ -175,4 +463,12 @@ public class ADC {
     public int getLastSample() {
         return lastSample;
     }
+
+    public double getLastPercentOffset() {
+        return lastPercentOffset;
+    }
+
+    public int getQueuedSample() {
+        return queuedSample;
+    }
 }
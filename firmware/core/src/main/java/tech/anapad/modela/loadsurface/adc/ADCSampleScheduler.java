@@ -0,0 +1,127 @@
+package tech.anapad.modela.loadsurface.adc;
+
+import tech.anapad.modela.util.i2c.I2CTransaction;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * {@link ADCSampleScheduler} schedules the reads of the conversions of {@link ADC}s whose sample cycles have been
+ * synchronized via {@link ADC#stopSampleCycle()} and {@link ADC#queueStartSampleCycle(I2CTransaction)}. Instead of
+ * polling the conversion ready bit of each {@link ADC}, the sample thread parks until the deadline of the next
+ * conversion cycle, which is derived from the synchronized cycle start and the conversion period, so that the
+ * conversions of all {@link ADC}s can be read back-to-back exactly once per cycle. A conversion that isn't ready by
+ * the deadline reveals an {@link ADC} that has drifted late, but an {@link ADC} that has drifted early is still ready
+ * by the deadline, so {@link #awaitPhaseCheck(long)} is used to periodically check for early drift in the middle of a
+ * cycle.
+ */
+public class ADCSampleScheduler {
+
+    private final long conversionPeriodNanos;
+    private final long deadlineMarginNanos;
+
+    private long nextCycleNanos;
+    private long cycleCount;
+    private long missedCycleCount;
+    private long synchronizationCount;
+
+    /**
+     * Instantiates a new {@link ADCSampleScheduler}.
+     *
+     * @param conversionPeriodNanos the conversion period of the {@link ADC}s in nanoseconds
+     * @param deadlineMarginNanos   the margin in nanoseconds added to the nominal end of each conversion cycle to
+     *                              tolerate small clock differences between the host and the {@link ADC}s
+     */
+    public ADCSampleScheduler(long conversionPeriodNanos, long deadlineMarginNanos) {
+        this.conversionPeriodNanos = conversionPeriodNanos;
+        this.deadlineMarginNanos = deadlineMarginNanos;
+    }
+
+    /**
+     * Synchronizes this {@link ADCSampleScheduler} to the given conversion cycle start. This should be the time at
+     * which the last {@link ADC} was synchronized so that the conversions of all {@link ADC}s have completed by each
+     * deadline.
+     *
+     * @param cycleStartNanos the {@link System#nanoTime()} of the conversion cycle start
+     */
+    public void synchronize(long cycleStartNanos) {
+        nextCycleNanos = cycleStartNanos + conversionPeriodNanos;
+        synchronizationCount++;
+    }
+
+    /**
+     * Parks the calling thread until the deadline of the next conversion cycle. If the calling thread is more than half
+     * a conversion period late for one or more cycles (e.g. because a sample listener took too long), those cycles are
+     * skipped, since their conversions are either overwritten or would be read so close to the next conversion that it
+     * could be read instead, which would leave no new conversion for the next cycle.
+     *
+     * @return the {@link System#nanoTime()} at which the conversions of the cycle completed
+     */
+    public long awaitNextCycle() {
+        final long lateNanos = nanoTime() - nextCycleNanos;
+        if (lateNanos >= conversionPeriodNanos / 2) {
+            final long missedCycles = (lateNanos + conversionPeriodNanos / 2) / conversionPeriodNanos;
+            nextCycleNanos += missedCycles * conversionPeriodNanos;
+            missedCycleCount += missedCycles;
+        }
+
+        final long deadlineNanos = nextCycleNanos + deadlineMarginNanos;
+        long remainingNanos;
+        while ((remainingNanos = deadlineNanos - nanoTime()) > 0) {
+            parkNanos(remainingNanos);
+        }
+
+        final long cycleNanos = nextCycleNanos;
+        nextCycleNanos += conversionPeriodNanos;
+        cycleCount++;
+        return cycleNanos;
+    }
+
+    /**
+     * Parks the calling thread until the middle of the next conversion cycle of an {@link ADC}, when the conversion
+     * ready bit of an {@link ADC} whose conversion was read in the previous cycle must still be cleared. If it is set,
+     * the {@link ADC} completes its conversions early and would eventually complete two conversions in one cycle, so
+     * the first of them would be overwritten unnoticed. If the middle of the cycle has already passed, this returns
+     * immediately, and a conversion ready bit that is set until a quarter of a conversion period before the
+     * conversion is due still reveals early drift.
+     *
+     * @param phaseOffsetNanos the time in nanoseconds by which the conversion cycle of the {@link ADC} starts before
+     *                         the synchronized conversion cycle start (e.g. because it was synchronized earlier)
+     *
+     * @return <code>true</code> if the conversion is due in at least a quarter of a conversion period,
+     * <code>false</code> if it is too late to check
+     */
+    public boolean awaitPhaseCheck(long phaseOffsetNanos) {
+        final long conversionNanos = nextCycleNanos - phaseOffsetNanos;
+        final long checkNanos = conversionNanos - conversionPeriodNanos / 2;
+        long remainingNanos;
+        while ((remainingNanos = checkNanos - nanoTime()) > 0) {
+            parkNanos(remainingNanos);
+        }
+        return conversionNanos - nanoTime() >= conversionPeriodNanos / 4;
+    }
+
+    public long getNextCycleNanos() {
+        return nextCycleNanos;
+    }
+
+    public long getConversionPeriodNanos() {
+        return conversionPeriodNanos;
+    }
+
+    public long getDeadlineMarginNanos() {
+        return deadlineMarginNanos;
+    }
+
+    public long getCycleCount() {
+        return cycleCount;
+    }
+
+    public long getMissedCycleCount() {
+        return missedCycleCount;
+    }
+
+    public long getSynchronizationCount() {
+        return synchronizationCount;
+    }
+}
@@ -0,0 +1,55 @@
+package tech.anapad.modela.loadsurface.calibration;
+
+import tech.anapad.modela.loadsurface.adc.ADC;
+
+/**
+ * {@link CalibrationRecord} records a background calibration of an {@link ADC} (see {@link RecalibrationService}).
+ */
+public class CalibrationRecord {
+
+    private final int adcIndex;
+    private final long startNanos;
+    private final long durationNanos;
+    private final boolean succeeded;
+
+    /**
+     * Instantiates a new {@link CalibrationRecord}.
+     *
+     * @param adcIndex      the {@link ADC#getIndex()}
+     * @param startNanos    the {@link System#nanoTime()} at which the calibration started
+     * @param durationNanos the duration of the calibration in nanoseconds
+     * @param succeeded     <code>true</code> if the calibration succeeded, <code>false</code> if it failed or timed out
+     */
+    public CalibrationRecord(int adcIndex, long startNanos, long durationNanos, boolean succeeded) {
+        this.adcIndex = adcIndex;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.succeeded = succeeded;
+    }
+
+    public int getADCIndex() {
+        return adcIndex;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean didSucceed() {
+        return succeeded;
+    }
+
+    @Override
+    public String toString() {
+        return "CalibrationRecord{" +
+                "adcIndex=" + adcIndex +
+                ", startNanos=" + startNanos +
+                ", durationNanos=" + durationNanos +
+                ", succeeded=" + succeeded +
+                '}';
+    }
+}
@@ -0,0 +1,181 @@
+package tech.anapad.modela.loadsurface.calibration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.loadsurface.acquisition.SampleAcquisition;
+import tech.anapad.modela.loadsurface.adc.ADC;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Math.max;
+
+/**
+ * {@link RecalibrationService} periodically recalibrates the load surface {@link ADC}s in the background to compensate
+ * for offset drift (e.g. from temperature changes). Every recalibration interval, it calibrates each {@link ADC} in
+ * turn via {@link SampleAcquisition#requestCalibration(int)}, one {@link ADC} at a time and only once no touches have
+ * been seen for the quiet period, so the other {@link ADC}s keep delivering samples. The {@link ADC} filters are reset
+ * after each calibration, since the calibration shifts the offset of the samples. All methods except the getters must
+ * be called on the thread that filters the samples.
+ */
+public class RecalibrationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecalibrationService.class);
+    private static final int CALIBRATION_HISTORY_CAPACITY = 64;
+
+    private final ADC[] adcs;
+    private final long intervalNanos;
+    private final long quietNanos;
+    private final ArrayDeque<CalibrationRecord> calibrationHistory;
+
+    private long nextSweepNanos;
+    private long lastTouchNanos;
+    private int sweepIndex;
+    private SampleAcquisition pendingSampleAcquisition;
+    private boolean loggedUnsupported;
+    private long calibrationCount;
+    private long failedCalibrationCount;
+    private double calibrationDurationSum;
+    private long maxCalibrationDurationNanos;
+
+    /**
+     * Instantiates a new {@link RecalibrationService}.
+     *
+     * @param adcs          the {@link ADC}s, in the order of the sample frame channels
+     * @param intervalNanos the recalibration interval in nanoseconds
+     * @param quietNanos    the time without touches in nanoseconds before an {@link ADC} is calibrated
+     * @param nowNanos      the {@link System#nanoTime()}
+     */
+    public RecalibrationService(ADC[] adcs, long intervalNanos, long quietNanos, long nowNanos) {
+        this.adcs = adcs;
+        this.intervalNanos = intervalNanos;
+        this.quietNanos = quietNanos;
+        calibrationHistory = new ArrayDeque<>(CALIBRATION_HISTORY_CAPACITY);
+        nextSweepNanos = nowNanos + intervalNanos;
+        lastTouchNanos = nowNanos;
+        sweepIndex = -1;
+    }
+
+    /**
+     * Updates this {@link RecalibrationService}. This must be called for each acquired sample frame before its samples
+     * are filtered, so that the filters of a calibrated {@link ADC} are reset before its first new sample.
+     *
+     * @param sampleAcquisition the current {@link SampleAcquisition}
+     * @param nowNanos          the {@link System#nanoTime()}
+     * @param touching          <code>true</code> if touches are present, <code>false</code> otherwise
+     */
+    public void update(SampleAcquisition sampleAcquisition, long nowNanos, boolean touching) {
+        if (touching) {
+            lastTouchNanos = nowNanos;
+        }
+
+        if (pendingSampleAcquisition != null) {
+            if (pendingSampleAcquisition != sampleAcquisition) {
+                // The sample acquisition was restarted (e.g. by a power mode switch) and the calibration may have
+                // shifted the offset of the samples anyway, so reset the filters and retry the calibration
+                pendingSampleAcquisition = null;
+                adcs[sweepIndex].resetFilters();
+                return;
+            }
+            final CalibrationRecord record = sampleAcquisition.pollCalibrationRecord();
+            if (record == null) {
+                return;
+            }
+            pendingSampleAcquisition = null;
+            adcs[sweepIndex].resetFilters();
+            recordCalibration(record);
+            if (++sweepIndex == adcs.length) {
+                sweepIndex = -1;
+                nextSweepNanos = nowNanos + intervalNanos;
+            }
+            return;
+        }
+
+        if (sweepIndex < 0) {
+            if (nowNanos - nextSweepNanos < 0) {
+                return;
+            }
+            sweepIndex = 0;
+        }
+        if (touching || nowNanos - lastTouchNanos < quietNanos) {
+            return;
+        }
+        if (sampleAcquisition.requestCalibration(sweepIndex)) {
+            pendingSampleAcquisition = sampleAcquisition;
+        } else {
+            if (!loggedUnsupported) {
+                LOGGER.info("Sample acquisition doesn't support background recalibration, so skipping it.");
+                loggedUnsupported = true;
+            }
+            sweepIndex = -1;
+            nextSweepNanos = nowNanos + intervalNanos;
+        }
+    }
+
+    /**
+     * Records the given {@link CalibrationRecord} in the calibration history and statistics.
+     *
+     * @param record the {@link CalibrationRecord}
+     */
+    private void recordCalibration(CalibrationRecord record) {
+        if (record.didSucceed()) {
+            LOGGER.info("Recalibrated ADC {} in {} us.", record.getADCIndex(), record.getDurationNanos() / 1000);
+        } else {
+            LOGGER.error("Could not recalibrate ADC {}! (after {} us)", record.getADCIndex(),
+                    record.getDurationNanos() / 1000);
+        }
+        synchronized (calibrationHistory) {
+            if (calibrationHistory.size() == CALIBRATION_HISTORY_CAPACITY) {
+                calibrationHistory.removeFirst();
+            }
+            calibrationHistory.addLast(record);
+            calibrationCount++;
+            if (!record.didSucceed()) {
+                failedCalibrationCount++;
+            }
+            calibrationDurationSum += record.getDurationNanos();
+            maxCalibrationDurationNanos = max(maxCalibrationDurationNanos, record.getDurationNanos());
+        }
+    }
+
+    /**
+     * Gets a copy of the most recent {@link CalibrationRecord}s, oldest first.
+     *
+     * @return a new {@link CalibrationRecord} {@link List}
+     */
+    public List<CalibrationRecord> getCalibrationHistory() {
+        synchronized (calibrationHistory) {
+            return new ArrayList<>(calibrationHistory);
+        }
+    }
+
+    /**
+     * Gets the mean duration of all calibrations so far.
+     *
+     * @return the mean duration in nanoseconds or <code>0</code> if there were none
+     */
+    public double getMeanCalibrationDurationNanos() {
+        synchronized (calibrationHistory) {
+            return calibrationCount == 0 ? 0 : calibrationDurationSum / calibrationCount;
+        }
+    }
+
+    public long getCalibrationCount() {
+        synchronized (calibrationHistory) {
+            return calibrationCount;
+        }
+    }
+
+    public long getFailedCalibrationCount() {
+        synchronized (calibrationHistory) {
+            return failedCalibrationCount;
+        }
+    }
+
+    public long getMaxCalibrationDurationNanos() {
+        synchronized (calibrationHistory) {
+            return maxCalibrationDurationNanos;
+        }
+    }
+}
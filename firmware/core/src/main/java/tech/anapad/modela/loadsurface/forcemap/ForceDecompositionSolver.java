@@ -0,0 +1,229 @@
+package tech.anapad.modela.loadsurface.forcemap;
+
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+import tech.anapad.modela.util.location.Location;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static tech.anapad.modela.touchscreen.driver.TouchscreenDriver.GT9110_TOUCH_CAPACITY;
+
+/**
+ * {@link ForceDecompositionSolver} estimates the individual forces of simultaneous touches from the four load surface
+ * channels. The load surface is modeled as a rigid plate on four load cells at the corners of a rectangle, so the share
+ * of a touch force that a load cell carries is bilinear in the touch location. The forces <code>f</code> of
+ * <code>n</code> touches with the <code>4 x n</code> share matrix <code>G</code> are the regularized least-squares
+ * solution of <code>G f = v</code> for the channel values <code>v</code>:
+ * <p>
+ * <code>f = G<sup>T</sup> (G G<sup>T</sup> + &lambda; I)<sup>-1</sup> v</code>
+ * <p>
+ * <code>G G<sup>T</sup> + &lambda; I</code> is always <code>4 x 4</code> regardless of the number of touches, so each
+ * solve is a fixed-size Cholesky decomposition, which also works for more touches than load cells. The regularization
+ * <code>&lambda;</code> keeps the system well-conditioned for touches close to each other. Negative (unphysical)
+ * forces are clamped to zero.
+ * <p>
+ * The bilinear shares only hold within the rectangle of the load cells. Outside of it, they extrapolate to negative
+ * shares, which can't be fit to the channel values, since those are absolute offsets. So if a touch is outside of the
+ * rectangle, the force of each touch is the {@link ForceMap#force(double, double, double[])} of the channel values
+ * instead. A {@link ForceDecompositionSolver} is not thread-safe and doesn't allocate.
+ */
+public class ForceDecompositionSolver {
+
+    /**
+     * The number of load cells.
+     */
+    public static final int CHANNEL_COUNT = 4;
+
+    private final ForceMap forceMap;
+    private final double regularization;
+    private final double minX;
+    private final double minY;
+    private final double width;
+    private final double height;
+    private final int[] channelsOfCorners;
+    private final double[] shares;
+    private final double[] system;
+    private final double[] solution;
+
+    /**
+     * Instantiates a new {@link ForceDecompositionSolver}.
+     *
+     * @param adcLocations   the {@link Location} of the ADC of each channel, which must be at the corners of a
+     *                       rectangle
+     * @param forceMap       the {@link ForceMap} to convert the decomposed forces to weighted channel values with
+     * @param regularization the regularization <code>&lambda;</code> (e.g. <code>0.01</code>)
+     */
+    public ForceDecompositionSolver(Location[] adcLocations, ForceMap forceMap, double regularization) {
+        if (adcLocations.length != CHANNEL_COUNT) {
+            throw new IllegalArgumentException("Force decomposition requires " + CHANNEL_COUNT + " ADCs!");
+        }
+        this.forceMap = forceMap;
+        this.regularization = regularization;
+
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        double tempMinX = Double.MAX_VALUE;
+        double tempMinY = Double.MAX_VALUE;
+        for (Location adcLocation : adcLocations) {
+            tempMinX = min(tempMinX, adcLocation.getX());
+            tempMinY = min(tempMinY, adcLocation.getY());
+            maxX = max(maxX, adcLocation.getX());
+            maxY = max(maxY, adcLocation.getY());
+        }
+        minX = tempMinX;
+        minY = tempMinY;
+        width = maxX - minX;
+        height = maxY - minY;
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Force decomposition requires ADCs at the corners of a rectangle!");
+        }
+
+        // Corners are ordered (minX, minY), (maxX, minY), (minX, maxY), (maxX, maxY)
+        channelsOfCorners = new int[CHANNEL_COUNT];
+        for (int corner = 0; corner < CHANNEL_COUNT; corner++) {
+            final Location cornerLocation = Location.loc(corner % 2 == 0 ? minX : maxX, corner < 2 ? minY : maxY);
+            double minDistance = Double.MAX_VALUE;
+            for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+                final double distance = cornerLocation.distance(adcLocations[channel]);
+                if (distance < minDistance) {
+                    minDistance = distance;
+                    channelsOfCorners[corner] = channel;
+                }
+            }
+        }
+
+        shares = new double[GT9110_TOUCH_CAPACITY * CHANNEL_COUNT];
+        system = new double[CHANNEL_COUNT * CHANNEL_COUNT];
+        solution = new double[CHANNEL_COUNT];
+    }
+
+    /**
+     * Computes the share of a force at the given location that each load cell carries.
+     *
+     * @param x      the X in view pixels
+     * @param y      the Y in view pixels
+     * @param shares the array to store the share of each channel in
+     * @param offset the offset in <code>shares</code>
+     */
+    private void computeShares(double x, double y, double[] shares, int offset) {
+        final double ratioX = (x - minX) / width;
+        final double ratioY = (y - minY) / height;
+        shares[offset + channelsOfCorners[0]] = (1 - ratioX) * (1 - ratioY);
+        shares[offset + channelsOfCorners[1]] = ratioX * (1 - ratioY);
+        shares[offset + channelsOfCorners[2]] = (1 - ratioX) * ratioY;
+        shares[offset + channelsOfCorners[3]] = ratioX * ratioY;
+    }
+
+    /**
+     * Gets if the given location is within the rectangle of the load cells, where the bilinear shares hold.
+     *
+     * @param x the X in view pixels
+     * @param y the Y in view pixels
+     *
+     * @return <code>true</code> if it is covered, <code>false</code> otherwise
+     */
+    public boolean isCovered(double x, double y) {
+        return x >= minX && x <= minX + width && y >= minY && y <= minY + height;
+    }
+
+    /**
+     * Decomposes the given channel values into the forces of the touches of the given {@link TouchFrame}. Each force
+     * is returned as the {@link ForceMap#force(double, double, double[])} of the channel values that the force of the
+     * touch alone would cause, so that it is comparable to the force of a single touch (e.g. for press thresholds).
+     * If a touch isn't covered (see {@link #isCovered(double, double)}), each force is the
+     * {@link ForceMap#force(double, double, double[])} of all channel values instead.
+     *
+     * @param touchFrame    the {@link TouchFrame}
+     * @param channelValues the value of each channel (e.g. percent offset samples)
+     * @param touchForces   the array to store the force of each touch in
+     *
+     * @return <code>true</code> if the forces were decomposed, <code>false</code> if a touch isn't covered
+     */
+    public boolean solve(TouchFrame touchFrame, double[] channelValues, double[] touchForces) {
+        final int touchCount = min(touchFrame.getCount(), GT9110_TOUCH_CAPACITY);
+        for (int touchIndex = 0; touchIndex < touchCount; touchIndex++) {
+            if (!isCovered(touchFrame.getX(touchIndex), touchFrame.getY(touchIndex))) {
+                for (int index = 0; index < touchCount; index++) {
+                    touchForces[index] = forceMap.force(touchFrame.getX(index), touchFrame.getY(index),
+                            channelValues);
+                }
+                return false;
+            }
+        }
+
+        // Build the lower triangle of G G^T + lambda I
+        for (int index = 0; index < system.length; index++) {
+            system[index] = 0;
+        }
+        for (int touchIndex = 0; touchIndex < touchCount; touchIndex++) {
+            final int offset = touchIndex * CHANNEL_COUNT;
+            computeShares(touchFrame.getX(touchIndex), touchFrame.getY(touchIndex), shares, offset);
+            for (int row = 0; row < CHANNEL_COUNT; row++) {
+                for (int column = 0; column <= row; column++) {
+                    system[row * CHANNEL_COUNT + column] += shares[offset + row] * shares[offset + column];
+                }
+            }
+        }
+        for (int row = 0; row < CHANNEL_COUNT; row++) {
+            system[row * CHANNEL_COUNT + row] += regularization;
+        }
+
+        // Solve (G G^T + lambda I) y = v via an in-place Cholesky decomposition, then f = G^T y
+        choleskyDecompose();
+        choleskySolve(channelValues);
+        for (int touchIndex = 0; touchIndex < touchCount; touchIndex++) {
+            final int offset = touchIndex * CHANNEL_COUNT;
+            double force = 0;
+            for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+                force += shares[offset + channel] * solution[channel];
+            }
+            force = max(0, force);
+            // The force map is linear in the channel values, so scale the force map of the shares by the force
+            touchForces[touchIndex] = force * forceMap.force(touchFrame.getX(touchIndex), touchFrame.getY(touchIndex),
+                    shares, offset);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the lower triangle of {@link #system} with its Cholesky factor <code>L</code>.
+     */
+    private void choleskyDecompose() {
+        for (int row = 0; row < CHANNEL_COUNT; row++) {
+            for (int column = 0; column <= row; column++) {
+                double sum = system[row * CHANNEL_COUNT + column];
+                for (int index = 0; index < column; index++) {
+                    sum -= system[row * CHANNEL_COUNT + index] * system[column * CHANNEL_COUNT + index];
+                }
+                system[row * CHANNEL_COUNT + column] = row == column ?
+                        sqrt(sum) : sum / system[column * CHANNEL_COUNT + column];
+            }
+        }
+    }
+
+    /**
+     * Solves <code>L L<sup>T</sup> y = v</code> into {@link #solution}.
+     *
+     * @param values the values <code>v</code>
+     */
+    private void choleskySolve(double[] values) {
+        for (int row = 0; row < CHANNEL_COUNT; row++) {
+            double sum = values[row];
+            for (int index = 0; index < row; index++) {
+                sum -= system[row * CHANNEL_COUNT + index] * solution[index];
+            }
+            solution[row] = sum / system[row * CHANNEL_COUNT + row];
+        }
+        for (int row = CHANNEL_COUNT - 1; row >= 0; row--) {
+            double sum = solution[row];
+            for (int index = row + 1; index < CHANNEL_COUNT; index++) {
+                sum -= system[index * CHANNEL_COUNT + row] * solution[index];
+            }
+            solution[row] = sum / system[row * CHANNEL_COUNT + row];
+        }
+    }
+
+    public double getRegularization() {
+        return regularization;
+    }
+}
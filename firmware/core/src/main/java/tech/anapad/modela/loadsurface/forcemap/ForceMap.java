@@ -0,0 +1,204 @@
+package tech.anapad.modela.loadsurface.forcemap;
+
+import tech.anapad.modela.util.location.Location;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.min;
+import static tech.anapad.modela.util.file.FileUtil.writeBytes;
+import static tech.anapad.modela.util.math.MathUtil.clamp;
+
+/**
+ * {@link ForceMap} is a lookup table of per-channel load surface weights at the nodes of a grid over the view. The
+ * force at a location is the dot product of the channel values (e.g. percent offset samples) with the channel weights
+ * at the location, which are bilinearly interpolated from the four surrounding grid nodes. This is O(1) and doesn't
+ * allocate. The weights are either computed from the load surface ADC locations (see
+ * {@link #fromLocations(Location[], int, int, double)}) or loaded from a stored calibration (see
+ * {@link #read(String)}).
+ */
+public class ForceMap {
+
+    private static final int FILE_MAGIC = 0x464D4150; // "FMAP"
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int channelCount;
+    private final float[] weights;
+
+    /**
+     * Instantiates a new {@link ForceMap}.
+     *
+     * @param cellSize     the size of a grid cell in view pixels
+     * @param columns      the number of grid node columns (at least 2)
+     * @param rows         the number of grid node rows (at least 2)
+     * @param channelCount the number of channels
+     * @param weights      the channel weights of each grid node, indexed by
+     *                     <code>(row * columns + column) * channelCount + channel</code>
+     */
+    public ForceMap(double cellSize, int columns, int rows, int channelCount, float[] weights) {
+        if (columns < 2 || rows < 2) {
+            throw new IllegalArgumentException("Force map must have at least 2 columns and 2 rows!");
+        }
+        if (weights.length != columns * rows * channelCount) {
+            throw new IllegalArgumentException("Force map weights don't match its dimensions!");
+        }
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.channelCount = channelCount;
+        this.weights = weights;
+    }
+
+    /**
+     * Creates a {@link ForceMap} of inverse distance weights: the weight of a channel at a grid node is proportional to
+     * the inverse of the distance between the grid node and the ADC location of the channel, normalized so that the
+     * weights of a grid node sum up to one.
+     *
+     * @param adcLocations the {@link Location} of the ADC of each channel
+     * @param width        the width of the view in pixels
+     * @param height       the height of the view in pixels
+     * @param cellSize     the size of a grid cell in pixels
+     *
+     * @return the {@link ForceMap}
+     */
+    public static ForceMap fromLocations(Location[] adcLocations, int width, int height, double cellSize) {
+        final int columns = (int) ceil(width / cellSize) + 1;
+        final int rows = (int) ceil(height / cellSize) + 1;
+        final int channelCount = adcLocations.length;
+        final float[] weights = new float[columns * rows * channelCount];
+        final double[] inverseDistances = new double[channelCount];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final Location nodeLocation = Location.loc(column * cellSize, row * cellSize);
+                final int nodeOffset = (row * columns + column) * channelCount;
+                int coincidentChannel = -1;
+                double inverseDistanceSum = 0;
+                for (int channel = 0; channel < channelCount; channel++) {
+                    final double distance = nodeLocation.distance(adcLocations[channel]);
+                    if (distance == 0) {
+                        coincidentChannel = channel;
+                        break;
+                    }
+                    inverseDistances[channel] = 1 / distance;
+                    inverseDistanceSum += inverseDistances[channel];
+                }
+                for (int channel = 0; channel < channelCount; channel++) {
+                    weights[nodeOffset + channel] = coincidentChannel < 0 ?
+                            (float) (inverseDistances[channel] / inverseDistanceSum) :
+                            channel == coincidentChannel ? 1 : 0;
+                }
+            }
+        }
+        return new ForceMap(cellSize, columns, rows, channelCount, weights);
+    }
+
+    /**
+     * Reads a {@link ForceMap} from a file written by {@link #write(String)}.
+     *
+     * @param path the path
+     *
+     * @return the {@link ForceMap}
+     * @throws IOException thrown for {@link IOException}s
+     */
+    public static ForceMap read(String path) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+        if (buffer.getInt() != FILE_MAGIC) {
+            throw new IOException("Not a force map file: " + path);
+        }
+        final double cellSize = buffer.getDouble();
+        final int columns = buffer.getInt();
+        final int rows = buffer.getInt();
+        final int channelCount = buffer.getInt();
+        final float[] weights = new float[columns * rows * channelCount];
+        buffer.asFloatBuffer().get(weights);
+        return new ForceMap(cellSize, columns, rows, channelCount, weights);
+    }
+
+    /**
+     * Writes this {@link ForceMap} to a file (e.g. after a calibration capture).
+     *
+     * @param path the path
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    public void write(String path) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 4 + Double.BYTES + weights.length * Float.BYTES);
+        buffer.putInt(FILE_MAGIC);
+        buffer.putDouble(cellSize);
+        buffer.putInt(columns);
+        buffer.putInt(rows);
+        buffer.putInt(channelCount);
+        buffer.asFloatBuffer().put(weights);
+        writeBytes(path, buffer.array());
+    }
+
+    /**
+     * Gets the force at the given location, which is clamped to the grid.
+     *
+     * @param x             the X in view pixels
+     * @param y             the Y in view pixels
+     * @param channelValues the value of each channel
+     *
+     * @return the force in the unit of the channel values
+     */
+    public double force(double x, double y, double[] channelValues) {
+        return force(x, y, channelValues, 0);
+    }
+
+    /**
+     * Gets the force at the given location, which is clamped to the grid.
+     *
+     * @param x             the X in view pixels
+     * @param y             the Y in view pixels
+     * @param channelValues the array containing the value of each channel
+     * @param offset        the offset of the first channel value in <code>channelValues</code>
+     *
+     * @return the force in the unit of the channel values
+     */
+    public double force(double x, double y, double[] channelValues, int offset) {
+        final double gridX = clamp(x / cellSize, 0, columns - 1);
+        final double gridY = clamp(y / cellSize, 0, rows - 1);
+        final int column = min((int) gridX, columns - 2);
+        final int row = min((int) gridY, rows - 2);
+        final double ratioX = gridX - column;
+        final double ratioY = gridY - row;
+        final double weight00 = (1 - ratioX) * (1 - ratioY);
+        final double weight10 = ratioX * (1 - ratioY);
+        final double weight01 = (1 - ratioX) * ratioY;
+        final double weight11 = ratioX * ratioY;
+
+        final int offset00 = (row * columns + column) * channelCount;
+        final int offset10 = offset00 + channelCount;
+        final int offset01 = offset00 + columns * channelCount;
+        final int offset11 = offset01 + channelCount;
+        double force = 0;
+        for (int channel = 0; channel < channelCount; channel++) {
+            force += channelValues[offset + channel] * (weight00 * weights[offset00 + channel] +
+                    weight10 * weights[offset10 + channel] +
+                    weight01 * weights[offset01 + channel] +
+                    weight11 * weights[offset11 + channel]);
+        }
+        return force;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+}
@@ -1,6 +1,8 @@
 package tech.anapad.modela.loadsurface.i2cmultiplexer;
 
-import static tech.anapad.modela.util.i2c.I2CNative.writeByte;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.I2CTransaction;
+
 
 /**
  * {@link I2CMultiplexer} represents the TCA9544A 4-channel I2C multiplexer chip.
@@ -9,17 +11,17 @@ public class I2CMultiplexer {
 
     private static final short TCA9544A_ADDRESS = 0x70;
 
-    private final int i2cFD;
+    private final I2CBus i2cBus;
 
     private Channel currentChannel;
 
     /**
      * Instantiates a new {@link I2CMultiplexer}.
      *
-     * @param i2cFD the low-level I2C device file descriptor
+     * @param i2cBus the {@link I2CBus}
      */
-    public I2CMultiplexer(int i2cFD) {
-        this.i2cFD = i2cFD;
+    public I2CMultiplexer(I2CBus i2cBus) {
+        this.i2cBus = i2cBus;
     }
 
     /**
@@ -28,7 +30,7 @@ public class I2CMultiplexer {
      * @throws Exception thrown for {@link Exception}s
      */
     public void disable() throws Exception {
-        writeByte(i2cFD, TCA9544A_ADDRESS, (byte) 0x00);
+        i2cBus.writeByte(TCA9544A_ADDRESS, (byte) 0x00);
     }
 
     /**
@@ -39,14 +41,39 @@ public class I2CMultiplexer {
      * @throws Exception thrown for {@link Exception}s
      */
     public void setChannel(Channel channel) throws Exception {
-        final byte controlRegister = switch (channel) {
+        i2cBus.writeByte(TCA9544A_ADDRESS, controlRegisterOf(channel));
+        currentChannel = channel;
+    }
+
+    /**
+     * Queues the selection of the given {@link Channel} into the given {@link I2CTransaction}. The TCA9544A only
+     * applies a channel selection upon a stop condition, so the selected {@link Channel} becomes active after the
+     * {@link I2CTransaction} is submitted and the messages queued before this one still go to the previously selected
+     * {@link Channel}. This also sets {@link #getCurrentChannel()} under the assumption that the
+     * {@link I2CTransaction} will be submitted.
+     *
+     * @param transaction the {@link I2CTransaction}
+     * @param channel     the {@link Channel}
+     */
+    public void queueChannel(I2CTransaction transaction, Channel channel) {
+        transaction.writeByte(TCA9544A_ADDRESS, controlRegisterOf(channel));
+        currentChannel = channel;
+    }
+
+    /**
+     * Gets the TCA9544A control register value for the given {@link Channel}.
+     *
+     * @param channel the {@link Channel}
+     *
+     * @return the control register byte
+     */
+    private static byte controlRegisterOf(Channel channel) {
+        return switch (channel) {
             case _0 -> 0b100;
             case _1 -> 0b101;
             case _2 -> 0b110;
             case _3 -> 0b111;
         };
-        writeByte(i2cFD, TCA9544A_ADDRESS, controlRegister);
-        currentChannel = channel;
     }
 
     public Channel getCurrentChannel() {
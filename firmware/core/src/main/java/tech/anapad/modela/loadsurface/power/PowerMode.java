@@ -0,0 +1,22 @@
+package tech.anapad.modela.loadsurface.power;
+
+/**
+ * {@link PowerMode} is the power mode of the load surface ADCs.
+ */
+public enum PowerMode {
+
+    /**
+     * The ADCs sample at the full conversion rate.
+     */
+    ACTIVE,
+
+    /**
+     * The ADCs sample at a low conversion rate, so the baseline keeps tracking drift while idle.
+     */
+    LOW_RATE,
+
+    /**
+     * The ADCs are powered down and don't sample.
+     */
+    POWER_DOWN
+}
@@ -0,0 +1,139 @@
+package tech.anapad.modela.loadsurface.power;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static tech.anapad.modela.loadsurface.power.PowerMode.ACTIVE;
+
+/**
+ * {@link PowerModeController} decides the {@link PowerMode} of the load surface ADCs: it requests the idle
+ * {@link PowerMode} once no touches have been seen for the idle window, and requests {@link PowerMode#ACTIVE} on the
+ * first touch after that. It also measures the wake latency, which is the time from the touch that requested
+ * {@link PowerMode#ACTIVE} until the first valid sample frame at the full conversion rate. The owner of the ADCs
+ * performs the {@link PowerMode} switches and reports them via {@link #setPowerMode(PowerMode)} and
+ * {@link #recordActiveFrame(long)}.
+ */
+public class PowerModeController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PowerModeController.class);
+
+    private final long idleNanos;
+    private final PowerMode idlePowerMode;
+
+    private volatile PowerMode powerMode;
+    private volatile long lastTouchNanos;
+    private volatile long wakeRequestNanos;
+    private long wakeCount;
+    private double wakeLatencySum;
+    private long maxWakeLatencyNanos;
+
+    /**
+     * Instantiates a new {@link PowerModeController}.
+     *
+     * @param idleNanos     the time without touches in nanoseconds after which the idle {@link PowerMode} is
+     *                      requested, or <code>0</code> to always stay {@link PowerMode#ACTIVE}
+     * @param idlePowerMode the idle {@link PowerMode}, which must not be {@link PowerMode#ACTIVE}
+     */
+    public PowerModeController(long idleNanos, PowerMode idlePowerMode) {
+        if (idlePowerMode == ACTIVE) {
+            throw new IllegalArgumentException("Idle power mode must not be ACTIVE!");
+        }
+        this.idleNanos = idleNanos;
+        this.idlePowerMode = idlePowerMode;
+        powerMode = ACTIVE;
+        lastTouchNanos = nanoTime();
+        wakeRequestNanos = 0;
+    }
+
+    /**
+     * Records the given {@link TouchFrame}. This is called on the touchscreen thread.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     *
+     * @return <code>true</code> if this {@link TouchFrame} requested {@link PowerMode#ACTIVE}, <code>false</code>
+     * otherwise
+     */
+    public boolean recordTouches(TouchFrame touchFrame) {
+        if (touchFrame.isEmpty()) {
+            return false;
+        }
+        final long touchNanos = touchFrame.getTimestampNanos() != 0 ? touchFrame.getTimestampNanos() : nanoTime();
+        lastTouchNanos = touchNanos;
+        if (powerMode != ACTIVE && wakeRequestNanos == 0) {
+            wakeRequestNanos = touchNanos;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the {@link PowerMode} that the ADCs should be in now.
+     *
+     * @param nowNanos the {@link System#nanoTime()}
+     *
+     * @return the requested {@link PowerMode}
+     */
+    public PowerMode getRequestedPowerMode(long nowNanos) {
+        if (powerMode == ACTIVE) {
+            return idleNanos > 0 && nowNanos - lastTouchNanos >= idleNanos ? idlePowerMode : ACTIVE;
+        } else {
+            if (wakeRequestNanos == 0 && nowNanos - lastTouchNanos < idleNanos) {
+                // A touch arrived while switching to the idle power mode
+                wakeRequestNanos = lastTouchNanos;
+            }
+            return wakeRequestNanos != 0 ? ACTIVE : powerMode;
+        }
+    }
+
+    /**
+     * Sets the {@link PowerMode} that the ADCs were switched to.
+     *
+     * @param powerMode the {@link PowerMode}
+     */
+    public void setPowerMode(PowerMode powerMode) {
+        this.powerMode = powerMode;
+    }
+
+    /**
+     * Records that a valid sample frame at the full conversion rate was published, which completes a pending wake.
+     *
+     * @param nowNanos the {@link System#nanoTime()}
+     */
+    public void recordActiveFrame(long nowNanos) {
+        final long requestNanos = wakeRequestNanos;
+        if (requestNanos == 0) {
+            return;
+        }
+        wakeRequestNanos = 0;
+        final long wakeLatencyNanos = nowNanos - requestNanos;
+        wakeCount++;
+        wakeLatencySum += wakeLatencyNanos;
+        maxWakeLatencyNanos = max(maxWakeLatencyNanos, wakeLatencyNanos);
+        LOGGER.info("Load surface wake latency: {} ms (wakes: {}, mean: {} ms, max: {} ms)",
+                format(wakeLatencyNanos / 1e6), wakeCount, format(wakeLatencySum / wakeCount / 1e6),
+                format(maxWakeLatencyNanos / 1e6));
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+
+    public PowerMode getPowerMode() {
+        return powerMode;
+    }
+
+    public PowerMode getIdlePowerMode() {
+        return idlePowerMode;
+    }
+
+    public long getWakeCount() {
+        return wakeCount;
+    }
+
+    public long getMaxWakeLatencyNanos() {
+        return maxWakeLatencyNanos;
+    }
+}
@@ -0,0 +1,144 @@
+package tech.anapad.modela.loadsurface.sample;
+
+import tech.anapad.modela.loadsurface.acquisition.ChannelPriority;
+import tech.anapad.modela.loadsurface.acquisition.SampleFrameRingBuffer;
+
+/**
+ * {@link SampleFrame} represents the phase-aligned samples of all load surface ADCs of one conversion cycle, stored in
+ * primitive arrays that are indexed by ADC channel. {@link SampleFrame}s are reused (e.g. by the consumer of a
+ * {@link SampleFrameRingBuffer} or by a {@link SampleFramePublisher}) so that no allocation occurs per sample cycle.
+ */
+public class SampleFrame {
+
+    /**
+     * The number of channels in a {@link SampleFrame} (i.e. the number of load surface ADCs).
+     */
+    public static final int CHANNEL_COUNT = 4;
+
+    private final int[] rawSamples;
+    private final double[] filteredSamples;
+    private final double[] filteredBaselineSamples;
+    private final double[] percentOffsetSamples;
+    private final long[] channelUpdateTimestampsNanos;
+
+    private long sequence;
+    private long timestampNanos;
+    private long readTimestampNanos;
+    private double percentOffsetSampleAverage;
+
+    /**
+     * Instantiates a new {@link SampleFrame}.
+     */
+    public SampleFrame() {
+        rawSamples = new int[CHANNEL_COUNT];
+        filteredSamples = new double[CHANNEL_COUNT];
+        filteredBaselineSamples = new double[CHANNEL_COUNT];
+        percentOffsetSamples = new double[CHANNEL_COUNT];
+        channelUpdateTimestampsNanos = new long[CHANNEL_COUNT];
+    }
+
+    /**
+     * Copies all values of the given {@link SampleFrame} into this {@link SampleFrame}.
+     *
+     * @param sampleFrame the {@link SampleFrame} to copy from
+     */
+    public void copyFrom(SampleFrame sampleFrame) {
+        sequence = sampleFrame.sequence;
+        timestampNanos = sampleFrame.timestampNanos;
+        readTimestampNanos = sampleFrame.readTimestampNanos;
+        percentOffsetSampleAverage = sampleFrame.percentOffsetSampleAverage;
+        System.arraycopy(sampleFrame.rawSamples, 0, rawSamples, 0, CHANNEL_COUNT);
+        System.arraycopy(sampleFrame.filteredSamples, 0, filteredSamples, 0, CHANNEL_COUNT);
+        System.arraycopy(sampleFrame.filteredBaselineSamples, 0, filteredBaselineSamples, 0, CHANNEL_COUNT);
+        System.arraycopy(sampleFrame.percentOffsetSamples, 0, percentOffsetSamples, 0, CHANNEL_COUNT);
+        System.arraycopy(sampleFrame.channelUpdateTimestampsNanos, 0, channelUpdateTimestampsNanos, 0, CHANNEL_COUNT);
+    }
+
+    /**
+     * Sets all values of this {@link SampleFrame} to the linear interpolation between the given {@link SampleFrame}s.
+     * The sequence number, read timestamp, and channel update timestamps are taken from the <code>to</code>
+     * {@link SampleFrame}.
+     *
+     * @param from  the earlier {@link SampleFrame}
+     * @param to    the later {@link SampleFrame}
+     * @param ratio the interpolation ratio from <code>0</code> (<code>from</code>) to <code>1</code> (<code>to</code>)
+     */
+    public void interpolate(SampleFrame from, SampleFrame to, double ratio) {
+        sequence = to.sequence;
+        timestampNanos = from.timestampNanos + Math.round((to.timestampNanos - from.timestampNanos) * ratio);
+        readTimestampNanos = to.readTimestampNanos;
+        percentOffsetSampleAverage = interpolate(from.percentOffsetSampleAverage, to.percentOffsetSampleAverage, ratio);
+        for (int index = 0; index < CHANNEL_COUNT; index++) {
+            rawSamples[index] = (int) Math.round(interpolate(from.rawSamples[index], to.rawSamples[index], ratio));
+            filteredSamples[index] = interpolate(from.filteredSamples[index], to.filteredSamples[index], ratio);
+            filteredBaselineSamples[index] = interpolate(from.filteredBaselineSamples[index],
+                    to.filteredBaselineSamples[index], ratio);
+            percentOffsetSamples[index] = interpolate(from.percentOffsetSamples[index],
+                    to.percentOffsetSamples[index], ratio);
+            channelUpdateTimestampsNanos[index] = to.channelUpdateTimestampsNanos[index];
+        }
+    }
+
+    private static double interpolate(double from, double to, double ratio) {
+        return from + (to - from) * ratio;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public void setTimestampNanos(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+    }
+
+    public long getReadTimestampNanos() {
+        return readTimestampNanos;
+    }
+
+    public void setReadTimestampNanos(long readTimestampNanos) {
+        this.readTimestampNanos = readTimestampNanos;
+    }
+
+    public double getPercentOffsetSampleAverage() {
+        return percentOffsetSampleAverage;
+    }
+
+    public void setPercentOffsetSampleAverage(double percentOffsetSampleAverage) {
+        this.percentOffsetSampleAverage = percentOffsetSampleAverage;
+    }
+
+    public int[] getRawSamples() {
+        return rawSamples;
+    }
+
+    public double[] getFilteredSamples() {
+        return filteredSamples;
+    }
+
+    public double[] getFilteredBaselineSamples() {
+        return filteredBaselineSamples;
+    }
+
+    public double[] getPercentOffsetSamples() {
+        return percentOffsetSamples;
+    }
+
+    /**
+     * Gets the {@link #getTimestampNanos()} of the conversion cycle in which each channel was last read. A channel
+     * that wasn't read in this conversion cycle (see {@link ChannelPriority}) holds its sample of that conversion
+     * cycle.
+     *
+     * @return the channel update timestamps array
+     */
+    public long[] getChannelUpdateTimestampsNanos() {
+        return channelUpdateTimestampsNanos;
+    }
+}
@@ -0,0 +1,203 @@
+package tech.anapad.modela.loadsurface.sample;
+
+import tech.anapad.modela.loadsurface.forcemap.ForceMap;
+import tech.anapad.modela.util.location.Location;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * {@link SampleFramePublisher} publishes {@link SampleFrame}s from a single writer thread to any number of reader
+ * threads without locks or allocation. It recycles a small pool of {@link SampleFrame}s, each of which is guarded by a
+ * sequence lock: the version of a pooled {@link SampleFrame} is odd while the writer is writing it, so readers copy a
+ * {@link SampleFrame} and retry if its version was odd or changed during the copy. A published {@link SampleFrame} is
+ * only overwritten after {@link #POOL_SIZE} - 1 newer {@link SampleFrame}s have been published, so the pool also
+ * serves as a short history of {@link SampleFrame}s (see {@link #copySequence(long, SampleFrame)}).
+ */
+public class SampleFramePublisher {
+
+    /**
+     * The number of pooled {@link SampleFrame}s, which is about 100 ms of history at 320 samples per second.
+     */
+    public static final int POOL_SIZE = 32;
+
+    private static final long AWAIT_POLL_PERIOD_NANOS = MICROSECONDS.toNanos(100);
+
+    private final int[] adcIndices;
+    private final Location[] adcLocations;
+    private final ForceMap forceMap;
+    private final SampleFrame[] sampleFrames;
+    private final SampleResult[] sampleResults;
+    private final AtomicLongArray versions;
+
+    private volatile int latestIndex;
+    private volatile long latestSequence;
+    private long nextSequence;
+    private int writeIndex;
+
+    /**
+     * Instantiates a new {@link SampleFramePublisher}.
+     *
+     * @param adcIndices   the index of the ADC of each {@link SampleFrame} channel
+     * @param adcLocations the load surface {@link Location} of the ADC of each {@link SampleFrame} channel
+     * @param forceMap     the {@link ForceMap} of the {@link SampleFrame} channels
+     */
+    public SampleFramePublisher(int[] adcIndices, Location[] adcLocations, ForceMap forceMap) {
+        this.adcIndices = adcIndices;
+        this.adcLocations = adcLocations;
+        this.forceMap = forceMap;
+        sampleFrames = new SampleFrame[POOL_SIZE];
+        sampleResults = new SampleResult[POOL_SIZE];
+        for (int index = 0; index < POOL_SIZE; index++) {
+            sampleFrames[index] = new SampleFrame();
+            sampleResults[index] = new SampleResult(sampleFrames[index], adcIndices, adcLocations, forceMap);
+        }
+        versions = new AtomicLongArray(POOL_SIZE);
+        latestIndex = -1;
+        latestSequence = -1;
+        nextSequence = 0;
+        writeIndex = 0;
+    }
+
+    /**
+     * Claims the oldest pooled {@link SampleFrame} for writing. Only the writer may call this, and it must call
+     * {@link #publish()} once it has written the claimed {@link SampleFrame}.
+     *
+     * @return the claimed {@link SampleFrame}
+     */
+    public SampleFrame claim() {
+        writeIndex = (writeIndex + 1) % POOL_SIZE;
+        versions.incrementAndGet(writeIndex); // Odd while writing
+        VarHandle.storeStoreFence();
+        return sampleFrames[writeIndex];
+    }
+
+    /**
+     * Publishes the {@link SampleFrame} returned by {@link #claim()} and assigns it the next sequence number. Only the
+     * writer may call this.
+     *
+     * @return the {@link SampleResult} view of the published {@link SampleFrame}
+     */
+    public SampleResult publish() {
+        final long sequence = nextSequence++;
+        sampleFrames[writeIndex].setSequence(sequence);
+        versions.incrementAndGet(writeIndex); // Even once written
+        latestIndex = writeIndex;
+        latestSequence = sequence;
+        return sampleResults[writeIndex];
+    }
+
+    /**
+     * Copies the latest published {@link SampleFrame} into the given {@link SampleFrame} without blocking.
+     *
+     * @param destination the {@link SampleFrame} to copy into
+     *
+     * @return <code>true</code> if a {@link SampleFrame} was copied, <code>false</code> if none has been published yet
+     */
+    public boolean copyLatest(SampleFrame destination) {
+        while (true) {
+            final int index = latestIndex;
+            if (index < 0) {
+                return false;
+            }
+            final long version = versions.get(index);
+            if ((version & 1) != 0) {
+                continue; // The writer has already reclaimed this frame, so re-read the latest index
+            }
+            destination.copyFrom(sampleFrames[index]);
+            VarHandle.loadLoadFence();
+            if (versions.get(index) == version) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Copies the published {@link SampleFrame} with the given sequence number into the given {@link SampleFrame}
+     * without blocking.
+     *
+     * @param sequence    the sequence number
+     * @param destination the {@link SampleFrame} to copy into
+     *
+     * @return <code>true</code> if the {@link SampleFrame} was copied, <code>false</code> if it hasn't been published
+     * yet or it has already been reclaimed
+     */
+    public boolean copySequence(long sequence, SampleFrame destination) {
+        if (sequence < 0 || sequence > latestSequence) {
+            return false;
+        }
+        // The first claimed frame is at index 1, so the frame of a sequence number is offset by one
+        final int index = (int) ((sequence + 1) % POOL_SIZE);
+        final long version = versions.get(index);
+        if ((version & 1) != 0) {
+            return false;
+        }
+        destination.copyFrom(sampleFrames[index]);
+        VarHandle.loadLoadFence();
+        return versions.get(index) == version && destination.getSequence() == sequence;
+    }
+
+    /**
+     * Waits until a {@link SampleFrame} newer than the given sequence number is published, then copies the latest
+     * published {@link SampleFrame} into the given {@link SampleFrame}.
+     *
+     * @param sequence     the sequence number, e.g. {@link SampleFrame#getSequence()} of the last copied
+     *                     {@link SampleFrame} or <code>-1</code> for any {@link SampleFrame}
+     * @param destination  the {@link SampleFrame} to copy into
+     * @param timeoutNanos the maximum time to wait in nanoseconds
+     *
+     * @return <code>true</code> if a newer {@link SampleFrame} was copied, <code>false</code> if the wait timed out or
+     * was interrupted
+     */
+    public boolean awaitNewerThan(long sequence, SampleFrame destination, long timeoutNanos) {
+        final long deadlineNanos = nanoTime() + timeoutNanos;
+        while (latestSequence <= sequence) {
+            final long remainingNanos = deadlineNanos - nanoTime();
+            if (remainingNanos <= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            parkNanos(min(remainingNanos, AWAIT_POLL_PERIOD_NANOS));
+        }
+        return copyLatest(destination);
+    }
+
+    /**
+     * Creates a {@link SampleResult} with its own {@link SampleFrame} for a reader to repeatedly copy into with
+     * {@link #copyLatest(SampleFrame)} or {@link #awaitNewerThan(long, SampleFrame, long)} via
+     * {@link SampleResult#getSampleFrame()}.
+     *
+     * @return a new {@link SampleResult}
+     */
+    public SampleResult createSampleResult() {
+        return new SampleResult(new SampleFrame(), adcIndices, adcLocations, forceMap);
+    }
+
+    /**
+     * Gets the {@link SampleResult} view of the latest published {@link SampleFrame}. The view is only consistent until
+     * the writer reclaims its {@link SampleFrame}, so it should only be used on the writer thread (e.g. in a sample
+     * result listener), otherwise use {@link SampleResult#copy()} or {@link #copyLatest(SampleFrame)}.
+     *
+     * @return the {@link SampleResult} or <code>null</code> if none has been published yet
+     */
+    public SampleResult getLatestSampleResult() {
+        final int index = latestIndex;
+        return index < 0 ? null : sampleResults[index];
+    }
+
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    public Location[] getADCLocations() {
+        return adcLocations;
+    }
+
+    public ForceMap getForceMap() {
+        return forceMap;
+    }
+}
@@ -0,0 +1,110 @@
+package tech.anapad.modela.loadsurface.sample;
+
+import tech.anapad.modela.loadsurface.adc.ADC;
+import tech.anapad.modela.util.timeseries.TimeSeries;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.Math.sqrt;
+
+/**
+ * {@link SampleHistory} is the {@link TimeSeries} history of the percent offset samples of each load surface channel
+ * and of their average, so that consumers can query windowed aggregates (e.g. the slope of a channel over the last
+ * 15 ms) instead of keeping their own state. It also records the raw percent offset of each channel, which is the
+ * percent offset of the unfiltered sample from the filtered baseline, for consumers that trade noise for latency (e.g.
+ * press onset detection), and the noise of the raw percent offset of each channel while there are no touches. A
+ * channel is only recorded in the {@link SampleFrame}s in which it was read, so held values don't flatten its slope.
+ */
+public class SampleHistory {
+
+    /**
+     * The capacity of each {@link TimeSeries}, which is about 1.6 s at 320 samples per second.
+     */
+    public static final int CAPACITY = 512;
+
+    private static final double NOISE_SMOOTHING_FACTOR = 320;
+
+    private final TimeSeries[] percentOffsetHistories;
+    private final TimeSeries[] rawPercentOffsetHistories;
+    private final TimeSeries percentOffsetAverageHistory;
+    private final AtomicLongArray rawPercentOffsetNoiseVariances;
+
+    /**
+     * Instantiates a new {@link SampleHistory}.
+     */
+    public SampleHistory() {
+        percentOffsetHistories = new TimeSeries[SampleFrame.CHANNEL_COUNT];
+        rawPercentOffsetHistories = new TimeSeries[SampleFrame.CHANNEL_COUNT];
+        for (int channel = 0; channel < percentOffsetHistories.length; channel++) {
+            percentOffsetHistories[channel] = new TimeSeries(CAPACITY);
+            rawPercentOffsetHistories[channel] = new TimeSeries(CAPACITY);
+        }
+        percentOffsetAverageHistory = new TimeSeries(CAPACITY);
+        rawPercentOffsetNoiseVariances = new AtomicLongArray(SampleFrame.CHANNEL_COUNT);
+    }
+
+    /**
+     * Records the given {@link SampleFrame}. This must only be called on one thread and doesn't allocate.
+     *
+     * @param sampleFrame the {@link SampleFrame}
+     * @param touched     <code>true</code> if there were touches during the {@link SampleFrame}, <code>false</code>
+     *                    otherwise
+     */
+    public void record(SampleFrame sampleFrame, boolean touched) {
+        final long timestampNanos = sampleFrame.getTimestampNanos();
+        for (int channel = 0; channel < percentOffsetHistories.length; channel++) {
+            if (sampleFrame.getChannelUpdateTimestampsNanos()[channel] == timestampNanos) {
+                final double rawPercentOffset = ADC.percentOffset(sampleFrame.getRawSamples()[channel],
+                        sampleFrame.getFilteredBaselineSamples()[channel]);
+                percentOffsetHistories[channel].add(timestampNanos, sampleFrame.getPercentOffsetSamples()[channel]);
+                rawPercentOffsetHistories[channel].add(timestampNanos, rawPercentOffset);
+                if (!touched) {
+                    // The raw sample is centered on the baseline without touches, so this is its variance
+                    final double variance = longBitsToDouble(rawPercentOffsetNoiseVariances.get(channel));
+                    rawPercentOffsetNoiseVariances.set(channel, doubleToRawLongBits(variance +
+                            (rawPercentOffset * rawPercentOffset - variance) / NOISE_SMOOTHING_FACTOR));
+                }
+            }
+        }
+        percentOffsetAverageHistory.add(timestampNanos, sampleFrame.getPercentOffsetSampleAverage());
+    }
+
+    /**
+     * Gets the {@link TimeSeries} of the percent offset samples of the given channel.
+     *
+     * @param channel the channel
+     *
+     * @return the {@link TimeSeries}
+     */
+    public TimeSeries getPercentOffsetHistory(int channel) {
+        return percentOffsetHistories[channel];
+    }
+
+    /**
+     * Gets the {@link TimeSeries} of the raw percent offset samples of the given channel.
+     *
+     * @param channel the channel
+     *
+     * @return the {@link TimeSeries}
+     */
+    public TimeSeries getRawPercentOffsetHistory(int channel) {
+        return rawPercentOffsetHistories[channel];
+    }
+
+    /**
+     * Gets the standard deviation of the raw percent offset samples of the given channel while there are no touches.
+     *
+     * @param channel the channel
+     *
+     * @return the standard deviation
+     */
+    public double getRawPercentOffsetNoise(int channel) {
+        return sqrt(longBitsToDouble(rawPercentOffsetNoiseVariances.get(channel)));
+    }
+
+    public TimeSeries getPercentOffsetAverageHistory() {
+        return percentOffsetAverageHistory;
+    }
+}
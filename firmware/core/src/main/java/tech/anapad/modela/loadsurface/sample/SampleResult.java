@@ -1,85 +1,107 @@
 package tech.anapad.modela.loadsurface.sample;
 
+import tech.anapad.modela.loadsurface.forcemap.ForceMap;
 import tech.anapad.modela.util.location.Location;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-
-import static java.lang.Double.MAX_VALUE;
-import static java.lang.Math.min;
 
 /**
- * {@link SampleResult} represents a complete sample result.
+ * {@link SampleResult} represents a complete sample result. It is a view of a {@link SampleFrame}, so it reflects the
+ * current contents of the {@link SampleFrame} (see {@link SampleFramePublisher#getLatestSampleResult()}).
  */
 public class SampleResult {
 
-    private double percentOffsetSampleAverage;
-    private List<Sample> samples = new ArrayList<>();
+    private final SampleFrame sampleFrame;
+    private final int[] adcIndices;
+    private final Location[] adcLocations;
+    private final ForceMap forceMap;
 
     /**
-     * {@link Builder} is an object builder for {@link SampleResult}.
+     * Instantiates a new {@link SampleResult}.
+     *
+     * @param sampleFrame  the {@link SampleFrame}
+     * @param adcIndices   the index of the ADC of each {@link SampleFrame} channel
+     * @param adcLocations the load surface {@link Location} of the ADC of each {@link SampleFrame} channel
+     * @param forceMap     the {@link ForceMap} of the {@link SampleFrame} channels
      */
-    public static class Builder {
-
-        private final SampleResult sampleResult;
-
-        /**
-         * Instantiates a new {@link Sample.Builder}.
-         */
-        public Builder() {
-            this.sampleResult = new SampleResult();
-        }
-
-        public Builder percentOffsetSampleAverage(double percentOffsetSampleAverage) {
-            sampleResult.percentOffsetSampleAverage = percentOffsetSampleAverage;
-            return this;
-        }
-
-        public Builder samples(List<Sample> samples) {
-            sampleResult.samples = samples;
-            return this;
-        }
+    public SampleResult(SampleFrame sampleFrame, int[] adcIndices, Location[] adcLocations, ForceMap forceMap) {
+        this.sampleFrame = sampleFrame;
+        this.adcIndices = adcIndices;
+        this.adcLocations = adcLocations;
+        this.forceMap = forceMap;
+    }
 
-        public SampleResult build() {
-            return sampleResult;
-        }
+    /**
+     * Copies this {@link SampleResult} into a new {@link SampleResult} with its own {@link SampleFrame}, so that it can
+     * be used after the {@link SampleFrame} of this {@link SampleResult} is reused (e.g. on another thread).
+     *
+     * @return the copied {@link SampleResult}
+     */
+    public SampleResult copy() {
+        final SampleFrame sampleFrameCopy = new SampleFrame();
+        sampleFrameCopy.copyFrom(sampleFrame);
+        return new SampleResult(sampleFrameCopy, adcIndices, adcLocations, forceMap);
     }
 
     /**
-     * Gets the {@link Sample#getPercentOffsetSample()} for all {@link #getSamples()}, but weight proportionally to the
-     * distance between a {@link Sample#getLocation()} and the given <code>location</code>.
+     * Gets the {@link Sample#getPercentOffsetSample()} for all {@link #getSamples()}, but weighted by the
+     * {@link ForceMap} at the given <code>location</code>.
      *
      * @param location the {@link Location}
      *
      * @return the weighted percent offset
      */
     public double weightedPercentOffset(Location location) {
-        final Map<Double, Double> distancesOfSamples = new HashMap<>();
-        double minDistance = MAX_VALUE;
-        for (Sample sample : samples) {
-            final double distance = location.distance(sample.getLocation());
-            minDistance = min(distance, minDistance);
-            distancesOfSamples.put(sample.getPercentOffsetSample(), distance);
-        }
-        double weightedPercentOffsetSum = 0;
-        double weightSum = 0;
-        for (Map.Entry<Double, Double> distanceOfSample : distancesOfSamples.entrySet()) {
-            final double percentOffsetSample = distanceOfSample.getKey();
-            final double distance = distanceOfSample.getValue();
-            final double weight = minDistance / distance;
-            weightedPercentOffsetSum += percentOffsetSample * weight;
-            weightSum += weight;
-        }
-        return weightedPercentOffsetSum / weightSum;
+        return weightedPercentOffset(location.getX(), location.getY());
     }
 
-    public double getPercentOffsetSampleAverage() {
-        return percentOffsetSampleAverage;
+    /**
+     * Gets the {@link Sample#getPercentOffsetSample()} for all {@link #getSamples()}, but weighted by the
+     * {@link ForceMap} at the given location.
+     *
+     * @param x the X in view pixels
+     * @param y the Y in view pixels
+     *
+     * @return the weighted percent offset
+     */
+    public double weightedPercentOffset(double x, double y) {
+        return forceMap.force(x, y, sampleFrame.getPercentOffsetSamples());
     }
 
+    /**
+     * Creates a {@link Sample} for each channel of the {@link SampleFrame}.
+     *
+     * @return a new {@link Sample} {@link List}
+     */
     public List<Sample> getSamples() {
+        final List<Sample> samples = new ArrayList<>(adcIndices.length);
+        for (int index = 0; index < adcIndices.length; index++) {
+            samples.add(new Sample.Builder()
+                    .index(adcIndices[index])
+                    .location(adcLocations[index])
+                    .rawSample(sampleFrame.getRawSamples()[index])
+                    .filteredSample(sampleFrame.getFilteredSamples()[index])
+                    .filteredBaselineSample(sampleFrame.getFilteredBaselineSamples()[index])
+                    .percentOffsetSample(sampleFrame.getPercentOffsetSamples()[index])
+                    .build());
+        }
         return samples;
     }
+
+    public long getSequence() {
+        return sampleFrame.getSequence();
+    }
+
+    public long getTimestampNanos() {
+        return sampleFrame.getTimestampNanos();
+    }
+
+    public double getPercentOffsetSampleAverage() {
+        return sampleFrame.getPercentOffsetSampleAverage();
+    }
+
+    public SampleFrame getSampleFrame() {
+        return sampleFrame;
+    }
 }
@@ -0,0 +1,145 @@
+package tech.anapad.modela.touchscreen;
+
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+import tech.anapad.modela.util.timeseries.TimeSeries;
+
+import static tech.anapad.modela.touchscreen.driver.TouchscreenDriver.GT9110_TOUCH_CAPACITY;
+
+/**
+ * {@link TouchHistory} is the {@link TimeSeries} history of the X, Y, and size of each tracked touch, so that consumers
+ * can query windowed aggregates (e.g. the velocity of a touch over the last 20 ms) instead of keeping their own state.
+ * A touch is tracked by its {@link TouchFrame#getID(int)} from the {@link TouchFrame} in which it first appears until
+ * the first {@link TouchFrame} without it, and its history starts empty each time it is tracked again.
+ */
+public class TouchHistory {
+
+    /**
+     * The capacity of each {@link TimeSeries}, which is a few seconds of touch frames.
+     */
+    public static final int CAPACITY = 256;
+
+    private final int[] trackedIDs;
+    private final boolean[] seen;
+    private final TimeSeries[] xHistories;
+    private final TimeSeries[] yHistories;
+    private final TimeSeries[] sizeHistories;
+
+    /**
+     * Instantiates a new {@link TouchHistory}.
+     */
+    public TouchHistory() {
+        trackedIDs = new int[GT9110_TOUCH_CAPACITY];
+        seen = new boolean[GT9110_TOUCH_CAPACITY];
+        xHistories = new TimeSeries[GT9110_TOUCH_CAPACITY];
+        yHistories = new TimeSeries[GT9110_TOUCH_CAPACITY];
+        sizeHistories = new TimeSeries[GT9110_TOUCH_CAPACITY];
+        for (int slot = 0; slot < GT9110_TOUCH_CAPACITY; slot++) {
+            trackedIDs[slot] = -1;
+            xHistories[slot] = new TimeSeries(CAPACITY);
+            yHistories[slot] = new TimeSeries(CAPACITY);
+            sizeHistories[slot] = new TimeSeries(CAPACITY);
+        }
+    }
+
+    /**
+     * Records the given {@link TouchFrame}. This must only be called on one thread and doesn't allocate.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     */
+    public void record(TouchFrame touchFrame) {
+        for (int slot = 0; slot < GT9110_TOUCH_CAPACITY; slot++) {
+            seen[slot] = false;
+        }
+        final long timestampNanos = touchFrame.getTimestampNanos();
+        for (int index = 0; index < touchFrame.getCount(); index++) {
+            final int id = touchFrame.getID(index);
+            int slot = getSlot(id);
+            if (slot < 0) {
+                slot = getSlot(-1);
+                if (slot < 0) {
+                    continue;
+                }
+                xHistories[slot].clear();
+                yHistories[slot].clear();
+                sizeHistories[slot].clear();
+                trackedIDs[slot] = id;
+            }
+            seen[slot] = true;
+            xHistories[slot].add(timestampNanos, touchFrame.getX(index));
+            yHistories[slot].add(timestampNanos, touchFrame.getY(index));
+            sizeHistories[slot].add(timestampNanos, touchFrame.getSize(index));
+        }
+        for (int slot = 0; slot < GT9110_TOUCH_CAPACITY; slot++) {
+            if (!seen[slot]) {
+                trackedIDs[slot] = -1;
+            }
+        }
+    }
+
+    /**
+     * Gets the slot of the given {@link TouchFrame#getID(int)}.
+     *
+     * @param id the {@link TouchFrame#getID(int)} or <code>-1</code> for a free slot
+     *
+     * @return the slot or <code>-1</code> if there is none
+     */
+    private int getSlot(int id) {
+        for (int slot = 0; slot < GT9110_TOUCH_CAPACITY; slot++) {
+            if (trackedIDs[slot] == id) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns <code>true</code> if the touch with the given {@link TouchFrame#getID(int)} is tracked,
+     * <code>false</code> otherwise.
+     *
+     * @param id the {@link TouchFrame#getID(int)}
+     *
+     * @return a boolean
+     */
+    public boolean isTracked(int id) {
+        return id >= 0 && getSlot(id) >= 0;
+    }
+
+    /**
+     * Gets the {@link TimeSeries} of the X of the tracked touch with the given {@link TouchFrame#getID(int)}. The
+     * {@link TimeSeries} is reused for another touch once the touch is no longer tracked.
+     *
+     * @param id the {@link TouchFrame#getID(int)}
+     *
+     * @return the {@link TimeSeries} or <code>null</code> if the touch isn't tracked
+     */
+    public TimeSeries getXHistory(int id) {
+        final int slot = id < 0 ? -1 : getSlot(id);
+        return slot < 0 ? null : xHistories[slot];
+    }
+
+    /**
+     * Gets the {@link TimeSeries} of the Y of the tracked touch with the given {@link TouchFrame#getID(int)} (see
+     * {@link #getXHistory(int)}).
+     *
+     * @param id the {@link TouchFrame#getID(int)}
+     *
+     * @return the {@link TimeSeries} or <code>null</code> if the touch isn't tracked
+     */
+    public TimeSeries getYHistory(int id) {
+        final int slot = id < 0 ? -1 : getSlot(id);
+        return slot < 0 ? null : yHistories[slot];
+    }
+
+    /**
+     * Gets the {@link TimeSeries} of the size of the tracked touch with the given {@link TouchFrame#getID(int)} (see
+     * {@link #getXHistory(int)}).
+     *
+     * @param id the {@link TouchFrame#getID(int)}
+     *
+     * @return the {@link TimeSeries} or <code>null</code> if the touch isn't tracked
+     */
+    public TimeSeries getSizeHistory(int id) {
+        final int slot = id < 0 ? -1 : getSlot(id);
+        return slot < 0 ? null : sizeHistories[slot];
+    }
+}
@@ -3,40 +3,85 @@ package tech.anapad.modela.touchscreen;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.anapad.modela.ModelA;
+import tech.anapad.modela.touchscreen.driver.ConfigurationProfile;
 import tech.anapad.modela.touchscreen.driver.Resolution;
-import tech.anapad.modela.touchscreen.driver.Touch;
 import tech.anapad.modela.touchscreen.driver.TouchscreenDriver;
-import tech.anapad.modela.util.i2c.I2CNative;
+import tech.anapad.modela.touchscreen.event.GPIOTouchEventSource;
+import tech.anapad.modela.touchscreen.event.PollingTouchEventSource;
+import tech.anapad.modela.touchscreen.event.TouchEventSource;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+import tech.anapad.modela.touchscreen.frame.TouchFramePool;
+import tech.anapad.modela.touchscreen.tracking.TouchTracker;
+import tech.anapad.modela.touchscreen.tracking.TouchTrackerBenchmark;
+import tech.anapad.modela.util.i2c.I2CBus;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
 
+import static java.lang.System.nanoTime;
 import static java.util.Collections.synchronizedList;
-import static tech.anapad.modela.touchscreen.driver.Configuration.NEW_CONFIGURATION;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static tech.anapad.modela.view.ViewController.TOUCH_SIZE_MULTIPLIER;
+import static tech.anapad.modela.view.ViewController.VIEW_HEIGHT;
+import static tech.anapad.modela.view.ViewController.VIEW_WIDTH;
 
 /**
- * {@link TouchscreenController} is a controller for the GT9110 touchscreen driver board and PCAP panel.
+ * {@link TouchscreenController} is a controller for the GT9110 touchscreen driver board and PCAP panel. Touches are
+ * sampled into {@link TouchFrame}s from a {@link TouchFramePool}, which are only valid during the touch listener call
+ * that delivers them unless the listener calls {@link TouchFrame#retain()}, so the touch path doesn't allocate. The
+ * {@link TouchTracker} sets the tracking state of the touches before they are delivered. The GT9110 is configured
+ * with the active {@link ConfigurationProfile} and switched to the idle {@link ConfigurationProfile} once it hasn't
+ * been touched for the idle time. Since the GT9110 recalibrates when it is configured, which would calibrate touches
+ * into its baseline, {@link ConfigurationProfile}s are only switched by the sample thread while the touchscreen
+ * isn't touched. The report rate while touched is measured per {@link ConfigurationProfile}.
  */
 public class TouchscreenController implements Runnable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TouchscreenController.class);
     private static final int I2C_DEVICE_INDEX = 5;
     private static final int MAX_SAMPLE_FAILURES = 100;
+    private static final long STATISTICS_LOG_INTERVAL_NANOS = SECONDS.toNanos(60);
+    private static final int TOUCH_FRAME_POOL_SIZE = 16;
+    private static final double BENCHMARK_NOISE_STANDARD_DEVIATION = 1;
+    private static final int[] BENCHMARK_PREDICTION_MILLIS = {4, 8, 12, 16};
+    private static final long CONFIGURATION_SWITCH_QUIET_NANOS = MILLISECONDS.toNanos(100);
+    private static final long CONFIGURATION_SWITCH_RETRY_NANOS = SECONDS.toNanos(1);
+    private static final long REPORT_RATE_MAX_GAP_NANOS = MILLISECONDS.toNanos(100);
 
     private final ModelA modelA;
     private final List<Runnable> configurationChangeListeners;
     private final List<Consumer<Resolution>> resolutionListeners;
-    private final List<Consumer<List<Touch>>> touchListeners;
+    private final List<Consumer<TouchFrame>> touchListeners;
     private final List<Runnable> failureListeners;
+    private final TouchHistory touchHistory;
+    private final TouchFramePool touchFramePool;
+    private final TouchFrame latestTouchFrame;
+    private final long[] reportIntervalCounts;
+    private final long[] reportIntervalNanos;
 
-    private Integer i2cFD;
+    private I2CBus i2cBus;
     private TouchscreenDriver touchscreenDriver;
+    private TouchEventSource touchEventSource;
+    private TouchTracker touchTracker;
+    private ConfigurationProfile idleConfigurationProfile;
+    private long idleNanos;
+    private volatile ConfigurationProfile activeConfigurationProfile;
+    private volatile ConfigurationProfile configurationProfile;
+    private long lastTouchNanos;
+    private long lastTouchedFrameNanos;
+    private long nextConfigurationSwitchNanos;
     private Thread sampleThread;
     private volatile boolean sampleLoop;
     private int sampleFailures;
-    private List<Touch> latestTouches;
+    private volatile int latestTouchCount;
+    private volatile long deliveredFrameCount;
 
     /**
      * Instantiates a new {@link TouchscreenController}.
@@ -51,6 +96,13 @@ public class TouchscreenController implements Runnable {
         failureListeners = synchronizedList(new ArrayList<>());
         sampleLoop = false;
         sampleFailures = 0;
+        touchHistory = new TouchHistory();
+        touchFramePool = new TouchFramePool(TOUCH_FRAME_POOL_SIZE);
+        latestTouchFrame = new TouchFrame();
+        latestTouchFrame.clear();
+        latestTouchCount = -1;
+        reportIntervalCounts = new long[ConfigurationProfile.values().length];
+        reportIntervalNanos = new long[ConfigurationProfile.values().length];
     }
 
     /**
@@ -62,19 +114,27 @@ public class TouchscreenController implements Runnable {
         LOGGER.info("Starting TouchscreenController...");
 
         LOGGER.info("Starting I2C-{}...", I2C_DEVICE_INDEX);
-        i2cFD = I2CNative.start(I2C_DEVICE_INDEX);
+        i2cBus = modelA.startI2CBus(I2C_DEVICE_INDEX);
         LOGGER.info("Started I2C-{}...", I2C_DEVICE_INDEX);
 
-        touchscreenDriver = new TouchscreenDriver(i2cFD);
+        touchscreenDriver = new TouchscreenDriver(i2cBus, new Resolution(VIEW_WIDTH, VIEW_HEIGHT),
+                TOUCH_SIZE_MULTIPLIER);
         LOGGER.info("Touchscreen resolution: {}x{}",
                 touchscreenDriver.getResolution().getX(), touchscreenDriver.getResolution().getY());
 
-        LOGGER.info("Checking for configuration difference...");
-        if (Arrays.equals(touchscreenDriver.readConfiguration().getBytes(), NEW_CONFIGURATION.getBytes())) {
+        if (activeConfigurationProfile == null) {
+            activeConfigurationProfile = modelA.getArguments().getTouchConfigurationProfile();
+        }
+        idleConfigurationProfile = modelA.getArguments().getTouchIdleConfigurationProfile();
+        idleNanos = SECONDS.toNanos(modelA.getArguments().getTouchIdleSeconds());
+        configurationProfile = activeConfigurationProfile;
+        LOGGER.info("Checking for configuration difference to the {} configuration profile...", configurationProfile);
+        if (Arrays.equals(touchscreenDriver.readConfiguration().getBytes(),
+                configurationProfile.getConfiguration().getBytes())) {
             LOGGER.info("No configuration differences.");
         } else {
             LOGGER.info("Configuration on chip is different! Programming new configuration...");
-            touchscreenDriver.writeConfiguration(NEW_CONFIGURATION);
+            touchscreenDriver.writeConfiguration(configurationProfile.getConfiguration());
             LOGGER.info("Programmed new configuration. Calling configuration change listeners...");
             configurationChangeListeners.forEach(Runnable::run);
             LOGGER.info("Called configuration change listeners.");
@@ -86,6 +146,19 @@ public class TouchscreenController implements Runnable {
         }
         LOGGER.info("Called resolution listeners.");
 
+        if (modelA.getArguments().touchPredictionBenchmark()) {
+            benchmarkTouchPrediction();
+        }
+        touchTracker = new TouchTracker(MILLISECONDS.toNanos(modelA.getArguments().getTouchPredictionMillis()),
+                VIEW_WIDTH, VIEW_HEIGHT);
+
+        LOGGER.info("Starting touch event source...");
+        if (touchEventSource == null) {
+            touchEventSource = createTouchEventSource();
+        }
+        touchEventSource.start();
+        LOGGER.info("Started touch event source: {}", touchEventSource.getClass().getSimpleName());
+
         LOGGER.info("Starting sample thread...");
         sampleLoop = true;
         sampleThread = new Thread(this, "TouchscreenController Sample Thread");
@@ -110,30 +183,87 @@ public class TouchscreenController implements Runnable {
             LOGGER.info("Stopped sample thread.");
         }
 
-        if (i2cFD != null) {
+        if (touchEventSource != null) {
+            LOGGER.info("Stopping touch event source...");
+            touchEventSource.stop();
+            LOGGER.info("Stopped touch event source.");
+        }
+
+        if (i2cBus != null) {
             LOGGER.info("Stopping I2C-{}...", I2C_DEVICE_INDEX);
-            I2CNative.stop(i2cFD);
+            i2cBus.stop();
             LOGGER.info("Stopped I2C-{}...", I2C_DEVICE_INDEX);
         }
 
         LOGGER.info("Stopped TouchscreenController.");
     }
 
+    /**
+     * Benchmarks the {@link TouchTracker} prediction horizons with a {@link TouchTrackerBenchmark}.
+     */
+    private void benchmarkTouchPrediction() {
+        final double reportRateHz = 1000.0 / activeConfigurationProfile.getConfiguration().getRefreshPeriodMillis();
+        final TouchTrackerBenchmark benchmark = new TouchTrackerBenchmark(TouchTrackerBenchmark.createSyntheticTrace(
+                reportRateHz, BENCHMARK_NOISE_STANDARD_DEVIATION, VIEW_WIDTH, VIEW_HEIGHT), VIEW_WIDTH, VIEW_HEIGHT);
+        for (int predictionMillis : BENCHMARK_PREDICTION_MILLIS) {
+            benchmark.run("synthetic trace", MILLISECONDS.toNanos(predictionMillis));
+        }
+    }
+
+    /**
+     * Creates the {@link TouchEventSource} configured by the {@link ModelA#getArguments()}, which is a
+     * {@link GPIOTouchEventSource} if a GT9110 INT line is configured, otherwise a {@link PollingTouchEventSource}.
+     *
+     * @return the {@link TouchEventSource}
+     */
+    private TouchEventSource createTouchEventSource() {
+        if (modelA.getArguments().getTouchInterruptGPIOLine() >= 0) {
+            // The GT9110 configuration sets the INT trigger to a falling edge
+            return new GPIOTouchEventSource(modelA.getArguments().getTouchInterruptGPIOChip(),
+                    modelA.getArguments().getTouchInterruptGPIOLine(), true);
+        } else {
+            return new PollingTouchEventSource(
+                    MICROSECONDS.toNanos(modelA.getArguments().getTouchPollPeriodMicros()));
+        }
+    }
+
     /**
      * {@inheritDoc}
      * <p>
-     * This run loop is used for reading touchscreen data and passing it to listeners.
+     * This run loop is used for reading touchscreen data and passing it to listeners. Touchscreen data is only read
+     * after the {@link TouchEventSource} signals that it may be ready.
      */
     @Override
     public void run() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final long startCPUNanos = threadMXBean.getCurrentThreadCpuTime();
+        final long startI2CTransactionCount = touchscreenDriver.getI2CTransactionCount();
+        final long startFrameCount = deliveredFrameCount;
+        final long startNanos = nanoTime();
+        long nextStatisticsLogNanos = startNanos + STATISTICS_LOG_INTERVAL_NANOS;
+        lastTouchNanos = startNanos;
+        lastTouchedFrameNanos = 0;
+        nextConfigurationSwitchNanos = startNanos;
+
         while (sampleLoop) {
-            // TODO implement a way to add a delay for power saving and such
+            if (nanoTime() - nextStatisticsLogNanos >= 0) {
+                logStatistics(threadMXBean.getCurrentThreadCpuTime() - startCPUNanos,
+                        touchscreenDriver.getI2CTransactionCount() - startI2CTransactionCount,
+                        deliveredFrameCount - startFrameCount, nanoTime() - startNanos);
+                nextStatisticsLogNanos += STATISTICS_LOG_INTERVAL_NANOS;
+            }
+            updateConfigurationProfile(nanoTime());
 
-            // Sample touches and process failures
-            final List<Touch> touches;
+            // Wait for touch data and sample touches and process failures
+            final TouchFrame touchFrame = touchFramePool.acquire();
             try {
-                touches = touchscreenDriver.sampleTouches();
+                if (!touchEventSource.awaitEvent() ||
+                        !touchscreenDriver.sampleTouches(touchFrame, touchEventSource.getLastEventTimestampNanos())) {
+                    touchFrame.release();
+                    continue;
+                }
             } catch (Exception exception) {
+                touchFrame.release();
                 if (++sampleFailures > MAX_SAMPLE_FAILURES) {
                     LOGGER.error("Sample failures exceeded {}!", MAX_SAMPLE_FAILURES, exception);
                     LOGGER.info("Stopping sample loop and calling failure listeners...");
@@ -147,22 +277,125 @@ public class TouchscreenController implements Runnable {
                 }
             }
             sampleFailures = 0;
-            if (touches == null) {
-                continue;
+            touchFrame.setSequence(deliveredFrameCount);
+            recordReportInterval(touchFrame);
+            touchTracker.track(touchFrame);
+            synchronized (latestTouchFrame) {
+                latestTouchFrame.copyFrom(touchFrame);
             }
-            latestTouches = touches;
+            latestTouchCount = touchFrame.getCount();
+            deliveredFrameCount++;
+            touchHistory.record(touchFrame);
 
             // Call touch listeners
+            touchFrame.setDeliveryNanos(nanoTime());
             synchronized (touchListeners) {
-                for (Consumer<List<Touch>> touchListener : touchListeners) {
+                for (Consumer<TouchFrame> touchListener : touchListeners) {
                     try {
-                        touchListener.accept(touches);
+                        touchListener.accept(touchFrame);
                     } catch (Exception exception) {
                         LOGGER.error("Error calling touch listener!", exception);
                     }
                 }
             }
+            touchFrame.release();
+        }
+
+        logStatistics(threadMXBean.getCurrentThreadCpuTime() - startCPUNanos,
+                touchscreenDriver.getI2CTransactionCount() - startI2CTransactionCount,
+                deliveredFrameCount - startFrameCount, nanoTime() - startNanos);
+    }
+
+    /**
+     * Switches the GT9110 to the {@link ConfigurationProfile} that it should be in now, if it isn't in it already and
+     * the touchscreen hasn't been touched for a moment. A failed switch is retried later.
+     *
+     * @param nowNanos the {@link System#nanoTime()}
+     */
+    private void updateConfigurationProfile(long nowNanos) {
+        if (latestTouchCount > 0 || nowNanos - lastTouchNanos < CONFIGURATION_SWITCH_QUIET_NANOS ||
+                nowNanos - nextConfigurationSwitchNanos < 0) {
+            return;
+        }
+        final ConfigurationProfile requestedConfigurationProfile =
+                idleNanos > 0 && nowNanos - lastTouchNanos >= idleNanos ?
+                        idleConfigurationProfile : activeConfigurationProfile;
+        if (requestedConfigurationProfile == configurationProfile) {
+            return;
+        }
+        try {
+            touchscreenDriver.writeConfiguration(requestedConfigurationProfile.getConfiguration());
+        } catch (Exception exception) {
+            LOGGER.error("Could not switch to the {} configuration profile!", requestedConfigurationProfile,
+                    exception);
+            nextConfigurationSwitchNanos = nowNanos + CONFIGURATION_SWITCH_RETRY_NANOS;
+            return;
+        }
+        LOGGER.info("Switched from the {} to the {} configuration profile.", configurationProfile,
+                requestedConfigurationProfile);
+        configurationProfile = requestedConfigurationProfile;
+        configurationChangeListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Records the interval between the given {@link TouchFrame} and the previous {@link TouchFrame} for the report
+     * rate of the current {@link ConfigurationProfile} if both have touches, since the GT9110 only reports
+     * continuously while touched.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     */
+    private void recordReportInterval(TouchFrame touchFrame) {
+        if (touchFrame.isEmpty()) {
+            lastTouchedFrameNanos = 0;
+            return;
+        }
+        final long timestampNanos = touchFrame.getTimestampNanos();
+        lastTouchNanos = timestampNanos;
+        if (lastTouchedFrameNanos != 0 && timestampNanos - lastTouchedFrameNanos <= REPORT_RATE_MAX_GAP_NANOS) {
+            reportIntervalCounts[configurationProfile.ordinal()]++;
+            reportIntervalNanos[configurationProfile.ordinal()] += timestampNanos - lastTouchedFrameNanos;
+        }
+        lastTouchedFrameNanos = timestampNanos;
+    }
+
+    /**
+     * Gets the measured report rate of the given {@link ConfigurationProfile} while the touchscreen is touched.
+     *
+     * @param configurationProfile the {@link ConfigurationProfile}
+     *
+     * @return the report rate in frames per second or <code>0</code> if it wasn't measured
+     */
+    public double getReportRate(ConfigurationProfile configurationProfile) {
+        final long intervalNanos = reportIntervalNanos[configurationProfile.ordinal()];
+        return intervalNanos == 0 ? 0 : reportIntervalCounts[configurationProfile.ordinal()] * 1e9 / intervalNanos;
+    }
+
+    /**
+     * Logs the touch acquisition statistics of the sample thread so that {@link TouchEventSource}s can be compared.
+     *
+     * @param cpuNanos            the CPU time of the sample thread in nanoseconds
+     * @param i2cTransactionCount the number of I2C transactions made
+     * @param frameCount          the number of touch frames delivered to listeners
+     * @param elapsedNanos        the elapsed wall time in nanoseconds
+     */
+    private void logStatistics(long cpuNanos, long i2cTransactionCount, long frameCount, long elapsedNanos) {
+        final long frameDivisor = Math.max(1, frameCount);
+        LOGGER.info("Touch acquisition via {}: {} frames in {} s, {} I2C transactions per frame, {} us CPU time per " +
+                        "frame, {}% CPU, {} pooled touch frames", touchEventSource.getClass().getSimpleName(),
+                frameCount, NANOSECONDS.toSeconds(elapsedNanos),
+                String.format("%.2f", (double) i2cTransactionCount / frameDivisor),
+                NANOSECONDS.toMicros(cpuNanos / frameDivisor),
+                String.format("%.1f", cpuNanos * 100.0 / Math.max(1, elapsedNanos)),
+                touchFramePool.getAllocatedCount());
+        for (ConfigurationProfile profile : ConfigurationProfile.values()) {
+            if (reportIntervalCounts[profile.ordinal()] > 0) {
+                LOGGER.info("Touch report rate of the {} configuration profile ({} ms refresh period): {} fps over " +
+                                "{} reports while touched", profile,
+                        profile.getConfiguration().getRefreshPeriodMillis(),
+                        String.format("%.1f", getReportRate(profile)), reportIntervalCounts[profile.ordinal()]);
+            }
         }
+        touchTracker.logStatistics(touchEventSource.getClass().getSimpleName());
     }
 
     /**
@@ -172,7 +405,7 @@ public class TouchscreenController implements Runnable {
      * @return a boolean
      */
     public boolean didLatestSampleHaveTouches() {
-        return latestTouches != null && latestTouches.size() != 0;
+        return latestTouchCount > 0;
     }
 
     public List<Runnable> getConfigurationChangeListeners() {
@@ -183,7 +416,14 @@ public class TouchscreenController implements Runnable {
         return resolutionListeners;
     }
 
-    public List<Consumer<List<Touch>>> getTouchListeners() {
+    /**
+     * Gets the touch listeners, which are called on the sample thread with each sampled {@link TouchFrame}. A listener
+     * that uses the {@link TouchFrame} after it returns (e.g. on another thread) must {@link TouchFrame#retain()} it
+     * before it returns and {@link TouchFrame#release()} it once done.
+     *
+     * @return the touch listeners
+     */
+    public List<Consumer<TouchFrame>> getTouchListeners() {
         return touchListeners;
     }
 
@@ -195,7 +435,66 @@ public class TouchscreenController implements Runnable {
         return touchscreenDriver;
     }
 
-    public List<Touch> getLatestTouches() {
-        return latestTouches;
+    public ConfigurationProfile getConfigurationProfile() {
+        return configurationProfile;
+    }
+
+    public ConfigurationProfile getActiveConfigurationProfile() {
+        return activeConfigurationProfile;
+    }
+
+    /**
+     * Sets the {@link ConfigurationProfile} while the touchscreen is in use (e.g.
+     * {@link ConfigurationProfile#HIGH_RATE} while typing). The sample thread switches to it once the touchscreen isn't
+     * touched.
+     *
+     * @param activeConfigurationProfile the {@link ConfigurationProfile}
+     */
+    public void setActiveConfigurationProfile(ConfigurationProfile activeConfigurationProfile) {
+        this.activeConfigurationProfile = activeConfigurationProfile;
+    }
+
+    public TouchEventSource getTouchEventSource() {
+        return touchEventSource;
+    }
+
+    /**
+     * Sets the {@link TouchEventSource} (e.g. a simulated one). This must be called before {@link #start()},
+     * otherwise the {@link TouchEventSource} is created from the {@link ModelA#getArguments()}.
+     *
+     * @param touchEventSource the {@link TouchEventSource}
+     */
+    public void setTouchEventSource(TouchEventSource touchEventSource) {
+        this.touchEventSource = touchEventSource;
+    }
+
+    public long getDeliveredFrameCount() {
+        return deliveredFrameCount;
+    }
+
+    /**
+     * Copies the latest sampled {@link TouchFrame} into the given {@link TouchFrame}.
+     *
+     * @param destination the {@link TouchFrame} to copy into
+     *
+     * @return <code>true</code> if a {@link TouchFrame} was copied, <code>false</code> if none has been sampled yet
+     */
+    public boolean copyLatestTouchFrame(TouchFrame destination) {
+        synchronized (latestTouchFrame) {
+            if (latestTouchFrame.getSequence() < 0) {
+                return false;
+            }
+            destination.copyFrom(latestTouchFrame);
+            return true;
+        }
+    }
+
+    /**
+     * Gets the {@link TouchHistory}, which is recorded before the touch listeners are called.
+     *
+     * @return the {@link TouchHistory}
+     */
+    public TouchHistory getTouchHistory() {
+        return touchHistory;
     }
 }
@@ -5,6 +5,12 @@ package tech.anapad.modela.touchscreen.driver;
  */
 public class Configuration {
 
+    private static final int REGISTER_START = 0x8047;
+    private static final int REGISTER_TOUCH_DETECT_THRESHOLD = 0x8053;
+    private static final int REGISTER_TOUCH_RELEASE_THRESHOLD = 0x8054;
+    private static final int REGISTER_REFRESH_RATE = 0x8056;
+    private static final int MINIMUM_REFRESH_PERIOD_MILLIS = 5;
+
     public static final Configuration NEW_CONFIGURATION;
 
     static {
@@ -213,6 +219,66 @@ public class Configuration {
         this.bytes = bytes;
     }
 
+    /**
+     * Creates a copy of this {@link Configuration}.
+     *
+     * @return the {@link Configuration}
+     */
+    public Configuration copy() {
+        return new Configuration(bytes.clone());
+    }
+
+    /**
+     * Calculates the checksum of this {@link Configuration}, which is the two's complement of the sum of its bytes.
+     *
+     * @return the checksum byte
+     */
+    public byte calculateChecksum() {
+        int checksumSum = 0;
+        for (byte value : bytes) {
+            checksumSum += value & 0xFF;
+        }
+        return (byte) -checksumSum;
+    }
+
+    /**
+     * Gets the period at which the GT9110 reports coordinates, which is 5 ms plus the refresh rate field.
+     *
+     * @return the refresh period in milliseconds
+     */
+    public int getRefreshPeriodMillis() {
+        return MINIMUM_REFRESH_PERIOD_MILLIS + (bytes[REGISTER_REFRESH_RATE - REGISTER_START] & 0x0F);
+    }
+
+    /**
+     * Sets the refresh rate field (see {@link #getRefreshPeriodMillis()}), keeping the other bits of its register.
+     *
+     * @param refreshRate the refresh rate field (<code>0</code> to <code>15</code>)
+     */
+    public void setRefreshRate(int refreshRate) {
+        if (refreshRate < 0 || refreshRate > 0x0F) {
+            throw new IllegalArgumentException("GT9110 refresh rate must be between 0 and 15!");
+        }
+        final int index = REGISTER_REFRESH_RATE - REGISTER_START;
+        bytes[index] = (byte) ((bytes[index] & 0xF0) | refreshRate);
+    }
+
+    public int getTouchDetectThreshold() {
+        return bytes[REGISTER_TOUCH_DETECT_THRESHOLD - REGISTER_START] & 0xFF;
+    }
+
+    public void setTouchDetectThreshold(int touchDetectThreshold) {
+        bytes[REGISTER_TOUCH_DETECT_THRESHOLD - REGISTER_START] = (byte) touchDetectThreshold;
+    }
+
+    public int getTouchReleaseThreshold() {
+        return bytes[REGISTER_TOUCH_RELEASE_THRESHOLD - REGISTER_START] & 0xFF;
+    }
+
+    public void setTouchReleaseThreshold(int touchReleaseThreshold) {
+        bytes[REGISTER_TOUCH_RELEASE_THRESHOLD - REGISTER_START] = (byte) touchReleaseThreshold;
+    }
+
     public byte[] getBytes() {
         return bytes;
     }
@@ -0,0 +1,61 @@
+package tech.anapad.modela.touchscreen.driver;
+
+import static tech.anapad.modela.touchscreen.driver.Configuration.NEW_CONFIGURATION;
+
+/**
+ * {@link ConfigurationProfile} is a named GT9110 {@link Configuration}, which is
+ * {@link Configuration#NEW_CONFIGURATION} with the refresh rate and the touch thresholds of the profile, so that report
+ * rate can be traded for power.
+ */
+public enum ConfigurationProfile {
+
+    /**
+     * Reports every 5 ms for the lowest touch latency (e.g. while typing).
+     */
+    HIGH_RATE(0x00),
+
+    /**
+     * Reports every 10 ms, which is the refresh rate of {@link Configuration#NEW_CONFIGURATION}.
+     */
+    BALANCED(0x05),
+
+    /**
+     * Reports every 20 ms to save power while the touchscreen is idle.
+     */
+    LOW_POWER(0x0F);
+
+    private final Configuration configuration;
+
+    /**
+     * Instantiates a new {@link ConfigurationProfile} with the touch thresholds of
+     * {@link Configuration#NEW_CONFIGURATION}, which are tuned for the top panel.
+     *
+     * @param refreshRate the refresh rate field (see {@link Configuration#setRefreshRate(int)})
+     */
+    ConfigurationProfile(int refreshRate) {
+        this(refreshRate, NEW_CONFIGURATION.getTouchDetectThreshold(), NEW_CONFIGURATION.getTouchReleaseThreshold());
+    }
+
+    /**
+     * Instantiates a new {@link ConfigurationProfile}.
+     *
+     * @param refreshRate           the refresh rate field (see {@link Configuration#setRefreshRate(int)})
+     * @param touchDetectThreshold  the touch detect threshold
+     * @param touchReleaseThreshold the touch release threshold
+     */
+    ConfigurationProfile(int refreshRate, int touchDetectThreshold, int touchReleaseThreshold) {
+        configuration = NEW_CONFIGURATION.copy();
+        configuration.setRefreshRate(refreshRate);
+        configuration.setTouchDetectThreshold(touchDetectThreshold);
+        configuration.setTouchReleaseThreshold(touchReleaseThreshold);
+    }
+
+    /**
+     * Gets the {@link Configuration} of this {@link ConfigurationProfile}, which must not be modified.
+     *
+     * @return the {@link Configuration}
+     */
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+}
@@ -11,6 +11,7 @@ public class Touch implements Comparable<Touch> {
     private int x;
     private int y;
     private int size;
+    private long timestampNanos;
 
     /**
      * {@link Builder} is an object builder for {@link Touch}.
@@ -46,6 +47,11 @@ public class Touch implements Comparable<Touch> {
             return this;
         }
 
+        public Builder timestampNanos(long timestampNanos) {
+            touch.timestampNanos = timestampNanos;
+            return this;
+        }
+
         public Touch build() {
             return touch;
         }
@@ -67,6 +73,15 @@ public class Touch implements Comparable<Touch> {
         return size;
     }
 
+    /**
+     * Gets the {@link System#nanoTime()} at which the touchscreen frame of this {@link Touch} was captured.
+     *
+     * @return the timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
     @Override
     public int compareTo(Touch touch) {
         return compare(id, touch.id);
@@ -79,6 +94,7 @@ public class Touch implements Comparable<Touch> {
                 ", x=" + x +
                 ", y=" + y +
                 ", size=" + size +
+                ", timestampNanos=" + timestampNanos +
                 '}';
     }
 }
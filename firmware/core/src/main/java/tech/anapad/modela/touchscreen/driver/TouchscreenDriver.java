@@ -1,19 +1,21 @@
 package tech.anapad.modela.touchscreen.driver;
 
-import java.util.ArrayList;
-import java.util.List;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.I2CTransaction;
 
+import java.nio.ByteBuffer;
+
+import static java.lang.Math.max;
+import static java.lang.Math.round;
 import static java.util.Arrays.copyOf;
-import static tech.anapad.modela.util.i2c.I2CNative.readRegisterByte;
-import static tech.anapad.modela.util.i2c.I2CNative.readRegisterBytes;
-import static tech.anapad.modela.util.i2c.I2CNative.writeRegisterByte;
-import static tech.anapad.modela.util.i2c.I2CNative.writeRegisterBytes;
 import static tech.anapad.modela.util.math.BitUtil.getBit;
 import static tech.anapad.modela.util.math.BitUtil.getBits;
 import static tech.anapad.modela.util.math.MathUtil.clamp;
 
 /**
- * {@link TouchscreenDriver} represents the GT9110 touchscreen driver chip.
+ * {@link TouchscreenDriver} represents the GT9110 touchscreen driver chip. Sampled touches are scaled from the
+ * touchscreen {@link Resolution} to the view {@link Resolution} with 16.16 fixed-point multipliers.
  */
 public class TouchscreenDriver {
 
@@ -25,23 +27,45 @@ public class TouchscreenDriver {
     private static final short GT9110_REGISTER_CONFIG_END = (short) 0x80FE;
     private static final short GT9110_REGISTER_CONFIG_LENGTH = GT9110_REGISTER_CONFIG_END -
             GT9110_REGISTER_CONFIG_START + 1;
-    private static final int GT9110_TOUCH_CAPACITY = 10;
+
+    /**
+     * The maximum number of simultaneous touches that the GT9110 reports.
+     */
+    public static final int GT9110_TOUCH_CAPACITY = 10;
+
     private static final int GT9110_TOUCH_REGISTER_LENGTH = 8; // Each touch has 8 bytes of data
     private static final int GT9110_TOTAL_TOUCH_DATA_LENGTH = GT9110_TOUCH_REGISTER_LENGTH * GT9110_TOUCH_CAPACITY;
+    private static final int FIXED_POINT_SHIFT = 16;
+    private static final long FIXED_POINT_HALF = 1L << (FIXED_POINT_SHIFT - 1);
 
-    private final int i2cFD;
+    private final I2CBus i2cBus;
+    private final Resolution viewResolution;
+    private final long sizeMultiplier;
+    private final I2CTransaction sampleTransaction;
+    private final I2CTransaction remainderTransaction;
 
     private Resolution resolution;
+    private long xMultiplier;
+    private long yMultiplier;
     private boolean neverSampled;
+    private int expectedTouchCount;
+    private volatile long i2cTransactionCount;
 
     /**
      * Instantiates a new {@link TouchscreenDriver}.
      *
-     * @param i2cFD the low-level I2C device file descriptor
+     * @param i2cBus         the {@link I2CBus}
+     * @param viewResolution the {@link Resolution} of the view that sampled touches are scaled to
+     * @param sizeMultiplier the multiplier of the sampled touch sizes
      */
-    public TouchscreenDriver(int i2cFD) {
-        this.i2cFD = i2cFD;
+    public TouchscreenDriver(I2CBus i2cBus, Resolution viewResolution, double sizeMultiplier) {
+        this.i2cBus = i2cBus;
+        this.viewResolution = viewResolution;
+        this.sizeMultiplier = round(sizeMultiplier * (1 << FIXED_POINT_SHIFT));
+        sampleTransaction = new I2CTransaction(GT9110_TOTAL_TOUCH_DATA_LENGTH + 8);
+        remainderTransaction = new I2CTransaction(GT9110_TOTAL_TOUCH_DATA_LENGTH + 8);
         neverSampled = true;
+        expectedTouchCount = 1;
     }
 
     /**
@@ -51,7 +75,7 @@ public class TouchscreenDriver {
      * @throws Exception thrown for {@link Exception}
      */
     public Configuration readConfiguration() throws Exception {
-        return new Configuration(readRegisterBytes(i2cFD, GT9110_I2C_ADDRESS, GT9110_REGISTER_CONFIG_START,
+        return new Configuration(i2cBus.readRegisterBytes(GT9110_I2C_ADDRESS, GT9110_REGISTER_CONFIG_START,
                 GT9110_REGISTER_CONFIG_LENGTH, false));
     }
 
@@ -63,16 +87,10 @@ public class TouchscreenDriver {
      * @throws Exception thrown for {@link Exception}
      */
     public void writeConfiguration(Configuration configuration) throws Exception {
-        int checksumSum = 0;
-        for (int index = 0; index < configuration.getBytes().length; index++) {
-            checksumSum += configuration.getBytes()[index] & 0xFF;
-        }
-        final byte checksum = (byte) ((~((byte) (checksumSum & 0xFF))) + 1);
-
         final byte[] newConfigurationBytes = copyOf(configuration.getBytes(), GT9110_REGISTER_CONFIG_LENGTH + 2);
-        newConfigurationBytes[GT9110_REGISTER_CONFIG_LENGTH] = checksum;
+        newConfigurationBytes[GT9110_REGISTER_CONFIG_LENGTH] = configuration.calculateChecksum();
         newConfigurationBytes[GT9110_REGISTER_CONFIG_LENGTH + 1] = 0x01; // "Fresh" config value
-        writeRegisterBytes(i2cFD, GT9110_I2C_ADDRESS, GT9110_REGISTER_CONFIG_START, newConfigurationBytes, false);
+        i2cBus.writeRegisterBytes(GT9110_I2C_ADDRESS, GT9110_REGISTER_CONFIG_START, newConfigurationBytes, false);
     }
 
     /**
@@ -95,12 +113,14 @@ public class TouchscreenDriver {
      * @throws Exception thrown for {@link Exception}
      */
     public Resolution readResolution() throws Exception {
-        byte[] resolutionBytes = readRegisterBytes(i2cFD, GT9110_I2C_ADDRESS, GT9110_REGISTER_RESOLUTION, 4, false);
+        byte[] resolutionBytes = i2cBus.readRegisterBytes(GT9110_I2C_ADDRESS, GT9110_REGISTER_RESOLUTION, 4, false);
         System.out.println();
         final Resolution resolution = new Resolution(
                 ((resolutionBytes[1] & 0xFF) << 8) | (resolutionBytes[0] & 0xFF),
                 ((resolutionBytes[3] & 0xFF) << 8) | (resolutionBytes[2] & 0xFF));
         this.resolution = resolution;
+        xMultiplier = round((double) viewResolution.getX() / resolution.getX() * (1 << FIXED_POINT_SHIFT));
+        yMultiplier = round((double) viewResolution.getY() / resolution.getY() * (1 << FIXED_POINT_SHIFT));
         return resolution;
     }
 
@@ -114,51 +134,90 @@ public class TouchscreenDriver {
     }
 
     /**
-     * Samples the touchscreen for touches. This also calls {@link #triggerSample()}.
+     * Samples the touchscreen for touches into the given {@link TouchFrame}. This also calls {@link #triggerSample()}.
+     * <p>
+     * The status register is followed by the touch registers, so the status and the touches are read in a single
+     * contiguous read of only as many touches as the last sample had (but at least one, so that a first touch doesn't
+     * need another read). If the buffer is ready, a second transfer reads any touches beyond those and then clears the
+     * status register, so the GT9110 can't overwrite touch bytes that weren't read yet. If the buffer isn't ready, the
+     * status register is left untouched, since clearing a scan that completed after the read would drop it.
      *
-     * @return the {@link Touch}es {@link List} or <code>null</code> if the touchscreen is still in the process of
-     * sampling
+     * @param touchFrame     the cleared {@link TouchFrame} to sample the touches into, in view coordinates and sorted
+     *                       by their ID
+     * @param timestampNanos the {@link System#nanoTime()} at which the touchscreen frame was captured, which is
+     *                       assigned to {@link TouchFrame#getTimestampNanos()}
+     *
+     * @return <code>true</code> if touches were sampled, <code>false</code> if the touchscreen is still in the process
+     * of sampling
      * @throws Exception thrown for {@link Exception}
      */
-    public List<Touch> sampleTouches() throws Exception {
+    public boolean sampleTouches(TouchFrame touchFrame, long timestampNanos) throws Exception {
         // Trigger an initial sample if called for the first time
         if (neverSampled) {
             triggerSample();
             neverSampled = false;
         }
 
-        // Check if touchscreen data is ready to be read
-        final byte coordinateStatusRegister = readRegisterByte(i2cFD,
-                GT9110_I2C_ADDRESS, GT9110_REGISTER_STATUS, false);
+        // Read the status and the expected touches
+        final int readTouchCount = expectedTouchCount;
+        sampleTransaction.reset();
+        final int statusOffset = sampleTransaction.readRegisterBytes(GT9110_I2C_ADDRESS, GT9110_REGISTER_STATUS,
+                1 + readTouchCount * GT9110_TOUCH_REGISTER_LENGTH, false);
+        sampleTransaction.submit(i2cBus);
+        i2cTransactionCount++;
+        final byte coordinateStatusRegister = sampleTransaction.getByte(statusOffset);
         final boolean bufferReady = getBit(coordinateStatusRegister, 7) == 1;
         if (!bufferReady) {
-            return null;
+            return false;
         }
-
-        // Trigger another touchscreen sample
-        triggerSample();
-
-        // Read touchscreen touch bytes
         final int numberOfTouches = clamp(getBits(coordinateStatusRegister, 3, 0), 0, GT9110_TOUCH_CAPACITY);
-        final byte[] touchBytes = readRegisterBytes(i2cFD, GT9110_I2C_ADDRESS,
-                GT9110_REGISTER_TOUCHES_START, GT9110_TOTAL_TOUCH_DATA_LENGTH, false);
+        expectedTouchCount = max(1, numberOfTouches);
+
+        // Read the remaining touches, then clear the status to trigger another touchscreen sample
+        int remainingTouchesOffset = 0;
+        remainderTransaction.reset();
+        if (numberOfTouches > readTouchCount) {
+            remainingTouchesOffset = remainderTransaction.readRegisterBytes(GT9110_I2C_ADDRESS,
+                    (short) (GT9110_REGISTER_TOUCHES_START + readTouchCount * GT9110_TOUCH_REGISTER_LENGTH),
+                    (numberOfTouches - readTouchCount) * GT9110_TOUCH_REGISTER_LENGTH, false);
+        }
+        remainderTransaction.writeRegisterByte(GT9110_I2C_ADDRESS, GT9110_REGISTER_STATUS, (byte) 0, false);
+        remainderTransaction.submit(i2cBus);
+        i2cTransactionCount++;
 
         // Loop through touches
-        final List<Touch> touches = new ArrayList<>(numberOfTouches);
+        getResolution();
         for (int index = 0; index < numberOfTouches; index++) {
-            final int arrayIndex = index * GT9110_TOUCH_REGISTER_LENGTH;
-            final Touch touch = new Touch.Builder()
-                    .id(touchBytes[arrayIndex] & 0xFF)
-                    .x(getResolution().getX() -
-                            (((touchBytes[arrayIndex + 2] & 0xFF) << 8) | (touchBytes[arrayIndex + 1] & 0xFF)))
-                    .y(getResolution().getY() -
-                            (((touchBytes[arrayIndex + 4] & 0xFF) << 8) | (touchBytes[arrayIndex + 3] & 0xFF)))
-                    .size(((touchBytes[arrayIndex + 6] & 0xFF) << 8) | (touchBytes[arrayIndex + 5] & 0xFF))
-                    .build();
-            touches.add(touch);
+            if (index < readTouchCount) {
+                addTouch(touchFrame, sampleTransaction.getBuffer(),
+                        statusOffset + 1 + index * GT9110_TOUCH_REGISTER_LENGTH);
+            } else {
+                addTouch(touchFrame, remainderTransaction.getBuffer(),
+                        remainingTouchesOffset + (index - readTouchCount) * GT9110_TOUCH_REGISTER_LENGTH);
+            }
         }
-        touches.sort(Touch::compareTo);
-        return touches;
+        touchFrame.sortByID();
+        touchFrame.setTimestampNanos(timestampNanos);
+        return true;
+    }
+
+    /**
+     * Adds the touch of the touch registers at the given offset to the given {@link TouchFrame} in view coordinates.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     * @param touchBytes the {@link ByteBuffer} of the read touch registers
+     * @param offset     the offset of the touch registers in <code>touchBytes</code>
+     */
+    private void addTouch(TouchFrame touchFrame, ByteBuffer touchBytes, int offset) {
+        final int x = resolution.getX() -
+                (((touchBytes.get(offset + 2) & 0xFF) << 8) | (touchBytes.get(offset + 1) & 0xFF));
+        final int y = resolution.getY() -
+                (((touchBytes.get(offset + 4) & 0xFF) << 8) | (touchBytes.get(offset + 3) & 0xFF));
+        final int size = ((touchBytes.get(offset + 6) & 0xFF) << 8) | (touchBytes.get(offset + 5) & 0xFF);
+        touchFrame.addTouch(touchBytes.get(offset) & 0xFF,
+                (int) ((x * xMultiplier + FIXED_POINT_HALF) >> FIXED_POINT_SHIFT),
+                (int) ((y * yMultiplier + FIXED_POINT_HALF) >> FIXED_POINT_SHIFT),
+                (int) ((size * sizeMultiplier + FIXED_POINT_HALF) >> FIXED_POINT_SHIFT));
     }
 
     /**
@@ -167,6 +226,11 @@ public class TouchscreenDriver {
      * @throws Exception thrown for {@link Exception}s
      */
     private void triggerSample() throws Exception {
-        writeRegisterByte(i2cFD, GT9110_I2C_ADDRESS, GT9110_REGISTER_STATUS, (byte) 0, false);
+        i2cBus.writeRegisterByte(GT9110_I2C_ADDRESS, GT9110_REGISTER_STATUS, (byte) 0, false);
+        i2cTransactionCount++;
+    }
+
+    public long getI2CTransactionCount() {
+        return i2cTransactionCount;
     }
 }
@@ -0,0 +1,69 @@
+package tech.anapad.modela.touchscreen.event;
+
+import tech.anapad.modela.util.gpio.GPIONative;
+
+import static tech.anapad.modela.util.gpio.GPIONative.NO_EVENT;
+
+/**
+ * {@link GPIOTouchEventSource} is a {@link TouchEventSource} that waits for the edges of the GT9110 INT line, which
+ * the GT9110 pulses whenever new touch data is ready, via {@link GPIONative}.
+ */
+public class GPIOTouchEventSource implements TouchEventSource {
+
+    private static final int WAIT_TIMEOUT_MILLIS = 100;
+
+    private final int gpioChipIndex;
+    private final int lineOffset;
+    private final boolean fallingEdge;
+
+    private int fd;
+    private volatile long lastEventTimestampNanos;
+
+    /**
+     * Instantiates a new {@link GPIOTouchEventSource}.
+     *
+     * @param gpioChipIndex the GPIO chip device index (e.g. for "/dev/gpiochip0" pass <code>0</code> here)
+     * @param lineOffset    the offset of the line that the GT9110 INT pin is connected to
+     * @param fallingEdge   <code>true</code> if the GT9110 is configured to pulse INT low, <code>false</code> if it is
+     *                      configured to pulse INT high
+     */
+    public GPIOTouchEventSource(int gpioChipIndex, int lineOffset, boolean fallingEdge) {
+        this.gpioChipIndex = gpioChipIndex;
+        this.lineOffset = lineOffset;
+        this.fallingEdge = fallingEdge;
+    }
+
+    @Override
+    public void start() throws Exception {
+        fd = GPIONative.startLineEvents(gpioChipIndex, lineOffset, fallingEdge);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        GPIONative.stopLineEvents(fd);
+    }
+
+    @Override
+    public boolean awaitEvent() throws Exception {
+        final long eventTimestampNanos = GPIONative.waitForLineEvent(fd, WAIT_TIMEOUT_MILLIS);
+        if (eventTimestampNanos == NO_EVENT) {
+            return false;
+        }
+        // The kernel stamps line events with CLOCK_MONOTONIC (since Linux 5.7), which is the clock of nanoTime()
+        lastEventTimestampNanos = eventTimestampNanos;
+        return true;
+    }
+
+    public int getGPIOChipIndex() {
+        return gpioChipIndex;
+    }
+
+    public int getLineOffset() {
+        return lineOffset;
+    }
+
+    @Override
+    public long getLastEventTimestampNanos() {
+        return lastEventTimestampNanos;
+    }
+}
@@ -0,0 +1,62 @@
+package tech.anapad.modela.touchscreen.event;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * {@link PollingTouchEventSource} is a {@link TouchEventSource} that triggers at a fixed rate for when no touchscreen
+ * interrupt line is available. A poll period of zero triggers continuously (i.e. spin-polling).
+ */
+public class PollingTouchEventSource implements TouchEventSource {
+
+    private final long pollPeriodNanos;
+
+    private long nextPollNanos;
+    private long lastEventTimestampNanos;
+
+    /**
+     * Instantiates a new {@link PollingTouchEventSource}.
+     *
+     * @param pollPeriodNanos the poll period in nanoseconds
+     */
+    public PollingTouchEventSource(long pollPeriodNanos) {
+        this.pollPeriodNanos = pollPeriodNanos;
+    }
+
+    @Override
+    public void start() {
+        nextPollNanos = nanoTime();
+    }
+
+    @Override
+    public void stop() {}
+
+    @Override
+    public boolean awaitEvent() {
+        if (pollPeriodNanos == 0) {
+            lastEventTimestampNanos = nanoTime();
+            return true;
+        }
+        long remainingNanos;
+        while ((remainingNanos = nextPollNanos - nanoTime()) > 0) {
+            parkNanos(remainingNanos);
+        }
+        // Skip missed polls instead of bursting to catch up with them
+        final long nowNanos = nanoTime();
+        nextPollNanos += pollPeriodNanos;
+        if (nextPollNanos <= nowNanos) {
+            nextPollNanos = nowNanos + pollPeriodNanos;
+        }
+        lastEventTimestampNanos = nowNanos;
+        return true;
+    }
+
+    @Override
+    public long getLastEventTimestampNanos() {
+        return lastEventTimestampNanos;
+    }
+
+    public long getPollPeriodNanos() {
+        return pollPeriodNanos;
+    }
+}
@@ -0,0 +1,41 @@
+package tech.anapad.modela.touchscreen.event;
+
+import tech.anapad.modela.touchscreen.TouchscreenController;
+
+/**
+ * {@link TouchEventSource} is the source of the events that trigger the {@link TouchscreenController} to read touch
+ * data from the touchscreen driver (e.g. the GT9110 INT line or a fixed-rate poll timer).
+ */
+public interface TouchEventSource {
+
+    /**
+     * Starts this {@link TouchEventSource}.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void start() throws Exception;
+
+    /**
+     * Stops this {@link TouchEventSource}.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void stop() throws Exception;
+
+    /**
+     * Blocks until touch data may be ready to be read. This returns periodically, even if no event occurred, so that
+     * the caller can check whether it should stop waiting.
+     *
+     * @return <code>true</code> if touch data may be ready, <code>false</code> if no event occurred
+     * @throws Exception thrown for {@link Exception}s
+     */
+    boolean awaitEvent() throws Exception;
+
+    /**
+     * Gets the {@link System#nanoTime()} at which the last event of {@link #awaitEvent()} occurred, which is the best
+     * known capture time of the touch data that the event signaled.
+     *
+     * @return the timestamp in nanoseconds
+     */
+    long getLastEventTimestampNanos();
+}
@@ -0,0 +1,462 @@
+package tech.anapad.modela.touchscreen.frame;
+
+import tech.anapad.modela.touchscreen.driver.TouchscreenDriver;
+import tech.anapad.modela.touchscreen.tracking.TouchTracker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static tech.anapad.modela.touchscreen.driver.TouchscreenDriver.GT9110_TOUCH_CAPACITY;
+
+/**
+ * {@link TouchFrame} is a reusable touchscreen frame that stores the ID, X, Y, and size of each of its touches in
+ * parallel primitive arrays, so that no objects are allocated per touch. The touches are in view coordinates (see
+ * {@link TouchscreenDriver#sampleTouches(TouchFrame, long)}) and are sorted by their ID. A {@link TouchFrame} that was
+ * acquired from a {@link TouchFramePool} is reference counted: it is recycled into its {@link TouchFramePool} once it
+ * has been released as many times as it has been acquired and retained, so a consumer that keeps a {@link TouchFrame}
+ * beyond the listener call that delivered it must {@link #retain()} it and {@link #release()} it when done. The
+ * tracking state of each touch (e.g. its velocity and predicted location) is set by the {@link TouchTracker} before
+ * the {@link TouchFrame} is delivered and defaults to a stationary touch that was just touched down.
+ */
+public class TouchFrame {
+
+    private final TouchFramePool touchFramePool;
+    private final int[] ids;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] sizes;
+    private final int[] predictedXs;
+    private final int[] predictedYs;
+    private final double[] velocityXs;
+    private final double[] velocityYs;
+    private final double[] deltaXs;
+    private final double[] deltaYs;
+    private final int[] downXs;
+    private final int[] downYs;
+    private final long[] downNanos;
+    private final double[] travelledDistances;
+    private final AtomicInteger referenceCount;
+
+    private int count;
+    private long sequence;
+    private long timestampNanos;
+    private long deliveryNanos;
+
+    /**
+     * Instantiates a new {@link TouchFrame} that isn't pooled.
+     */
+    public TouchFrame() {
+        this(null);
+    }
+
+    /**
+     * Instantiates a new {@link TouchFrame}.
+     *
+     * @param touchFramePool the {@link TouchFramePool} to recycle into or <code>null</code>
+     */
+    TouchFrame(TouchFramePool touchFramePool) {
+        this.touchFramePool = touchFramePool;
+        ids = new int[GT9110_TOUCH_CAPACITY];
+        xs = new int[GT9110_TOUCH_CAPACITY];
+        ys = new int[GT9110_TOUCH_CAPACITY];
+        sizes = new int[GT9110_TOUCH_CAPACITY];
+        predictedXs = new int[GT9110_TOUCH_CAPACITY];
+        predictedYs = new int[GT9110_TOUCH_CAPACITY];
+        velocityXs = new double[GT9110_TOUCH_CAPACITY];
+        velocityYs = new double[GT9110_TOUCH_CAPACITY];
+        deltaXs = new double[GT9110_TOUCH_CAPACITY];
+        deltaYs = new double[GT9110_TOUCH_CAPACITY];
+        downXs = new int[GT9110_TOUCH_CAPACITY];
+        downYs = new int[GT9110_TOUCH_CAPACITY];
+        downNanos = new long[GT9110_TOUCH_CAPACITY];
+        travelledDistances = new double[GT9110_TOUCH_CAPACITY];
+        referenceCount = new AtomicInteger();
+    }
+
+    /**
+     * Removes all touches and resets the sequence number and the timestamps.
+     */
+    public void clear() {
+        count = 0;
+        sequence = -1;
+        timestampNanos = 0;
+        deliveryNanos = 0;
+    }
+
+    /**
+     * Adds a touch with the tracking state of a stationary touch that was just touched down, which is ignored if this
+     * {@link TouchFrame} already has {@link #getCapacity()} touches.
+     *
+     * @param id   the ID
+     * @param x    the X in view pixels
+     * @param y    the Y in view pixels
+     * @param size the size
+     */
+    public void addTouch(int id, int x, int y, int size) {
+        if (count == GT9110_TOUCH_CAPACITY) {
+            return;
+        }
+        ids[count] = id;
+        xs[count] = x;
+        ys[count] = y;
+        sizes[count] = size;
+        predictedXs[count] = x;
+        predictedYs[count] = y;
+        velocityXs[count] = 0;
+        velocityYs[count] = 0;
+        deltaXs[count] = 0;
+        deltaYs[count] = 0;
+        downXs[count] = x;
+        downYs[count] = y;
+        downNanos[count] = 0;
+        travelledDistances[count] = 0;
+        count++;
+    }
+
+    /**
+     * Sets the tracking state of the touch at the given index.
+     *
+     * @param index             the index
+     * @param predictedX        the predicted X in view pixels (see {@link #getPredictedX(int)})
+     * @param predictedY        the predicted Y in view pixels
+     * @param velocityX         the X velocity in view pixels per second
+     * @param velocityY         the Y velocity in view pixels per second
+     * @param deltaX            the X movement of the predicted location since the previous {@link TouchFrame}
+     * @param deltaY            the Y movement of the predicted location since the previous {@link TouchFrame}
+     * @param downX             the X at which the touch was touched down
+     * @param downY             the Y at which the touch was touched down
+     * @param downNanos         the capture timestamp of the {@link TouchFrame} in which the touch was touched down
+     * @param travelledDistance the distance in view pixels that the touch has travelled since it was touched down
+     */
+    public void setTracking(int index, int predictedX, int predictedY, double velocityX, double velocityY,
+            double deltaX, double deltaY, int downX, int downY, long downNanos, double travelledDistance) {
+        predictedXs[index] = predictedX;
+        predictedYs[index] = predictedY;
+        velocityXs[index] = velocityX;
+        velocityYs[index] = velocityY;
+        deltaXs[index] = deltaX;
+        deltaYs[index] = deltaY;
+        downXs[index] = downX;
+        downYs[index] = downY;
+        this.downNanos[index] = downNanos;
+        travelledDistances[index] = travelledDistance;
+    }
+
+    /**
+     * Removes the touches whose bit is set in the given index mask, keeping the order of the remaining touches.
+     *
+     * @param indexMask the mask with bit <code>n</code> set to remove the touch at index <code>n</code>
+     */
+    public void removeTouches(int indexMask) {
+        int newCount = 0;
+        for (int index = 0; index < count; index++) {
+            if ((indexMask & (1 << index)) != 0) {
+                continue;
+            }
+            if (newCount != index) {
+                moveTouch(index, newCount);
+            }
+            newCount++;
+        }
+        count = newCount;
+    }
+
+    /**
+     * Insertion sorts the touches by their ID, which is fast for the few touches of a {@link TouchFrame}.
+     */
+    public void sortByID() {
+        for (int index = 1; index < count; index++) {
+            for (int slot = index; slot > 0 && ids[slot - 1] > ids[slot]; slot--) {
+                swapTouches(slot - 1, slot);
+            }
+        }
+    }
+
+    /**
+     * Moves the touch at the given index to the given index, overwriting the touch there.
+     *
+     * @param from the index to move from
+     * @param to   the index to move to
+     */
+    private void moveTouch(int from, int to) {
+        ids[to] = ids[from];
+        xs[to] = xs[from];
+        ys[to] = ys[from];
+        sizes[to] = sizes[from];
+        predictedXs[to] = predictedXs[from];
+        predictedYs[to] = predictedYs[from];
+        velocityXs[to] = velocityXs[from];
+        velocityYs[to] = velocityYs[from];
+        deltaXs[to] = deltaXs[from];
+        deltaYs[to] = deltaYs[from];
+        downXs[to] = downXs[from];
+        downYs[to] = downYs[from];
+        downNanos[to] = downNanos[from];
+        travelledDistances[to] = travelledDistances[from];
+    }
+
+    /**
+     * Swaps the touches at the given indices.
+     *
+     * @param first  the first index
+     * @param second the second index
+     */
+    private void swapTouches(int first, int second) {
+        swap(ids, first, second);
+        swap(xs, first, second);
+        swap(ys, first, second);
+        swap(sizes, first, second);
+        swap(predictedXs, first, second);
+        swap(predictedYs, first, second);
+        swap(velocityXs, first, second);
+        swap(velocityYs, first, second);
+        swap(deltaXs, first, second);
+        swap(deltaYs, first, second);
+        swap(downXs, first, second);
+        swap(downYs, first, second);
+        swap(downNanos, first, second);
+        swap(travelledDistances, first, second);
+    }
+
+    private static void swap(int[] array, int first, int second) {
+        final int value = array[first];
+        array[first] = array[second];
+        array[second] = value;
+    }
+
+    private static void swap(long[] array, int first, int second) {
+        final long value = array[first];
+        array[first] = array[second];
+        array[second] = value;
+    }
+
+    private static void swap(double[] array, int first, int second) {
+        final double value = array[first];
+        array[first] = array[second];
+        array[second] = value;
+    }
+
+    /**
+     * Copies the given {@link TouchFrame} into this {@link TouchFrame}.
+     *
+     * @param source the {@link TouchFrame} to copy from
+     */
+    public void copyFrom(TouchFrame source) {
+        System.arraycopy(source.ids, 0, ids, 0, source.count);
+        System.arraycopy(source.xs, 0, xs, 0, source.count);
+        System.arraycopy(source.ys, 0, ys, 0, source.count);
+        System.arraycopy(source.sizes, 0, sizes, 0, source.count);
+        System.arraycopy(source.predictedXs, 0, predictedXs, 0, source.count);
+        System.arraycopy(source.predictedYs, 0, predictedYs, 0, source.count);
+        System.arraycopy(source.velocityXs, 0, velocityXs, 0, source.count);
+        System.arraycopy(source.velocityYs, 0, velocityYs, 0, source.count);
+        System.arraycopy(source.deltaXs, 0, deltaXs, 0, source.count);
+        System.arraycopy(source.deltaYs, 0, deltaYs, 0, source.count);
+        System.arraycopy(source.downXs, 0, downXs, 0, source.count);
+        System.arraycopy(source.downYs, 0, downYs, 0, source.count);
+        System.arraycopy(source.downNanos, 0, downNanos, 0, source.count);
+        System.arraycopy(source.travelledDistances, 0, travelledDistances, 0, source.count);
+        count = source.count;
+        sequence = source.sequence;
+        timestampNanos = source.timestampNanos;
+        deliveryNanos = source.deliveryNanos;
+    }
+
+    /**
+     * Gets the index of the touch with the given ID.
+     *
+     * @param id the ID
+     *
+     * @return the index or <code>-1</code> if there is no such touch
+     */
+    public int indexOfID(int id) {
+        for (int index = 0; index < count; index++) {
+            if (ids[index] == id) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a reference to this {@link TouchFrame}, so it isn't recycled until it is released again.
+     *
+     * @return this {@link TouchFrame}
+     */
+    public TouchFrame retain() {
+        referenceCount.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Removes a reference to this {@link TouchFrame}, which recycles it into its {@link TouchFramePool} once no
+     * references are left.
+     */
+    public void release() {
+        final int remaining = referenceCount.decrementAndGet();
+        if (remaining == 0 && touchFramePool != null) {
+            touchFramePool.recycle(this);
+        } else if (remaining < 0) {
+            referenceCount.incrementAndGet();
+            throw new IllegalStateException("Touch frame was released more often than it was retained!");
+        }
+    }
+
+    void setReferenceCount(int referenceCount) {
+        this.referenceCount.set(referenceCount);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getCapacity() {
+        return GT9110_TOUCH_CAPACITY;
+    }
+
+    public int getID(int index) {
+        return ids[index];
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    public int getSize(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * Gets the location of the touch at the given index that the {@link TouchTracker} predicts for the prediction
+     * horizon after the capture of this {@link TouchFrame}, which compensates for the touchscreen latency (e.g. for
+     * pointer motion and hit testing). This is the sampled location if the prediction is disabled.
+     *
+     * @param index the index
+     *
+     * @return the predicted X in view pixels
+     */
+    public int getPredictedX(int index) {
+        return predictedXs[index];
+    }
+
+    public int getPredictedY(int index) {
+        return predictedYs[index];
+    }
+
+    /**
+     * Gets the filtered velocity of the touch at the given index.
+     *
+     * @param index the index
+     *
+     * @return the X velocity in view pixels per second
+     */
+    public double getVelocityX(int index) {
+        return velocityXs[index];
+    }
+
+    public double getVelocityY(int index) {
+        return velocityYs[index];
+    }
+
+    /**
+     * Gets the movement of the predicted location (see {@link #getPredictedX(int)}) of the touch at the given index
+     * since the previous {@link TouchFrame}, which is <code>0</code> in the {@link TouchFrame} in which the touch was
+     * touched down.
+     *
+     * @param index the index
+     *
+     * @return the X delta in view pixels
+     */
+    public double getDeltaX(int index) {
+        return deltaXs[index];
+    }
+
+    public double getDeltaY(int index) {
+        return deltaYs[index];
+    }
+
+    public int getDownX(int index) {
+        return downXs[index];
+    }
+
+    public int getDownY(int index) {
+        return downYs[index];
+    }
+
+    /**
+     * Gets the capture timestamp of the {@link TouchFrame} in which the touch at the given index was touched down.
+     *
+     * @param index the index
+     *
+     * @return the timestamp in nanoseconds or <code>0</code> if the touch wasn't tracked
+     */
+    public long getDownNanos(int index) {
+        return downNanos[index];
+    }
+
+    /**
+     * Gets the length of the filtered path that the touch at the given index has travelled since it was touched down.
+     *
+     * @param index the index
+     *
+     * @return the distance in view pixels
+     */
+    public double getTravelledDistance(int index) {
+        return travelledDistances[index];
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Gets the {@link System#nanoTime()} at which this {@link TouchFrame} was captured.
+     *
+     * @return the timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public void setTimestampNanos(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+    }
+
+    /**
+     * Gets the {@link System#nanoTime()} at which this {@link TouchFrame} was delivered to the touch listeners.
+     *
+     * @return the timestamp in nanoseconds
+     */
+    public long getDeliveryNanos() {
+        return deliveryNanos;
+    }
+
+    public void setDeliveryNanos(long deliveryNanos) {
+        this.deliveryNanos = deliveryNanos;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("TouchFrame{sequence=").append(sequence)
+                .append(", timestampNanos=").append(timestampNanos).append(", touches=[");
+        for (int index = 0; index < count; index++) {
+            if (index > 0) {
+                builder.append(", ");
+            }
+            builder.append("{id=").append(ids[index]).append(", x=").append(xs[index]).append(", y=")
+                    .append(ys[index]).append(", size=").append(sizes[index]).append('}');
+        }
+        return builder.append("]}").toString();
+    }
+}
@@ -0,0 +1,74 @@
+package tech.anapad.modela.touchscreen.frame;
+
+import java.util.ArrayDeque;
+
+/**
+ * {@link TouchFramePool} is a pool of recycled {@link TouchFrame}s. Consumers that hold {@link TouchFrame}s for longer
+ * than expected (e.g. while the JavaFX application thread is busy) only make the pool allocate another
+ * {@link TouchFrame}, which is then kept in the pool, so the pool grows to the number of {@link TouchFrame}s that are
+ * in use at once and then stops allocating.
+ */
+public class TouchFramePool {
+
+    private final ArrayDeque<TouchFrame> freeTouchFrames;
+
+    private int allocatedCount;
+
+    /**
+     * Instantiates a new {@link TouchFramePool}.
+     *
+     * @param initialSize the number of {@link TouchFrame}s to preallocate
+     */
+    public TouchFramePool(int initialSize) {
+        // The free stack holds at most the allocated frames, so size it generously to rarely resize
+        freeTouchFrames = new ArrayDeque<>(initialSize * 4);
+        for (int index = 0; index < initialSize; index++) {
+            freeTouchFrames.push(new TouchFrame(this));
+        }
+        allocatedCount = initialSize;
+    }
+
+    /**
+     * Acquires a cleared {@link TouchFrame} with one reference, which the caller must {@link TouchFrame#release()}.
+     *
+     * @return the {@link TouchFrame}
+     */
+    public TouchFrame acquire() {
+        TouchFrame touchFrame;
+        synchronized (freeTouchFrames) {
+            touchFrame = freeTouchFrames.poll();
+            if (touchFrame == null) {
+                allocatedCount++;
+            }
+        }
+        if (touchFrame == null) {
+            touchFrame = new TouchFrame(this);
+        }
+        touchFrame.clear();
+        touchFrame.setReferenceCount(1);
+        return touchFrame;
+    }
+
+    /**
+     * Recycles the given {@link TouchFrame}, which has no references left.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     */
+    void recycle(TouchFrame touchFrame) {
+        synchronized (freeTouchFrames) {
+            freeTouchFrames.push(touchFrame);
+        }
+    }
+
+    /**
+     * Gets the number of {@link TouchFrame}s that this {@link TouchFramePool} has allocated, which only grows beyond
+     * the initial size if more {@link TouchFrame}s were in use at once.
+     *
+     * @return the allocated count
+     */
+    public int getAllocatedCount() {
+        synchronized (freeTouchFrames) {
+            return allocatedCount;
+        }
+    }
+}
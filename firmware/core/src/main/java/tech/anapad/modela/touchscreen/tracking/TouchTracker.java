@@ -0,0 +1,360 @@
+package tech.anapad.modela.touchscreen.tracking;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+
+import static java.lang.Math.hypot;
+import static java.lang.Math.max;
+import static java.lang.Math.round;
+import static java.lang.Math.sqrt;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static tech.anapad.modela.touchscreen.driver.TouchscreenDriver.GT9110_TOUCH_CAPACITY;
+import static tech.anapad.modela.util.math.MathUtil.clamp;
+
+/**
+ * {@link TouchTracker} tracks each touch by its {@link TouchFrame#getID(int)} and sets its tracking state in each
+ * {@link TouchFrame} (see {@link TouchFrame#setTracking(int, int, int, double, double, double, double, int, int, long,
+ * double)}), so that consumers don't need to keep their own state. The location, velocity, and acceleration of a touch
+ * are estimated with an alpha-beta-gamma filter, whose gains are the steady-state gains of a Kalman filter of a
+ * constant acceleration model. The predicted location extrapolates the sampled location with the estimated velocity
+ * and acceleration by the prediction horizon to compensate for the touchscreen latency, since the filtered location
+ * lags behind fast strokes more than the sampled location is noisy. The prediction error is measured against the
+ * sampled locations of the touch at the predicted instants (linearly interpolated between the {@link TouchFrame}s
+ * around them), alongside the error of not predicting at all. All methods must be called on one thread and don't
+ * allocate.
+ */
+public class TouchTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TouchTracker.class);
+    private static final double ALPHA = 0.7;
+    private static final double BETA = 2 * (2 - ALPHA) - 4 * sqrt(1 - ALPHA);
+    private static final double GAMMA = BETA * BETA / (2 * ALPHA);
+    private static final long MAX_FRAME_GAP_NANOS = MILLISECONDS.toNanos(100);
+    private static final int PENDING_PREDICTION_CAPACITY = 16;
+    private static final double TRAVEL_STEP = 4; // Keeps the jitter of a resting touch out of the travelled distance
+
+    private final long predictionNanos;
+    private final double predictionSeconds;
+    private final int width;
+    private final int height;
+    private final int[] trackedIDs;
+    private final boolean[] seen;
+    private final int[] sampleCounts;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] velocityXs;
+    private final double[] velocityYs;
+    private final double[] accelerationXs;
+    private final double[] accelerationYs;
+    private final long[] lastNanos;
+    private final int[] lastSampledXs;
+    private final int[] lastSampledYs;
+    private final double[] lastPredictedXs;
+    private final double[] lastPredictedYs;
+    private final int[] downXs;
+    private final int[] downYs;
+    private final long[] downNanos;
+    private final double[] travelledDistances;
+    private final double[] travelAnchorXs;
+    private final double[] travelAnchorYs;
+    private final long[][] pendingTargetNanos;
+    private final double[][] pendingPredictedXs;
+    private final double[][] pendingPredictedYs;
+    private final int[][] pendingSampledXs;
+    private final int[][] pendingSampledYs;
+    private final int[] pendingHeads;
+    private final int[] pendingCounts;
+
+    private long predictionCount;
+    private double predictionErrorSquareSum;
+    private double unpredictedErrorSquareSum;
+    private double maxPredictionError;
+    private double maxUnpredictedError;
+
+    /**
+     * Instantiates a new {@link TouchTracker}.
+     *
+     * @param predictionNanos the prediction horizon in nanoseconds or <code>0</code> to not predict
+     * @param width           the width of the view, to which predicted locations are clamped
+     * @param height          the height of the view, to which predicted locations are clamped
+     */
+    public TouchTracker(long predictionNanos, int width, int height) {
+        if (predictionNanos < 0) {
+            throw new IllegalArgumentException("Touch prediction horizon must not be negative!");
+        }
+        this.predictionNanos = predictionNanos;
+        this.width = width;
+        this.height = height;
+        predictionSeconds = predictionNanos / 1e9;
+        trackedIDs = new int[GT9110_TOUCH_CAPACITY];
+        seen = new boolean[GT9110_TOUCH_CAPACITY];
+        sampleCounts = new int[GT9110_TOUCH_CAPACITY];
+        xs = new double[GT9110_TOUCH_CAPACITY];
+        ys = new double[GT9110_TOUCH_CAPACITY];
+        velocityXs = new double[GT9110_TOUCH_CAPACITY];
+        velocityYs = new double[GT9110_TOUCH_CAPACITY];
+        accelerationXs = new double[GT9110_TOUCH_CAPACITY];
+        accelerationYs = new double[GT9110_TOUCH_CAPACITY];
+        lastNanos = new long[GT9110_TOUCH_CAPACITY];
+        lastSampledXs = new int[GT9110_TOUCH_CAPACITY];
+        lastSampledYs = new int[GT9110_TOUCH_CAPACITY];
+        lastPredictedXs = new double[GT9110_TOUCH_CAPACITY];
+        lastPredictedYs = new double[GT9110_TOUCH_CAPACITY];
+        downXs = new int[GT9110_TOUCH_CAPACITY];
+        downYs = new int[GT9110_TOUCH_CAPACITY];
+        downNanos = new long[GT9110_TOUCH_CAPACITY];
+        travelledDistances = new double[GT9110_TOUCH_CAPACITY];
+        travelAnchorXs = new double[GT9110_TOUCH_CAPACITY];
+        travelAnchorYs = new double[GT9110_TOUCH_CAPACITY];
+        pendingTargetNanos = new long[GT9110_TOUCH_CAPACITY][PENDING_PREDICTION_CAPACITY];
+        pendingPredictedXs = new double[GT9110_TOUCH_CAPACITY][PENDING_PREDICTION_CAPACITY];
+        pendingPredictedYs = new double[GT9110_TOUCH_CAPACITY][PENDING_PREDICTION_CAPACITY];
+        pendingSampledXs = new int[GT9110_TOUCH_CAPACITY][PENDING_PREDICTION_CAPACITY];
+        pendingSampledYs = new int[GT9110_TOUCH_CAPACITY][PENDING_PREDICTION_CAPACITY];
+        pendingHeads = new int[GT9110_TOUCH_CAPACITY];
+        pendingCounts = new int[GT9110_TOUCH_CAPACITY];
+        for (int slot = 0; slot < GT9110_TOUCH_CAPACITY; slot++) {
+            trackedIDs[slot] = -1;
+        }
+    }
+
+    /**
+     * Tracks the touches of the given {@link TouchFrame} and sets their tracking state. A touch is tracked from the
+     * {@link TouchFrame} in which it first appears until the first {@link TouchFrame} without it.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     */
+    public void track(TouchFrame touchFrame) {
+        for (int slot = 0; slot < GT9110_TOUCH_CAPACITY; slot++) {
+            seen[slot] = false;
+        }
+        final long timestampNanos = touchFrame.getTimestampNanos();
+        for (int index = 0; index < touchFrame.getCount(); index++) {
+            final int id = touchFrame.getID(index);
+            int slot = getSlot(id);
+            if (slot < 0) {
+                slot = getSlot(-1);
+                if (slot < 0) {
+                    continue;
+                }
+                trackedIDs[slot] = id;
+                sampleCounts[slot] = 0;
+            }
+            seen[slot] = true;
+            update(slot, touchFrame.getX(index), touchFrame.getY(index), timestampNanos);
+
+            final double predictedX = touchFrame.getX(index) + velocityXs[slot] * predictionSeconds +
+                    0.5 * accelerationXs[slot] * predictionSeconds * predictionSeconds;
+            final double predictedY = touchFrame.getY(index) + velocityYs[slot] * predictionSeconds +
+                    0.5 * accelerationYs[slot] * predictionSeconds * predictionSeconds;
+            final double deltaX = sampleCounts[slot] == 1 ? 0 : predictedX - lastPredictedXs[slot];
+            final double deltaY = sampleCounts[slot] == 1 ? 0 : predictedY - lastPredictedYs[slot];
+            lastPredictedXs[slot] = predictedX;
+            lastPredictedYs[slot] = predictedY;
+            if (predictionNanos > 0) {
+                addPendingPrediction(slot, timestampNanos + predictionNanos, predictedX, predictedY,
+                        touchFrame.getX(index), touchFrame.getY(index));
+            }
+
+            touchFrame.setTracking(index, clamp((int) round(predictedX), 0, width - 1),
+                    clamp((int) round(predictedY), 0, height - 1), velocityXs[slot], velocityYs[slot], deltaX, deltaY,
+                    downXs[slot], downYs[slot], downNanos[slot], travelledDistances[slot]);
+        }
+        for (int slot = 0; slot < GT9110_TOUCH_CAPACITY; slot++) {
+            if (!seen[slot]) {
+                trackedIDs[slot] = -1;
+                pendingCounts[slot] = 0;
+            }
+        }
+    }
+
+    /**
+     * Updates the alpha-beta-gamma filter of the given slot with the given sampled location. The first sample
+     * initializes the location, the second sample initializes the velocity from the difference of the two samples,
+     * and the following samples correct the extrapolated state by the residual.
+     *
+     * @param slot           the slot
+     * @param x              the sampled X
+     * @param y              the sampled Y
+     * @param timestampNanos the capture timestamp
+     */
+    private void update(int slot, int x, int y, long timestampNanos) {
+        final long elapsedNanos = timestampNanos - lastNanos[slot];
+        if (sampleCounts[slot] == 0 || elapsedNanos > MAX_FRAME_GAP_NANOS) {
+            if (sampleCounts[slot] == 0) {
+                downXs[slot] = x;
+                downYs[slot] = y;
+                downNanos[slot] = timestampNanos;
+                travelledDistances[slot] = 0;
+                travelAnchorXs[slot] = x;
+                travelAnchorYs[slot] = y;
+            }
+            // Restart the filter, since the touch may have moved arbitrarily during a long gap
+            xs[slot] = x;
+            ys[slot] = y;
+            velocityXs[slot] = 0;
+            velocityYs[slot] = 0;
+            accelerationXs[slot] = 0;
+            accelerationYs[slot] = 0;
+        } else if (elapsedNanos > 0) {
+            final double dt = elapsedNanos / 1e9;
+            final double lastX = xs[slot];
+            final double lastY = ys[slot];
+            if (sampleCounts[slot] == 1) {
+                xs[slot] = x;
+                ys[slot] = y;
+                velocityXs[slot] = (x - lastX) / dt;
+                velocityYs[slot] = (y - lastY) / dt;
+            } else {
+                final double extrapolatedX = lastX + velocityXs[slot] * dt + 0.5 * accelerationXs[slot] * dt * dt;
+                final double extrapolatedY = lastY + velocityYs[slot] * dt + 0.5 * accelerationYs[slot] * dt * dt;
+                final double residualX = x - extrapolatedX;
+                final double residualY = y - extrapolatedY;
+                xs[slot] = extrapolatedX + ALPHA * residualX;
+                ys[slot] = extrapolatedY + ALPHA * residualY;
+                velocityXs[slot] += accelerationXs[slot] * dt + BETA * residualX / dt;
+                velocityYs[slot] += accelerationYs[slot] * dt + BETA * residualY / dt;
+                accelerationXs[slot] += 2 * GAMMA * residualX / (dt * dt);
+                accelerationYs[slot] += 2 * GAMMA * residualY / (dt * dt);
+            }
+            final double travelStep = hypot(xs[slot] - travelAnchorXs[slot], ys[slot] - travelAnchorYs[slot]);
+            if (travelStep >= TRAVEL_STEP) {
+                travelledDistances[slot] += travelStep;
+                travelAnchorXs[slot] = xs[slot];
+                travelAnchorYs[slot] = ys[slot];
+            }
+        }
+        resolvePendingPredictions(slot, x, y, timestampNanos);
+        lastNanos[slot] = timestampNanos;
+        lastSampledXs[slot] = x;
+        lastSampledYs[slot] = y;
+        sampleCounts[slot]++;
+    }
+
+    /**
+     * Adds a prediction to the pending predictions of the given slot, which is dropped if too many are pending.
+     *
+     * @param slot         the slot
+     * @param targetNanos  the instant that the prediction is for
+     * @param predictedX   the predicted X
+     * @param predictedY   the predicted Y
+     * @param sampledX     the sampled X at the time of the prediction
+     * @param sampledY     the sampled Y at the time of the prediction
+     */
+    private void addPendingPrediction(int slot, long targetNanos, double predictedX, double predictedY,
+            int sampledX, int sampledY) {
+        if (pendingCounts[slot] == PENDING_PREDICTION_CAPACITY) {
+            return;
+        }
+        final int pendingIndex = (pendingHeads[slot] + pendingCounts[slot]++) % PENDING_PREDICTION_CAPACITY;
+        pendingTargetNanos[slot][pendingIndex] = targetNanos;
+        pendingPredictedXs[slot][pendingIndex] = predictedX;
+        pendingPredictedYs[slot][pendingIndex] = predictedY;
+        pendingSampledXs[slot][pendingIndex] = sampledX;
+        pendingSampledYs[slot][pendingIndex] = sampledY;
+    }
+
+    /**
+     * Measures the error of the pending predictions of the given slot whose instant has passed against the sampled
+     * location at that instant, which is interpolated between the previous and the given sample.
+     *
+     * @param slot           the slot
+     * @param x              the sampled X
+     * @param y              the sampled Y
+     * @param timestampNanos the capture timestamp
+     */
+    private void resolvePendingPredictions(int slot, int x, int y, long timestampNanos) {
+        while (pendingCounts[slot] > 0) {
+            final int pendingIndex = pendingHeads[slot];
+            final long targetNanos = pendingTargetNanos[slot][pendingIndex];
+            if (targetNanos - timestampNanos > 0) {
+                return;
+            }
+            final long intervalNanos = timestampNanos - lastNanos[slot];
+            final double ratio = intervalNanos <= 0 ? 1 :
+                    max(0, 1 - (double) (timestampNanos - targetNanos) / intervalNanos);
+            final double actualX = lastSampledXs[slot] + (x - lastSampledXs[slot]) * ratio;
+            final double actualY = lastSampledYs[slot] + (y - lastSampledYs[slot]) * ratio;
+            final double predictionError = hypot(pendingPredictedXs[slot][pendingIndex] - actualX,
+                    pendingPredictedYs[slot][pendingIndex] - actualY);
+            final double unpredictedError = hypot(pendingSampledXs[slot][pendingIndex] - actualX,
+                    pendingSampledYs[slot][pendingIndex] - actualY);
+            predictionCount++;
+            predictionErrorSquareSum += predictionError * predictionError;
+            unpredictedErrorSquareSum += unpredictedError * unpredictedError;
+            maxPredictionError = max(maxPredictionError, predictionError);
+            maxUnpredictedError = max(maxUnpredictedError, unpredictedError);
+            pendingHeads[slot] = (pendingIndex + 1) % PENDING_PREDICTION_CAPACITY;
+            pendingCounts[slot]--;
+        }
+    }
+
+    /**
+     * Gets the slot of the given {@link TouchFrame#getID(int)}.
+     *
+     * @param id the {@link TouchFrame#getID(int)} or <code>-1</code> for a free slot
+     *
+     * @return the slot or <code>-1</code> if there is none
+     */
+    private int getSlot(int id) {
+        for (int slot = 0; slot < GT9110_TOUCH_CAPACITY; slot++) {
+            if (trackedIDs[slot] == id) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Logs the prediction error statistics.
+     *
+     * @param name the name to log the statistics under
+     */
+    public void logStatistics(String name) {
+        if (predictionNanos == 0) {
+            return;
+        }
+        LOGGER.info("Touch prediction ({}) {} ms ahead: {} predictions, RMS error: {} px (unpredicted: {} px), " +
+                        "max error: {} px (unpredicted: {} px)", name, NANOSECONDS.toMillis(predictionNanos),
+                predictionCount, format(getRMSPredictionError()), format(getRMSUnpredictedError()),
+                format(maxPredictionError), format(maxUnpredictedError));
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+
+    /**
+     * Gets the root mean square distance between the predicted locations and the sampled locations at the predicted
+     * instants.
+     *
+     * @return the RMS error in view pixels or <code>0</code> if no predictions were measured
+     */
+    public double getRMSPredictionError() {
+        return predictionCount == 0 ? 0 : sqrt(predictionErrorSquareSum / predictionCount);
+    }
+
+    /**
+     * Gets the root mean square distance between the sampled locations at the time of the predictions and the sampled
+     * locations at the predicted instants, which is the error without prediction.
+     *
+     * @return the RMS error in view pixels or <code>0</code> if no predictions were measured
+     */
+    public double getRMSUnpredictedError() {
+        return predictionCount == 0 ? 0 : sqrt(unpredictedErrorSquareSum / predictionCount);
+    }
+
+    public long getPredictionCount() {
+        return predictionCount;
+    }
+
+    public double getMaxPredictionError() {
+        return maxPredictionError;
+    }
+
+    public long getPredictionNanos() {
+        return predictionNanos;
+    }
+}
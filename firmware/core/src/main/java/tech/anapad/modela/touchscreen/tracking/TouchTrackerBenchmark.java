@@ -0,0 +1,116 @@
+package tech.anapad.modela.touchscreen.tracking;
+
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.Math.round;
+import static tech.anapad.modela.util.math.MathUtil.clamp;
+
+/**
+ * {@link TouchTrackerBenchmark} replays a trace of {@link TouchFrame}s through a new {@link TouchTracker} per run and
+ * logs its prediction error (see {@link TouchTracker#logStatistics(String)}), so that prediction horizons can be
+ * compared on the same touches. The synthetic trace (see {@link #createSyntheticTrace(double, double, int, int)})
+ * resembles swipes and taps on the touchscreen: minimum-jerk strokes between random locations with Gaussian location
+ * noise and report timing jitter, which are quantized to pixels like the GT9110 coordinates.
+ */
+public class TouchTrackerBenchmark {
+
+    private static final int STROKE_COUNT = 200;
+    private static final double MAX_STROKE_DISTANCE = 400;
+    private static final double MIN_STROKE_SECONDS = 0.15;
+    private static final double MAX_STROKE_SECONDS = 0.5;
+    private static final double HOLD_SECONDS = 0.1;
+    private static final double LIFT_SECONDS = 0.05;
+    private static final double TAP_RATIO = 0.25;
+
+    private final List<TouchFrame> trace;
+    private final int width;
+    private final int height;
+
+    /**
+     * Instantiates a new {@link TouchTrackerBenchmark}.
+     *
+     * @param trace  the {@link TouchFrame}s to replay, in capture order
+     * @param width  the width of the view
+     * @param height the height of the view
+     */
+    public TouchTrackerBenchmark(List<TouchFrame> trace, int width, int height) {
+        this.trace = trace;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Replays the trace through a new {@link TouchTracker} with the given prediction horizon and logs its prediction
+     * error.
+     *
+     * @param name            the name of the run for logging
+     * @param predictionNanos the prediction horizon in nanoseconds
+     *
+     * @return the {@link TouchTracker}
+     */
+    public TouchTracker run(String name, long predictionNanos) {
+        final TouchTracker touchTracker = new TouchTracker(predictionNanos, width, height);
+        for (TouchFrame touchFrame : trace) {
+            touchTracker.track(touchFrame);
+        }
+        touchTracker.logStatistics(name);
+        return touchTracker;
+    }
+
+    /**
+     * Creates a synthetic trace of single touch strokes.
+     *
+     * @param reportRateHz           the touch report rate in hertz
+     * @param noiseStandardDeviation the standard deviation of the location noise in view pixels
+     * @param width                  the width of the view
+     * @param height                 the height of the view
+     *
+     * @return the {@link TouchFrame} {@link List}
+     */
+    public static List<TouchFrame> createSyntheticTrace(double reportRateHz, double noiseStandardDeviation, int width,
+            int height) {
+        final Random random = new Random(0);
+        final double reportPeriodSeconds = 1 / reportRateHz;
+        final List<TouchFrame> trace = new ArrayList<>();
+        double seconds = 0;
+        for (int stroke = 0; stroke < STROKE_COUNT; stroke++) {
+            final double startX = random.nextDouble() * width;
+            final double startY = random.nextDouble() * height;
+            final boolean tap = random.nextDouble() < TAP_RATIO;
+            final double endX = tap ? startX : clamp(startX + (random.nextDouble() * 2 - 1) * MAX_STROKE_DISTANCE,
+                    0, width - 1);
+            final double endY = tap ? startY : clamp(startY + (random.nextDouble() * 2 - 1) * MAX_STROKE_DISTANCE,
+                    0, height - 1);
+            final double strokeSeconds = MIN_STROKE_SECONDS +
+                    random.nextDouble() * (MAX_STROKE_SECONDS - MIN_STROKE_SECONDS);
+            final int id = stroke % 2;
+            for (double time = 0; time < strokeSeconds + HOLD_SECONDS; time += reportPeriodSeconds) {
+                // The minimum-jerk profile of a finger movement
+                final double progress = Math.min(1, time / strokeSeconds);
+                final double position = progress * progress * progress * (10 - 15 * progress + 6 * progress * progress);
+                final double x = startX + (endX - startX) * position + random.nextGaussian() * noiseStandardDeviation;
+                final double y = startY + (endY - startY) * position + random.nextGaussian() * noiseStandardDeviation;
+                final double jitterSeconds = random.nextGaussian() * reportPeriodSeconds / 20;
+                trace.add(createTouchFrame(seconds + time + jitterSeconds, id, x, y, width, height));
+            }
+            seconds += strokeSeconds + HOLD_SECONDS;
+            trace.add(createTouchFrame(seconds, -1, 0, 0, width, height));
+            seconds += LIFT_SECONDS;
+        }
+        return trace;
+    }
+
+    private static TouchFrame createTouchFrame(double seconds, int id, double x, double y, int width, int height) {
+        final TouchFrame touchFrame = new TouchFrame();
+        touchFrame.clear();
+        if (id >= 0) {
+            touchFrame.addTouch(id, clamp((int) round(x), 0, width - 1), clamp((int) round(y), 0, height - 1), 30);
+        }
+        touchFrame.setTimestampNanos(round(seconds * 1e9));
+        return touchFrame;
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Thread.sleep;
+import static java.lang.management.ManagementFactory.getRuntimeMXBean;
 import static java.util.Arrays.fill;
 import static tech.anapad.modela.usb.mapping.Keycode.ERROR_ROLLOVER;
 import static tech.anapad.modela.util.exception.ExceptionUtil.ignoreException;
@@ -50,6 +51,7 @@ public class USBController {
     private final ModelA modelA;
 
     private FileOutputStream hidDeviceOutputStream;
+    private boolean firstKeystrokeSent;
 
     private Set<MouseButton> activeMouseButtons;
     private byte nextMouseX;
@@ -360,7 +362,12 @@ public class USBController {
         }
 
         // Write report
-        return writeReport(reportBuilder.build(), flushAttemptPeriodMillis, maxFlushAttempts);
+        final int attempts = writeReport(reportBuilder.build(), flushAttemptPeriodMillis, maxFlushAttempts);
+        if (!firstKeystrokeSent && !activeKeycodes.isEmpty()) {
+            firstKeystrokeSent = true;
+            LOGGER.info("Sent the first keystroke {} ms after the JVM started.", getRuntimeMXBean().getUptime());
+        }
+        return attempts;
     }
 
     /**
@@ -0,0 +1,110 @@
+package tech.anapad.modela.util.filter;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.cos;
+import static java.lang.Math.min;
+import static java.lang.Math.sin;
+
+/**
+ * {@link BiquadFilter} is a second-order IIR low-pass or high-pass {@link Filter} in direct form I. If a lower sample
+ * rate is set (see {@link #setSampleRate(double)}), a cutoff frequency at or above its Nyquist frequency is lowered to
+ * just below it.
+ *
+ * @see <a href="https://www.w3.org/TR/audio-eq-cookbook/">Audio EQ Cookbook</a>
+ */
+public class BiquadFilter implements Filter {
+
+    /**
+     * The maximum ratio of the cutoff frequency to the sample rate, which is just below the Nyquist frequency.
+     */
+    private static final double MAX_CUTOFF_RATIO = 0.45;
+
+    private final boolean highPass;
+    private final double cutoffHz;
+    private final double q;
+    private final double[] x1;
+    private final double[] x2;
+    private final double[] y1;
+    private final double[] y2;
+    private final boolean[] initialized;
+
+    private double b0;
+    private double b1;
+    private double b2;
+    private double a1;
+    private double a2;
+
+    /**
+     * Instantiates a new {@link BiquadFilter}.
+     *
+     * @param channelCount the number of channels
+     * @param highPass     <code>true</code> for a high-pass filter, <code>false</code> for a low-pass filter
+     * @param cutoffHz     the cutoff frequency in hertz (less than half of <code>sampleRateHz</code>)
+     * @param q            the quality factor (e.g. <code>0.7071</code> for a Butterworth response)
+     * @param sampleRateHz the sample rate in hertz
+     */
+    public BiquadFilter(int channelCount, boolean highPass, double cutoffHz, double q, double sampleRateHz) {
+        if (cutoffHz <= 0 || cutoffHz >= sampleRateHz / 2) {
+            throw new IllegalArgumentException("Biquad cutoff must be between 0 and the Nyquist frequency!");
+        }
+        if (q <= 0) {
+            throw new IllegalArgumentException("Biquad Q must be positive!");
+        }
+        this.highPass = highPass;
+        this.cutoffHz = cutoffHz;
+        this.q = q;
+        x1 = new double[channelCount];
+        x2 = new double[channelCount];
+        y1 = new double[channelCount];
+        y2 = new double[channelCount];
+        initialized = new boolean[channelCount];
+        setSampleRate(sampleRateHz);
+    }
+
+    @Override
+    public double filter(int channel, double sample) {
+        if (!initialized[channel]) {
+            // Settle on the sample, which a low-pass filter passes and a high-pass filter blocks
+            initialized[channel] = true;
+            x1[channel] = sample;
+            x2[channel] = sample;
+            y1[channel] = highPass ? 0 : sample;
+            y2[channel] = y1[channel];
+        }
+        final double output = b0 * sample + b1 * x1[channel] + b2 * x2[channel] -
+                a1 * y1[channel] - a2 * y2[channel];
+        x2[channel] = x1[channel];
+        x1[channel] = sample;
+        y2[channel] = y1[channel];
+        y1[channel] = output;
+        return output;
+    }
+
+    @Override
+    public double getValue(int channel) {
+        return y1[channel];
+    }
+
+    @Override
+    public void reset(int channel) {
+        initialized[channel] = false;
+    }
+
+    @Override
+    public void setSampleRate(double sampleRateHz) {
+        final double w0 = 2 * PI * min(cutoffHz, MAX_CUTOFF_RATIO * sampleRateHz) / sampleRateHz;
+        final double cosW0 = cos(w0);
+        final double alpha = sin(w0) / (2 * q);
+        final double a0 = 1 + alpha;
+        if (highPass) {
+            b0 = (1 + cosW0) / 2 / a0;
+            b1 = -(1 + cosW0) / a0;
+        } else {
+            b0 = (1 - cosW0) / 2 / a0;
+            b1 = (1 - cosW0) / a0;
+        }
+        b2 = b0;
+        a1 = -2 * cosW0 / a0;
+        a2 = (1 - alpha) / a0;
+    }
+}
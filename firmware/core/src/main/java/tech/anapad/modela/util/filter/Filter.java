@@ -0,0 +1,45 @@
+package tech.anapad.modela.util.filter;
+
+/**
+ * {@link Filter} is a digital filter of multiple independent channels of samples. The state of each channel is stored
+ * in primitive arrays that are allocated up front, so filtering doesn't allocate. The first sample of a channel (or the
+ * first sample after {@link #reset(int)}) initializes the state of the channel as if the filter had settled on it. A
+ * {@link Filter} is not thread-safe.
+ */
+public interface Filter {
+
+    /**
+     * Filters the given sample of the given channel.
+     *
+     * @param channel the channel
+     * @param sample  the sample
+     *
+     * @return the filter output value (same as {@link #getValue(int)})
+     */
+    double filter(int channel, double sample);
+
+    /**
+     * Gets the last output value of the given channel.
+     *
+     * @param channel the channel
+     *
+     * @return the value
+     */
+    double getValue(int channel);
+
+    /**
+     * Resets the state of the given channel, so that its next sample initializes it.
+     *
+     * @param channel the channel
+     */
+    void reset(int channel);
+
+    /**
+     * Sets the rate at which samples are passed to this {@link Filter} (e.g. after the conversion rate of an ADC
+     * changed or while it is read less often), so that its response stays the same in time. {@link Filter}s whose
+     * response is defined in samples rather than in time (e.g. a {@link MedianFilter}) ignore this.
+     *
+     * @param sampleRateHz the sample rate in hertz
+     */
+    default void setSampleRate(double sampleRateHz) {}
+}
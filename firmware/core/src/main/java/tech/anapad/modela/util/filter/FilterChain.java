@@ -0,0 +1,126 @@
+package tech.anapad.modela.util.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Double.parseDouble;
+import static java.lang.Integer.parseInt;
+
+/**
+ * {@link FilterChain} is a {@link Filter} that applies a sequence of {@link Filter}s, each to the output of the
+ * previous one. A {@link FilterChain} is configured with a specification of comma-separated stages, each of which is
+ * a stage name followed by colon-separated parameters:
+ * <ul>
+ *     <li><code>smoothing:&lt;smoothingFactor&gt;</code> ({@link SmoothingFilter})</li>
+ *     <li><code>median:&lt;windowSize&gt;</code> ({@link MedianFilter})</li>
+ *     <li><code>biquadLowPass:&lt;cutoffHz&gt;[:&lt;q&gt;]</code> ({@link BiquadFilter})</li>
+ *     <li><code>biquadHighPass:&lt;cutoffHz&gt;[:&lt;q&gt;]</code> ({@link BiquadFilter})</li>
+ *     <li><code>oneEuro:&lt;minCutoffHz&gt;:&lt;beta&gt;[:&lt;derivativeCutoffHz&gt;]</code>
+ *     ({@link OneEuroFilter})</li>
+ *     <li><code>kalman:&lt;processNoise&gt;:&lt;measurementNoise&gt;</code> ({@link KalmanFilter})</li>
+ * </ul>
+ * For example, <code>median:3,biquadLowPass:20</code> rejects single-sample spikes, then low-pass filters at 20 Hz.
+ * Smoothing factors apply at the sample rate that the {@link FilterChain} is parsed with, and
+ * {@link #setSampleRate(double)} keeps the response of the stages the same in time when the sample rate changes.
+ */
+public class FilterChain implements Filter {
+
+    private static final double DEFAULT_BIQUAD_Q = 0.7071;
+    private static final double DEFAULT_ONE_EURO_DERIVATIVE_CUTOFF_HZ = 1;
+
+    private final String specification;
+    private final Filter[] filters;
+    private final double[] values;
+
+    /**
+     * Instantiates a new {@link FilterChain}.
+     *
+     * @param specification the specification that the {@link Filter}s were parsed from
+     * @param filters       the {@link Filter}s in order of application
+     * @param channelCount  the number of channels
+     */
+    public FilterChain(String specification, Filter[] filters, int channelCount) {
+        this.specification = specification;
+        this.filters = filters;
+        values = new double[channelCount];
+    }
+
+    /**
+     * Parses a {@link FilterChain} from the given specification.
+     *
+     * @param specification the specification (see {@link FilterChain})
+     * @param channelCount  the number of channels
+     * @param sampleRateHz  the sample rate in hertz
+     *
+     * @return the {@link FilterChain}
+     * @throws IllegalArgumentException thrown if the specification is invalid
+     */
+    public static FilterChain parse(String specification, int channelCount, double sampleRateHz) {
+        final List<Filter> filters = new ArrayList<>();
+        for (String stage : specification.split(",")) {
+            final String[] parameters = stage.trim().split(":");
+            try {
+                filters.add(parseStage(parameters, channelCount, sampleRateHz));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException exception) {
+                throw new IllegalArgumentException("Invalid parameters of filter stage: " + stage, exception);
+            }
+        }
+        return new FilterChain(specification, filters.toArray(new Filter[0]), channelCount);
+    }
+
+    private static Filter parseStage(String[] parameters, int channelCount, double sampleRateHz) {
+        switch (parameters[0]) {
+            case "smoothing":
+                return new SmoothingFilter(channelCount, parseDouble(parameters[1]), sampleRateHz);
+            case "median":
+                return new MedianFilter(channelCount, parseInt(parameters[1]));
+            case "biquadLowPass":
+            case "biquadHighPass":
+                return new BiquadFilter(channelCount, parameters[0].equals("biquadHighPass"),
+                        parseDouble(parameters[1]),
+                        parameters.length > 2 ? parseDouble(parameters[2]) : DEFAULT_BIQUAD_Q, sampleRateHz);
+            case "oneEuro":
+                return new OneEuroFilter(channelCount, parseDouble(parameters[1]), parseDouble(parameters[2]),
+                        parameters.length > 3 ? parseDouble(parameters[3]) : DEFAULT_ONE_EURO_DERIVATIVE_CUTOFF_HZ,
+                        sampleRateHz);
+            case "kalman":
+                return new KalmanFilter(channelCount, parseDouble(parameters[1]), parseDouble(parameters[2]));
+            default:
+                throw new IllegalArgumentException("Unknown filter stage: " + parameters[0]);
+        }
+    }
+
+    @Override
+    public double filter(int channel, double sample) {
+        double value = sample;
+        for (Filter filter : filters) {
+            value = filter.filter(channel, value);
+        }
+        values[channel] = value;
+        return value;
+    }
+
+    @Override
+    public double getValue(int channel) {
+        return values[channel];
+    }
+
+    @Override
+    public void reset(int channel) {
+        for (Filter filter : filters) {
+            filter.reset(channel);
+        }
+    }
+
+    @Override
+    public void setSampleRate(double sampleRateHz) {
+        for (Filter filter : filters) {
+            filter.setSampleRate(sampleRateHz);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return specification;
+    }
+}
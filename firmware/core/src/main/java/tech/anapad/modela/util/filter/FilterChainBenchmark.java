@@ -0,0 +1,110 @@
+package tech.anapad.modela.util.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.sqrt;
+import static java.lang.System.nanoTime;
+
+/**
+ * {@link FilterChainBenchmark} measures the step response, noise rejection, impulse rejection, and throughput of a
+ * {@link FilterChain} on a synthetic signal of Gaussian noise with a step and a single-sample impulse, which resembles
+ * a load surface channel being pressed. The step latency is the time from the step until the output crosses half of
+ * the step. The output noise is the standard deviation of the output before the step.
+ */
+public class FilterChainBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FilterChainBenchmark.class);
+    private static final int SIGNAL_LENGTH = 4096;
+    private static final int IMPULSE_INDEX = SIGNAL_LENGTH / 4;
+    private static final int STEP_INDEX = SIGNAL_LENGTH / 2;
+    private static final int SETTLE_LENGTH = SIGNAL_LENGTH / 8;
+    private static final int THROUGHPUT_ITERATIONS = 256;
+
+    private final double sampleRateHz;
+    private final double[] signal;
+    private final double stepSize;
+    private final double impulseSize;
+
+    private volatile double outputSink;
+
+    /**
+     * Instantiates a new {@link FilterChainBenchmark}.
+     *
+     * @param sampleRateHz           the sample rate in hertz
+     * @param noiseStandardDeviation the standard deviation of the noise
+     * @param stepSize               the size of the step
+     * @param impulseSize            the size of the impulse
+     */
+    public FilterChainBenchmark(double sampleRateHz, double noiseStandardDeviation, double stepSize,
+            double impulseSize) {
+        this.sampleRateHz = sampleRateHz;
+        this.stepSize = stepSize;
+        this.impulseSize = impulseSize;
+        final Random random = new Random(0);
+        signal = new double[SIGNAL_LENGTH];
+        for (int index = 0; index < SIGNAL_LENGTH; index++) {
+            signal[index] = random.nextGaussian() * noiseStandardDeviation + (index >= STEP_INDEX ? stepSize : 0) +
+                    (index == IMPULSE_INDEX ? impulseSize : 0);
+        }
+    }
+
+    /**
+     * Runs the given {@link FilterChain} over the synthetic signal and logs the results.
+     *
+     * @param name        the name of the {@link FilterChain} for logging
+     * @param filterChain the {@link FilterChain}, whose channel <code>0</code> is reset before each run
+     */
+    public void run(String name, FilterChain filterChain) {
+        // Step response, noise, and impulse
+        filterChain.reset(0);
+        double noiseSum = 0;
+        double noiseSquareSum = 0;
+        int noiseCount = 0;
+        double maxImpulseDeviation = 0;
+        int stepLatencySamples = -1;
+        double maxOutput = -Double.MAX_VALUE;
+        for (int index = 0; index < SIGNAL_LENGTH; index++) {
+            final double output = filterChain.filter(0, signal[index]);
+            if (index >= SETTLE_LENGTH && index < IMPULSE_INDEX) {
+                noiseSum += output;
+                noiseSquareSum += output * output;
+                noiseCount++;
+            } else if (index >= IMPULSE_INDEX && index < STEP_INDEX) {
+                maxImpulseDeviation = max(maxImpulseDeviation, abs(output));
+            } else if (index >= STEP_INDEX) {
+                if (stepLatencySamples < 0 && output >= stepSize / 2) {
+                    stepLatencySamples = index - STEP_INDEX;
+                }
+                maxOutput = max(maxOutput, output);
+            }
+        }
+        final double noiseMean = noiseSum / noiseCount;
+        final double noiseStandardDeviation = sqrt(max(0, noiseSquareSum / noiseCount - noiseMean * noiseMean));
+
+        // Throughput
+        double checksum = 0;
+        final long startNanos = nanoTime();
+        for (int iteration = 0; iteration < THROUGHPUT_ITERATIONS; iteration++) {
+            for (int index = 0; index < SIGNAL_LENGTH; index++) {
+                checksum += filterChain.filter(0, signal[index]);
+            }
+        }
+        final double nanosPerSample = (double) (nanoTime() - startNanos) / THROUGHPUT_ITERATIONS / SIGNAL_LENGTH;
+        outputSink = checksum; // Keeps the throughput loop from being optimized away
+
+        LOGGER.info("{} filter chain \"{}\": step latency: {} ms ({} samples), output noise: {}, impulse " +
+                        "deviation: {}% of impulse, step overshoot: {}%, throughput: {} ns/sample",
+                name, filterChain, format(stepLatencySamples * 1e3 / sampleRateHz), stepLatencySamples,
+                format(noiseStandardDeviation), format(maxImpulseDeviation / impulseSize * 100),
+                format(max(0, maxOutput - stepSize) / stepSize * 100), format(nanosPerSample));
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
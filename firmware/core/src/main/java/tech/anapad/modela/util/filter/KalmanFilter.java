@@ -0,0 +1,58 @@
+package tech.anapad.modela.util.filter;
+
+/**
+ * {@link KalmanFilter} is a scalar Kalman {@link Filter} for a random walk: the signal is assumed to change by a random
+ * amount with the given process noise variance between samples, and samples are assumed to have the given measurement
+ * noise variance. The ratio of the two variances sets the trade-off between smoothing and lag.
+ */
+public class KalmanFilter implements Filter {
+
+    private final double processNoise;
+    private final double measurementNoise;
+    private final double[] values;
+    private final double[] variances;
+    private final boolean[] initialized;
+
+    /**
+     * Instantiates a new {@link KalmanFilter}.
+     *
+     * @param channelCount     the number of channels
+     * @param processNoise     the process noise variance
+     * @param measurementNoise the measurement noise variance
+     */
+    public KalmanFilter(int channelCount, double processNoise, double measurementNoise) {
+        if (processNoise <= 0 || measurementNoise <= 0) {
+            throw new IllegalArgumentException("Kalman filter noise variances must be positive!");
+        }
+        this.processNoise = processNoise;
+        this.measurementNoise = measurementNoise;
+        values = new double[channelCount];
+        variances = new double[channelCount];
+        initialized = new boolean[channelCount];
+    }
+
+    @Override
+    public double filter(int channel, double sample) {
+        if (!initialized[channel]) {
+            initialized[channel] = true;
+            values[channel] = sample;
+            variances[channel] = measurementNoise;
+            return sample;
+        }
+        final double predictedVariance = variances[channel] + processNoise;
+        final double gain = predictedVariance / (predictedVariance + measurementNoise);
+        values[channel] += gain * (sample - values[channel]);
+        variances[channel] = (1 - gain) * predictedVariance;
+        return values[channel];
+    }
+
+    @Override
+    public double getValue(int channel) {
+        return values[channel];
+    }
+
+    @Override
+    public void reset(int channel) {
+        initialized[channel] = false;
+    }
+}
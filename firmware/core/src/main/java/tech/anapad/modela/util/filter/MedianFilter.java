@@ -0,0 +1,69 @@
+package tech.anapad.modela.util.filter;
+
+/**
+ * {@link MedianFilter} is a {@link Filter} that outputs the median of the last <code>N</code> samples, which rejects
+ * impulse noise (e.g. a single corrupted conversion) without smearing steps.
+ */
+public class MedianFilter implements Filter {
+
+    private final int windowSize;
+    private final double[] windows;
+    private final int[] windowPositions;
+    private final int[] windowCounts;
+    private final double[] values;
+    private final double[] sortedWindow;
+
+    /**
+     * Instantiates a new {@link MedianFilter}.
+     *
+     * @param channelCount the number of channels
+     * @param windowSize   the number of samples <code>N</code> (odd)
+     */
+    public MedianFilter(int channelCount, int windowSize) {
+        if (windowSize < 1 || windowSize % 2 == 0) {
+            throw new IllegalArgumentException("Median window size must be odd!");
+        }
+        this.windowSize = windowSize;
+        windows = new double[channelCount * windowSize];
+        windowPositions = new int[channelCount];
+        windowCounts = new int[channelCount];
+        values = new double[channelCount];
+        sortedWindow = new double[windowSize];
+    }
+
+    @Override
+    public double filter(int channel, double sample) {
+        final int windowOffset = channel * windowSize;
+        windows[windowOffset + windowPositions[channel]] = sample;
+        windowPositions[channel] = (windowPositions[channel] + 1) % windowSize;
+        if (windowCounts[channel] < windowSize) {
+            windowCounts[channel]++;
+        }
+
+        // Insertion sort the window, which is small
+        final int count = windowCounts[channel];
+        for (int index = 0; index < count; index++) {
+            final double windowSample = windows[windowOffset + index];
+            int sortedIndex = index;
+            while (sortedIndex > 0 && sortedWindow[sortedIndex - 1] > windowSample) {
+                sortedWindow[sortedIndex] = sortedWindow[sortedIndex - 1];
+                sortedIndex--;
+            }
+            sortedWindow[sortedIndex] = windowSample;
+        }
+        values[channel] = count % 2 == 1 ? sortedWindow[count / 2] :
+                (sortedWindow[count / 2 - 1] + sortedWindow[count / 2]) / 2;
+        return values[channel];
+    }
+
+    @Override
+    public double getValue(int channel) {
+        return values[channel];
+    }
+
+    @Override
+    public void reset(int channel) {
+        windowPositions[channel] = 0;
+        windowCounts[channel] = 0;
+    }
+}
@@ -0,0 +1,82 @@
+package tech.anapad.modela.util.filter;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.abs;
+
+/**
+ * {@link OneEuroFilter} is an adaptive low-pass {@link Filter} whose cutoff frequency rises with the speed of the
+ * signal, so it smooths heavily at rest and lags little during fast changes (e.g. the onset of a press).
+ *
+ * @see <a href="https://gery.casiez.net/1euro/">1&euro; Filter</a>
+ */
+public class OneEuroFilter implements Filter {
+
+    private final double minCutoffHz;
+    private final double beta;
+    private final double derivativeCutoffHz;
+    private final double[] values;
+    private final double[] derivatives;
+    private final boolean[] initialized;
+
+    private double sampleRateHz;
+    private double derivativeAlpha;
+
+    /**
+     * Instantiates a new {@link OneEuroFilter}.
+     *
+     * @param channelCount       the number of channels
+     * @param minCutoffHz        the cutoff frequency at rest in hertz
+     * @param beta               the rate at which the cutoff frequency rises with the speed of the signal
+     * @param derivativeCutoffHz the cutoff frequency of the speed estimate in hertz
+     * @param sampleRateHz       the sample rate in hertz
+     */
+    public OneEuroFilter(int channelCount, double minCutoffHz, double beta, double derivativeCutoffHz,
+            double sampleRateHz) {
+        if (minCutoffHz <= 0 || derivativeCutoffHz <= 0 || beta < 0) {
+            throw new IllegalArgumentException("1 Euro filter cutoffs must be positive and beta must not be negative!");
+        }
+        this.minCutoffHz = minCutoffHz;
+        this.beta = beta;
+        this.derivativeCutoffHz = derivativeCutoffHz;
+        values = new double[channelCount];
+        derivatives = new double[channelCount];
+        initialized = new boolean[channelCount];
+        setSampleRate(sampleRateHz);
+    }
+
+    private double alpha(double cutoffHz) {
+        final double timeConstant = 1 / (2 * PI * cutoffHz);
+        return 1 / (1 + timeConstant * sampleRateHz);
+    }
+
+    @Override
+    public double filter(int channel, double sample) {
+        if (!initialized[channel]) {
+            initialized[channel] = true;
+            values[channel] = sample;
+            derivatives[channel] = 0;
+            return sample;
+        }
+        final double derivative = (sample - values[channel]) * sampleRateHz;
+        derivatives[channel] += derivativeAlpha * (derivative - derivatives[channel]);
+        final double alpha = alpha(minCutoffHz + beta * abs(derivatives[channel]));
+        values[channel] += alpha * (sample - values[channel]);
+        return values[channel];
+    }
+
+    @Override
+    public double getValue(int channel) {
+        return values[channel];
+    }
+
+    @Override
+    public void reset(int channel) {
+        initialized[channel] = false;
+    }
+
+    @Override
+    public void setSampleRate(double sampleRateHz) {
+        this.sampleRateHz = sampleRateHz;
+        derivativeAlpha = alpha(derivativeCutoffHz);
+    }
+}
@@ -0,0 +1,65 @@
+package tech.anapad.modela.util.filter;
+
+import static java.lang.Math.pow;
+
+/**
+ * {@link SmoothingFilter} is a rate-independent exponential moving average {@link Filter}. At the sample rate that it
+ * was created with, it moves <code>1 / smoothingFactor</code> of the way to each new sample. At other sample rates
+ * (see {@link #setSampleRate(double)}), the fraction is adjusted so that the time constant stays the same.
+ *
+ * @see <a href="http://phrogz.net/js/framerate-independent-low-pass-filter.html">Low Pass Filter</a>
+ */
+public class SmoothingFilter implements Filter {
+
+    private final double smoothingFactor;
+    private final double smoothingSampleRateHz;
+    private final double[] values;
+    private final boolean[] initialized;
+
+    private double fraction;
+
+    /**
+     * Instantiates a new {@link SmoothingFilter}.
+     *
+     * @param channelCount    the number of channels
+     * @param smoothingFactor the smoothing factor (at least <code>1</code>)
+     * @param sampleRateHz    the sample rate in hertz at which the smoothing factor applies
+     */
+    public SmoothingFilter(int channelCount, double smoothingFactor, double sampleRateHz) {
+        if (smoothingFactor < 1) {
+            throw new IllegalArgumentException("Smoothing factor must be at least 1!");
+        }
+        this.smoothingFactor = smoothingFactor;
+        smoothingSampleRateHz = sampleRateHz;
+        fraction = 1 / smoothingFactor;
+        values = new double[channelCount];
+        initialized = new boolean[channelCount];
+    }
+
+    @Override
+    public double filter(int channel, double sample) {
+        if (!initialized[channel]) {
+            initialized[channel] = true;
+            values[channel] = sample;
+        } else {
+            values[channel] += (sample - values[channel]) * fraction;
+        }
+        return values[channel];
+    }
+
+    @Override
+    public double getValue(int channel) {
+        return values[channel];
+    }
+
+    @Override
+    public void reset(int channel) {
+        initialized[channel] = false;
+    }
+
+    @Override
+    public void setSampleRate(double sampleRateHz) {
+        // The remaining distance decays by (1 - 1 / smoothingFactor) per sample at the smoothing sample rate
+        fraction = 1 - pow(1 - 1 / smoothingFactor, smoothingSampleRateHz / sampleRateHz);
+    }
+}
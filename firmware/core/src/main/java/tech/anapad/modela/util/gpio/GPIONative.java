@@ -0,0 +1,53 @@
+package tech.anapad.modela.util.gpio;
+
+import static java.lang.System.loadLibrary;
+
+/**
+ * {@link GPIONative} is used to wait for GPIO line edge events via the Linux GPIO character device (e.g.
+ * "/dev/gpiochip0") using low-level native C functions via JNI.
+ */
+public final class GPIONative {
+
+    static {
+        // Load the .so shared library that should be placed in '/lib' and be named exactly "libmodela.so"
+        loadLibrary("modela");
+    }
+
+    /**
+     * The value returned by {@link #waitForLineEvent(int, int)} if no event occurred before the timeout.
+     */
+    public static final long NO_EVENT = -1;
+
+    /**
+     * Requests edge events of a GPIO line, which is configured as an input.
+     *
+     * @param gpioChipIndex the GPIO chip device index (e.g. for "/dev/gpiochip0" pass <code>0</code> here)
+     * @param lineOffset    the offset of the line on the GPIO chip
+     * @param fallingEdge   <code>true</code> for falling edge events, <code>false</code> for rising edge events
+     *
+     * @return the line event file descriptor integer to be used in subsequent calls
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public static native int startLineEvents(int gpioChipIndex, int lineOffset, boolean fallingEdge) throws Exception;
+
+    /**
+     * Releases the line events of the given line event file descriptor.
+     *
+     * @param fd the line event file descriptor
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public static native void stopLineEvents(int fd) throws Exception;
+
+    /**
+     * Blocks until the next edge event of a line occurs or the given timeout elapses. Events that occurred since the
+     * last call are returned immediately.
+     *
+     * @param fd            the line event file descriptor
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     *
+     * @return the kernel timestamp of the event in nanoseconds or {@link #NO_EVENT} if the wait timed out
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public static native long waitForLineEvent(int fd, int timeoutMillis) throws Exception;
+}
@@ -0,0 +1,151 @@
+package tech.anapad.modela.util.i2c;
+
+import tech.anapad.modela.util.i2c.simulated.SimulatedI2CBus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link I2CBus} represents a started I2C bus (e.g. "/dev/i2c-1") that I2C requests can be made on. Implementations
+ * are {@link NativeI2CBus}, which interfaces with the real I2C bus via {@link I2CNative}, and
+ * {@link SimulatedI2CBus}, which interfaces with in-memory models of the I2C slave chips.
+ */
+public interface I2CBus {
+
+    /**
+     * Gets the I2C linux sysfs device index of this {@link I2CBus} (e.g. <code>1</code> for "/dev/i2c-1").
+     *
+     * @return the device index
+     */
+    int getDeviceIndex();
+
+    /**
+     * Stops this {@link I2CBus}. No requests can be made after this is called.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void stop() throws Exception;
+
+    /**
+     * Writes a byte an I2C slave.
+     *
+     * @param slaveAddress the slave address
+     * @param data         the byte to write
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void writeByte(short slaveAddress, byte data) throws Exception;
+
+    /**
+     * Writes a byte to a register of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param registerData          the register data
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void writeRegisterByte(short slaveAddress, short registerAddress, byte registerData,
+            boolean is8BitRegisterAddress) throws Exception;
+
+    /**
+     * Writes an array of bytes to the registers of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param registerData          the register data
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void writeRegisterBytes(short slaveAddress, short registerAddress, byte[] registerData,
+            boolean is8BitRegisterAddress) throws Exception;
+
+    /**
+     * Writes bytes from a direct {@link ByteBuffer} to the registers of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param buffer                the direct {@link ByteBuffer} containing the register data
+     * @param offset                the offset of the register data in <code>buffer</code>
+     * @param length                the number of register data bytes to write
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void writeRegisterBytesDirect(short slaveAddress, short registerAddress, ByteBuffer buffer, int offset,
+            int length, boolean is8BitRegisterAddress) throws Exception;
+
+    /**
+     * Reads a byte from an I2C slave.
+     *
+     * @param slaveAddress the slave address
+     *
+     * @return the read byte
+     * @throws Exception thrown for {@link Exception}s
+     */
+    byte readByte(short slaveAddress) throws Exception;
+
+    /**
+     * Reads a byte from a register of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @return the read register byte
+     * @throws Exception thrown for {@link Exception}s
+     */
+    byte readRegisterByte(short slaveAddress, short registerAddress, boolean is8BitRegisterAddress) throws Exception;
+
+    /**
+     * Reads an array of bytes from the registers of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param readSize              the number of bytes to read
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @return the read register byte array
+     * @throws Exception thrown for {@link Exception}s
+     */
+    byte[] readRegisterBytes(short slaveAddress, short registerAddress, int readSize,
+            boolean is8BitRegisterAddress) throws Exception;
+
+    /**
+     * Reads bytes from the registers of an I2C slave into a direct {@link ByteBuffer}.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param buffer                the direct {@link ByteBuffer} to read the register data into
+     * @param offset                the offset in <code>buffer</code> to read the register data into
+     * @param readSize              the number of bytes to read
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void readRegisterBytesDirect(short slaveAddress, short registerAddress, ByteBuffer buffer, int offset,
+            int readSize, boolean is8BitRegisterAddress) throws Exception;
+
+    /**
+     * Submits multiple I2C messages in a single combined transfer.
+     *
+     * @param slaveAddresses the slave address of each message
+     * @param flags          the flags of each message (see {@link I2CTransaction#FLAG_READ})
+     * @param lengths        the data length of each message
+     * @param messageCount   the number of messages to submit
+     * @param buffer         the direct {@link ByteBuffer} containing the data of all the messages in order. Write
+     *                       message data is read from this buffer and read message data is written into this buffer.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     * @see I2CTransaction
+     */
+    void transfer(short[] slaveAddresses, short[] flags, short[] lengths, int messageCount, ByteBuffer buffer)
+            throws Exception;
+}
@@ -0,0 +1,76 @@
+package tech.anapad.modela.util.i2c;
+
+import static java.lang.String.format;
+
+/**
+ * {@link I2CException} is an {@link Exception} thrown by an {@link I2CBus} (e.g. via {@link I2CNative}) when a
+ * low-level I2C request fails. It carries the <code>errno</code> of the failed system call and the addresses of the
+ * request so that the failing device can be identified.
+ */
+public class I2CException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The value of {@link #getSlaveAddress()} when the failed request is not specific to a slave.
+     */
+    public static final int NO_SLAVE_ADDRESS = -1;
+
+    /**
+     * The value of {@link #getRegisterAddress()} when the failed request is not specific to a register.
+     */
+    public static final int NO_REGISTER_ADDRESS = -1;
+
+    private final int errorNumber;
+    private final int slaveAddress;
+    private final int registerAddress;
+
+    /**
+     * Instantiates a new {@link I2CException}. This is called from native code.
+     *
+     * @param message         the message
+     * @param errorNumber     the <code>errno</code> of the failed system call or <code>0</code> if there is none
+     * @param slaveAddress    the slave address or {@link #NO_SLAVE_ADDRESS}
+     * @param registerAddress the register address or {@link #NO_REGISTER_ADDRESS}
+     */
+    public I2CException(String message, int errorNumber, int slaveAddress, int registerAddress) {
+        super(createMessage(message, errorNumber, slaveAddress, registerAddress));
+        this.errorNumber = errorNumber;
+        this.slaveAddress = slaveAddress;
+        this.registerAddress = registerAddress;
+    }
+
+    /**
+     * Creates the detailed message of an {@link I2CException}.
+     *
+     * @param message         the message
+     * @param errorNumber     the <code>errno</code>
+     * @param slaveAddress    the slave address
+     * @param registerAddress the register address
+     *
+     * @return the detailed message {@link String}
+     */
+    private static String createMessage(String message, int errorNumber, int slaveAddress, int registerAddress) {
+        final StringBuilder messageBuilder = new StringBuilder(message);
+        messageBuilder.append(" (errno: ").append(errorNumber);
+        if (slaveAddress != NO_SLAVE_ADDRESS) {
+            messageBuilder.append(format(", slave address: 0x%02X", slaveAddress));
+        }
+        if (registerAddress != NO_REGISTER_ADDRESS) {
+            messageBuilder.append(format(", register address: 0x%04X", registerAddress));
+        }
+        return messageBuilder.append(")").toString();
+    }
+
+    public int getErrorNumber() {
+        return errorNumber;
+    }
+
+    public int getSlaveAddress() {
+        return slaveAddress;
+    }
+
+    public int getRegisterAddress() {
+        return registerAddress;
+    }
+}
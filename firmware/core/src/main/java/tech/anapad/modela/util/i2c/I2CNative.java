@@ -1,9 +1,13 @@
 package tech.anapad.modela.util.i2c;
 
+import java.nio.ByteBuffer;
+
 import static java.lang.System.loadLibrary;
 
 /**
- * {@link I2CNative} is used to interface with the I2C protocol using low-level native C functions via JNI.
+ * {@link I2CNative} is used to interface with the I2C protocol using low-level native C functions via JNI. Failed I2C
+ * requests throw an {@link I2CException}. The <code>*Direct</code> methods read and write directly from and into
+ * caller-owned direct {@link ByteBuffer}s so that no allocation or array copying occurs per call.
  */
 public final class I2CNative {
 
@@ -73,6 +77,23 @@ public final class I2CNative {
     public static native void writeRegisterBytes(int fd, short slaveAddress, short registerAddress,
             byte[] registerData, boolean is8BitRegisterAddress) throws Exception;
 
+    /**
+     * Writes bytes from a direct {@link ByteBuffer} to the registers of an I2C slave.
+     *
+     * @param fd                    the low-level I2C device file descriptor
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param buffer                the direct {@link ByteBuffer} containing the register data
+     * @param offset                the offset of the register data in <code>buffer</code>
+     * @param length                the number of register data bytes to write
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public static native void writeRegisterBytesDirect(int fd, short slaveAddress, short registerAddress,
+            ByteBuffer buffer, int offset, int length, boolean is8BitRegisterAddress) throws Exception;
+
     /**
      * Reads a byte from an I2C slave.
      *
@@ -114,4 +135,38 @@ public final class I2CNative {
      */
     public static native byte[] readRegisterBytes(int fd, short slaveAddress, short registerAddress, int readSize,
             boolean is8BitRegisterAddress) throws Exception;
+
+    /**
+     * Reads bytes from the registers of an I2C slave into a direct {@link ByteBuffer}.
+     *
+     * @param fd                    the low-level I2C device file descriptor
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param buffer                the direct {@link ByteBuffer} to read the register data into
+     * @param offset                the offset in <code>buffer</code> to read the register data into
+     * @param readSize              the number of bytes to read
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public static native void readRegisterBytesDirect(int fd, short slaveAddress, short registerAddress,
+            ByteBuffer buffer, int offset, int readSize, boolean is8BitRegisterAddress) throws Exception;
+
+    /**
+     * Submits multiple I2C messages in a single combined transfer (a single <code>I2C_RDWR</code> ioctl).
+     *
+     * @param fd             the low-level I2C device file descriptor
+     * @param slaveAddresses the slave address of each message
+     * @param flags          the flags of each message (see {@link I2CTransaction#FLAG_READ})
+     * @param lengths        the data length of each message
+     * @param messageCount   the number of messages to submit
+     * @param buffer         the direct {@link ByteBuffer} containing the data of all the messages in order. Write
+     *                       message data is read from this buffer and read message data is written into this buffer.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     * @see I2CTransaction
+     */
+    public static native void transfer(int fd, short[] slaveAddresses, short[] flags, short[] lengths,
+            int messageCount, ByteBuffer buffer) throws Exception;
 }
@@ -0,0 +1,252 @@
+package tech.anapad.modela.util.i2c;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link I2CTransaction} is a builder of a combined I2C transfer. Write and read messages are queued into preallocated
+ * arrays and are then submitted together in a single
+ * {@link I2CBus#transfer(short[], short[], short[], int, ByteBuffer)} call, which for a {@link NativeI2CBus} is a single
+ * JNI transition and a single <code>I2C_RDWR</code> ioctl. Read message data is placed into one preallocated direct
+ * {@link ByteBuffer} and can be accessed via the buffer offset returned when the read was queued. Instances of this
+ * class can be reused via {@link #reset()} so that no allocation occurs per transfer. This class is not thread-safe.
+ * <p>
+ * Note that messages of a combined transfer are separated by repeated starts, not stop conditions, so chips that only
+ * act upon a stop condition (e.g. the TCA9544A channel selection) apply the queued write after the transfer completes.
+ */
+public class I2CTransaction {
+
+    /**
+     * The maximum number of messages that the Linux kernel accepts in a single <code>I2C_RDWR</code> ioctl.
+     */
+    public static final int MAX_MESSAGES = 42;
+
+    /**
+     * The message flag for a read message (same as <code>I2C_M_RD</code>).
+     */
+    public static final short FLAG_READ = 0x0001;
+
+    /**
+     * The message flag for a write message.
+     */
+    public static final short FLAG_WRITE = 0x0000;
+
+    private final short[] slaveAddresses;
+    private final short[] flags;
+    private final short[] lengths;
+    private final ByteBuffer buffer;
+
+    private int messageCount;
+    private int bufferLength;
+
+    /**
+     * Instantiates a new {@link I2CTransaction}.
+     *
+     * @param bufferCapacity the capacity of the data buffer shared by all messages (must include register address
+     *                       bytes of write messages)
+     */
+    public I2CTransaction(int bufferCapacity) {
+        slaveAddresses = new short[MAX_MESSAGES];
+        flags = new short[MAX_MESSAGES];
+        lengths = new short[MAX_MESSAGES];
+        buffer = ByteBuffer.allocateDirect(bufferCapacity);
+        messageCount = 0;
+        bufferLength = 0;
+    }
+
+    /**
+     * Clears all queued messages so this {@link I2CTransaction} can be reused.
+     *
+     * @return this {@link I2CTransaction}
+     */
+    public I2CTransaction reset() {
+        messageCount = 0;
+        bufferLength = 0;
+        return this;
+    }
+
+    /**
+     * Queues a byte write to an I2C slave.
+     *
+     * @param slaveAddress the slave address
+     * @param data         the byte to write
+     *
+     * @return this {@link I2CTransaction}
+     */
+    public I2CTransaction writeByte(short slaveAddress, byte data) {
+        final int offset = queueMessage(slaveAddress, FLAG_WRITE, 1);
+        buffer.put(offset, data);
+        return this;
+    }
+
+    /**
+     * Queues a byte write to a register of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param registerData          the register data
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @return this {@link I2CTransaction}
+     */
+    public I2CTransaction writeRegisterByte(short slaveAddress, short registerAddress, byte registerData,
+            boolean is8BitRegisterAddress) {
+        final int registerAddressLength = registerAddressLength(is8BitRegisterAddress);
+        final int offset = queueMessage(slaveAddress, FLAG_WRITE, registerAddressLength + 1);
+        putRegisterAddress(offset, registerAddress, is8BitRegisterAddress);
+        buffer.put(offset + registerAddressLength, registerData);
+        return this;
+    }
+
+    /**
+     * Queues an array of bytes write to the registers of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param registerData          the register data
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @return this {@link I2CTransaction}
+     */
+    public I2CTransaction writeRegisterBytes(short slaveAddress, short registerAddress, byte[] registerData,
+            boolean is8BitRegisterAddress) {
+        final int registerAddressLength = registerAddressLength(is8BitRegisterAddress);
+        final int offset = queueMessage(slaveAddress, FLAG_WRITE, registerAddressLength + registerData.length);
+        putRegisterAddress(offset, registerAddress, is8BitRegisterAddress);
+        buffer.put(offset + registerAddressLength, registerData);
+        return this;
+    }
+
+    /**
+     * Queues a byte read from an I2C slave.
+     *
+     * @param slaveAddress the slave address
+     *
+     * @return the buffer offset of the read byte
+     */
+    public int readByte(short slaveAddress) {
+        return queueMessage(slaveAddress, FLAG_READ, 1);
+    }
+
+    /**
+     * Queues a byte read from a register of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @return the buffer offset of the read register byte
+     */
+    public int readRegisterByte(short slaveAddress, short registerAddress, boolean is8BitRegisterAddress) {
+        return readRegisterBytes(slaveAddress, registerAddress, 1, is8BitRegisterAddress);
+    }
+
+    /**
+     * Queues an array of bytes read from the registers of an I2C slave.
+     *
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param readSize              the number of bytes to read
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @return the buffer offset of the first read register byte
+     */
+    public int readRegisterBytes(short slaveAddress, short registerAddress, int readSize,
+            boolean is8BitRegisterAddress) {
+        final int addressOffset = queueMessage(slaveAddress, FLAG_WRITE,
+                registerAddressLength(is8BitRegisterAddress));
+        putRegisterAddress(addressOffset, registerAddress, is8BitRegisterAddress);
+        return queueMessage(slaveAddress, FLAG_READ, readSize);
+    }
+
+    /**
+     * Submits all queued messages in a single combined transfer. Queued messages are not cleared, so call
+     * {@link #reset()} before queueing the messages of the next transfer.
+     *
+     * @param i2cBus the {@link I2CBus}
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public void submit(I2CBus i2cBus) throws Exception {
+        if (messageCount == 0) {
+            return;
+        }
+        i2cBus.transfer(slaveAddresses, flags, lengths, messageCount, buffer);
+    }
+
+    /**
+     * Gets a byte from the buffer (e.g. read data after {@link #submit(I2CBus)}).
+     *
+     * @param offset the buffer offset
+     *
+     * @return the byte
+     */
+    public byte getByte(int offset) {
+        return buffer.get(offset);
+    }
+
+    /**
+     * Gets the buffer that contains the data of all the messages. Read data is available at the offsets returned by
+     * the read methods after {@link #submit(I2CBus)}.
+     *
+     * @return the direct {@link ByteBuffer}
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    public int getBufferLength() {
+        return bufferLength;
+    }
+
+    /**
+     * Queues a message.
+     *
+     * @param slaveAddress the slave address
+     * @param flag         the message flag
+     * @param length       the message data length
+     *
+     * @return the buffer offset of the message data
+     */
+    private int queueMessage(short slaveAddress, short flag, int length) {
+        if (messageCount == MAX_MESSAGES) {
+            throw new IllegalStateException("I2C transaction message count exceeds " + MAX_MESSAGES + "!");
+        }
+        if (bufferLength + length > buffer.capacity()) {
+            throw new IllegalStateException("I2C transaction buffer capacity of " + buffer.capacity() + " exceeded!");
+        }
+        slaveAddresses[messageCount] = slaveAddress;
+        flags[messageCount] = flag;
+        lengths[messageCount] = (short) length;
+        messageCount++;
+        final int offset = bufferLength;
+        bufferLength += length;
+        return offset;
+    }
+
+    /**
+     * Puts a register address into the buffer at the given offset.
+     */
+    private void putRegisterAddress(int offset, short registerAddress, boolean is8BitRegisterAddress) {
+        if (is8BitRegisterAddress) {
+            buffer.put(offset, (byte) (registerAddress & 0xFF));
+        } else {
+            buffer.put(offset, (byte) ((registerAddress >> 8) & 0xFF));
+            buffer.put(offset + 1, (byte) (registerAddress & 0xFF));
+        }
+    }
+
+    /**
+     * Gets the number of bytes of a register address.
+     */
+    private static int registerAddressLength(boolean is8BitRegisterAddress) {
+        return is8BitRegisterAddress ? 1 : 2;
+    }
+}
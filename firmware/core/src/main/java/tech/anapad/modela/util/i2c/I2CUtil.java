@@ -2,8 +2,7 @@ package tech.anapad.modela.util.i2c;
 
 import tech.anapad.modela.util.math.BitUtil;
 
-import static tech.anapad.modela.util.i2c.I2CNative.readRegisterByte;
-import static tech.anapad.modela.util.i2c.I2CNative.writeRegisterByte;
+import static tech.anapad.modela.util.math.BitUtil.createBitMask;
 import static tech.anapad.modela.util.math.BitUtil.getBits;
 import static tech.anapad.modela.util.math.BitUtil.setBits;
 
@@ -15,7 +14,7 @@ public final class I2CUtil {
     /**
      * Sets bits in an I2C slave.
      *
-     * @param fd                    the low-level I2C device file descriptor
+     * @param i2cBus                the {@link I2CBus}
      * @param slaveAddress          the slave address
      * @param registerAddress       the register address
      * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
@@ -26,35 +25,35 @@ public final class I2CUtil {
      *
      * @throws Exception thrown for {@link Exception}s
      * @see BitUtil
-     * @see I2CNative
+     * @see I2CBus
      */
-    public static void setRegisterBits(int fd, short slaveAddress, short registerAddress,
+    public static void setRegisterBits(I2CBus i2cBus, short slaveAddress, short registerAddress,
             boolean is8BitRegisterAddress, int value, int msb, int lsb) throws Exception {
-        byte registerByte = readRegisterByte(fd, slaveAddress, registerAddress, is8BitRegisterAddress);
+        byte registerByte = i2cBus.readRegisterByte(slaveAddress, registerAddress, is8BitRegisterAddress);
         registerByte = (byte) setBits(registerByte, value, msb, lsb);
-        writeRegisterByte(fd, slaveAddress, registerAddress, registerByte, is8BitRegisterAddress);
+        i2cBus.writeRegisterByte(slaveAddress, registerAddress, registerByte, is8BitRegisterAddress);
     }
 
     /**
-     * Calls {@link #setRegisterBits(int, short, short, boolean, int, int, int)} to asset the given bit index.
+     * Calls {@link #setRegisterBits(I2CBus, short, short, boolean, int, int, int)} to asset the given bit index.
      */
-    public static void setRegisterBit(int fd, short slaveAddress, short registerAddress,
+    public static void setRegisterBit(I2CBus i2cBus, short slaveAddress, short registerAddress,
             boolean is8BitRegisterAddress, int index) throws Exception {
-        setRegisterBits(fd, slaveAddress, registerAddress, is8BitRegisterAddress, 1, index, index);
+        setRegisterBits(i2cBus, slaveAddress, registerAddress, is8BitRegisterAddress, 1, index, index);
     }
 
     /**
-     * Calls {@link #setRegisterBits(int, short, short, boolean, int, int, int)} to reset the given bit index.
+     * Calls {@link #setRegisterBits(I2CBus, short, short, boolean, int, int, int)} to reset the given bit index.
      */
-    public static void resetRegisterBit(int fd, short slaveAddress, short registerAddress,
+    public static void resetRegisterBit(I2CBus i2cBus, short slaveAddress, short registerAddress,
             boolean is8BitRegisterAddress, int index) throws Exception {
-        setRegisterBits(fd, slaveAddress, registerAddress, is8BitRegisterAddress, 0, index, index);
+        setRegisterBits(i2cBus, slaveAddress, registerAddress, is8BitRegisterAddress, 0, index, index);
     }
 
     /**
      * Gets bits from an I2C slave.
      *
-     * @param fd                    the low-level I2C device file descriptor
+     * @param i2cBus                the {@link I2CBus}
      * @param slaveAddress          the slave address
      * @param registerAddress       the register address
      * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
@@ -65,18 +64,86 @@ public final class I2CUtil {
      * @return the register bits
      * @throws Exception thrown for {@link Exception}s
      * @see BitUtil
-     * @see I2CNative
+     * @see I2CBus
      */
-    public static int getRegisterBits(int fd, short slaveAddress, short registerAddress,
+    public static int getRegisterBits(I2CBus i2cBus, short slaveAddress, short registerAddress,
             boolean is8BitRegisterAddress, int msb, int lsb) throws Exception {
-        return getBits(readRegisterByte(fd, slaveAddress, registerAddress, is8BitRegisterAddress), msb, lsb);
+        return getBits(i2cBus.readRegisterByte(slaveAddress, registerAddress, is8BitRegisterAddress), msb, lsb);
     }
 
     /**
-     * Calls {@link #getRegisterBits(int, short, short, boolean, int, int)} with the given bit index.
+     * Calls {@link #getRegisterBits(I2CBus, short, short, boolean, int, int)} with the given bit index.
      */
-    public static boolean getRegisterBit(int fd, short slaveAddress, short registerAddress,
+    public static boolean getRegisterBit(I2CBus i2cBus, short slaveAddress, short registerAddress,
             boolean is8BitRegisterAddress, int index) throws Exception {
-        return getRegisterBits(fd, slaveAddress, registerAddress, is8BitRegisterAddress, index, index) == 1;
+        return getRegisterBits(i2cBus, slaveAddress, registerAddress, is8BitRegisterAddress, index, index) == 1;
+    }
+
+    /**
+     * Sets bits in an I2C slave via a {@link RegisterShadow}. The register is only read if its contents aren't known
+     * by the {@link RegisterShadow} and the write is skipped if it wouldn't change the register. Volatile bits outside
+     * of <code>msb</code> and <code>lsb</code> are written back with their last known value.
+     *
+     * @param registerShadow  the {@link RegisterShadow} of the I2C slave
+     * @param registerAddress the register address
+     * @param value           the value to set
+     * @param msb             the MSB (0 - 7) (inclusive)
+     * @param lsb             the LSB (0 - 7) (inclusive)
+     *
+     * @throws Exception thrown for {@link Exception}s
+     * @see BitUtil
+     * @see RegisterShadow
+     */
+    public static void setRegisterBits(RegisterShadow registerShadow, short registerAddress, int value, int msb,
+            int lsb) throws Exception {
+        // Bits outside of 'msb' and 'lsb' are written back as-is, so only those need to be known, except for volatile
+        // bits (e.g. read-only status bits), which are written back with their last known value
+        final int requiredBitMask = createBitMask(msb, lsb) & ~registerShadow.getVolatileMask(registerAddress);
+        byte registerByte = registerShadow.readRegister(registerAddress, requiredBitMask);
+        registerByte = (byte) setBits(registerByte, value, msb, lsb);
+        registerShadow.writeRegister(registerAddress, registerByte);
+    }
+
+    /**
+     * Calls {@link #setRegisterBits(RegisterShadow, short, int, int, int)} to assert the given bit index.
+     */
+    public static void setRegisterBit(RegisterShadow registerShadow, short registerAddress, int index)
+            throws Exception {
+        setRegisterBits(registerShadow, registerAddress, 1, index, index);
+    }
+
+    /**
+     * Calls {@link #setRegisterBits(RegisterShadow, short, int, int, int)} to reset the given bit index.
+     */
+    public static void resetRegisterBit(RegisterShadow registerShadow, short registerAddress, int index)
+            throws Exception {
+        setRegisterBits(registerShadow, registerAddress, 0, index, index);
+    }
+
+    /**
+     * Gets bits from an I2C slave via a {@link RegisterShadow}. The register is only read if the bits are volatile or
+     * the register contents aren't known by the {@link RegisterShadow}.
+     *
+     * @param registerShadow  the {@link RegisterShadow} of the I2C slave
+     * @param registerAddress the register address
+     * @param msb             the MSB (0 - 7) (inclusive)
+     * @param lsb             the LSB (0 - 7) (inclusive)
+     *
+     * @return the register bits
+     * @throws Exception thrown for {@link Exception}s
+     * @see BitUtil
+     * @see RegisterShadow
+     */
+    public static int getRegisterBits(RegisterShadow registerShadow, short registerAddress, int msb, int lsb)
+            throws Exception {
+        return getBits(registerShadow.readRegister(registerAddress, ~createBitMask(msb, lsb) & 0xFF), msb, lsb);
+    }
+
+    /**
+     * Calls {@link #getRegisterBits(RegisterShadow, short, int, int)} with the given bit index.
+     */
+    public static boolean getRegisterBit(RegisterShadow registerShadow, short registerAddress, int index)
+            throws Exception {
+        return getRegisterBits(registerShadow, registerAddress, index, index) == 1;
     }
 }
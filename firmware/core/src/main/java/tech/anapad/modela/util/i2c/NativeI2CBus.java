@@ -0,0 +1,105 @@
+package tech.anapad.modela.util.i2c;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link NativeI2CBus} is an {@link I2CBus} that interfaces with a real I2C bus via {@link I2CNative}. The native
+ * library is only loaded once the first {@link NativeI2CBus} is started.
+ */
+public class NativeI2CBus implements I2CBus {
+
+    private final int deviceIndex;
+    private final int fd;
+
+    /**
+     * Instantiates a new {@link NativeI2CBus}.
+     *
+     * @param deviceIndex the I2C linux sysfs device index
+     * @param fd          the low-level I2C device file descriptor
+     */
+    private NativeI2CBus(int deviceIndex, int fd) {
+        this.deviceIndex = deviceIndex;
+        this.fd = fd;
+    }
+
+    /**
+     * Starts a {@link NativeI2CBus}.
+     *
+     * @param i2cDeviceIndex the I2C linux sysfs device index (e.g. for "/dev/i2c-1" pass <code>1</code> here)
+     *
+     * @return the started {@link NativeI2CBus}
+     * @throws Exception thrown for {@link Exception}s
+     * @see I2CNative#start(int)
+     */
+    public static NativeI2CBus start(int i2cDeviceIndex) throws Exception {
+        return new NativeI2CBus(i2cDeviceIndex, I2CNative.start(i2cDeviceIndex));
+    }
+
+    @Override
+    public void stop() throws Exception {
+        I2CNative.stop(fd);
+    }
+
+    @Override
+    public void writeByte(short slaveAddress, byte data) throws Exception {
+        I2CNative.writeByte(fd, slaveAddress, data);
+    }
+
+    @Override
+    public void writeRegisterByte(short slaveAddress, short registerAddress, byte registerData,
+            boolean is8BitRegisterAddress) throws Exception {
+        I2CNative.writeRegisterByte(fd, slaveAddress, registerAddress, registerData, is8BitRegisterAddress);
+    }
+
+    @Override
+    public void writeRegisterBytes(short slaveAddress, short registerAddress, byte[] registerData,
+            boolean is8BitRegisterAddress) throws Exception {
+        I2CNative.writeRegisterBytes(fd, slaveAddress, registerAddress, registerData, is8BitRegisterAddress);
+    }
+
+    @Override
+    public void writeRegisterBytesDirect(short slaveAddress, short registerAddress, ByteBuffer buffer, int offset,
+            int length, boolean is8BitRegisterAddress) throws Exception {
+        I2CNative.writeRegisterBytesDirect(fd, slaveAddress, registerAddress, buffer, offset, length,
+                is8BitRegisterAddress);
+    }
+
+    @Override
+    public byte readByte(short slaveAddress) throws Exception {
+        return I2CNative.readByte(fd, slaveAddress);
+    }
+
+    @Override
+    public byte readRegisterByte(short slaveAddress, short registerAddress, boolean is8BitRegisterAddress)
+            throws Exception {
+        return I2CNative.readRegisterByte(fd, slaveAddress, registerAddress, is8BitRegisterAddress);
+    }
+
+    @Override
+    public byte[] readRegisterBytes(short slaveAddress, short registerAddress, int readSize,
+            boolean is8BitRegisterAddress) throws Exception {
+        return I2CNative.readRegisterBytes(fd, slaveAddress, registerAddress, readSize, is8BitRegisterAddress);
+    }
+
+    @Override
+    public void readRegisterBytesDirect(short slaveAddress, short registerAddress, ByteBuffer buffer, int offset,
+            int readSize, boolean is8BitRegisterAddress) throws Exception {
+        I2CNative.readRegisterBytesDirect(fd, slaveAddress, registerAddress, buffer, offset, readSize,
+                is8BitRegisterAddress);
+    }
+
+    @Override
+    public void transfer(short[] slaveAddresses, short[] flags, short[] lengths, int messageCount, ByteBuffer buffer)
+            throws Exception {
+        I2CNative.transfer(fd, slaveAddresses, flags, lengths, messageCount, buffer);
+    }
+
+    @Override
+    public int getDeviceIndex() {
+        return deviceIndex;
+    }
+
+    public int getFD() {
+        return fd;
+    }
+}
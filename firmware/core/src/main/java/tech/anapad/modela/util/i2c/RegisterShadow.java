@@ -0,0 +1,174 @@
+package tech.anapad.modela.util.i2c;
+
+import java.util.BitSet;
+
+/**
+ * {@link RegisterShadow} is a cache of the known register contents of a single I2C slave so that read-modify-write
+ * sequences (see {@link I2CUtil#setRegisterBits(RegisterShadow, short, int, int, int)}) don't need to read registers
+ * whose contents are already known and so that writes that wouldn't change a register are skipped. Register bits are
+ * cacheable by default. Bits that the chip changes on its own (e.g. status bits) or whose write triggers an action
+ * (e.g. a calibration start bit) must be marked volatile via {@link #markVolatile(short, int)}: reads of volatile bits
+ * always go to the bus and writes that set a volatile bit are never skipped. A register's contents become known when
+ * it is read or written through this {@link RegisterShadow}. Call {@link #invalidateAll()} after anything that
+ * changes registers without going through this {@link RegisterShadow} (e.g. a chip reset).
+ */
+public class RegisterShadow {
+
+    private final I2CBus i2cBus;
+    private final short slaveAddress;
+    private final boolean is8BitRegisterAddress;
+    private final byte[] registerValues;
+    private final byte[] volatileMasks;
+    private final BitSet knownRegisters;
+
+    private volatile long readHitCount;
+    private volatile long readMissCount;
+    private volatile long writeCount;
+    private volatile long writeSkipCount;
+
+    /**
+     * Instantiates a new {@link RegisterShadow}.
+     *
+     * @param i2cBus                the {@link I2CBus}
+     * @param slaveAddress          the slave address
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     */
+    public RegisterShadow(I2CBus i2cBus, short slaveAddress, boolean is8BitRegisterAddress) {
+        this.i2cBus = i2cBus;
+        this.slaveAddress = slaveAddress;
+        this.is8BitRegisterAddress = is8BitRegisterAddress;
+        final int registerCount = is8BitRegisterAddress ? 1 << 8 : 1 << 16;
+        registerValues = new byte[registerCount];
+        volatileMasks = new byte[registerCount];
+        knownRegisters = new BitSet(registerCount);
+    }
+
+    /**
+     * Marks the bits of the given mask of a register as volatile.
+     *
+     * @param registerAddress the register address
+     * @param bitMask         the mask of the volatile bits (e.g. <code>0xFF</code> for the whole register)
+     *
+     * @return this {@link RegisterShadow}
+     */
+    public synchronized RegisterShadow markVolatile(short registerAddress, int bitMask) {
+        final int index = indexOf(registerAddress);
+        volatileMasks[index] = (byte) (volatileMasks[index] | bitMask);
+        return this;
+    }
+
+    /**
+     * Reads a register. The cached register contents are returned without a bus read if they are known and none of
+     * the bits of the given mask are volatile.
+     *
+     * @param registerAddress the register address
+     * @param bitMask         the mask of the bits that the caller needs (other bits of the returned byte may be stale)
+     *
+     * @return the register byte
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public synchronized byte readRegister(short registerAddress, int bitMask) throws Exception {
+        final int index = indexOf(registerAddress);
+        final int requiredBitMask = bitMask & 0xFF;
+        if ((requiredBitMask & volatileMasks[index]) == 0 && (knownRegisters.get(index) || requiredBitMask == 0)) {
+            readHitCount++;
+            return registerValues[index];
+        }
+        readMissCount++;
+        final byte registerByte = i2cBus.readRegisterByte(slaveAddress, registerAddress, is8BitRegisterAddress);
+        registerValues[index] = registerByte;
+        knownRegisters.set(index);
+        return registerByte;
+    }
+
+    /**
+     * Calls {@link #readRegister(short, int)} for all the bits of a register.
+     */
+    public byte readRegister(short registerAddress) throws Exception {
+        return readRegister(registerAddress, 0xFF);
+    }
+
+    /**
+     * Writes a register. The write is skipped if the register contents are known, equal to the given register data,
+     * and the given register data doesn't set a volatile bit.
+     *
+     * @param registerAddress the register address
+     * @param registerData    the register data
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public synchronized void writeRegister(short registerAddress, byte registerData) throws Exception {
+        final int index = indexOf(registerAddress);
+        if (knownRegisters.get(index) && registerValues[index] == registerData &&
+                (registerData & volatileMasks[index] & 0xFF) == 0) {
+            writeSkipCount++;
+            return;
+        }
+        // Forget the register first in case the write fails after the chip already latched it
+        knownRegisters.clear(index);
+        i2cBus.writeRegisterByte(slaveAddress, registerAddress, registerData, is8BitRegisterAddress);
+        writeCount++;
+        registerValues[index] = registerData;
+        knownRegisters.set(index);
+    }
+
+    /**
+     * Forgets the cached contents of a register (e.g. after it was written without this {@link RegisterShadow}).
+     *
+     * @param registerAddress the register address
+     */
+    public synchronized void invalidate(short registerAddress) {
+        knownRegisters.clear(indexOf(registerAddress));
+    }
+
+    /**
+     * Forgets the cached contents of all registers (e.g. after a chip reset).
+     */
+    public synchronized void invalidateAll() {
+        knownRegisters.clear();
+    }
+
+    /**
+     * Gets the volatile bit mask of a register.
+     *
+     * @param registerAddress the register address
+     *
+     * @return the volatile bit mask
+     */
+    public synchronized int getVolatileMask(short registerAddress) {
+        return volatileMasks[indexOf(registerAddress)] & 0xFF;
+    }
+
+    private int indexOf(short registerAddress) {
+        return is8BitRegisterAddress ? registerAddress & 0xFF : registerAddress & 0xFFFF;
+    }
+
+    public I2CBus getI2CBus() {
+        return i2cBus;
+    }
+
+    public short getSlaveAddress() {
+        return slaveAddress;
+    }
+
+    public boolean is8BitRegisterAddress() {
+        return is8BitRegisterAddress;
+    }
+
+    public long getReadHitCount() {
+        return readHitCount;
+    }
+
+    public long getReadMissCount() {
+        return readMissCount;
+    }
+
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    public long getWriteSkipCount() {
+        return writeSkipCount;
+    }
+}
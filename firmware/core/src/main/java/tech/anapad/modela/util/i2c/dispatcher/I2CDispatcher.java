@@ -0,0 +1,402 @@
+package tech.anapad.modela.util.i2c.dispatcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.I2CTransaction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+import static tech.anapad.modela.util.i2c.I2CTransaction.MAX_MESSAGES;
+
+/**
+ * {@link I2CDispatcher} owns an {@link I2CBus} and executes all requests to it on a single dispatcher thread so that
+ * threads (e.g. the JavaFX thread and schedulers) never contend for the bus. Requests are submitted to lock-free
+ * queues, one per {@link I2CPriority}, and return a {@link CompletableFuture} that is completed on the dispatcher
+ * thread. Pending requests of a higher {@link I2CPriority} are always dispatched first. Register byte writes are
+ * coalesced: a pending write to a register is superseded by a newer write to the same register, which then takes the
+ * higher {@link I2CPriority} of both, and consecutive pending writes are dispatched in a single
+ * {@link I2CTransaction}.
+ * <p>
+ * Requests must not wait on the {@link CompletableFuture} of another request since they are executed on the
+ * dispatcher thread.
+ */
+public class I2CDispatcher implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(I2CDispatcher.class);
+    private static final I2CPriority[] PRIORITIES = I2CPriority.values();
+    private static final int WRITE_TRANSACTION_BUFFER_CAPACITY = MAX_MESSAGES * 3;
+    private static final long IDLE_PARK_NANOS = MILLISECONDS.toNanos(100);
+
+    private final I2CBus i2cBus;
+    private final List<ConcurrentLinkedQueue<Request<?>>> submittedRequestQueues;
+    private final List<ArrayDeque<Request<?>>> pendingRequestQueues;
+    private final Map<Integer, RegisterWriteRequest> pendingRegisterWritesOfKeys;
+    private final I2CTransaction writeTransaction;
+    private final List<RegisterWriteRequest> transactionWrites;
+
+    private volatile boolean dispatchLoop;
+    private volatile Thread dispatchThread;
+    private volatile long dispatchedTransferCount;
+    private volatile long coalescedWriteCount;
+
+    /**
+     * Instantiates a new {@link I2CDispatcher}.
+     *
+     * @param i2cBus the started {@link I2CBus}
+     */
+    public I2CDispatcher(I2CBus i2cBus) {
+        this.i2cBus = i2cBus;
+        submittedRequestQueues = new ArrayList<>(PRIORITIES.length);
+        pendingRequestQueues = new ArrayList<>(PRIORITIES.length);
+        for (int index = 0; index < PRIORITIES.length; index++) {
+            submittedRequestQueues.add(new ConcurrentLinkedQueue<>());
+            pendingRequestQueues.add(new ArrayDeque<>());
+        }
+        pendingRegisterWritesOfKeys = new HashMap<>();
+        writeTransaction = new I2CTransaction(WRITE_TRANSACTION_BUFFER_CAPACITY);
+        transactionWrites = new ArrayList<>(MAX_MESSAGES);
+    }
+
+    /**
+     * Starts the dispatcher thread of this {@link I2CDispatcher}.
+     */
+    public void start() {
+        LOGGER.info("Starting I2C-{} dispatcher thread...", i2cBus.getDeviceIndex());
+        dispatchLoop = true;
+        dispatchThread = new Thread(this, "I2C-" + i2cBus.getDeviceIndex() + " Dispatcher Thread");
+        dispatchThread.setDaemon(true);
+        dispatchThread.start();
+        LOGGER.info("Started I2C-{} dispatcher thread.", i2cBus.getDeviceIndex());
+    }
+
+    /**
+     * Stops the dispatcher thread of this {@link I2CDispatcher}. Requests that are still pending are cancelled and
+     * requests that are submitted afterwards complete exceptionally. This does not stop the {@link I2CBus}.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public void stop() throws Exception {
+        LOGGER.info("Stopping I2C-{} dispatcher thread...", i2cBus.getDeviceIndex());
+        dispatchLoop = false;
+        final Thread thread = dispatchThread;
+        if (thread != null) {
+            unpark(thread);
+            thread.join(1000);
+        }
+        LOGGER.info("Stopped I2C-{} dispatcher thread.", i2cBus.getDeviceIndex());
+    }
+
+    /**
+     * Submits an {@link I2CRequest}.
+     *
+     * @param priority the {@link I2CPriority}
+     * @param request  the {@link I2CRequest}
+     * @param <T>      the type of the result
+     *
+     * @return the {@link CompletableFuture} of the result of the {@link I2CRequest}
+     */
+    public <T> CompletableFuture<T> submit(I2CPriority priority, I2CRequest<T> request) {
+        return enqueue(new ExecuteRequest<>(priority, request));
+    }
+
+    /**
+     * Submits a byte write to a register of an I2C slave, which supersedes a pending write to the same register.
+     *
+     * @param priority              the {@link I2CPriority}
+     * @param slaveAddress          the slave address
+     * @param registerAddress       the register address
+     * @param registerData          the register data
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     *
+     * @return the {@link CompletableFuture} that completes once the register data (or the data of a write that
+     * superseded it) has been written
+     */
+    public CompletableFuture<Void> writeRegisterByte(I2CPriority priority, short slaveAddress, short registerAddress,
+            byte registerData, boolean is8BitRegisterAddress) {
+        return enqueue(new RegisterWriteRequest(priority, slaveAddress, registerAddress, registerData,
+                is8BitRegisterAddress));
+    }
+
+    /**
+     * Enqueues the given {@link Request} into the submitted request queue of its {@link I2CPriority} and wakes the
+     * dispatcher thread.
+     *
+     * @param request the {@link Request}
+     * @param <T>     the type of the result
+     *
+     * @return the {@link Request#future}
+     */
+    private <T> CompletableFuture<T> enqueue(Request<T> request) {
+        if (!dispatchLoop) {
+            rejectRequest(request);
+            return request.future;
+        }
+        final ConcurrentLinkedQueue<Request<?>> submittedRequests =
+                submittedRequestQueues.get(request.priority.ordinal());
+        submittedRequests.add(request);
+        unpark(dispatchThread);
+        // If the dispatcher was stopped concurrently, it may have already cancelled its remaining requests, so take
+        // the request back unless the dispatcher thread already accepted it (and will dispatch or cancel it)
+        if (!dispatchLoop && submittedRequests.remove(request)) {
+            rejectRequest(request);
+        }
+        return request.future;
+    }
+
+    /**
+     * Completes the given {@link Request} exceptionally because this {@link I2CDispatcher} is not started.
+     *
+     * @param request the {@link Request}
+     * @param <T>     the type of the result
+     */
+    private <T> void rejectRequest(Request<T> request) {
+        request.complete(null, new IllegalStateException(
+                "I2C-" + i2cBus.getDeviceIndex() + " dispatcher is not started!"));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This run loop is used for dispatching the requests of this {@link I2CDispatcher}.
+     */
+    @Override
+    public void run() {
+        while (dispatchLoop) {
+            acceptSubmittedRequests();
+            final ArrayDeque<Request<?>> pendingRequests = highestPriorityPendingRequests();
+            if (pendingRequests == null) {
+                parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            // Only dispatch one transfer before accepting submitted requests again so that newly submitted requests
+            // of a higher priority are not delayed by the pending requests of a lower priority
+            if (pendingRequests.peek() instanceof RegisterWriteRequest) {
+                dispatchRegisterWrites(pendingRequests);
+            } else {
+                execute((ExecuteRequest<?>) pendingRequests.poll());
+            }
+        }
+
+        acceptSubmittedRequests();
+        for (ArrayDeque<Request<?>> pendingRequests : pendingRequestQueues) {
+            Request<?> request;
+            while ((request = pendingRequests.poll()) != null) {
+                request.cancel();
+            }
+        }
+        pendingRegisterWritesOfKeys.clear();
+    }
+
+    /**
+     * Moves all submitted {@link Request}s into the pending request queues and coalesces superseded register writes.
+     */
+    private void acceptSubmittedRequests() {
+        for (int index = 0; index < PRIORITIES.length; index++) {
+            final ConcurrentLinkedQueue<Request<?>> submittedRequests = submittedRequestQueues.get(index);
+            Request<?> request;
+            while ((request = submittedRequests.poll()) != null) {
+                if (request instanceof RegisterWriteRequest) {
+                    final RegisterWriteRequest write = (RegisterWriteRequest) request;
+                    final RegisterWriteRequest supersededWrite = pendingRegisterWritesOfKeys.put(write.key, write);
+                    if (supersededWrite != null) {
+                        pendingRequestQueues.get(supersededWrite.priority.ordinal()).remove(supersededWrite);
+                        write.supersede(supersededWrite);
+                        coalescedWriteCount++;
+                    }
+                }
+                pendingRequestQueues.get(request.priority.ordinal()).add(request);
+            }
+        }
+    }
+
+    /**
+     * Gets the pending request queue of the highest {@link I2CPriority} that is not empty.
+     *
+     * @return the pending request {@link ArrayDeque} or <code>null</code> if there are no pending requests
+     */
+    private ArrayDeque<Request<?>> highestPriorityPendingRequests() {
+        for (ArrayDeque<Request<?>> pendingRequests : pendingRequestQueues) {
+            if (!pendingRequests.isEmpty()) {
+                return pendingRequests;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Dispatches the consecutive {@link RegisterWriteRequest}s at the head of the given pending request queue in a
+     * single {@link I2CTransaction}.
+     *
+     * @param pendingRequests the pending request {@link ArrayDeque}
+     */
+    private void dispatchRegisterWrites(ArrayDeque<Request<?>> pendingRequests) {
+        writeTransaction.reset();
+        transactionWrites.clear();
+        while (transactionWrites.size() < MAX_MESSAGES && pendingRequests.peek() instanceof RegisterWriteRequest) {
+            final RegisterWriteRequest write = (RegisterWriteRequest) pendingRequests.poll();
+            pendingRegisterWritesOfKeys.remove(write.key);
+            writeTransaction.writeRegisterByte(write.slaveAddress, write.registerAddress, write.registerData,
+                    write.is8BitRegisterAddress);
+            transactionWrites.add(write);
+        }
+
+        Exception transferException = null;
+        try {
+            writeTransaction.submit(i2cBus);
+        } catch (Exception exception) {
+            transferException = exception;
+        }
+        dispatchedTransferCount++;
+        for (RegisterWriteRequest write : transactionWrites) {
+            write.complete(null, transferException);
+        }
+        transactionWrites.clear();
+    }
+
+    /**
+     * Executes the given {@link ExecuteRequest}.
+     *
+     * @param request the {@link ExecuteRequest}
+     * @param <T>     the type of the result
+     */
+    private <T> void execute(ExecuteRequest<T> request) {
+        try {
+            request.complete(request.request.execute(i2cBus), null);
+        } catch (Exception exception) {
+            request.complete(null, exception);
+        }
+        dispatchedTransferCount++;
+    }
+
+    public I2CBus getI2CBus() {
+        return i2cBus;
+    }
+
+    public long getDispatchedTransferCount() {
+        return dispatchedTransferCount;
+    }
+
+    public long getCoalescedWriteCount() {
+        return coalescedWriteCount;
+    }
+
+    /**
+     * {@link Request} is a request submitted to an {@link I2CDispatcher}.
+     *
+     * @param <T> the type of the result
+     */
+    private abstract static class Request<T> {
+
+        protected final CompletableFuture<T> future;
+        protected I2CPriority priority;
+
+        protected Request(I2CPriority priority) {
+            this.priority = priority;
+            future = new CompletableFuture<>();
+        }
+
+        protected void complete(T result, Exception exception) {
+            if (exception == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(exception);
+            }
+        }
+
+        protected void cancel() {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * {@link ExecuteRequest} is a {@link Request} that executes an {@link I2CRequest}.
+     *
+     * @param <T> the type of the result
+     */
+    private static class ExecuteRequest<T> extends Request<T> {
+
+        private final I2CRequest<T> request;
+
+        private ExecuteRequest(I2CPriority priority, I2CRequest<T> request) {
+            super(priority);
+            this.request = request;
+        }
+    }
+
+    /**
+     * {@link RegisterWriteRequest} is a {@link Request} that writes a byte to a register and that can supersede a
+     * pending {@link RegisterWriteRequest} to the same register.
+     */
+    private static class RegisterWriteRequest extends Request<Void> {
+
+        private final short slaveAddress;
+        private final short registerAddress;
+        private final byte registerData;
+        private final boolean is8BitRegisterAddress;
+        private final int key;
+        private List<CompletableFuture<Void>> supersededFutures;
+
+        private RegisterWriteRequest(I2CPriority priority, short slaveAddress, short registerAddress,
+                byte registerData, boolean is8BitRegisterAddress) {
+            super(priority);
+            this.slaveAddress = slaveAddress;
+            this.registerAddress = registerAddress;
+            this.registerData = registerData;
+            this.is8BitRegisterAddress = is8BitRegisterAddress;
+            key = (slaveAddress & 0xFFFF) << 16 | (registerAddress & 0xFFFF);
+        }
+
+        /**
+         * Supersedes the given pending {@link RegisterWriteRequest} to the same register so that its
+         * {@link CompletableFuture} completes along with this one.
+         *
+         * @param supersededWrite the superseded {@link RegisterWriteRequest}
+         */
+        private void supersede(RegisterWriteRequest supersededWrite) {
+            if (supersededWrite.priority.ordinal() < priority.ordinal()) {
+                priority = supersededWrite.priority;
+            }
+            if (supersededFutures == null) {
+                supersededFutures = new ArrayList<>();
+            }
+            supersededFutures.add(supersededWrite.future);
+            if (supersededWrite.supersededFutures != null) {
+                supersededFutures.addAll(supersededWrite.supersededFutures);
+            }
+        }
+
+        @Override
+        protected void complete(Void result, Exception exception) {
+            super.complete(result, exception);
+            if (supersededFutures != null) {
+                for (CompletableFuture<Void> supersededFuture : supersededFutures) {
+                    if (exception == null) {
+                        supersededFuture.complete(result);
+                    } else {
+                        supersededFuture.completeExceptionally(exception);
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected void cancel() {
+            super.cancel();
+            if (supersededFutures != null) {
+                supersededFutures.forEach(supersededFuture -> supersededFuture.cancel(false));
+            }
+        }
+    }
+}
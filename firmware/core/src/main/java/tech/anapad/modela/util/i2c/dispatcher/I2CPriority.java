@@ -0,0 +1,29 @@
+package tech.anapad.modela.util.i2c.dispatcher;
+
+/**
+ * {@link I2CPriority} is the priority class of a request submitted to an {@link I2CDispatcher}. Pending requests of a
+ * higher priority class (i.e. a lower ordinal) are always dispatched before pending requests of a lower priority
+ * class.
+ */
+public enum I2CPriority {
+
+    /**
+     * Stopping haptic actuation (e.g. stopping LRAs at the end of an impulse).
+     */
+    HAPTIC_STOP,
+
+    /**
+     * Starting haptic actuation (e.g. the onset of an LRA impulse).
+     */
+    HAPTIC_START,
+
+    /**
+     * Regular requests (e.g. chip configuration).
+     */
+    NORMAL,
+
+    /**
+     * Diagnostic requests, which may be delayed by all other requests.
+     */
+    DIAGNOSTIC
+}
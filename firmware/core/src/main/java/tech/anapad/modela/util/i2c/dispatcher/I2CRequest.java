@@ -0,0 +1,23 @@
+package tech.anapad.modela.util.i2c.dispatcher;
+
+import tech.anapad.modela.util.i2c.I2CBus;
+
+/**
+ * {@link I2CRequest} is a request that an {@link I2CDispatcher} executes on the dispatcher thread that owns the
+ * {@link I2CBus}.
+ *
+ * @param <T> the type of the result
+ */
+@FunctionalInterface
+public interface I2CRequest<T> {
+
+    /**
+     * Executes this {@link I2CRequest}.
+     *
+     * @param i2cBus the {@link I2CBus}
+     *
+     * @return the result
+     * @throws Exception thrown for {@link Exception}s
+     */
+    T execute(I2CBus i2cBus) throws Exception;
+}
@@ -0,0 +1,87 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link AbstractSimulatedRegisterDevice} is a {@link SimulatedI2CDevice} with addressable registers. A write message
+ * starts with the 8 or 16 bit register address, which sets the register pointer, followed by the register data. A read
+ * message reads from the register pointer. The register pointer auto-increments for each register data byte.
+ */
+public abstract class AbstractSimulatedRegisterDevice implements SimulatedI2CDevice {
+
+    private final short address;
+    private final boolean is8BitRegisterAddress;
+
+    private int registerPointer;
+
+    /**
+     * Instantiates a new {@link AbstractSimulatedRegisterDevice}.
+     *
+     * @param address               the slave address
+     * @param is8BitRegisterAddress <code>true</code> for 8 bit register address, <code>false</code> for 16 bit
+     *                              register address
+     */
+    protected AbstractSimulatedRegisterDevice(short address, boolean is8BitRegisterAddress) {
+        this.address = address;
+        this.is8BitRegisterAddress = is8BitRegisterAddress;
+        registerPointer = 0;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, int length) {
+        final int registerAddressLength = is8BitRegisterAddress ? 1 : 2;
+        if (length < registerAddressLength) {
+            return;
+        }
+        if (is8BitRegisterAddress) {
+            registerPointer = buffer.get(offset) & 0xFF;
+        } else {
+            registerPointer = (buffer.get(offset) & 0xFF) << 8 | (buffer.get(offset + 1) & 0xFF);
+        }
+        for (int index = registerAddressLength; index < length; index++) {
+            writeRegister(registerPointer, buffer.get(offset + index));
+            registerPointer = nextRegisterAddress(registerPointer);
+        }
+    }
+
+    @Override
+    public void read(ByteBuffer buffer, int offset, int length) {
+        for (int index = 0; index < length; index++) {
+            buffer.put(offset + index, readRegister(registerPointer));
+            registerPointer = nextRegisterAddress(registerPointer);
+        }
+    }
+
+    /**
+     * Gets the register address following the given register address.
+     *
+     * @param registerAddress the register address
+     *
+     * @return the next register address
+     */
+    private int nextRegisterAddress(int registerAddress) {
+        return (registerAddress + 1) & (is8BitRegisterAddress ? 0xFF : 0xFFFF);
+    }
+
+    /**
+     * Reads a register of this {@link AbstractSimulatedRegisterDevice}.
+     *
+     * @param registerAddress the register address
+     *
+     * @return the register byte
+     */
+    protected abstract byte readRegister(int registerAddress);
+
+    /**
+     * Writes a register of this {@link AbstractSimulatedRegisterDevice}.
+     *
+     * @param registerAddress the register address
+     * @param registerData    the register byte
+     */
+    protected abstract void writeRegister(int registerAddress, byte registerData);
+
+    @Override
+    public short getAddress() {
+        return address;
+    }
+}
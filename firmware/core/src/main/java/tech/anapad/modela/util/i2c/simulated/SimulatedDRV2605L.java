@@ -0,0 +1,75 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link SimulatedDRV2605L} is a {@link SimulatedI2CDevice} model of the DRV2605L haptic motor driver chip. Register
+ * writes are latched, and the GO bit clears itself after a fixed playback duration.
+ */
+public class SimulatedDRV2605L extends AbstractSimulatedRegisterDevice {
+
+    private static final short DRV2605L_I2C_ADDRESS = 0x5A;
+    private static final int REGISTER_STATUS = 0x00;
+    private static final int REGISTER_MODE = 0x01;
+    private static final int REGISTER_RTP_INPUT = 0x02;
+    private static final int REGISTER_GO = 0x0C;
+    private static final int REGISTER_COUNT = 0x23;
+    private static final int MODE_STANDBY = 0x40;
+    private static final int MODE_MASK = 0x07;
+    private static final int MODE_RTP = 0x05;
+    private static final long GO_DURATION_NANOS = MILLISECONDS.toNanos(100);
+
+    private final byte[] registers;
+
+    private long goEndNanos;
+
+    /**
+     * Instantiates a new {@link SimulatedDRV2605L}.
+     */
+    public SimulatedDRV2605L() {
+        super(DRV2605L_I2C_ADDRESS, true);
+        registers = new byte[REGISTER_COUNT];
+        registers[REGISTER_STATUS] = (byte) 0xE0; // DEVICE_ID = 7 (DRV2605L)
+        registers[REGISTER_MODE] = MODE_STANDBY;
+        registers[0x17] = (byte) 0x89; // OD_CLAMP
+        registers[0x1A] = 0x36; // Feedback control
+        registers[0x1D] = (byte) 0xA0; // Control 3
+    }
+
+    @Override
+    protected byte readRegister(int registerAddress) {
+        if (registerAddress >= REGISTER_COUNT) {
+            return 0;
+        }
+        if (registerAddress == REGISTER_GO && registers[REGISTER_GO] != 0 && nanoTime() >= goEndNanos) {
+            registers[REGISTER_GO] = 0;
+        }
+        return registers[registerAddress];
+    }
+
+    @Override
+    protected void writeRegister(int registerAddress, byte registerData) {
+        if (registerAddress >= REGISTER_COUNT || registerAddress == REGISTER_STATUS) {
+            return;
+        }
+        registers[registerAddress] = registerData;
+        if (registerAddress == REGISTER_GO && (registerData & 0x01) != 0) {
+            goEndNanos = nanoTime() + GO_DURATION_NANOS;
+        }
+    }
+
+    /**
+     * Gets whether Real-Time Playback (RTP) mode is active.
+     *
+     * @return <code>true</code> if active, <code>false</code> otherwise
+     */
+    public boolean isRTPModeActive() {
+        final int mode = registers[REGISTER_MODE];
+        return (mode & MODE_STANDBY) == 0 && (mode & MODE_MASK) == MODE_RTP;
+    }
+
+    public byte getRTPValue() {
+        return registers[REGISTER_RTP_INPUT];
+    }
+}
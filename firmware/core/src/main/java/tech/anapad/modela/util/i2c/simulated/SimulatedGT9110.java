@@ -0,0 +1,201 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import tech.anapad.modela.touchscreen.driver.Touch;
+
+import java.util.List;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link SimulatedGT9110} is a {@link SimulatedI2CDevice} model of the GT9110 touchscreen driver chip. The chip scans
+ * at the refresh rate of its configuration. After the host clears the status register, the touches of the next scan
+ * are latched into the touch registers and the buffer status bit is set. Like the real chip, scans without touches
+ * are only reported once after the last touch is released. A written configuration is applied when its "fresh" byte
+ * is written and its checksum is valid.
+ */
+public class SimulatedGT9110 extends AbstractSimulatedRegisterDevice {
+
+    private static final short GT9110_I2C_ADDRESS = 0x5D;
+    private static final int REGISTER_BASE = 0x8000;
+    private static final int REGISTER_COUNT = 0x200;
+    private static final int REGISTER_CONFIG_START = 0x8047;
+    private static final int REGISTER_CONFIG_X_RESOLUTION = 0x8048;
+    private static final int REGISTER_CONFIG_REFRESH_RATE = 0x8056;
+    private static final int REGISTER_CONFIG_END = 0x80FE;
+    private static final int REGISTER_CONFIG_CHECKSUM = 0x80FF;
+    private static final int REGISTER_CONFIG_FRESH = 0x8100;
+    private static final int REGISTER_PRODUCT_ID = 0x8140;
+    private static final int REGISTER_RESOLUTION = 0x8146;
+    private static final int REGISTER_STATUS = 0x814E;
+    private static final int REGISTER_TOUCHES_START = 0x814F;
+    private static final int STATUS_BUFFER_READY = 0x80;
+    private static final int TOUCH_CAPACITY = 10;
+    private static final int TOUCH_REGISTER_LENGTH = 8;
+    private static final long MINIMUM_REFRESH_PERIOD_NANOS = MILLISECONDS.toNanos(5);
+
+    private final byte[] registers;
+    private final long scanStartNanos;
+
+    private volatile List<Touch> touches;
+    private long refreshPeriodNanos;
+    private long nextScanNanos;
+    private int lastReportedTouchCount;
+
+    /**
+     * Instantiates a new {@link SimulatedGT9110}.
+     *
+     * @param xResolution the X resolution of the initial configuration
+     * @param yResolution the Y resolution of the initial configuration
+     */
+    public SimulatedGT9110(int xResolution, int yResolution) {
+        super(GT9110_I2C_ADDRESS, false);
+        registers = new byte[REGISTER_COUNT];
+        touches = List.of();
+        scanStartNanos = nanoTime();
+        nextScanNanos = scanStartNanos;
+        lastReportedTouchCount = 0;
+
+        // Initial configuration
+        setRegister(REGISTER_CONFIG_START, (byte) 0x5B); // Configuration version
+        setRegister(REGISTER_CONFIG_X_RESOLUTION, (byte) xResolution);
+        setRegister(REGISTER_CONFIG_X_RESOLUTION + 1, (byte) (xResolution >> 8));
+        setRegister(REGISTER_CONFIG_X_RESOLUTION + 2, (byte) yResolution);
+        setRegister(REGISTER_CONFIG_X_RESOLUTION + 3, (byte) (yResolution >> 8));
+        setRegister(REGISTER_CONFIG_REFRESH_RATE, (byte) 0x05);
+        setRegister(REGISTER_CONFIG_CHECKSUM, calculateConfigChecksum());
+        final byte[] productID = {'9', '1', '1', '0'};
+        for (int index = 0; index < productID.length; index++) {
+            setRegister(REGISTER_PRODUCT_ID + index, productID[index]);
+        }
+        applyConfig();
+    }
+
+    @Override
+    protected byte readRegister(int registerAddress) {
+        if (!isRegister(registerAddress)) {
+            return 0;
+        }
+        if (registerAddress == REGISTER_STATUS) {
+            scan(nanoTime());
+        }
+        return getRegister(registerAddress);
+    }
+
+    @Override
+    protected void writeRegister(int registerAddress, byte registerData) {
+        if (!isRegister(registerAddress)) {
+            return;
+        }
+        if (registerAddress == REGISTER_STATUS) {
+            // Clearing the status register starts waiting for the next scan
+            setRegister(REGISTER_STATUS, registerData);
+            nextScanNanos = nextScanBoundaryNanos(nanoTime());
+        } else if (registerAddress >= REGISTER_CONFIG_START && registerAddress <= REGISTER_CONFIG_CHECKSUM) {
+            setRegister(registerAddress, registerData);
+        } else if (registerAddress == REGISTER_CONFIG_FRESH) {
+            if (registerData == 0x01 && calculateConfigChecksum() == getRegister(REGISTER_CONFIG_CHECKSUM)) {
+                applyConfig();
+            }
+        }
+    }
+
+    /**
+     * Latches the current {@link #getTouches()} into the touch registers if a scan has completed since the status
+     * register was cleared.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    private void scan(long nowNanos) {
+        if ((getRegister(REGISTER_STATUS) & STATUS_BUFFER_READY) != 0 || nowNanos < nextScanNanos) {
+            return;
+        }
+
+        final List<Touch> scannedTouches = touches;
+        final int touchCount = Math.min(scannedTouches.size(), TOUCH_CAPACITY);
+        if (touchCount == 0 && lastReportedTouchCount == 0) {
+            nextScanNanos = nextScanBoundaryNanos(nowNanos);
+            return;
+        }
+        for (int index = 0; index < touchCount; index++) {
+            final Touch touch = scannedTouches.get(index);
+            final int touchRegister = REGISTER_TOUCHES_START + index * TOUCH_REGISTER_LENGTH;
+            setRegister(touchRegister, (byte) touch.getID());
+            setRegister(touchRegister + 1, (byte) touch.getX());
+            setRegister(touchRegister + 2, (byte) (touch.getX() >> 8));
+            setRegister(touchRegister + 3, (byte) touch.getY());
+            setRegister(touchRegister + 4, (byte) (touch.getY() >> 8));
+            setRegister(touchRegister + 5, (byte) touch.getSize());
+            setRegister(touchRegister + 6, (byte) (touch.getSize() >> 8));
+            setRegister(touchRegister + 7, (byte) 0);
+        }
+        setRegister(REGISTER_STATUS, (byte) (STATUS_BUFFER_READY | touchCount));
+        lastReportedTouchCount = touchCount;
+    }
+
+    /**
+     * Gets the time of the first scan boundary after the given time.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     *
+     * @return the {@link System#nanoTime()} of the next scan
+     */
+    private long nextScanBoundaryNanos(long nowNanos) {
+        return scanStartNanos + ((nowNanos - scanStartNanos) / refreshPeriodNanos + 1) * refreshPeriodNanos;
+    }
+
+    /**
+     * Applies the configuration registers (i.e. the resolution and the refresh rate).
+     */
+    private void applyConfig() {
+        for (int index = 0; index < 4; index++) {
+            setRegister(REGISTER_RESOLUTION + index, getRegister(REGISTER_CONFIG_X_RESOLUTION + index));
+        }
+        refreshPeriodNanos = MINIMUM_REFRESH_PERIOD_NANOS +
+                MILLISECONDS.toNanos(getRegister(REGISTER_CONFIG_REFRESH_RATE) & 0x0F);
+        setRegister(REGISTER_CONFIG_FRESH, (byte) 0);
+    }
+
+    /**
+     * Calculates the checksum of the configuration registers.
+     *
+     * @return the checksum byte
+     */
+    private byte calculateConfigChecksum() {
+        int checksumSum = 0;
+        for (int registerAddress = REGISTER_CONFIG_START; registerAddress <= REGISTER_CONFIG_END; registerAddress++) {
+            checksumSum += getRegister(registerAddress) & 0xFF;
+        }
+        return (byte) -checksumSum;
+    }
+
+    private boolean isRegister(int registerAddress) {
+        return registerAddress >= REGISTER_BASE && registerAddress < REGISTER_BASE + REGISTER_COUNT;
+    }
+
+    private byte getRegister(int registerAddress) {
+        return registers[registerAddress - REGISTER_BASE];
+    }
+
+    private void setRegister(int registerAddress, byte registerData) {
+        registers[registerAddress - REGISTER_BASE] = registerData;
+    }
+
+    public long getRefreshPeriodNanos() {
+        return refreshPeriodNanos;
+    }
+
+    public List<Touch> getTouches() {
+        return touches;
+    }
+
+    /**
+     * Sets the {@link Touch}es that subsequent scans detect. The coordinates are in the coordinate space of the chip,
+     * which is mirrored relative to the coordinates reported by the touchscreen driver.
+     *
+     * @param touches the {@link Touch}es {@link List}
+     */
+    public void setTouches(List<Touch> touches) {
+        this.touches = touches;
+    }
+}
@@ -0,0 +1,268 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.I2CException;
+import tech.anapad.modela.util.i2c.I2CTransaction;
+
+import java.nio.ByteBuffer;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static tech.anapad.modela.util.i2c.I2CException.NO_REGISTER_ADDRESS;
+import static tech.anapad.modela.util.i2c.I2CException.NO_SLAVE_ADDRESS;
+import static tech.anapad.modela.util.i2c.I2CTransaction.FLAG_READ;
+import static tech.anapad.modela.util.i2c.I2CTransaction.MAX_MESSAGES;
+
+/**
+ * {@link SimulatedI2CBus} is an {@link I2CBus} that routes I2C messages to in-memory {@link SimulatedI2CDevice}s
+ * instead of a real I2C bus. Like the Linux I2C subsystem, transfers are serialized and every request is a transfer
+ * that ends with a stop condition. Each transfer blocks the calling thread for the configured transaction latency so
+ * that the timing of the real bus can be approximated.
+ */
+public class SimulatedI2CBus implements I2CBus {
+
+    private static final int ERRNO_EBADF = 9;
+    private static final int ERRNO_EINVAL = 22;
+    private static final int ERRNO_EREMOTEIO = 121; // What the Linux I2C subsystem returns for a NACK
+    private static final int ADDRESS_COUNT = 128;
+    private static final int SCRATCH_TRANSACTION_BUFFER_CAPACITY = 1024;
+
+    private final int deviceIndex;
+    private final SimulatedI2CDevice[] devicesOfAddresses;
+    private final SimulatedTCA9544A[] multiplexers;
+    private final SimulatedI2CDevice[] transferDevices;
+    private final I2CTransaction scratchTransaction;
+
+    private volatile long transactionLatencyNanos;
+    private volatile long transferCount;
+    private volatile long totalMessageCount;
+    private boolean stopped;
+    private int multiplexerCount;
+
+    /**
+     * Instantiates a new {@link SimulatedI2CBus}.
+     *
+     * @param deviceIndex             the simulated I2C linux sysfs device index
+     * @param transactionLatencyNanos the latency in nanoseconds that each transfer takes
+     */
+    public SimulatedI2CBus(int deviceIndex, long transactionLatencyNanos) {
+        this.deviceIndex = deviceIndex;
+        this.transactionLatencyNanos = transactionLatencyNanos;
+        devicesOfAddresses = new SimulatedI2CDevice[ADDRESS_COUNT];
+        multiplexers = new SimulatedTCA9544A[ADDRESS_COUNT];
+        transferDevices = new SimulatedI2CDevice[MAX_MESSAGES];
+        scratchTransaction = new I2CTransaction(SCRATCH_TRANSACTION_BUFFER_CAPACITY);
+        stopped = true;
+    }
+
+    /**
+     * Attaches a {@link SimulatedI2CDevice} to this {@link SimulatedI2CBus}.
+     *
+     * @param device the {@link SimulatedI2CDevice}
+     *
+     * @return this {@link SimulatedI2CBus}
+     */
+    public synchronized SimulatedI2CBus addDevice(SimulatedI2CDevice device) {
+        if (devicesOfAddresses[device.getAddress()] != null) {
+            throw new IllegalArgumentException("A device is already attached at address: " + device.getAddress());
+        }
+        devicesOfAddresses[device.getAddress()] = device;
+        if (device instanceof SimulatedTCA9544A) {
+            multiplexers[multiplexerCount++] = (SimulatedTCA9544A) device;
+        }
+        return this;
+    }
+
+    /**
+     * Starts this {@link SimulatedI2CBus}.
+     *
+     * @return this {@link SimulatedI2CBus}
+     */
+    public synchronized SimulatedI2CBus start() {
+        stopped = false;
+        return this;
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        checkStarted();
+        stopped = true;
+    }
+
+    @Override
+    public synchronized void writeByte(short slaveAddress, byte data) throws Exception {
+        scratchTransaction.reset().writeByte(slaveAddress, data).submit(this);
+    }
+
+    @Override
+    public synchronized void writeRegisterByte(short slaveAddress, short registerAddress, byte registerData,
+            boolean is8BitRegisterAddress) throws Exception {
+        scratchTransaction.reset()
+                .writeRegisterByte(slaveAddress, registerAddress, registerData, is8BitRegisterAddress)
+                .submit(this);
+    }
+
+    @Override
+    public synchronized void writeRegisterBytes(short slaveAddress, short registerAddress, byte[] registerData,
+            boolean is8BitRegisterAddress) throws Exception {
+        scratchTransaction.reset()
+                .writeRegisterBytes(slaveAddress, registerAddress, registerData, is8BitRegisterAddress)
+                .submit(this);
+    }
+
+    @Override
+    public synchronized void writeRegisterBytesDirect(short slaveAddress, short registerAddress, ByteBuffer buffer,
+            int offset, int length, boolean is8BitRegisterAddress) throws Exception {
+        final byte[] registerData = new byte[length];
+        buffer.get(offset, registerData);
+        writeRegisterBytes(slaveAddress, registerAddress, registerData, is8BitRegisterAddress);
+    }
+
+    @Override
+    public synchronized byte readByte(short slaveAddress) throws Exception {
+        final int readOffset = scratchTransaction.reset().readByte(slaveAddress);
+        scratchTransaction.submit(this);
+        return scratchTransaction.getByte(readOffset);
+    }
+
+    @Override
+    public synchronized byte readRegisterByte(short slaveAddress, short registerAddress,
+            boolean is8BitRegisterAddress) throws Exception {
+        final int readOffset = scratchTransaction.reset()
+                .readRegisterByte(slaveAddress, registerAddress, is8BitRegisterAddress);
+        scratchTransaction.submit(this);
+        return scratchTransaction.getByte(readOffset);
+    }
+
+    @Override
+    public synchronized byte[] readRegisterBytes(short slaveAddress, short registerAddress, int readSize,
+            boolean is8BitRegisterAddress) throws Exception {
+        final int readOffset = scratchTransaction.reset()
+                .readRegisterBytes(slaveAddress, registerAddress, readSize, is8BitRegisterAddress);
+        scratchTransaction.submit(this);
+        final byte[] registerData = new byte[readSize];
+        scratchTransaction.getBuffer().get(readOffset, registerData);
+        return registerData;
+    }
+
+    @Override
+    public synchronized void readRegisterBytesDirect(short slaveAddress, short registerAddress, ByteBuffer buffer,
+            int offset, int readSize, boolean is8BitRegisterAddress) throws Exception {
+        final int readOffset = scratchTransaction.reset()
+                .readRegisterBytes(slaveAddress, registerAddress, readSize, is8BitRegisterAddress);
+        scratchTransaction.submit(this);
+        for (int index = 0; index < readSize; index++) {
+            buffer.put(offset + index, scratchTransaction.getByte(readOffset + index));
+        }
+    }
+
+    @Override
+    public synchronized void transfer(short[] slaveAddresses, short[] flags, short[] lengths, int messageCount,
+            ByteBuffer buffer) throws Exception {
+        checkStarted();
+        if (messageCount <= 0 || messageCount > MAX_MESSAGES) {
+            throw new I2CException("Invalid I2C transfer message count!", ERRNO_EINVAL, NO_SLAVE_ADDRESS,
+                    NO_REGISTER_ADDRESS);
+        }
+
+        final long startNanos = nanoTime();
+        int transferDeviceCount = 0;
+        try {
+            int bufferOffset = 0;
+            for (int index = 0; index < messageCount; index++) {
+                final SimulatedI2CDevice device = getDevice(slaveAddresses[index]);
+                if (device == null) {
+                    throw new I2CException("Could not transfer with I2C device!", ERRNO_EREMOTEIO,
+                            slaveAddresses[index], NO_REGISTER_ADDRESS);
+                }
+                transferDevices[transferDeviceCount++] = device;
+
+                if ((flags[index] & FLAG_READ) != 0) {
+                    device.read(buffer, bufferOffset, lengths[index]);
+                } else {
+                    device.write(buffer, bufferOffset, lengths[index]);
+                }
+                bufferOffset += lengths[index];
+            }
+        } finally {
+            // The stop condition ends the transfer, even if a message was not acknowledged
+            for (int index = 0; index < transferDeviceCount; index++) {
+                transferDevices[index].stop();
+                transferDevices[index] = null;
+            }
+            transferCount++;
+            totalMessageCount += messageCount;
+            waitForTransactionLatency(startNanos);
+        }
+    }
+
+    /**
+     * Gets the {@link SimulatedI2CDevice} that acknowledges the given slave address, which is either a device attached
+     * directly to this {@link SimulatedI2CBus} or a device on the active channel of a {@link SimulatedTCA9544A}.
+     *
+     * @param slaveAddress the slave address
+     *
+     * @return the {@link SimulatedI2CDevice} or <code>null</code>
+     */
+    private SimulatedI2CDevice getDevice(short slaveAddress) {
+        if (slaveAddress < 0 || slaveAddress >= ADDRESS_COUNT) {
+            return null;
+        }
+        final SimulatedI2CDevice device = devicesOfAddresses[slaveAddress];
+        if (device != null) {
+            return device;
+        }
+        for (int index = 0; index < multiplexerCount; index++) {
+            final SimulatedI2CDevice channelDevice = multiplexers[index].getActiveChannelDevice(slaveAddress);
+            if (channelDevice != null) {
+                return channelDevice;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Blocks until {@link #getTransactionLatencyNanos()} has elapsed since the given start time.
+     *
+     * @param startNanos the {@link System#nanoTime()} that the transaction started
+     */
+    private void waitForTransactionLatency(long startNanos) {
+        final long deadlineNanos = startNanos + transactionLatencyNanos;
+        long remainingNanos;
+        while ((remainingNanos = deadlineNanos - nanoTime()) > 0) {
+            parkNanos(remainingNanos);
+        }
+    }
+
+    /**
+     * Throws an {@link I2CException} if this {@link SimulatedI2CBus} is not started.
+     *
+     * @throws I2CException thrown for {@link I2CException}s
+     */
+    private void checkStarted() throws I2CException {
+        if (stopped) {
+            throw new I2CException("I2C device is not started!", ERRNO_EBADF, NO_SLAVE_ADDRESS, NO_REGISTER_ADDRESS);
+        }
+    }
+
+    @Override
+    public int getDeviceIndex() {
+        return deviceIndex;
+    }
+
+    public long getTransactionLatencyNanos() {
+        return transactionLatencyNanos;
+    }
+
+    public void setTransactionLatencyNanos(long transactionLatencyNanos) {
+        this.transactionLatencyNanos = transactionLatencyNanos;
+    }
+
+    public long getTransferCount() {
+        return transferCount;
+    }
+
+    public long getTotalMessageCount() {
+        return totalMessageCount;
+    }
+}
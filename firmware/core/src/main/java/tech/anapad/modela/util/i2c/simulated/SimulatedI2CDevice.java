@@ -0,0 +1,41 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link SimulatedI2CDevice} is an in-memory model of an I2C slave chip that is attached to a {@link SimulatedI2CBus}.
+ * Methods of this interface are only called by the {@link SimulatedI2CBus} while it holds its bus lock.
+ */
+public interface SimulatedI2CDevice {
+
+    /**
+     * Gets the 7-bit slave address of this {@link SimulatedI2CDevice}.
+     *
+     * @return the slave address
+     */
+    short getAddress();
+
+    /**
+     * Called for a write message addressed to this {@link SimulatedI2CDevice}.
+     *
+     * @param buffer the {@link ByteBuffer} containing the message data
+     * @param offset the offset of the message data in <code>buffer</code>
+     * @param length the length of the message data
+     */
+    void write(ByteBuffer buffer, int offset, int length);
+
+    /**
+     * Called for a read message addressed to this {@link SimulatedI2CDevice}.
+     *
+     * @param buffer the {@link ByteBuffer} to put the read data into
+     * @param offset the offset in <code>buffer</code> to put the read data into
+     * @param length the length of the read data
+     */
+    void read(ByteBuffer buffer, int offset, int length);
+
+    /**
+     * Called for the stop condition at the end of a transfer that addressed this {@link SimulatedI2CDevice}. This may
+     * be called multiple times for the same stop condition.
+     */
+    default void stop() {}
+}
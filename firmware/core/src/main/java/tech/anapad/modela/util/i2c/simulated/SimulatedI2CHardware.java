@@ -0,0 +1,130 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import tech.anapad.modela.util.i2c.I2CException;
+
+import java.util.List;
+
+import static tech.anapad.modela.util.i2c.I2CException.NO_REGISTER_ADDRESS;
+import static tech.anapad.modela.util.i2c.I2CException.NO_SLAVE_ADDRESS;
+
+/**
+ * {@link SimulatedI2CHardware} contains the {@link SimulatedI2CBus}es and {@link SimulatedI2CDevice}s of the Model A
+ * hardware:
+ * <ul>
+ *     <li>I2C-1: the load surface TCA9544A I2C multiplexer with a NAU7802 ADC on each of its 4 channels</li>
+ *     <li>I2C-4: the haptics board TCA9534 IO port expanders and DRV2605L haptic motor controller</li>
+ *     <li>I2C-5: the GT9110 touchscreen driver</li>
+ * </ul>
+ * The {@link SimulatedI2CDevice}s can be accessed to drive inputs (e.g. touches and load surface forces) and to
+ * inspect outputs (e.g. actuated LRAs).
+ */
+public class SimulatedI2CHardware {
+
+    public static final int LOAD_SURFACE_I2C_DEVICE_INDEX = 1;
+    public static final int HAPTICS_BOARD_I2C_DEVICE_INDEX = 4;
+    public static final int TOUCHSCREEN_I2C_DEVICE_INDEX = 5;
+
+    private static final int ERRNO_ENOENT = 2;
+    private static final int ADC_BASELINE_INPUT_VALUE = 50_000;
+    private static final int ADC_NOISE_AMPLITUDE = 100;
+    private static final int TOUCHSCREEN_X_RESOLUTION = 1920;
+    private static final int TOUCHSCREEN_Y_RESOLUTION = 515;
+
+    private final SimulatedI2CBus loadSurfaceI2CBus;
+    private final SimulatedTCA9544A i2cMultiplexer;
+    private final List<SimulatedNAU7802> adcs;
+    private final SimulatedI2CBus hapticsBoardI2CBus;
+    private final List<SimulatedTCA9534> ioPortExpanders;
+    private final SimulatedDRV2605L hapticMotorController;
+    private final SimulatedI2CBus touchscreenI2CBus;
+    private final SimulatedGT9110 touchscreenDriver;
+
+    /**
+     * Instantiates a new {@link SimulatedI2CHardware}.
+     *
+     * @param transactionLatencyNanos the latency in nanoseconds that each transfer on each {@link SimulatedI2CBus}
+     *                                takes
+     */
+    public SimulatedI2CHardware(long transactionLatencyNanos) {
+        i2cMultiplexer = new SimulatedTCA9544A((short) 0x70);
+        adcs = List.of(
+                new SimulatedNAU7802(ADC_BASELINE_INPUT_VALUE, ADC_NOISE_AMPLITUDE, 1),
+                new SimulatedNAU7802(ADC_BASELINE_INPUT_VALUE, ADC_NOISE_AMPLITUDE, 2),
+                new SimulatedNAU7802(ADC_BASELINE_INPUT_VALUE, ADC_NOISE_AMPLITUDE, 3),
+                new SimulatedNAU7802(ADC_BASELINE_INPUT_VALUE, ADC_NOISE_AMPLITUDE, 4));
+        for (int channel = 0; channel < adcs.size(); channel++) {
+            i2cMultiplexer.addDevice(channel, adcs.get(channel));
+        }
+        loadSurfaceI2CBus = new SimulatedI2CBus(LOAD_SURFACE_I2C_DEVICE_INDEX, transactionLatencyNanos)
+                .addDevice(i2cMultiplexer);
+
+        ioPortExpanders = List.of(
+                new SimulatedTCA9534((short) 0x20),
+                new SimulatedTCA9534((short) 0x21),
+                new SimulatedTCA9534((short) 0x22),
+                new SimulatedTCA9534((short) 0x23),
+                new SimulatedTCA9534((short) 0x24));
+        hapticMotorController = new SimulatedDRV2605L();
+        hapticsBoardI2CBus = new SimulatedI2CBus(HAPTICS_BOARD_I2C_DEVICE_INDEX, transactionLatencyNanos)
+                .addDevice(hapticMotorController);
+        ioPortExpanders.forEach(hapticsBoardI2CBus::addDevice);
+
+        touchscreenDriver = new SimulatedGT9110(TOUCHSCREEN_X_RESOLUTION, TOUCHSCREEN_Y_RESOLUTION);
+        touchscreenI2CBus = new SimulatedI2CBus(TOUCHSCREEN_I2C_DEVICE_INDEX, transactionLatencyNanos)
+                .addDevice(touchscreenDriver);
+    }
+
+    /**
+     * Starts the {@link SimulatedI2CBus} of the given I2C device index.
+     *
+     * @param i2cDeviceIndex the I2C linux sysfs device index (e.g. for "/dev/i2c-1" pass <code>1</code> here)
+     *
+     * @return the started {@link SimulatedI2CBus}
+     * @throws I2CException thrown if there is no {@link SimulatedI2CBus} for the given I2C device index
+     */
+    public SimulatedI2CBus startI2CBus(int i2cDeviceIndex) throws I2CException {
+        switch (i2cDeviceIndex) {
+            case LOAD_SURFACE_I2C_DEVICE_INDEX:
+                return loadSurfaceI2CBus.start();
+            case HAPTICS_BOARD_I2C_DEVICE_INDEX:
+                return hapticsBoardI2CBus.start();
+            case TOUCHSCREEN_I2C_DEVICE_INDEX:
+                return touchscreenI2CBus.start();
+            default:
+                throw new I2CException("Could not start I2C device!", ERRNO_ENOENT, NO_SLAVE_ADDRESS,
+                        NO_REGISTER_ADDRESS);
+        }
+    }
+
+    public SimulatedI2CBus getLoadSurfaceI2CBus() {
+        return loadSurfaceI2CBus;
+    }
+
+    public SimulatedTCA9544A getI2CMultiplexer() {
+        return i2cMultiplexer;
+    }
+
+    public List<SimulatedNAU7802> getADCs() {
+        return adcs;
+    }
+
+    public SimulatedI2CBus getHapticsBoardI2CBus() {
+        return hapticsBoardI2CBus;
+    }
+
+    public List<SimulatedTCA9534> getIOPortExpanders() {
+        return ioPortExpanders;
+    }
+
+    public SimulatedDRV2605L getHapticMotorController() {
+        return hapticMotorController;
+    }
+
+    public SimulatedI2CBus getTouchscreenI2CBus() {
+        return touchscreenI2CBus;
+    }
+
+    public SimulatedGT9110 getTouchscreenDriver() {
+        return touchscreenDriver;
+    }
+}
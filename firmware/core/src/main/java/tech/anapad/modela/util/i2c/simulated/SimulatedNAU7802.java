@@ -0,0 +1,256 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import static java.lang.Math.floorMod;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * {@link SimulatedNAU7802} is a {@link SimulatedI2CDevice} model of the NAU7802 24-bit ADC chip. Conversions complete
+ * at the conversion rate configured in the CRS bits once the chip is powered up and the CS bit is set, and the CR bit
+ * is set until the conversion result is read. Each conversion result is the configured input value plus deterministic
+ * pseudo-random noise. The internal clock of the chip can be made faster or slower than the host clock via
+ * {@link #setClockRate(double)} to simulate conversions that drift out of phase with the host.
+ */
+public class SimulatedNAU7802 extends AbstractSimulatedRegisterDevice {
+
+    private static final short NAU7802_I2C_ADDRESS = 0x2A;
+    private static final int REGISTER_PU_CONTROL = 0x00;
+    private static final int REGISTER_CONTROL_2 = 0x02;
+    private static final int REGISTER_RESULT_B2 = 0x12;
+    private static final int REGISTER_RESULT_B1 = 0x13;
+    private static final int REGISTER_RESULT_B0 = 0x14;
+    private static final int REGISTER_DEVICE_REVISION = 0x1F;
+    private static final int REGISTER_COUNT = 0x20;
+    private static final int PU_CONTROL_RR = 1 << 0;
+    private static final int PU_CONTROL_PUD = 1 << 1;
+    private static final int PU_CONTROL_PUA = 1 << 2;
+    private static final int PU_CONTROL_PUR = 1 << 3;
+    private static final int PU_CONTROL_CS = 1 << 4;
+    private static final int PU_CONTROL_CR = 1 << 5;
+    private static final int CONTROL_2_CALS = 1 << 2;
+    private static final int CONTROL_2_CAL_ERR = 1 << 3;
+    private static final int[] SAMPLES_PER_SECOND_OF_CRS = {10, 20, 40, 80, 80, 80, 80, 320};
+    private static final long POWER_UP_NANOS = MICROSECONDS.toNanos(200);
+    private static final int CALIBRATION_CONVERSIONS = 4;
+    private static final int RESULT_MIN_VALUE = -(1 << 23);
+    private static final int RESULT_MAX_VALUE = (1 << 23) - 1;
+
+    private final byte[] registers;
+    private final int noiseAmplitude;
+    private final long noiseSeed;
+
+    private volatile int inputValue;
+    private volatile double clockRate;
+    private long powerUpStartNanos;
+    private long cycleStartNanos;
+    private boolean cycleStarted;
+    private long lastReadConversion;
+    private long latchedConversion;
+    private int latchedResult;
+    private long calibrationEndNanos;
+
+    /**
+     * Instantiates a new {@link SimulatedNAU7802}.
+     *
+     * @param inputValue     the initial input value (see {@link #setInputValue(int)})
+     * @param noiseAmplitude the maximum absolute value of the noise added to each conversion result
+     * @param noiseSeed      the seed of the conversion result noise
+     */
+    public SimulatedNAU7802(int inputValue, int noiseAmplitude, long noiseSeed) {
+        super(NAU7802_I2C_ADDRESS, true);
+        this.inputValue = inputValue;
+        this.noiseAmplitude = noiseAmplitude;
+        this.noiseSeed = noiseSeed;
+        clockRate = 1;
+        registers = new byte[REGISTER_COUNT];
+        reset();
+    }
+
+    /**
+     * Resets all registers and state to their power-on values.
+     */
+    private void reset() {
+        for (int index = 0; index < REGISTER_COUNT; index++) {
+            registers[index] = 0;
+        }
+        registers[REGISTER_DEVICE_REVISION] = 0x0F;
+        cycleStarted = false;
+        lastReadConversion = 0;
+        latchedConversion = 0;
+        latchedResult = 0;
+    }
+
+    @Override
+    protected byte readRegister(int registerAddress) {
+        if (registerAddress >= REGISTER_COUNT) {
+            return 0;
+        }
+        final long nowNanos = nanoTime();
+        switch (registerAddress) {
+            case REGISTER_PU_CONTROL:
+                int puControl = registers[REGISTER_PU_CONTROL] & ~(PU_CONTROL_PUR | PU_CONTROL_CR);
+                if (isPoweredUp(nowNanos)) {
+                    puControl |= PU_CONTROL_PUR;
+                }
+                if (getConversionCount(nowNanos) > lastReadConversion) {
+                    puControl |= PU_CONTROL_CR;
+                }
+                return (byte) puControl;
+            case REGISTER_CONTROL_2:
+                if ((registers[REGISTER_CONTROL_2] & CONTROL_2_CALS) != 0 && nowNanos >= calibrationEndNanos) {
+                    registers[REGISTER_CONTROL_2] &= ~CONTROL_2_CALS;
+                }
+                return registers[REGISTER_CONTROL_2];
+            case REGISTER_RESULT_B2:
+                // Reading the result MSB latches the latest conversion for the subsequent result byte reads
+                latchedConversion = getConversionCount(nowNanos);
+                latchedResult = conversionResultOf(latchedConversion);
+                return (byte) (latchedResult >> 16);
+            case REGISTER_RESULT_B1:
+                return (byte) (latchedResult >> 8);
+            case REGISTER_RESULT_B0:
+                // Reading the result LSB clears CR
+                lastReadConversion = latchedConversion;
+                return (byte) latchedResult;
+            default:
+                return registers[registerAddress];
+        }
+    }
+
+    @Override
+    protected void writeRegister(int registerAddress, byte registerData) {
+        if (registerAddress >= REGISTER_COUNT) {
+            return;
+        }
+        final long nowNanos = nanoTime();
+        switch (registerAddress) {
+            case REGISTER_PU_CONTROL:
+                if ((registerData & PU_CONTROL_RR) != 0) {
+                    reset();
+                    registers[REGISTER_PU_CONTROL] = PU_CONTROL_RR;
+                    return;
+                }
+                final boolean wasPowered = isPowerEnabled();
+                registers[REGISTER_PU_CONTROL] = (byte) (registerData & ~(PU_CONTROL_PUR | PU_CONTROL_CR));
+                if (!wasPowered && isPowerEnabled()) {
+                    powerUpStartNanos = nowNanos;
+                }
+                if ((registerData & PU_CONTROL_CS) != 0) {
+                    startCycle(nowNanos);
+                } else {
+                    cycleStarted = false;
+                }
+                break;
+            case REGISTER_CONTROL_2:
+                final int previousCRS = getCRS();
+                final int calibrationError = registers[REGISTER_CONTROL_2] & CONTROL_2_CAL_ERR;
+                registers[REGISTER_CONTROL_2] = (byte) ((registerData & ~CONTROL_2_CAL_ERR) | calibrationError);
+                if ((registerData & CONTROL_2_CALS) != 0) {
+                    registers[REGISTER_CONTROL_2] &= ~CONTROL_2_CAL_ERR;
+                    calibrationEndNanos = nowNanos + CALIBRATION_CONVERSIONS * getConversionPeriodNanos();
+                }
+                if (cycleStarted && previousCRS != getCRS()) {
+                    startCycle(nowNanos);
+                }
+                break;
+            case REGISTER_RESULT_B2:
+            case REGISTER_RESULT_B1:
+            case REGISTER_RESULT_B0:
+            case REGISTER_DEVICE_REVISION:
+                break; // Read-only
+            default:
+                registers[registerAddress] = registerData;
+        }
+    }
+
+    /**
+     * Starts the conversion cycle at the given time.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    private void startCycle(long nowNanos) {
+        cycleStarted = true;
+        cycleStartNanos = nowNanos;
+        lastReadConversion = 0;
+        latchedConversion = 0;
+    }
+
+    /**
+     * Gets the number of conversions that have completed since the conversion cycle started.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     *
+     * @return the conversion count
+     */
+    private long getConversionCount(long nowNanos) {
+        if (!cycleStarted || !isPoweredUp(nowNanos)) {
+            return lastReadConversion;
+        }
+        return (long) ((nowNanos - cycleStartNanos) * clockRate) / getConversionPeriodNanos();
+    }
+
+    /**
+     * Gets the conversion result of the given conversion.
+     *
+     * @param conversion the conversion number
+     *
+     * @return the signed 24-bit conversion result
+     */
+    private int conversionResultOf(long conversion) {
+        long hash = (conversion + noiseSeed) * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        final int noise = noiseAmplitude == 0 ? 0 : (int) floorMod(hash, 2L * noiseAmplitude + 1) - noiseAmplitude;
+        return (int) Math.max(RESULT_MIN_VALUE, Math.min(RESULT_MAX_VALUE, (long) inputValue + noise));
+    }
+
+    private boolean isPowerEnabled() {
+        final int puControl = registers[REGISTER_PU_CONTROL];
+        return (puControl & PU_CONTROL_PUD) != 0 && (puControl & PU_CONTROL_PUA) != 0;
+    }
+
+    private boolean isPoweredUp(long nowNanos) {
+        return isPowerEnabled() && nowNanos - powerUpStartNanos >= POWER_UP_NANOS;
+    }
+
+    private int getCRS() {
+        return (registers[REGISTER_CONTROL_2] >> 4) & 0b111;
+    }
+
+    /**
+     * Gets the conversion period of the configured CRS.
+     *
+     * @return the conversion period in nanoseconds
+     */
+    public long getConversionPeriodNanos() {
+        return SECONDS.toNanos(1) / SAMPLES_PER_SECOND_OF_CRS[getCRS()];
+    }
+
+    public int getInputValue() {
+        return inputValue;
+    }
+
+    /**
+     * Sets the input value that conversion results are based on (e.g. the baseline of a load surface Wheatstone
+     * bridge plus the force applied to it).
+     *
+     * @param inputValue the signed 24-bit input value
+     */
+    public void setInputValue(int inputValue) {
+        this.inputValue = inputValue;
+    }
+
+    public double getClockRate() {
+        return clockRate;
+    }
+
+    /**
+     * Sets the rate of the internal clock of this {@link SimulatedNAU7802} relative to the host clock, which affects
+     * the time of each conversion after the conversion cycle start.
+     *
+     * @param clockRate the clock rate (e.g. <code>1.01</code> for conversions that complete 1% faster than nominal)
+     */
+    public void setClockRate(double clockRate) {
+        this.clockRate = clockRate;
+    }
+}
@@ -0,0 +1,60 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+/**
+ * {@link SimulatedTCA9534} is a {@link SimulatedI2CDevice} model of the TCA9534 8-bit IO port expander chip. The
+ * output port register latches the written output levels, which are driven on the pins that are configured as
+ * outputs.
+ */
+public class SimulatedTCA9534 extends AbstractSimulatedRegisterDevice {
+
+    private static final int REGISTER_INPUT_PORT = 0x00;
+    private static final int REGISTER_OUTPUT_PORT = 0x01;
+    private static final int REGISTER_POLARITY_INVERSION = 0x02;
+    private static final int REGISTER_CONFIGURATION = 0x03;
+
+    private final byte[] registers;
+
+    /**
+     * Instantiates a new {@link SimulatedTCA9534}.
+     *
+     * @param address the slave address
+     */
+    public SimulatedTCA9534(short address) {
+        super(address, true);
+        registers = new byte[]{0x00, (byte) 0xFF, 0x00, (byte) 0xFF}; // Power-on values
+    }
+
+    @Override
+    protected byte readRegister(int registerAddress) {
+        if (registerAddress == REGISTER_INPUT_PORT) {
+            // Output pins read back the output latch, unconnected input pins read low
+            final int outputPins = ~registers[REGISTER_CONFIGURATION];
+            return (byte) ((registers[REGISTER_OUTPUT_PORT] & outputPins) ^ registers[REGISTER_POLARITY_INVERSION]);
+        }
+        return registerAddress < registers.length ? registers[registerAddress] : 0;
+    }
+
+    @Override
+    protected void writeRegister(int registerAddress, byte registerData) {
+        if (registerAddress != REGISTER_INPUT_PORT && registerAddress < registers.length) {
+            registers[registerAddress] = registerData;
+        }
+    }
+
+    /**
+     * Gets the levels of the output pins.
+     *
+     * @return the output levels byte, where pins configured as inputs are <code>0</code>
+     */
+    public byte getOutputLevels() {
+        return (byte) (registers[REGISTER_OUTPUT_PORT] & ~registers[REGISTER_CONFIGURATION]);
+    }
+
+    public byte getOutputPortRegister() {
+        return registers[REGISTER_OUTPUT_PORT];
+    }
+
+    public byte getConfigurationRegister() {
+        return registers[REGISTER_CONFIGURATION];
+    }
+}
@@ -0,0 +1,100 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link SimulatedTCA9544A} is a {@link SimulatedI2CDevice} model of the TCA9544A 4-channel I2C multiplexer chip. A
+ * written control register byte only becomes active upon the stop condition of the transfer it was written in, so
+ * messages in the same transfer that follow the control register write are still routed to the previously active
+ * channel.
+ */
+public class SimulatedTCA9544A implements SimulatedI2CDevice {
+
+    private static final int CHANNEL_COUNT = 4;
+    private static final int ADDRESS_COUNT = 128;
+    private static final int CONTROL_REGISTER_ENABLE_BIT = 0b100;
+    private static final int CONTROL_REGISTER_CHANNEL_MASK = 0b011;
+
+    private final short address;
+    private final SimulatedI2CDevice[][] devicesOfChannels;
+
+    private byte controlRegister;
+    private byte pendingControlRegister;
+    private boolean controlRegisterPending;
+
+    /**
+     * Instantiates a new {@link SimulatedTCA9544A}.
+     *
+     * @param address the slave address
+     */
+    public SimulatedTCA9544A(short address) {
+        this.address = address;
+        devicesOfChannels = new SimulatedI2CDevice[CHANNEL_COUNT][ADDRESS_COUNT];
+        controlRegister = 0;
+        controlRegisterPending = false;
+    }
+
+    /**
+     * Attaches a {@link SimulatedI2CDevice} to a downstream channel of this {@link SimulatedTCA9544A}.
+     *
+     * @param channel the channel index (0 - 3)
+     * @param device  the {@link SimulatedI2CDevice}
+     *
+     * @return this {@link SimulatedTCA9544A}
+     */
+    public SimulatedTCA9544A addDevice(int channel, SimulatedI2CDevice device) {
+        devicesOfChannels[channel][device.getAddress()] = device;
+        return this;
+    }
+
+    /**
+     * Gets the {@link SimulatedI2CDevice} with the given slave address on the active channel.
+     *
+     * @param slaveAddress the slave address
+     *
+     * @return the {@link SimulatedI2CDevice} or <code>null</code> if no channel is active or there is no such device
+     * on the active channel
+     */
+    public SimulatedI2CDevice getActiveChannelDevice(short slaveAddress) {
+        final int activeChannel = getActiveChannel();
+        return activeChannel == -1 ? null : devicesOfChannels[activeChannel][slaveAddress];
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, int length) {
+        if (length > 0) {
+            pendingControlRegister = buffer.get(offset + length - 1);
+            controlRegisterPending = true;
+        }
+    }
+
+    @Override
+    public void read(ByteBuffer buffer, int offset, int length) {
+        for (int index = 0; index < length; index++) {
+            buffer.put(offset + index, controlRegister);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (controlRegisterPending) {
+            controlRegister = pendingControlRegister;
+            controlRegisterPending = false;
+        }
+    }
+
+    /**
+     * Gets the active channel.
+     *
+     * @return the active channel index (0 - 3) or <code>-1</code> if no channel is active
+     */
+    public int getActiveChannel() {
+        return (controlRegister & CONTROL_REGISTER_ENABLE_BIT) == 0 ? -1 :
+                controlRegister & CONTROL_REGISTER_CHANNEL_MASK;
+    }
+
+    @Override
+    public short getAddress() {
+        return address;
+    }
+}
@@ -0,0 +1,100 @@
+package tech.anapad.modela.util.i2c.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link I2CLatencyHistogram} is an allocation-free, thread-safe histogram of I2C request latencies with power of two
+ * nanosecond buckets (i.e. bucket <code>n</code> counts latencies in <code>[2^(n-1), 2^n)</code> nanoseconds).
+ */
+public class I2CLatencyHistogram {
+
+    /**
+     * The number of buckets, which covers latencies of up to about 9 minutes.
+     */
+    public static final int BUCKET_COUNT = 40;
+
+    private final AtomicLongArray bucketCounts;
+    private final AtomicLong count;
+    private final AtomicLong totalNanos;
+    private final AtomicLong maxNanos;
+    private final AtomicLong errorCount;
+
+    /**
+     * Instantiates a new {@link I2CLatencyHistogram}.
+     */
+    public I2CLatencyHistogram() {
+        bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+        count = new AtomicLong();
+        totalNanos = new AtomicLong();
+        maxNanos = new AtomicLong();
+        errorCount = new AtomicLong();
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param latencyNanos the latency in nanoseconds
+     * @param failed       <code>true</code> if the request failed, <code>false</code> otherwise
+     */
+    public void record(long latencyNanos, boolean failed) {
+        final long clampedLatencyNanos = Math.max(0, latencyNanos);
+        bucketCounts.incrementAndGet(bucketOf(clampedLatencyNanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(clampedLatencyNanos);
+        maxNanos.accumulateAndGet(clampedLatencyNanos, Math::max);
+        if (failed) {
+            errorCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the upper bound of the bucket that contains the given percentile of the recorded latencies.
+     *
+     * @param percentile the percentile (<code>0.0</code> - <code>1.0</code>)
+     *
+     * @return the latency upper bound in nanoseconds or <code>0</code> if nothing was recorded
+     */
+    public long getPercentileUpperBoundNanos(double percentile) {
+        final long targetCount = (long) Math.ceil(percentile * count.get());
+        long cumulativeCount = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            cumulativeCount += bucketCounts.get(bucket);
+            if (cumulativeCount >= targetCount && cumulativeCount > 0) {
+                return bucket == BUCKET_COUNT - 1 ? maxNanos.get() : 1L << bucket;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the bucket of the given latency.
+     *
+     * @param latencyNanos the non-negative latency in nanoseconds
+     *
+     * @return the bucket index
+     */
+    private static int bucketOf(long latencyNanos) {
+        return Math.min(BUCKET_COUNT - 1, Long.SIZE - Long.numberOfLeadingZeros(latencyNanos));
+    }
+
+    public long getBucketCount(int bucket) {
+        return bucketCounts.get(bucket);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+}
@@ -0,0 +1,39 @@
+package tech.anapad.modela.util.i2c.trace;
+
+import tech.anapad.modela.util.i2c.I2CBus;
+
+/**
+ * {@link I2COperation} is the {@link I2CBus} operation of a traced I2C request.
+ */
+public enum I2COperation {
+
+    WRITE_BYTE(Direction.WRITE),
+    WRITE_REGISTER_BYTE(Direction.WRITE),
+    WRITE_REGISTER_BYTES(Direction.WRITE),
+    READ_BYTE(Direction.READ),
+    READ_REGISTER_BYTE(Direction.READ),
+    READ_REGISTER_BYTES(Direction.READ),
+    TRANSFER(Direction.COMBINED);
+
+    private final Direction direction;
+
+    I2COperation(Direction direction) {
+        this.direction = direction;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * {@link Direction} is the data direction of an {@link I2COperation}.
+     */
+    public enum Direction {
+        WRITE,
+        READ,
+        /**
+         * A combined transfer of write and/or read messages.
+         */
+        COMBINED
+    }
+}
@@ -0,0 +1,348 @@
+package tech.anapad.modela.util.i2c.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.util.i2c.I2CBus;
+import tech.anapad.modela.util.i2c.I2CException;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static tech.anapad.modela.util.i2c.I2CException.NO_REGISTER_ADDRESS;
+import static tech.anapad.modela.util.i2c.trace.I2COperation.READ_BYTE;
+import static tech.anapad.modela.util.i2c.trace.I2COperation.READ_REGISTER_BYTE;
+import static tech.anapad.modela.util.i2c.trace.I2COperation.READ_REGISTER_BYTES;
+import static tech.anapad.modela.util.i2c.trace.I2COperation.TRANSFER;
+import static tech.anapad.modela.util.i2c.trace.I2COperation.WRITE_BYTE;
+import static tech.anapad.modela.util.i2c.trace.I2COperation.WRITE_REGISTER_BYTE;
+import static tech.anapad.modela.util.i2c.trace.I2COperation.WRITE_REGISTER_BYTES;
+
+/**
+ * {@link TracingI2CBus} is an {@link I2CBus} decorator that traces every request to the decorated {@link I2CBus}. The
+ * slave address, register address, data length, {@link I2COperation}, monotonic start and end nanoseconds, and the
+ * <code>errno</code> of each request are recorded into a preallocated ring buffer, and the latency of each request is
+ * recorded into an {@link I2CLatencyHistogram} per slave address and {@link I2COperation}. Recording doesn't allocate
+ * (except for the first request of a slave address and {@link I2COperation}) and doesn't block, so the trace of
+ * concurrent requests is best-effort. A combined transfer is traced as one {@link I2COperation#TRANSFER} request of
+ * the slave address of its first message.
+ */
+public class TracingI2CBus implements I2CBus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TracingI2CBus.class);
+    private static final int ADDRESS_COUNT = 128;
+    private static final I2COperation[] OPERATIONS = I2COperation.values();
+    private static final int STOP_DUMP_RECENT_REQUEST_COUNT = 64;
+
+    /**
+     * The <code>errno</code> of a traced request that succeeded.
+     */
+    public static final int ERRNO_NONE = 0;
+
+    /**
+     * The <code>errno</code> of a traced request that failed with an {@link Exception} other than an
+     * {@link I2CException}.
+     */
+    public static final int ERRNO_UNKNOWN = -1;
+
+    private final I2CBus i2cBus;
+    private final int capacityMask;
+    private final long[] sequences;
+    private final short[] slaveAddresses;
+    private final int[] registerAddresses;
+    private final int[] lengths;
+    private final I2COperation[] operations;
+    private final long[] startNanos;
+    private final long[] endNanos;
+    private final int[] errorNumbers;
+    private final AtomicLong nextSequence;
+    private final AtomicReferenceArray<I2CLatencyHistogram> histograms;
+    private final long traceStartNanos;
+
+    /**
+     * Instantiates a new {@link TracingI2CBus}.
+     *
+     * @param i2cBus   the {@link I2CBus} to trace
+     * @param capacity the ring buffer capacity (a power of two)
+     */
+    public TracingI2CBus(I2CBus i2cBus, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("I2C trace capacity must be a power of two!");
+        }
+        this.i2cBus = i2cBus;
+        capacityMask = capacity - 1;
+        sequences = new long[capacity];
+        slaveAddresses = new short[capacity];
+        registerAddresses = new int[capacity];
+        lengths = new int[capacity];
+        operations = new I2COperation[capacity];
+        startNanos = new long[capacity];
+        endNanos = new long[capacity];
+        errorNumbers = new int[capacity];
+        nextSequence = new AtomicLong(1);
+        histograms = new AtomicReferenceArray<>(ADDRESS_COUNT * OPERATIONS.length);
+        traceStartNanos = nanoTime();
+    }
+
+    /**
+     * Records a traced request.
+     *
+     * @param operation       the {@link I2COperation}
+     * @param slaveAddress    the slave address
+     * @param registerAddress the register address or {@link I2CException#NO_REGISTER_ADDRESS}
+     * @param length          the data length
+     * @param requestStart    the {@link System#nanoTime()} that the request started
+     * @param exception       the {@link Exception} that the request failed with or <code>null</code>
+     */
+    private void record(I2COperation operation, short slaveAddress, int registerAddress, int length,
+            long requestStart, Exception exception) {
+        final long requestEnd = nanoTime();
+        final int errorNumber = exception == null ? ERRNO_NONE :
+                exception instanceof I2CException ? ((I2CException) exception).getErrorNumber() : ERRNO_UNKNOWN;
+
+        final long sequence = nextSequence.getAndIncrement();
+        final int index = (int) (sequence & capacityMask);
+        sequences[index] = 0; // Marks the entry as being written
+        slaveAddresses[index] = slaveAddress;
+        registerAddresses[index] = registerAddress;
+        lengths[index] = length;
+        operations[index] = operation;
+        startNanos[index] = requestStart;
+        endNanos[index] = requestEnd;
+        errorNumbers[index] = errorNumber;
+        sequences[index] = sequence;
+
+        getHistogram(slaveAddress, operation).record(requestEnd - requestStart, exception != null);
+    }
+
+    /**
+     * Gets the {@link I2CLatencyHistogram} of the given slave address and {@link I2COperation}, which is created on
+     * first use.
+     *
+     * @param slaveAddress the slave address
+     * @param operation    the {@link I2COperation}
+     *
+     * @return the {@link I2CLatencyHistogram}
+     */
+    public I2CLatencyHistogram getHistogram(short slaveAddress, I2COperation operation) {
+        final int index = (slaveAddress & (ADDRESS_COUNT - 1)) * OPERATIONS.length + operation.ordinal();
+        I2CLatencyHistogram histogram = histograms.get(index);
+        if (histogram == null) {
+            histograms.compareAndSet(index, null, new I2CLatencyHistogram());
+            histogram = histograms.get(index);
+        }
+        return histogram;
+    }
+
+    /**
+     * Logs the {@link I2CLatencyHistogram}s and the given number of the most recent traced requests.
+     *
+     * @param recentRequestCount the number of the most recent traced requests to log
+     */
+    public void dump(int recentRequestCount) {
+        final long tracedNanos = nanoTime() - traceStartNanos;
+        long totalBusNanos = 0;
+        for (int index = 0; index < histograms.length(); index++) {
+            final I2CLatencyHistogram histogram = histograms.get(index);
+            if (histogram != null) {
+                totalBusNanos += histogram.getTotalNanos();
+            }
+        }
+        LOGGER.info("I2C-{} trace: {} requests, {} ms bus time in {} ms", i2cBus.getDeviceIndex(),
+                nextSequence.get() - 1, NANOSECONDS.toMillis(totalBusNanos), NANOSECONDS.toMillis(tracedNanos));
+
+        for (int index = 0; index < histograms.length(); index++) {
+            final I2CLatencyHistogram histogram = histograms.get(index);
+            if (histogram == null || histogram.getCount() == 0) {
+                continue;
+            }
+            LOGGER.info("I2C-{} 0x{} {}: count={}, errors={}, bus time={}%, mean={} us, p50<{} us, p99<{} us, " +
+                            "max={} us", i2cBus.getDeviceIndex(),
+                    String.format("%02X", index / OPERATIONS.length), OPERATIONS[index % OPERATIONS.length],
+                    histogram.getCount(), histogram.getErrorCount(),
+                    String.format("%.1f", totalBusNanos == 0 ? 0 : histogram.getTotalNanos() * 100.0 / totalBusNanos),
+                    String.format("%.1f", histogram.getTotalNanos() / 1000.0 / histogram.getCount()),
+                    String.format("%.1f", histogram.getPercentileUpperBoundNanos(0.5) / 1000.0),
+                    String.format("%.1f", histogram.getPercentileUpperBoundNanos(0.99) / 1000.0),
+                    String.format("%.1f", histogram.getMaxNanos() / 1000.0));
+        }
+
+        final long lastSequence = nextSequence.get() - 1;
+        final long firstSequence = Math.max(1, lastSequence - Math.min(recentRequestCount, capacityMask + 1) + 1);
+        for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+            final int index = (int) (sequence & capacityMask);
+            if (sequences[index] != sequence) {
+                continue; // Overwritten or still being written
+            }
+            LOGGER.info("I2C-{} #{}: {} 0x{}{}, length={}, start={} us, duration={} us, errno={}",
+                    i2cBus.getDeviceIndex(), sequence, operations[index],
+                    String.format("%02X", slaveAddresses[index]),
+                    registerAddresses[index] == NO_REGISTER_ADDRESS ? "" :
+                            String.format(" register 0x%02X", registerAddresses[index]),
+                    lengths[index], NANOSECONDS.toMicros(startNanos[index] - traceStartNanos),
+                    NANOSECONDS.toMicros(endNanos[index] - startNanos[index]), errorNumbers[index]);
+        }
+    }
+
+    @Override
+    public int getDeviceIndex() {
+        return i2cBus.getDeviceIndex();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This also calls {@link #dump(int)} so the trace is logged before the {@link I2CBus} is stopped.
+     */
+    @Override
+    public void stop() throws Exception {
+        dump(STOP_DUMP_RECENT_REQUEST_COUNT);
+        i2cBus.stop();
+    }
+
+    @Override
+    public void writeByte(short slaveAddress, byte data) throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            i2cBus.writeByte(slaveAddress, data);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            record(WRITE_BYTE, slaveAddress, NO_REGISTER_ADDRESS, 1, requestStart, requestException);
+        }
+    }
+
+    @Override
+    public void writeRegisterByte(short slaveAddress, short registerAddress, byte registerData,
+            boolean is8BitRegisterAddress) throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            i2cBus.writeRegisterByte(slaveAddress, registerAddress, registerData, is8BitRegisterAddress);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            record(WRITE_REGISTER_BYTE, slaveAddress, registerAddress, 1, requestStart, requestException);
+        }
+    }
+
+    @Override
+    public void writeRegisterBytes(short slaveAddress, short registerAddress, byte[] registerData,
+            boolean is8BitRegisterAddress) throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            i2cBus.writeRegisterBytes(slaveAddress, registerAddress, registerData, is8BitRegisterAddress);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            record(WRITE_REGISTER_BYTES, slaveAddress, registerAddress, registerData.length, requestStart,
+                    requestException);
+        }
+    }
+
+    @Override
+    public void writeRegisterBytesDirect(short slaveAddress, short registerAddress, ByteBuffer buffer, int offset,
+            int length, boolean is8BitRegisterAddress) throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            i2cBus.writeRegisterBytesDirect(slaveAddress, registerAddress, buffer, offset, length,
+                    is8BitRegisterAddress);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            record(WRITE_REGISTER_BYTES, slaveAddress, registerAddress, length, requestStart, requestException);
+        }
+    }
+
+    @Override
+    public byte readByte(short slaveAddress) throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            return i2cBus.readByte(slaveAddress);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            record(READ_BYTE, slaveAddress, NO_REGISTER_ADDRESS, 1, requestStart, requestException);
+        }
+    }
+
+    @Override
+    public byte readRegisterByte(short slaveAddress, short registerAddress, boolean is8BitRegisterAddress)
+            throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            return i2cBus.readRegisterByte(slaveAddress, registerAddress, is8BitRegisterAddress);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            record(READ_REGISTER_BYTE, slaveAddress, registerAddress, 1, requestStart, requestException);
+        }
+    }
+
+    @Override
+    public byte[] readRegisterBytes(short slaveAddress, short registerAddress, int readSize,
+            boolean is8BitRegisterAddress) throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            return i2cBus.readRegisterBytes(slaveAddress, registerAddress, readSize, is8BitRegisterAddress);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            record(READ_REGISTER_BYTES, slaveAddress, registerAddress, readSize, requestStart, requestException);
+        }
+    }
+
+    @Override
+    public void readRegisterBytesDirect(short slaveAddress, short registerAddress, ByteBuffer buffer, int offset,
+            int readSize, boolean is8BitRegisterAddress) throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            i2cBus.readRegisterBytesDirect(slaveAddress, registerAddress, buffer, offset, readSize,
+                    is8BitRegisterAddress);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            record(READ_REGISTER_BYTES, slaveAddress, registerAddress, readSize, requestStart, requestException);
+        }
+    }
+
+    @Override
+    public void transfer(short[] slaveAddresses, short[] flags, short[] lengths, int messageCount, ByteBuffer buffer)
+            throws Exception {
+        final long requestStart = nanoTime();
+        Exception requestException = null;
+        try {
+            i2cBus.transfer(slaveAddresses, flags, lengths, messageCount, buffer);
+        } catch (Exception exception) {
+            throw requestException = exception;
+        } finally {
+            int length = 0;
+            for (int index = 0; index < messageCount; index++) {
+                length += lengths[index];
+            }
+            record(TRANSFER, messageCount > 0 ? slaveAddresses[0] : 0, NO_REGISTER_ADDRESS, length, requestStart,
+                    requestException);
+        }
+    }
+
+    public I2CBus getI2CBus() {
+        return i2cBus;
+    }
+
+    public int getCapacity() {
+        return capacityMask + 1;
+    }
+
+    public long getRequestCount() {
+        return nextSequence.get() - 1;
+    }
+}
@@ -0,0 +1,240 @@
+package tech.anapad.modela.util.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.util.exception.ExceptionRunnable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * {@link StartupOrchestrator} starts {@link StartupPhase}s concurrently, where each {@link StartupPhase} only waits for
+ * the {@link StartupPhase}s that it depends on, and stops them in reverse. {@link StartupPhase}s must be added after
+ * their dependencies, so the order of addition is a dependency order, which also rules out dependency cycles. The
+ * timing of each {@link StartupPhase} is logged so that startup time can be tracked.
+ */
+public class StartupOrchestrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupOrchestrator.class);
+
+    private final boolean concurrent;
+    private final List<StartupPhase> phases;
+    private final Map<String, StartupPhase> phasesOfNames;
+
+    /**
+     * Instantiates a new {@link StartupOrchestrator}.
+     *
+     * @param concurrent <code>true</code> to start independent {@link StartupPhase}s concurrently, <code>false</code>
+     *                   to start all {@link StartupPhase}s one after another on the calling thread in the order of
+     *                   addition
+     */
+    public StartupOrchestrator(boolean concurrent) {
+        this.concurrent = concurrent;
+        phases = new ArrayList<>();
+        phasesOfNames = new HashMap<>();
+    }
+
+    /**
+     * Adds a {@link StartupPhase} that is started on a startup thread.
+     *
+     * @param name            the unique name
+     * @param starter         the {@link ExceptionRunnable} that starts the {@link StartupPhase}
+     * @param stopper         the {@link ExceptionRunnable} that stops the {@link StartupPhase}
+     * @param dependencyNames the names of the already added {@link StartupPhase}s that must be started first
+     *
+     * @return the added {@link StartupPhase}
+     */
+    public StartupPhase addPhase(String name, ExceptionRunnable starter, ExceptionRunnable stopper,
+            String... dependencyNames) {
+        return addPhase(name, starter, stopper, false, dependencyNames);
+    }
+
+    /**
+     * Adds a {@link StartupPhase} that is started on the thread that calls {@link #start()} (e.g. a phase that must
+     * run on the JavaFX application thread).
+     *
+     * @param name            the unique name
+     * @param starter         the {@link ExceptionRunnable} that starts the {@link StartupPhase}
+     * @param stopper         the {@link ExceptionRunnable} that stops the {@link StartupPhase}
+     * @param dependencyNames the names of the already added {@link StartupPhase}s that must be started first
+     *
+     * @return the added {@link StartupPhase}
+     */
+    public StartupPhase addCallingThreadPhase(String name, ExceptionRunnable starter, ExceptionRunnable stopper,
+            String... dependencyNames) {
+        return addPhase(name, starter, stopper, true, dependencyNames);
+    }
+
+    private StartupPhase addPhase(String name, ExceptionRunnable starter, ExceptionRunnable stopper,
+            boolean onCallingThread, String... dependencyNames) {
+        checkArgument(!phasesOfNames.containsKey(name), "Startup phase \"%s\" was already added!", name);
+        final List<StartupPhase> dependencies = new ArrayList<>();
+        for (String dependencyName : dependencyNames) {
+            final StartupPhase dependency = phasesOfNames.get(dependencyName);
+            checkArgument(dependency != null, "Dependency \"%s\" of startup phase \"%s\" must be added before it!",
+                    dependencyName, name);
+            dependencies.add(dependency);
+        }
+        final StartupPhase phase = new StartupPhase(name, starter, stopper, onCallingThread,
+                unmodifiableList(dependencies));
+        phases.add(phase);
+        phasesOfNames.put(name, phase);
+        return phase;
+    }
+
+    /**
+     * Starts the {@link StartupPhase}s and blocks until all of them have ended. If a {@link StartupPhase} throws, the
+     * {@link StartupPhase}s that depend on it are skipped, the other {@link StartupPhase}s still run to completion so
+     * that none is left running, and the {@link Exception} of the first failed {@link StartupPhase} is thrown. Call
+     * {@link #stop()} afterwards in either case.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    public void start() throws Exception {
+        LOGGER.info("Starting {} startup phases {}...", phases.size(), concurrent ? "concurrently" : "serially");
+        final long startNanos = nanoTime();
+
+        final ExecutorService executor = concurrent ? newCachedThreadPool(runnable ->
+                new Thread(runnable, "Startup Thread")) : null;
+        final Map<StartupPhase, CompletableFuture<Void>> futuresOfPhases = new HashMap<>();
+        try {
+            for (StartupPhase phase : phases) {
+                if (executor == null || phase.isOnCallingThread()) {
+                    // Completed by the calling thread below
+                    futuresOfPhases.put(phase, new CompletableFuture<>());
+                } else {
+                    futuresOfPhases.put(phase, allOfDependencies(phase, futuresOfPhases)
+                            .thenRunAsync(() -> startPhase(phase, startNanos), executor));
+                }
+            }
+
+            // The calling thread phases are started in the order of addition, so the calling thread phases that they
+            // depend on were already started
+            for (StartupPhase phase : phases) {
+                if (executor != null && !phase.isOnCallingThread()) {
+                    continue;
+                }
+                final CompletableFuture<Void> future = futuresOfPhases.get(phase);
+                try {
+                    allOfDependencies(phase, futuresOfPhases).join();
+                    startPhase(phase, startNanos);
+                    future.complete(null);
+                } catch (CompletionException exception) {
+                    future.completeExceptionally(exception);
+                }
+            }
+
+            // Wait for the phases that are still running, even if another phase failed
+            allOf(futuresOfPhases.values().toArray(new CompletableFuture<?>[0])).handle((ignored, throwable) -> null)
+                    .join();
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+
+        Throwable firstThrowable = null;
+        long summedPhaseNanos = 0;
+        for (StartupPhase phase : phases) {
+            final Throwable throwable = futuresOfPhases.get(phase).handle((ignored, thrown) -> thrown).join();
+            if (phase.wasAttempted()) {
+                summedPhaseNanos += phase.getEndNanos() - phase.getStartNanos();
+            } else if (throwable != null) {
+                LOGGER.error("Skipped startup phase {} because a startup phase that it depends on failed.",
+                        phase.getName());
+            }
+            if (firstThrowable == null && throwable != null) {
+                // A skipped phase has the throwable of its dependency, which comes first in the order of addition
+                firstThrowable = throwable;
+            }
+        }
+        if (firstThrowable != null) {
+            while (firstThrowable instanceof CompletionException && firstThrowable.getCause() != null) {
+                firstThrowable = firstThrowable.getCause();
+            }
+            if (firstThrowable instanceof Exception) {
+                throw (Exception) firstThrowable;
+            }
+            throw (Error) firstThrowable;
+        }
+        LOGGER.info("Started {} startup phases in {} ms (the phases took {} ms in sum).", phases.size(),
+                NANOSECONDS.toMillis(nanoTime() - startNanos), NANOSECONDS.toMillis(summedPhaseNanos));
+    }
+
+    /**
+     * Gets a {@link CompletableFuture} that completes when all dependencies of the given {@link StartupPhase} have
+     * been started, or completes exceptionally if one of them failed.
+     *
+     * @param phase           the {@link StartupPhase}
+     * @param futuresOfPhases the {@link CompletableFuture}s of the already scheduled {@link StartupPhase}s
+     *
+     * @return the {@link CompletableFuture}
+     */
+    private CompletableFuture<Void> allOfDependencies(StartupPhase phase,
+            Map<StartupPhase, CompletableFuture<Void>> futuresOfPhases) {
+        return allOf(phase.getDependencies().stream()
+                .map(futuresOfPhases::get)
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * Starts the given {@link StartupPhase} on the current thread and logs its timing.
+     *
+     * @param phase      the {@link StartupPhase}
+     * @param startNanos the {@link System#nanoTime()} at which {@link #start()} was called
+     *
+     * @throws CompletionException thrown for {@link Exception}s of the {@link StartupPhase}
+     */
+    private void startPhase(StartupPhase phase, long startNanos) {
+        LOGGER.info("Starting startup phase {}...", phase.getName());
+        try {
+            phase.start();
+        } catch (Exception exception) {
+            LOGGER.error("Startup phase {} failed after {} ms.", phase.getName(),
+                    NANOSECONDS.toMillis(phase.getEndNanos() - phase.getStartNanos()));
+            throw new CompletionException(exception);
+        }
+        LOGGER.info("Started startup phase {} in {} ms (from {} ms to {} ms into startup).",
+                phase.getName(), NANOSECONDS.toMillis(phase.getEndNanos() - phase.getStartNanos()),
+                NANOSECONDS.toMillis(phase.getStartNanos() - startNanos),
+                NANOSECONDS.toMillis(phase.getEndNanos() - startNanos));
+    }
+
+    /**
+     * Stops the {@link StartupPhase}s whose start was attempted, including failed ones so that partially started
+     * resources are released. The {@link StartupPhase}s are stopped one after another in the reverse order of
+     * addition, so each {@link StartupPhase} is stopped after all {@link StartupPhase}s that depend on it.
+     */
+    public void stop() {
+        for (int index = phases.size() - 1; index >= 0; index--) {
+            final StartupPhase phase = phases.get(index);
+            if (!phase.wasAttempted()) {
+                continue;
+            }
+            final long stopStartNanos = nanoTime();
+            try {
+                phase.stop();
+                LOGGER.info("Stopped startup phase {} in {} ms.", phase.getName(),
+                        NANOSECONDS.toMillis(nanoTime() - stopStartNanos));
+            } catch (Exception exception) {
+                LOGGER.error("Error stopping {}!", phase.getName(), exception);
+            }
+        }
+    }
+
+    public List<StartupPhase> getPhases() {
+        return unmodifiableList(phases);
+    }
+}
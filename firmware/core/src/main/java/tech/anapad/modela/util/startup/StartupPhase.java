@@ -0,0 +1,89 @@
+package tech.anapad.modela.util.startup;
+
+import tech.anapad.modela.util.exception.ExceptionRunnable;
+
+import java.util.List;
+
+/**
+ * {@link StartupPhase} is a named step of a {@link StartupOrchestrator} (e.g. starting a controller) with the
+ * {@link StartupPhase}s that it depends on.
+ */
+public class StartupPhase {
+
+    private final String name;
+    private final ExceptionRunnable starter;
+    private final ExceptionRunnable stopper;
+    private final boolean onCallingThread;
+    private final List<StartupPhase> dependencies;
+
+    private volatile boolean attempted;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * Instantiates a new {@link StartupPhase}.
+     *
+     * @param name            the name
+     * @param starter         the {@link ExceptionRunnable} that starts this {@link StartupPhase}
+     * @param stopper         the {@link ExceptionRunnable} that stops this {@link StartupPhase}
+     * @param onCallingThread <code>true</code> to start this {@link StartupPhase} on the thread that calls
+     *                        {@link StartupOrchestrator#start()} (e.g. the JavaFX application thread)
+     * @param dependencies    the {@link StartupPhase}s that must be started before this {@link StartupPhase}
+     */
+    StartupPhase(String name, ExceptionRunnable starter, ExceptionRunnable stopper, boolean onCallingThread,
+            List<StartupPhase> dependencies) {
+        this.name = name;
+        this.starter = starter;
+        this.stopper = stopper;
+        this.onCallingThread = onCallingThread;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Runs the starter of this {@link StartupPhase} and records its timing.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void start() throws Exception {
+        attempted = true;
+        startNanos = System.nanoTime();
+        try {
+            starter.run();
+        } finally {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Runs the stopper of this {@link StartupPhase}.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    void stop() throws Exception {
+        stopper.run();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isOnCallingThread() {
+        return onCallingThread;
+    }
+
+    public List<StartupPhase> getDependencies() {
+        return dependencies;
+    }
+
+    public boolean wasAttempted() {
+        return attempted;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+}
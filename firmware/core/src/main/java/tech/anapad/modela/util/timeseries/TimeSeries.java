@@ -0,0 +1,342 @@
+package tech.anapad.modela.util.timeseries;
+
+/**
+ * {@link TimeSeries} is a bounded ring buffer history of timestamped values in primitive arrays that answers windowed
+ * queries (min, max, mean, and least-squares slope over the values of the last <code>N</code> nanoseconds) without
+ * allocating or rescanning the window. The start of a window is found by binary search on the timestamps, which must
+ * be monotonic (e.g. {@link System#nanoTime()}). The mean and slope are then computed in O(1) from prefix sums, and the
+ * min and max in O(log n) from monotonic queues of the values, which are maintained in amortized O(1) per added value.
+ * The prefix sums are of the timestamps and values relative to the oldest retained value and are periodically rebased
+ * onto it, so their precision doesn't degrade over time or with a large value offset. All methods are synchronized,
+ * so a {@link TimeSeries} can be written by one thread and queried by others.
+ */
+public class TimeSeries {
+
+    private static final double SECONDS_PER_NANOSECOND = 1e-9;
+
+    private final int capacity;
+    private final long[] timestampsNanos;
+    private final double[] values;
+    private final double[] timeSums;
+    private final double[] valueSums;
+    private final double[] timeSquareSums;
+    private final double[] timeValueSums;
+    private final long[] minSequences;
+    private final long[] maxSequences;
+
+    private long nextSequence;
+    private long originNanos;
+    private double valueOrigin;
+    private double timeSum;
+    private double valueSum;
+    private double timeSquareSum;
+    private double timeValueSum;
+    private long minHead;
+    private long minTail;
+    private long maxHead;
+    private long maxTail;
+
+    /**
+     * Instantiates a new {@link TimeSeries}.
+     *
+     * @param capacity the maximum number of retained values
+     */
+    public TimeSeries(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Time series capacity must be at least 2!");
+        }
+        this.capacity = capacity;
+        timestampsNanos = new long[capacity];
+        values = new double[capacity];
+        timeSums = new double[capacity];
+        valueSums = new double[capacity];
+        timeSquareSums = new double[capacity];
+        timeValueSums = new double[capacity];
+        minSequences = new long[capacity];
+        maxSequences = new long[capacity];
+    }
+
+    /**
+     * Adds a value, which evicts the oldest value if this {@link TimeSeries} is full. A timestamp older than the
+     * latest timestamp is clamped to the latest timestamp.
+     *
+     * @param timestampNanos the timestamp in nanoseconds
+     * @param value          the value
+     */
+    public synchronized void add(long timestampNanos, double value) {
+        if (nextSequence == 0) {
+            originNanos = timestampNanos;
+            valueOrigin = value;
+        } else {
+            timestampNanos = Math.max(timestampNanos, timestampsNanos[index(nextSequence - 1)]);
+            if (nextSequence % capacity == 0) {
+                rebase();
+            }
+        }
+
+        // Evict the oldest value from the queues before its slot is overwritten
+        final long sequence = nextSequence++;
+        final long oldestSequence = sequence + 1 - capacity;
+        while (minHead != minTail && minSequences[index(minHead)] < oldestSequence) {
+            minHead++;
+        }
+        while (maxHead != maxTail && maxSequences[index(maxHead)] < oldestSequence) {
+            maxHead++;
+        }
+
+        final int index = index(sequence);
+        final double time = (timestampNanos - originNanos) * SECONDS_PER_NANOSECOND;
+        final double relativeValue = value - valueOrigin;
+        timestampsNanos[index] = timestampNanos;
+        values[index] = value;
+        timeSums[index] = timeSum;
+        valueSums[index] = valueSum;
+        timeSquareSums[index] = timeSquareSum;
+        timeValueSums[index] = timeValueSum;
+        timeSum += time;
+        valueSum += relativeValue;
+        timeSquareSum += time * time;
+        timeValueSum += time * relativeValue;
+
+        // The min queue holds the increasing suffix minima and the max queue holds the decreasing suffix maxima
+        while (minHead != minTail && values[index(minSequences[index(minTail - 1)])] >= value) {
+            minTail--;
+        }
+        minSequences[index(minTail++)] = sequence;
+        while (maxHead != maxTail && values[index(maxSequences[index(maxTail - 1)])] <= value) {
+            maxTail--;
+        }
+        maxSequences[index(maxTail++)] = sequence;
+    }
+
+    /**
+     * Recomputes the prefix sums of the retained values relative to the timestamp and value of the oldest retained
+     * value.
+     */
+    private void rebase() {
+        final long oldestSequence = getOldestSequence();
+        originNanos = timestampsNanos[index(oldestSequence)];
+        valueOrigin = values[index(oldestSequence)];
+        timeSum = 0;
+        valueSum = 0;
+        timeSquareSum = 0;
+        timeValueSum = 0;
+        for (long sequence = oldestSequence; sequence < nextSequence; sequence++) {
+            final int index = index(sequence);
+            final double time = (timestampsNanos[index] - originNanos) * SECONDS_PER_NANOSECOND;
+            final double relativeValue = values[index] - valueOrigin;
+            timeSums[index] = timeSum;
+            valueSums[index] = valueSum;
+            timeSquareSums[index] = timeSquareSum;
+            timeValueSums[index] = timeValueSum;
+            timeSum += time;
+            valueSum += relativeValue;
+            timeSquareSum += time * time;
+            timeValueSum += time * relativeValue;
+        }
+    }
+
+    /**
+     * Removes all values.
+     */
+    public synchronized void clear() {
+        nextSequence = 0;
+        timeSum = 0;
+        valueSum = 0;
+        timeSquareSum = 0;
+        timeValueSum = 0;
+        minHead = 0;
+        minTail = 0;
+        maxHead = 0;
+        maxTail = 0;
+    }
+
+    /**
+     * Gets the sequence number of the oldest value with a timestamp at or after the given timestamp via binary search.
+     *
+     * @param timestampNanos the timestamp in nanoseconds
+     *
+     * @return the sequence number, which is {@link #getLatestSequence()} + 1 if there is no such value
+     */
+    public synchronized long sequenceAtOrAfter(long timestampNanos) {
+        long low = getOldestSequence();
+        long high = nextSequence;
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            if (timestampsNanos[index(middle)] - timestampNanos < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the latest value with a timestamp at or before the given timestamp.
+     *
+     * @param timestampNanos the timestamp in nanoseconds
+     *
+     * @return the value or {@link Double#NaN} if there is no such value
+     */
+    public synchronized double getValueAt(long timestampNanos) {
+        final long sequence = sequenceAtOrAfter(timestampNanos + 1);
+        return sequence > getOldestSequence() ? values[index(sequence - 1)] : Double.NaN;
+    }
+
+    /**
+     * Gets the number of values in the window of the given duration that ends at the latest timestamp.
+     *
+     * @param windowNanos the window duration in nanoseconds
+     *
+     * @return the number of values
+     */
+    public synchronized int count(long windowNanos) {
+        return (int) (nextSequence - windowStartSequence(windowNanos));
+    }
+
+    /**
+     * Gets the minimum of the values in the window of the given duration that ends at the latest timestamp.
+     *
+     * @param windowNanos the window duration in nanoseconds
+     *
+     * @return the minimum or {@link Double#NaN} if the window is empty
+     */
+    public synchronized double min(long windowNanos) {
+        if (nextSequence == 0) {
+            return Double.NaN;
+        }
+        return values[index(queueSequenceAtOrAfter(minSequences, minHead, minTail,
+                windowStartSequence(windowNanos)))];
+    }
+
+    /**
+     * Gets the maximum of the values in the window of the given duration that ends at the latest timestamp.
+     *
+     * @param windowNanos the window duration in nanoseconds
+     *
+     * @return the maximum or {@link Double#NaN} if the window is empty
+     */
+    public synchronized double max(long windowNanos) {
+        if (nextSequence == 0) {
+            return Double.NaN;
+        }
+        return values[index(queueSequenceAtOrAfter(maxSequences, maxHead, maxTail,
+                windowStartSequence(windowNanos)))];
+    }
+
+    /**
+     * Gets the mean of the values in the window of the given duration that ends at the latest timestamp.
+     *
+     * @param windowNanos the window duration in nanoseconds
+     *
+     * @return the mean or {@link Double#NaN} if the window is empty
+     */
+    public synchronized double mean(long windowNanos) {
+        final long startSequence = windowStartSequence(windowNanos);
+        final long count = nextSequence - startSequence;
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return valueOrigin + (valueSum - valueSums[index(startSequence)]) / count;
+    }
+
+    /**
+     * Gets the least-squares slope of the values in the window of the given duration that ends at the latest
+     * timestamp.
+     *
+     * @param windowNanos the window duration in nanoseconds
+     *
+     * @return the slope in value units per second or {@link Double#NaN} if the window has less than two distinct
+     * timestamps
+     */
+    public synchronized double slope(long windowNanos) {
+        final long startSequence = windowStartSequence(windowNanos);
+        final long count = nextSequence - startSequence;
+        if (count < 2) {
+            return Double.NaN;
+        }
+        final int startIndex = index(startSequence);
+        final double windowTimeSum = timeSum - timeSums[startIndex];
+        final double windowValueSum = valueSum - valueSums[startIndex];
+        final double windowTimeSquareSum = timeSquareSum - timeSquareSums[startIndex];
+        final double windowTimeValueSum = timeValueSum - timeValueSums[startIndex];
+        final double denominator = count * windowTimeSquareSum - windowTimeSum * windowTimeSum;
+        if (timestampsNanos[startIndex] == timestampsNanos[index(nextSequence - 1)] || denominator <= 0) {
+            return Double.NaN;
+        }
+        return (count * windowTimeValueSum - windowTimeSum * windowValueSum) / denominator;
+    }
+
+    /**
+     * Gets the sequence number of the first value in the window of the given duration that ends at the latest
+     * timestamp.
+     *
+     * @param windowNanos the window duration in nanoseconds
+     *
+     * @return the sequence number
+     */
+    private long windowStartSequence(long windowNanos) {
+        if (nextSequence == 0) {
+            return 0;
+        }
+        return sequenceAtOrAfter(timestampsNanos[index(nextSequence - 1)] - windowNanos);
+    }
+
+    /**
+     * Gets the first sequence number at or after the given sequence number in the given monotonic queue via binary
+     * search. The last entry of a queue is always the latest sequence number, so this always exists.
+     *
+     * @param queue    the queue
+     * @param head     the head of the queue
+     * @param tail     the tail of the queue
+     * @param sequence the sequence number
+     *
+     * @return the sequence number in the queue
+     */
+    private long queueSequenceAtOrAfter(long[] queue, long head, long tail, long sequence) {
+        long low = head;
+        long high = tail - 1;
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            if (queue[index(middle)] < sequence) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return queue[index(low)];
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private long getOldestSequence() {
+        return Math.max(0, nextSequence - capacity);
+    }
+
+    public synchronized int size() {
+        return (int) (nextSequence - getOldestSequence());
+    }
+
+    public synchronized boolean isEmpty() {
+        return nextSequence == 0;
+    }
+
+    public synchronized long getLatestSequence() {
+        return nextSequence - 1;
+    }
+
+    public synchronized long getLatestTimestampNanos() {
+        return nextSequence == 0 ? 0 : timestampsNanos[index(nextSequence - 1)];
+    }
+
+    public synchronized double getLatestValue() {
+        return nextSequence == 0 ? Double.NaN : values[index(nextSequence - 1)];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -10,11 +10,13 @@ import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.anapad.modela.ModelA;
-import tech.anapad.modela.loadsurface.sample.SampleResult;
-import tech.anapad.modela.touchscreen.driver.Resolution;
-import tech.anapad.modela.touchscreen.driver.Touch;
+import tech.anapad.modela.fusion.FusedFrame;
+import tech.anapad.modela.fusion.TouchForceFusion;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
 import tech.anapad.modela.util.location.Location;
 import tech.anapad.modela.view.component.button.Button;
+import tech.anapad.modela.view.util.PressOnsetDetector;
+import tech.anapad.modela.view.util.ViewTimingMonitor;
 import tech.anapad.modela.view.views.AbstractView;
 import tech.anapad.modela.view.views.anapad.KeyboardView;
 import tech.anapad.modela.view.views.anapad.TrackpadView;
@@ -26,16 +28,11 @@ import tech.anapad.modela.view.views.menu.MenuView;
 import tech.anapad.modela.view.views.splash.SplashView;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.function.Consumer;
 
 import static java.lang.Byte.MAX_VALUE;
-import static java.lang.Math.round;
-import static java.util.stream.Collectors.toList;
 import static javafx.application.Platform.runLater;
 import static javafx.scene.Cursor.NONE;
 import static javafx.scene.paint.Color.BLACK;
@@ -78,17 +75,26 @@ public class ViewController {
     }
 
     /**
-     * The multiplier for a {@link Touch#getSize()}.
+     * The multiplier for the touch sizes that the touchscreen reports.
      */
     public static final double TOUCH_SIZE_MULTIPLIER = 1.25;
 
+    private static final int PENDING_TOUCH_FRAMES_CAPACITY = 16;
+
     private final ModelA modelA;
-    private final Consumer<List<Touch>> touchesListener;
+    private final Consumer<TouchFrame> touchesListener;
+    private final ArrayBlockingQueue<TouchFrame> pendingTouchFrames;
+    private final Runnable pendingTouchFrameProcessor;
+    private final List<Button> activeButtons;
+    private final TouchFrame rawTouchFrame;
+    private int[] touchesNotOnTouchedButtonCounts;
+    private TouchForceFusion touchForceFusion;
+    private FusedFrame fusedFrame;
+    private ViewTimingMonitor viewTimingMonitor;
+    private PressOnsetDetector pressOnsetDetector;
     private Stage stage;
     private Scene scene;
     private Group nodeGroup;
-    private double touchXMultiplier;
-    private double touchYMultiplier;
 
     private AbstractView activeView;
     private boolean viewTransitioning;
@@ -108,7 +114,21 @@ public class ViewController {
      */
     public ViewController(ModelA modelA) {
         this.modelA = modelA;
-        touchesListener = touches -> runLater(() -> processTouches(touches));
+        pendingTouchFrames = new ArrayBlockingQueue<>(PENDING_TOUCH_FRAMES_CAPACITY);
+        pendingTouchFrameProcessor = this::processPendingTouchFrame;
+        touchesListener = touchFrame -> {
+            // Hold the touch frame until it is processed on the JavaFX application thread
+            touchFrame.retain();
+            if (pendingTouchFrames.offer(touchFrame)) {
+                runLater(pendingTouchFrameProcessor);
+            } else {
+                // The JavaFX application thread is far behind, so queue a task for the touch frame instead
+                runLater(() -> processTouchFrame(touchFrame));
+            }
+        };
+        activeButtons = new ArrayList<>();
+        rawTouchFrame = new TouchFrame();
+        touchesNotOnTouchedButtonCounts = new int[0];
         viewTransitioning = false;
     }
 
@@ -118,10 +138,16 @@ public class ViewController {
     public void start(Stage stage) {
         LOGGER.info("Starting ViewController...");
 
-        // Get resolution and add touch listener
-        final Resolution resolution = modelA.getTouchscreenController().getTouchscreenDriver().getLastReadResolution();
-        touchXMultiplier = VIEW_WIDTH / (double) resolution.getX();
-        touchYMultiplier = VIEW_HEIGHT / (double) resolution.getY();
+        // Add touch listener
+        touchForceFusion = new TouchForceFusion(modelA.getLoadSurfaceController());
+        fusedFrame = touchForceFusion.createFusedFrame();
+        pressOnsetDetector = new PressOnsetDetector(modelA.getArguments().getPressOnsetMode(),
+                modelA.getLoadSurfaceController().getSampleHistory(),
+                modelA.getLoadSurfaceController().getSampleFramePublisher().getForceMap());
+        if (modelA.getArguments().logViewTiming()) {
+            viewTimingMonitor = new ViewTimingMonitor();
+            viewTimingMonitor.start();
+        }
         modelA.getTouchscreenController().getTouchListeners().add(touchesListener);
 
         // Create group for all nodes
@@ -190,6 +216,12 @@ public class ViewController {
         if (activeView != null) {
             runLater(() -> activeView.stop());
         }
+        if (viewTimingMonitor != null) {
+            runLater(() -> viewTimingMonitor.stop());
+        }
+        if (pressOnsetDetector != null) {
+            runLater(() -> pressOnsetDetector.logStatistics());
+        }
 
         LOGGER.info("Stopped ViewController.");
     }
@@ -244,47 +276,57 @@ public class ViewController {
     }
 
     /**
-     * Called to process touchscreen touches.
+     * Processes the next pending {@link TouchFrame} and releases it.
+     */
+    private void processPendingTouchFrame() {
+        final TouchFrame touchFrame = pendingTouchFrames.poll();
+        if (touchFrame != null) {
+            processTouchFrame(touchFrame);
+        }
+    }
+
+    /**
+     * Processes the given {@link TouchFrame} and releases it.
      *
-     * @param touches the {@link Touch}es {@link List}
+     * @param touchFrame the {@link TouchFrame}
      */
-    private void processTouches(List<Touch> touches) {
-        // Apply touch multiplier
-        final List<Touch> multipliedTouches = touches.stream()
-                .map(touch -> new Touch.Builder()
-                        .id(touch.getID())
-                        .x((int) round(((double) touch.getX()) * touchXMultiplier))
-                        .y((int) round(((double) touch.getY()) * touchYMultiplier))
-                        .size((int) round(((double) touch.getSize()) * TOUCH_SIZE_MULTIPLIER))
-                        .build())
-                .collect(toList());
+    private void processTouchFrame(TouchFrame touchFrame) {
+        try {
+            processTouches(touchFrame);
+        } finally {
+            touchFrame.release();
+        }
+    }
 
+    /**
+     * Called to process touchscreen touches. This doesn't allocate, except for haptic impulses.
+     *
+     * @param touchFrame the {@link TouchFrame}
+     */
+    private void processTouches(TouchFrame touchFrame) {
         // Get active buttons
-        final List<Button> activeButtons = new ArrayList<>();
+        activeButtons.clear();
         if (menuButton != null) {
             activeButtons.add(menuButton);
         }
         if (menuView.isShowing()) {
-            for (Node node : menuView.getNodeGroup().getChildren()) {
-                if (node instanceof Button) {
-                    activeButtons.add((Button) node);
-                }
-            }
+            addButtons(menuView.getNodeGroup().getChildren());
         } else if (activeView != null) {
-            for (Node node : activeView.getNodeGroup().getChildren()) {
-                if (node instanceof Button) {
-                    activeButtons.add((Button) node);
-                }
-            }
+            addButtons(activeView.getNodeGroup().getChildren());
+        }
+        if (touchesNotOnTouchedButtonCounts.length < activeButtons.size()) {
+            touchesNotOnTouchedButtonCounts = new int[activeButtons.size() * 2];
         }
 
         // Process touches for buttons
-        final Set<Touch> buttonTouches = new HashSet<>();
-        if (multipliedTouches.size() == 0) {
-            for (Button button : activeButtons) {
+        int buttonTouchMask = 0;
+        if (touchFrame.isEmpty()) {
+            for (int buttonIndex = 0; buttonIndex < activeButtons.size(); buttonIndex++) {
+                final Button button = activeButtons.get(buttonIndex);
                 if (button.isForcePressedDown()) {
                     button.onForcePressUp();
                 }
+                pressOnsetDetector.recordRelease(button);
                 if (button.isPressedDown()) {
                     button.onPressUp();
                 }
@@ -293,89 +335,113 @@ public class ViewController {
                 }
             }
         } else {
-            final SampleResult sampleResult;
-            try {
-                sampleResult = modelA.getLoadSurfaceController().getPercentOffsetSampleFuture().get();
-            } catch (Exception exception) {
-                LOGGER.error("Error reading load surface future!", exception);
-                return;
-            }
+            // Fuse with the load surface force at the touch capture instant instead of waiting for the next sample,
+            // which would stall rendering. Until a sample is available (e.g. at startup, during a power mode switch,
+            // or after the load surface failed), touches are still processed, but without force.
+            final boolean forceFused = touchForceFusion.fuse(touchFrame, fusedFrame);
 
-            final Map<Button, Integer> numberOfTouchesNotOnTouchedButtons = new HashMap<>();
-            for (Touch touch : multipliedTouches) {
-                final Location touchLocation = loc(touch.getX(), touch.getY());
-                final double weightedPercentOffset = sampleResult.weightedPercentOffset(touchLocation);
+            for (int buttonIndex = 0; buttonIndex < activeButtons.size(); buttonIndex++) {
+                touchesNotOnTouchedButtonCounts[buttonIndex] = 0;
+            }
+            for (int touchIndex = 0; touchIndex < touchFrame.getCount(); touchIndex++) {
+                final int touchX = touchFrame.getX(touchIndex);
+                final int touchY = touchFrame.getY(touchIndex);
+                final double weightedPercentOffset = forceFused ? fusedFrame.getTouchForce(touchIndex) : 0;
 
-                for (Button button : activeButtons) {
+                for (int buttonIndex = 0; buttonIndex < activeButtons.size(); buttonIndex++) {
+                    final Button button = activeButtons.get(buttonIndex);
                     if (!button.isVisible()) {
                         continue;
                     }
 
-                    if (button.containsTouch(touch)) {
-                        buttonTouches.add(touch);
+                    if (button.containsTouch(touchFrame, touchIndex)) {
+                        buttonTouchMask |= 1 << touchIndex;
 
                         if (!button.isTouchedDown()) {
                             button.onTouchDown();
                         }
-                        if (!button.isPressedDown() &&
-                                weightedPercentOffset > button.getPressDownThreshold()) {
-                            lraImpulse(touchLocation, 20);
-                            button.onPressDown();
-                        } else if (button.isPressedDown() &&
-                                weightedPercentOffset < button.getPressUpThreshold()) {
-                            lraImpulse(touchLocation, 15);
+                        if (!forceFused) {
+                            continue; // Keep the press states until a force is available
+                        }
+                        if (button.isPressedDown() &&
+                                pressOnsetDetector.isPressUp(button, touchX, touchY, weightedPercentOffset)) {
+                            lraImpulse(touchX, touchY, 15);
+                            pressOnsetDetector.recordRelease(button);
                             button.onPressUp();
+                        } else if (pressOnsetDetector.processTouch(button, touchX, touchY, weightedPercentOffset,
+                                fusedFrame.getTimestampNanos())) {
+                            lraImpulse(touchX, touchY, 20);
                         }
                         if (!button.isForcePressedDown() &&
                                 weightedPercentOffset > button.getForcePressDownThreshold()) {
                             button.onForcePressDown();
-                            lraImpulse(touchLocation, 50);
+                            lraImpulse(touchX, touchY, 50);
                         } else if (button.isForcePressedDown() &&
                                 weightedPercentOffset < button.getForcePressUpThreshold()) {
                             button.onForcePressUp();
                         }
                     } else {
                         if (button.isTouchedDown()) {
-                            numberOfTouchesNotOnTouchedButtons.merge(button, 1, Integer::sum);
+                            touchesNotOnTouchedButtonCounts[buttonIndex]++;
                         }
                     }
                 }
             }
-            for (Map.Entry<Button, Integer> entry : numberOfTouchesNotOnTouchedButtons.entrySet()) {
-                final Button notOnTouchedButton = entry.getKey();
-                final Integer numberOfTouchesNotOn = entry.getValue();
-                if (numberOfTouchesNotOn == multipliedTouches.size()) {
-                    notOnTouchedButton.onTouchUp();
+            for (int buttonIndex = 0; buttonIndex < activeButtons.size(); buttonIndex++) {
+                if (touchesNotOnTouchedButtonCounts[buttonIndex] == touchFrame.getCount()) {
+                    activeButtons.get(buttonIndex).onTouchUp();
                 }
             }
+            if (viewTimingMonitor != null) {
+                viewTimingMonitor.recordTouchProcessed(touchFrame.getDeliveryNanos());
+            }
         }
 
         // Pass non-button, raw touches to required views/components
         if (!menuView.isShowing()) {
-            if (multipliedTouches.size() > 0 && multipliedTouches.size() == buttonTouches.size()) {
+            if (!touchFrame.isEmpty() && buttonTouchMask == (1 << touchFrame.getCount()) - 1) {
                 return;
             }
-            multipliedTouches.removeAll(buttonTouches);
+            rawTouchFrame.copyFrom(touchFrame);
+            rawTouchFrame.removeTouches(buttonTouchMask);
             if (activeView == touchesView) {
-                touchesView.processRawTouches(multipliedTouches);
+                touchesView.processRawTouches(rawTouchFrame);
             } else if (activeView == forceHapticsView) {
-                forceHapticsView.processRawTouches(multipliedTouches);
+                forceHapticsView.processRawTouches(rawTouchFrame);
             } else if (activeView == keyboardView) {
-                keyboardView.processRawTouches(multipliedTouches);
+                keyboardView.processRawTouches(rawTouchFrame);
             } else if (activeView == trackpadView) {
-                trackpadView.processRawTouches(multipliedTouches);
+                trackpadView.processRawTouches(rawTouchFrame);
             }
         }
     }
 
-    private void lraImpulse(Location location, long millis) {
-        modelA.getHapticsBoardController().scheduleLRAImpulse(location, 130.0, MAX_VALUE, 0, millis);
+    /**
+     * Adds the {@link Button}s of the given {@link Node}s to {@link #activeButtons}.
+     *
+     * @param nodes the {@link Node}s
+     */
+    private void addButtons(List<Node> nodes) {
+        for (int index = 0; index < nodes.size(); index++) {
+            final Node node = nodes.get(index);
+            if (node instanceof Button) {
+                activeButtons.add((Button) node);
+            }
+        }
+    }
+
+    private void lraImpulse(int x, int y, long millis) {
+        modelA.getHapticsBoardController().scheduleLRAImpulse(loc(x, y), 130.0, MAX_VALUE, 0, millis);
     }
 
     public ModelA getModelA() {
         return modelA;
     }
 
+    public TouchForceFusion getTouchForceFusion() {
+        return touchForceFusion;
+    }
+
     public Stage getStage() {
         return stage;
     }
@@ -388,14 +454,6 @@ public class ViewController {
         return nodeGroup;
     }
 
-    public double getTouchXMultiplier() {
-        return touchXMultiplier;
-    }
-
-    public double getTouchYMultiplier() {
-        return touchYMultiplier;
-    }
-
     public AbstractView getActiveView() {
         return activeView;
     }
@@ -1,8 +1,9 @@
 package tech.anapad.modela.view.component.button;
 
 import tech.anapad.modela.loadsurface.sample.Sample;
-import tech.anapad.modela.touchscreen.driver.Touch;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
 import tech.anapad.modela.view.component.AbstractComponent;
+import tech.anapad.modela.view.util.PressOnsetDetector;
 
 /**
  * {@link Button} is an {@link AbstractComponent} button.
@@ -12,6 +13,8 @@ public abstract class Button extends AbstractComponent {
     protected boolean isTouchedDown;
     protected boolean isPressedDown;
     protected boolean isForcePressedDown;
+    protected long pressOnsetNanos;
+    protected long earlyPressNanos;
 
     /**
      * Instantiates a new {@link Button}.
@@ -20,17 +23,21 @@ public abstract class Button extends AbstractComponent {
         isTouchedDown = false;
         isPressedDown = false;
         isForcePressedDown = false;
+        pressOnsetNanos = 0;
+        earlyPressNanos = 0;
     }
 
     /**
-     * Gets if the given {@link Touch} is contained in this {@link Button}.
+     * Gets if the predicted location (see {@link TouchFrame#getPredictedX(int)}) of the touch at the given index of
+     * the given {@link TouchFrame} is contained in this {@link Button}.
      *
-     * @param touch the {@link Touch}
+     * @param touchFrame the {@link TouchFrame}
+     * @param index      the index of the touch
      *
      * @return <code>true</code> if it is contained, <code>false</code> otherwise
      */
-    public boolean containsTouch(Touch touch) {
-        return getBoundsInParent().contains(touch.getX(), touch.getY());
+    public boolean containsTouch(TouchFrame touchFrame, int index) {
+        return getBoundsInParent().contains(touchFrame.getPredictedX(index), touchFrame.getPredictedY(index));
     }
 
     /**
@@ -115,6 +122,16 @@ public abstract class Button extends AbstractComponent {
         return 0.06;
     }
 
+    /**
+     * Gets if press onsets are detected on this {@link Button} before its press down threshold is crossed (see
+     * {@link PressOnsetDetector}).
+     *
+     * @return <code>true</code> if press onsets are detected, <code>false</code> otherwise
+     */
+    public boolean isPressOnsetDetectionEnabled() {
+        return false;
+    }
+
     public boolean isTouchedDown() {
         return isTouchedDown;
     }
@@ -126,4 +143,20 @@ public abstract class Button extends AbstractComponent {
     public boolean isForcePressedDown() {
         return isForcePressedDown;
     }
+
+    public long getPressOnsetNanos() {
+        return pressOnsetNanos;
+    }
+
+    public void setPressOnsetNanos(long pressOnsetNanos) {
+        this.pressOnsetNanos = pressOnsetNanos;
+    }
+
+    public long getEarlyPressNanos() {
+        return earlyPressNanos;
+    }
+
+    public void setEarlyPressNanos(long earlyPressNanos) {
+        this.earlyPressNanos = earlyPressNanos;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,386 @@
+package tech.anapad.modela.view.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.loadsurface.forcemap.ForceMap;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+import tech.anapad.modela.loadsurface.sample.SampleHistory;
+import tech.anapad.modela.view.component.button.Button;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * {@link PressOnsetDetector} presses {@link Button}s down and up, and detects the onset of a {@link Button} press
+ * before the smoothed fused force crosses {@link Button#getPressDownThreshold()}. It watches the slope and magnitude of
+ * the raw percent offsets of the load surface channels (see {@link SampleHistory#getRawPercentOffsetHistory(int)}),
+ * weighted by the {@link ForceMap} at the touch location, and detects an onset when both exceed adaptive bounds, which
+ * are a multiple of their noise (derived from {@link SampleHistory#getRawPercentOffsetNoise(int)}), but at least fixed
+ * minimums. An onset is confirmed if the raw magnitude crosses the press down threshold by more than its noise bound
+ * within the confirmation window, otherwise it is a false positive. The raw magnitude isn't delayed by the load
+ * surface filter, so it crosses the press down threshold earlier than the smoothed force. In
+ * {@link PressOnsetMode#ON}, onsets give haptic feedback and confirmed onsets press {@link Button}s down early, so an
+ * unconfirmed onset never presses a {@link Button}. In {@link PressOnsetMode#SHADOW}, {@link Button}s are only pressed
+ * down by the smoothed force, and the confirmations are only measured. The lead time of the confirmations over the
+ * smoothed press threshold crossings, the false positive rate, and the confirmations that the smoothed force never
+ * followed are logged periodically. All methods must be called on the JavaFX application thread.
+ */
+public class PressOnsetDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PressOnsetDetector.class);
+    private static final long SLOPE_WINDOW_NANOS = MILLISECONDS.toNanos(15);
+    private static final long MAGNITUDE_WINDOW_NANOS = MILLISECONDS.toNanos(5);
+    private static final long CONFIRMATION_WINDOW_NANOS = MILLISECONDS.toNanos(40);
+    private static final double MIN_ONSET_SLOPE = 0.1; // Percent offset per second
+    private static final double MIN_ONSET_MAGNITUDE_RATIO = 0.5; // Of the press down threshold
+    private static final double NOISE_MULTIPLIER = 4;
+    private static final long LOG_INTERVAL_NANOS = SECONDS.toNanos(60);
+
+    private final PressOnsetMode mode;
+    private final SampleHistory sampleHistory;
+    private final ForceMap forceMap;
+    private final double[] channelSlopes;
+    private final double[] channelMagnitudes;
+    private final double[] channelWeights;
+
+    private double slopeNoise;
+    private double magnitudeNoise;
+    private long nextLogNanos;
+    private long onsetCount;
+    private long confirmedOnsetCount;
+    private long falsePositiveCount;
+    private long missedOnsetCount;
+    private long unfollowedConfirmationCount;
+    private long leadTimeCount;
+    private double leadTimeSum;
+    private long maxLeadTimeNanos;
+
+    /**
+     * Instantiates a new {@link PressOnsetDetector}.
+     *
+     * @param mode          the {@link PressOnsetMode}
+     * @param sampleHistory the {@link SampleHistory} of the load surface
+     * @param forceMap      the {@link ForceMap} of the load surface
+     */
+    public PressOnsetDetector(PressOnsetMode mode, SampleHistory sampleHistory, ForceMap forceMap) {
+        this.mode = mode;
+        this.sampleHistory = sampleHistory;
+        this.forceMap = forceMap;
+        channelSlopes = new double[SampleFrame.CHANNEL_COUNT];
+        channelMagnitudes = new double[SampleFrame.CHANNEL_COUNT];
+        channelWeights = new double[SampleFrame.CHANNEL_COUNT];
+        nextLogNanos = Long.MIN_VALUE;
+    }
+
+    /**
+     * Processes a touch on the given touched {@link Button}. If it isn't pressed down, this presses it down when the
+     * smoothed force crosses {@link Button#getPressDownThreshold()} or, in {@link PressOnsetMode#ON}, when its press
+     * onset is confirmed. Otherwise, this detects and confirms its press onset if press onset detection is enabled (see
+     * {@link Button#isPressOnsetDetectionEnabled()}). If it is pressed down, this measures the lead time of an early
+     * press once the smoothed force follows it.
+     *
+     * @param button         the {@link Button}
+     * @param x              the X of the touch in view pixels
+     * @param y              the Y of the touch in view pixels
+     * @param force          the smoothed fused force of the touch
+     * @param timestampNanos the capture timestamp of the touch
+     *
+     * @return <code>true</code> if haptic feedback should be given, <code>false</code> otherwise
+     */
+    public boolean processTouch(Button button, double x, double y, double force, long timestampNanos) {
+        final boolean detection = mode != PressOnsetMode.OFF && button.isPressOnsetDetectionEnabled();
+        if (button.isPressedDown()) {
+            if (detection && button.getEarlyPressNanos() != 0 && force > button.getPressDownThreshold()) {
+                recordLeadTime(button, timestampNanos);
+            }
+            return false;
+        }
+        if (force > button.getPressDownThreshold()) {
+            // A press onset in ON mode has already given haptic feedback
+            final boolean feedbackGiven = detection && recordThresholdCrossing(button, timestampNanos);
+            button.onPressDown();
+            return !feedbackGiven;
+        }
+        if (!detection) {
+            return false;
+        }
+
+        logStatisticsIfDue(timestampNanos);
+        if (button.getEarlyPressNanos() != 0) {
+            return false; // Waiting for the smoothed force to follow a confirmation in SHADOW mode
+        }
+        final long onsetNanos = button.getPressOnsetNanos();
+        if (onsetNanos == 0) {
+            return detectOnset(button, x, y, timestampNanos);
+        }
+        if (timestampNanos - onsetNanos > CONFIRMATION_WINDOW_NANOS) {
+            falsePositiveCount++;
+            button.setPressOnsetNanos(0);
+            return false;
+        }
+        if (rawMagnitude(x, y) > button.getPressDownThreshold() + NOISE_MULTIPLIER * magnitudeNoise) {
+            confirmedOnsetCount++;
+            button.setPressOnsetNanos(0);
+            button.setEarlyPressNanos(timestampNanos);
+            if (mode == PressOnsetMode.ON) {
+                button.onPressDown(); // Haptic feedback was already given on the onset
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets if the given pressed down {@link Button} should be pressed up, which is when its smoothed force falls below
+     * {@link Button#getPressUpThreshold()}. An early press that the smoothed force hasn't followed yet is released by
+     * its raw magnitude instead, since the smoothed force is still rising.
+     *
+     * @param button the {@link Button}
+     * @param x      the X of the touch in view pixels
+     * @param y      the Y of the touch in view pixels
+     * @param force  the smoothed fused force of the touch
+     *
+     * @return <code>true</code> if the {@link Button} should be pressed up, <code>false</code> otherwise
+     */
+    public boolean isPressUp(Button button, double x, double y, double force) {
+        if (button.getEarlyPressNanos() != 0) {
+            final double rawMagnitude = rawMagnitude(x, y);
+            if (!Double.isNaN(rawMagnitude)) {
+                return rawMagnitude < button.getPressUpThreshold();
+            }
+        }
+        return force < button.getPressUpThreshold();
+    }
+
+    /**
+     * Records that the given {@link Button} is pressed up or its touch is released. This cancels its press onset, which
+     * counts it as a false positive, and ends its early press, which counts it as a confirmation that the smoothed
+     * force never followed.
+     *
+     * @param button the {@link Button}
+     */
+    public void recordRelease(Button button) {
+        if (button.getPressOnsetNanos() != 0) {
+            falsePositiveCount++;
+            button.setPressOnsetNanos(0);
+        }
+        if (button.getEarlyPressNanos() != 0) {
+            unfollowedConfirmationCount++;
+            button.setEarlyPressNanos(0);
+        }
+    }
+
+    /**
+     * Detects a press onset on the given {@link Button}, which must be touched, not pressed down, and without a press
+     * onset.
+     *
+     * @param button         the {@link Button}
+     * @param x              the X of the touch in view pixels
+     * @param y              the Y of the touch in view pixels
+     * @param timestampNanos the capture timestamp of the touch
+     *
+     * @return <code>true</code> if an onset was detected in {@link PressOnsetMode#ON}, so haptic feedback should be
+     * given, <code>false</code> otherwise
+     */
+    private boolean detectOnset(Button button, double x, double y, long timestampNanos) {
+        for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+            channelSlopes[channel] = sampleHistory.getRawPercentOffsetHistory(channel).slope(SLOPE_WINDOW_NANOS);
+            if (Double.isNaN(channelSlopes[channel])) {
+                return false;
+            }
+        }
+        final double slope = forceMap.force(x, y, channelSlopes);
+        final double magnitude = rawMagnitude(x, y);
+        if (Double.isNaN(magnitude)) {
+            return false;
+        }
+        updateNoise(x, y);
+
+        final double slopeBound = max(MIN_ONSET_SLOPE, NOISE_MULTIPLIER * slopeNoise);
+        final double magnitudeBound = min(button.getPressDownThreshold(),
+                max(MIN_ONSET_MAGNITUDE_RATIO * button.getPressDownThreshold(), NOISE_MULTIPLIER * magnitudeNoise));
+        if (slope < slopeBound || magnitude < magnitudeBound) {
+            return false;
+        }
+        onsetCount++;
+        button.setPressOnsetNanos(timestampNanos);
+        return mode == PressOnsetMode.ON;
+    }
+
+    /**
+     * Gets the raw magnitude at the given location, which is the {@link ForceMap} weighted mean of the raw percent
+     * offsets of the channels over the magnitude window.
+     *
+     * @param x the X of the touch in view pixels
+     * @param y the Y of the touch in view pixels
+     *
+     * @return the raw magnitude or {@link Double#NaN} if there are no raw percent offsets in the window
+     */
+    private double rawMagnitude(double x, double y) {
+        for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+            channelMagnitudes[channel] = sampleHistory.getRawPercentOffsetHistory(channel)
+                    .mean(MAGNITUDE_WINDOW_NANOS);
+            if (Double.isNaN(channelMagnitudes[channel])) {
+                return Double.NaN;
+            }
+        }
+        return forceMap.force(x, y, channelMagnitudes);
+    }
+
+    /**
+     * Updates {@link #slopeNoise} and {@link #magnitudeNoise} for a touch at the given location. The {@link ForceMap}
+     * is linear in the channel values, so the noise of the weighted sum of the independent channels is the root sum
+     * square of their weighted noise. The slope and magnitude are the least-squares slope and the mean of the samples
+     * in their windows, which reduce that noise by the number of samples in the windows.
+     *
+     * @param x the X of the touch in view pixels
+     * @param y the Y of the touch in view pixels
+     */
+    private void updateNoise(double x, double y) {
+        double noiseSquare = 0;
+        for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+            channelWeights[channel] = 1;
+            final double channelNoise = forceMap.force(x, y, channelWeights) *
+                    sampleHistory.getRawPercentOffsetNoise(channel);
+            channelWeights[channel] = 0;
+            noiseSquare += channelNoise * channelNoise;
+        }
+        final double noise = sqrt(noiseSquare);
+
+        // Channels are read at about the same rate, so the sample counts of the first channel are representative
+        final int slopeCount = sampleHistory.getRawPercentOffsetHistory(0).count(SLOPE_WINDOW_NANOS);
+        final int magnitudeCount = sampleHistory.getRawPercentOffsetHistory(0).count(MAGNITUDE_WINDOW_NANOS);
+        if (slopeCount < 2 || magnitudeCount < 1) {
+            slopeNoise = Double.POSITIVE_INFINITY;
+            magnitudeNoise = Double.POSITIVE_INFINITY;
+            return;
+        }
+        final double samplePeriodSeconds = SLOPE_WINDOW_NANOS / 1e9 / (slopeCount - 1);
+        slopeNoise = noise * sqrt(12.0 / (slopeCount * ((double) slopeCount * slopeCount - 1))) / samplePeriodSeconds;
+        magnitudeNoise = noise / sqrt(magnitudeCount);
+    }
+
+    /**
+     * Records that the smoothed force of the given {@link Button}, which must have press onset detection enabled and
+     * not be pressed down, crossed {@link Button#getPressDownThreshold()}. This measures the lead time of its
+     * confirmation or confirms its press onset without a lead time.
+     *
+     * @param button         the {@link Button}
+     * @param timestampNanos the capture timestamp of the touch
+     *
+     * @return <code>true</code> if a press onset was confirmed in {@link PressOnsetMode#ON}, so haptic feedback was
+     * already given, <code>false</code> otherwise
+     */
+    private boolean recordThresholdCrossing(Button button, long timestampNanos) {
+        if (button.getEarlyPressNanos() != 0) {
+            recordLeadTime(button, timestampNanos);
+            return false;
+        }
+        final long onsetNanos = button.getPressOnsetNanos();
+        if (onsetNanos == 0) {
+            missedOnsetCount++;
+            return false;
+        }
+        button.setPressOnsetNanos(0);
+        if (timestampNanos - onsetNanos > CONFIRMATION_WINDOW_NANOS) {
+            falsePositiveCount++;
+            missedOnsetCount++;
+            return false;
+        }
+        // The smoothed force crossed before the raw magnitude confirmed the onset
+        confirmedOnsetCount++;
+        button.setEarlyPressNanos(timestampNanos);
+        recordLeadTime(button, timestampNanos);
+        return mode == PressOnsetMode.ON;
+    }
+
+    /**
+     * Records the lead time of the early press of the given {@link Button} over the smoothed press threshold crossing
+     * at the given timestamp, and ends the early press.
+     *
+     * @param button         the {@link Button}
+     * @param timestampNanos the capture timestamp of the smoothed press threshold crossing
+     */
+    private void recordLeadTime(Button button, long timestampNanos) {
+        final long leadTimeNanos = timestampNanos - button.getEarlyPressNanos();
+        button.setEarlyPressNanos(0);
+        leadTimeCount++;
+        leadTimeSum += leadTimeNanos;
+        maxLeadTimeNanos = max(maxLeadTimeNanos, leadTimeNanos);
+    }
+
+    /**
+     * Logs the statistics if the log interval has elapsed since they were last logged.
+     *
+     * @param nowNanos the {@link System#nanoTime()}
+     */
+    private void logStatisticsIfDue(long nowNanos) {
+        if (nextLogNanos == Long.MIN_VALUE) {
+            nextLogNanos = nowNanos + LOG_INTERVAL_NANOS;
+        } else if (nowNanos - nextLogNanos >= 0) {
+            logStatistics();
+            nextLogNanos = nowNanos + LOG_INTERVAL_NANOS;
+        }
+    }
+
+    /**
+     * Logs the statistics.
+     */
+    public void logStatistics() {
+        if (mode == PressOnsetMode.OFF) {
+            return;
+        }
+        LOGGER.info("Press onsets ({}): {} onsets, {} confirmed, {} false positives ({}%), {} missed presses, " +
+                        "{} confirmations not followed by the press threshold, mean lead time: {} ms, " +
+                        "max lead time: {} ms, slope noise: {}/s, magnitude noise: {}", mode,
+                onsetCount, confirmedOnsetCount, falsePositiveCount,
+                format(onsetCount == 0 ? 0 : falsePositiveCount * 100.0 / onsetCount), missedOnsetCount,
+                unfollowedConfirmationCount, format(getMeanLeadTimeNanos() / 1e6),
+                format(maxLeadTimeNanos / 1e6), String.format("%.5f", slopeNoise),
+                String.format("%.5f", magnitudeNoise));
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+
+    public PressOnsetMode getMode() {
+        return mode;
+    }
+
+    public long getOnsetCount() {
+        return onsetCount;
+    }
+
+    public long getConfirmedOnsetCount() {
+        return confirmedOnsetCount;
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositiveCount;
+    }
+
+    public long getMissedOnsetCount() {
+        return missedOnsetCount;
+    }
+
+    public long getUnfollowedConfirmationCount() {
+        return unfollowedConfirmationCount;
+    }
+
+    /**
+     * Gets the mean lead time of the confirmations of press onsets over the smoothed press threshold crossings, which
+     * is how much earlier {@link Button}s are pressed down in {@link PressOnsetMode#ON}.
+     *
+     * @return the mean lead time in nanoseconds or <code>0</code> if no lead time was measured
+     */
+    public double getMeanLeadTimeNanos() {
+        return leadTimeCount == 0 ? 0 : leadTimeSum / leadTimeCount;
+    }
+
+    public long getMaxLeadTimeNanos() {
+        return maxLeadTimeNanos;
+    }
+}
@@ -0,0 +1,24 @@
+package tech.anapad.modela.view.util;
+
+/**
+ * {@link PressOnsetMode} is the mode of the {@link PressOnsetDetector}.
+ */
+public enum PressOnsetMode {
+
+    /**
+     * Presses are only detected when the smoothed fused force crosses the press threshold.
+     */
+    OFF,
+
+    /**
+     * Press onsets are detected and confirmed from the raw force, and measured against the smoothed press threshold
+     * crossings, but don't press buttons.
+     */
+    SHADOW,
+
+    /**
+     * Press onsets give haptic feedback, and buttons are pressed down once the raw force confirms the onset, before the
+     * smoothed press threshold crossing. An unconfirmed onset never types a key.
+     */
+    ON
+}
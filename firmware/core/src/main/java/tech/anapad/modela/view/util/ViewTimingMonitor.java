@@ -0,0 +1,101 @@
+package tech.anapad.modela.view.util;
+
+import javafx.animation.AnimationTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.lang.Math.max;
+import static java.lang.Math.sqrt;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * {@link ViewTimingMonitor} measures the jitter of the JavaFX pulses and the latency from the delivery of a touch frame
+ * to the processing of its presses on the JavaFX application thread, and logs them periodically. The jitter is the
+ * standard deviation of the period between consecutive pulses. All methods must be called on the JavaFX application
+ * thread.
+ */
+public class ViewTimingMonitor extends AnimationTimer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ViewTimingMonitor.class);
+    private static final long LOG_INTERVAL_NANOS = SECONDS.toNanos(60);
+
+    private long nextLogNanos;
+    private long lastPulseNanos;
+    private long pulsePeriodCount;
+    private double pulsePeriodSum;
+    private double pulsePeriodSquareSum;
+    private long maxPulsePeriodNanos;
+    private long touchCount;
+    private double touchLatencySum;
+    private long maxTouchLatencyNanos;
+
+    @Override
+    public void start() {
+        reset();
+        nextLogNanos = nanoTime() + LOG_INTERVAL_NANOS;
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        log();
+    }
+
+    @Override
+    public void handle(long now) {
+        if (lastPulseNanos != 0) {
+            final long pulsePeriodNanos = now - lastPulseNanos;
+            pulsePeriodCount++;
+            pulsePeriodSum += pulsePeriodNanos;
+            pulsePeriodSquareSum += (double) pulsePeriodNanos * pulsePeriodNanos;
+            maxPulsePeriodNanos = max(maxPulsePeriodNanos, pulsePeriodNanos);
+        }
+        lastPulseNanos = now;
+
+        if (now - nextLogNanos >= 0) {
+            log();
+            reset();
+            nextLogNanos += LOG_INTERVAL_NANOS;
+        }
+    }
+
+    /**
+     * Records that the presses of a touch frame have been processed.
+     *
+     * @param touchNanos the {@link System#nanoTime()} at which the touch frame was delivered
+     */
+    public void recordTouchProcessed(long touchNanos) {
+        final long touchLatencyNanos = nanoTime() - touchNanos;
+        touchCount++;
+        touchLatencySum += touchLatencyNanos;
+        maxTouchLatencyNanos = max(maxTouchLatencyNanos, touchLatencyNanos);
+    }
+
+    private void log() {
+        final double pulsePeriodMean = pulsePeriodCount == 0 ? 0 : pulsePeriodSum / pulsePeriodCount;
+        final double pulsePeriodStandardDeviation = pulsePeriodCount == 0 ? 0 :
+                sqrt(max(0, pulsePeriodSquareSum / pulsePeriodCount - pulsePeriodMean * pulsePeriodMean));
+        LOGGER.info("View timing: {} pulses, mean pulse period: {} us, pulse jitter: {} us, max pulse period: {} us, " +
+                        "{} touch frames, mean touch-to-press latency: {} us, max touch-to-press latency: {} us",
+                pulsePeriodCount, format(pulsePeriodMean / 1e3), format(pulsePeriodStandardDeviation / 1e3),
+                format(maxPulsePeriodNanos / 1e3), touchCount,
+                format(touchCount == 0 ? 0 : touchLatencySum / touchCount / 1e3), format(maxTouchLatencyNanos / 1e3));
+    }
+
+    private void reset() {
+        lastPulseNanos = 0;
+        pulsePeriodCount = 0;
+        pulsePeriodSum = 0;
+        pulsePeriodSquareSum = 0;
+        maxPulsePeriodNanos = 0;
+        touchCount = 0;
+        touchLatencySum = 0;
+        maxTouchLatencyNanos = 0;
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
@@ -3,17 +3,16 @@ package tech.anapad.modela.view.views.anapad;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.shape.Rectangle;
-import tech.anapad.modela.touchscreen.driver.Touch;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
 import tech.anapad.modela.usb.mapping.Keycode;
 import tech.anapad.modela.usb.mapping.KeycodeModifier;
-import tech.anapad.modela.util.location.Location;
 import tech.anapad.modela.view.ViewController;
 import tech.anapad.modela.view.views.AbstractView;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import static tech.anapad.modela.util.location.Location.loc;
+import static java.lang.Math.hypot;
 import static tech.anapad.modela.view.ViewController.VIEW_HEIGHT;
 import static tech.anapad.modela.view.ViewController.VIEW_WIDTH;
 import static tech.anapad.modela.view.util.palette.Palette.BACKGROUND_COLOR_PROPERTY;
@@ -28,8 +27,6 @@ public class KeyboardView extends AbstractView {
     private final ImageView keyboardLowercaseImage;
     private final ImageView keyboardUppercaseImage;
 
-    private Location initialRawTouchLocation;
-
     /**
      * Instantiates a new {@link KeyboardView}.
      *
@@ -156,18 +153,12 @@ public class KeyboardView extends AbstractView {
     /**
      * Called to process touchscreen touches.
      *
-     * @param touches the {@link Touch}es
+     * @param touchFrame the {@link TouchFrame}
      */
-    public void processRawTouches(List<Touch> touches) {
-        if (touches.size() == 1) {
-            final Touch touch = touches.get(0);
-            final Location touchLocation = loc(touch.getX(), touch.getY());
-            if (initialRawTouchLocation == null) {
-                initialRawTouchLocation = touchLocation;
-            } else if (initialRawTouchLocation.distance(touchLocation) > 4) {
-                initialRawTouchLocation = null;
-                viewController.setActiveView(viewController.getTrackpadView());
-            }
+    public void processRawTouches(TouchFrame touchFrame) {
+        if (touchFrame.getCount() == 1 && hypot(touchFrame.getX(0) - touchFrame.getDownX(0),
+                touchFrame.getY(0) - touchFrame.getDownY(0)) > 4) {
+            viewController.setActiveView(viewController.getTrackpadView());
         }
     }
 
@@ -41,6 +41,16 @@ public class QWERTYButton extends ContentButton {
         setContent(new Group()); // TODO fix this hack
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Keys are latency-sensitive, so press onsets are detected on them.
+     */
+    @Override
+    public boolean isPressOnsetDetectionEnabled() {
+        return true;
+    }
+
     @Override
     public void onPressDown() {
         super.onPressDown();
@@ -1,14 +1,13 @@
 package tech.anapad.modela.view.views.anapad;
 
 import javafx.scene.shape.Rectangle;
-import tech.anapad.modela.loadsurface.sample.SampleResult;
-import tech.anapad.modela.touchscreen.driver.Touch;
+import tech.anapad.modela.fusion.FusedFrame;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
 import tech.anapad.modela.usb.USBController;
 import tech.anapad.modela.util.location.Location;
 import tech.anapad.modela.view.ViewController;
 import tech.anapad.modela.view.views.AbstractView;
 
-import java.util.List;
 import java.util.Set;
 
 import static java.lang.Byte.MAX_VALUE;
@@ -31,9 +30,11 @@ public class TrackpadView extends AbstractView {
     private final ViewController viewController;
     private final USBController usbController;
     private final Rectangle trackpad;
+    private final FusedFrame fusedFrame;
 
-    int touchscreenTouchLastX = -1;
-    int touchscreenTouchLastY = -1;
+    boolean touchscreenTouchedDown = false;
+    double touchscreenDeltaXRemainder = 0;
+    double touchscreenDeltaYRemainder = 0;
     boolean touchscreenTouchDownDeltaNonZero = false;
     boolean touchscreenMultiTouchedDown = false;
     int touchscreenLastTouchCount = 0;
@@ -49,6 +50,7 @@ public class TrackpadView extends AbstractView {
     public TrackpadView(ViewController viewController) {
         this.viewController = viewController;
         this.usbController = viewController.getModelA().getUSBController();
+        fusedFrame = viewController.getTouchForceFusion().createFusedFrame();
 
         final Rectangle background = new Rectangle(VIEW_WIDTH, VIEW_HEIGHT);
         background.fillProperty().bind(BACKGROUND_COLOR_PROPERTY);
@@ -76,18 +78,16 @@ public class TrackpadView extends AbstractView {
     /**
      * Called to process touchscreen touches.
      *
-     * @param touchess the {@link Touch}es
+     * @param touchFrame the {@link TouchFrame}
      */
-    public void processRawTouches(List<Touch> touchess) {
-        final Touch[] touches = touchess.toArray(new Touch[0]);
-
+    public void processRawTouches(TouchFrame touchFrame) {
         if (!touchscreenMultiTouchedDown) {
-            touchscreenMultiTouchedDown = touches.length >= 2;
+            touchscreenMultiTouchedDown = touchFrame.getCount() >= 2;
         }
 
-        if (touches.length > 0) {
-            final int x = touches[0].getX();
-            final int y = touches[0].getY();
+        if (touchFrame.getCount() > 0) {
+            final int x = touchFrame.getX(0);
+            final int y = touchFrame.getY(0);
             if (viewController.isViewTransitioning()) {
                 return;
             }
@@ -98,16 +98,19 @@ public class TrackpadView extends AbstractView {
                 return;
             }
 
-            if (touchscreenTouchLastX == -1 || touchscreenTouchLastY == -1) {
-                // Set last touch coordinates to current touch coordinates
-                touchscreenTouchLastX = x;
-                touchscreenTouchLastY = y;
+            if (!touchscreenTouchedDown) {
+                touchscreenTouchedDown = true;
+                touchscreenDeltaXRemainder = 0;
+                touchscreenDeltaYRemainder = 0;
             } else {
-                // Calculate deltas
-                int deltaX = x - touchscreenTouchLastX;
-                int deltaY = y - touchscreenTouchLastY;
-                int multipliedDeltaX = (int) Math.round((double) deltaX * 1.5);
-                int multipliedDeltaY = (int) Math.round((double) deltaY * 1.5);
+                // Calculate deltas from the tracked movement of the predicted touch location, accumulating the
+                // movement that hasn't been reported yet
+                touchscreenDeltaXRemainder += touchFrame.getDeltaX(0);
+                touchscreenDeltaYRemainder += touchFrame.getDeltaY(0);
+                int deltaX = (int) Math.round(touchscreenDeltaXRemainder);
+                int deltaY = (int) Math.round(touchscreenDeltaYRemainder);
+                int multipliedDeltaX = (int) Math.round(touchscreenDeltaXRemainder * 1.5);
+                int multipliedDeltaY = (int) Math.round(touchscreenDeltaYRemainder * 1.5);
 
                 // Clamp deltas
                 deltaX = clamp(deltaX, Byte.MIN_VALUE, Byte.MAX_VALUE);
@@ -132,31 +135,22 @@ public class TrackpadView extends AbstractView {
                     return;
                 }
 
-                // Set last touch coordinates to current touch coordinates
-                if (multipliedDeltaX != 0) {
-                    touchscreenTouchLastX = x;
-                }
-                if (multipliedDeltaY != 0) {
-                    touchscreenTouchLastY = y;
-                }
+                // Remove the reported movement from the unreported movement
+                touchscreenDeltaXRemainder -= multipliedDeltaX / 1.5;
+                touchscreenDeltaYRemainder -= multipliedDeltaY / 1.5;
 
                 // Trigger non-zero delta touch as needed
                 if (!touchscreenTouchDownDeltaNonZero && deltaX != 0 && deltaY != 0) {
                     touchscreenTouchDownDeltaNonZero = true;
                 }
 
-                final SampleResult sampleResult;
-                try {
-                    sampleResult = viewController.getModelA().getLoadSurfaceController()
-                            .getPercentOffsetSampleFuture().get();
-                } catch (Exception exception) {
-                    exception.printStackTrace();
+                if (!viewController.getTouchForceFusion().fuse(touchFrame, fusedFrame)) {
                     return;
                 }
-                double value = sampleResult.weightedPercentOffset(Location.loc(x, y));
+                double value = fusedFrame.getTouchForce(0);
                 if (value > 0.006 && canPressAgain) {
                     canPressAgain = false;
-                    if (touches.length == 2) {
+                    if (touchFrame.getCount() == 2) {
                         usbController.setActiveMouseButtons(Set.of(RIGHT), true);
                         try {
                             usbController.flush(100, 10);
@@ -221,8 +215,7 @@ public class TrackpadView extends AbstractView {
             //}
             //
             // Reset variables
-            touchscreenTouchLastX = -1;
-            touchscreenTouchLastY = -1;
+            touchscreenTouchedDown = false;
             touchscreenMultiTouchedDown = false;
 
             //try {
@@ -233,7 +226,7 @@ public class TrackpadView extends AbstractView {
             //}
         }
 
-        touchscreenLastTouchCount = touches.length;
+        touchscreenLastTouchCount = touchFrame.getCount();
     }
 
     public ViewController getViewController() {
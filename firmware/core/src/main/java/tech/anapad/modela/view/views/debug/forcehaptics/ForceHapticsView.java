@@ -6,9 +6,9 @@ import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import tech.anapad.modela.fusion.FusedFrame;
 import tech.anapad.modela.hapticsboard.lra.LRA;
-import tech.anapad.modela.loadsurface.sample.SampleResult;
-import tech.anapad.modela.touchscreen.driver.Touch;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
 import tech.anapad.modela.util.location.Location;
 import tech.anapad.modela.view.ViewController;
 import tech.anapad.modela.view.views.AbstractView;
@@ -49,6 +49,7 @@ public class ForceHapticsView extends AbstractView {
     private final Circle touchCircle;
     private final Label touchCircleLabel;
     private final Circle forceCircle;
+    private final FusedFrame fusedFrame;
 
     /**
      * Instantiates a new {@link ForceHapticsView}.
@@ -57,6 +58,7 @@ public class ForceHapticsView extends AbstractView {
      */
     public ForceHapticsView(ViewController viewController) {
         this.viewController = viewController;
+        fusedFrame = viewController.getTouchForceFusion().createFusedFrame();
         nodeGroup.setClip(new Rectangle(VIEW_WIDTH, VIEW_HEIGHT));
 
         final Rectangle background = new Rectangle(VIEW_WIDTH, VIEW_HEIGHT);
@@ -110,23 +112,19 @@ public class ForceHapticsView extends AbstractView {
     /**
      * Called to process touchscreen touches.
      *
-     * @param touches the {@link Touch}es
+     * @param touchFrame the {@link TouchFrame}
      */
-    public void processRawTouches(List<Touch> touches) {
+    public void processRawTouches(TouchFrame touchFrame) {
         if (!started) {
             return;
         }
 
-        final SampleResult sampleResult;
-        try {
-            sampleResult = viewController.getModelA().getLoadSurfaceController().getPercentOffsetSampleFuture().get();
-        } catch (Exception exception) {
-            LOGGER.error("Error reading load surface future!", exception);
+        if (!viewController.getTouchForceFusion().fuse(touchFrame, fusedFrame)) {
             return;
         }
 
-        if (touches.size() >= 1) {
-            final Location touchLocation = loc(touches.get(0).getX(), touches.get(0).getY());
+        if (touchFrame.getCount() >= 1) {
+            final Location touchLocation = loc(touchFrame.getX(0), touchFrame.getY(0));
             if (!touchCircle.isVisible()) {
                 touchCircle.setVisible(true);
                 touchCircleLabel.setVisible(true);
@@ -138,24 +136,20 @@ public class ForceHapticsView extends AbstractView {
             forceCircle.setCenterY(touchLocation.getY());
 
             final double weightedPercentOffsetRatio = clamp(
-                    sampleResult.weightedPercentOffset(touchLocation), 0, MAX_LOAD_SURFACE_PERCENT_OFFSET) /
+                    fusedFrame.getTouchForce(0), 0, MAX_LOAD_SURFACE_PERCENT_OFFSET) /
                     MAX_LOAD_SURFACE_PERCENT_OFFSET;
             touchCircleLabel.setText(String.format("%.0f%%", weightedPercentOffsetRatio * 100.0));
             forceCircle.setRadius(weightedPercentOffsetRatio * LRA_ACTUATION_RADIUS);
-            try {
-                final List<LRA> actuatedLRAs = viewController.getModelA().getHapticsBoardController().setLRAsWithin(
-                        touchLocation, LRA_ACTUATION_RADIUS, (byte) (weightedPercentOffsetRatio * Byte.MAX_VALUE));
-                for (Map.Entry<LRA, Circle> circleOfLRA : circlesOfLRAs.entrySet()) {
-                    final LRA lra = circleOfLRA.getKey();
-                    final Circle circle = circleOfLRA.getValue();
-                    if (actuatedLRAs.contains(lra)) {
-                        circle.setFill(LRA_ACTUATED_COLOR);
-                    } else {
-                        circle.setFill(LRA_STATIONARY_COLOR);
-                    }
+            final List<LRA> actuatedLRAs = viewController.getModelA().getHapticsBoardController().setLRAsWithin(
+                    touchLocation, LRA_ACTUATION_RADIUS, (byte) (weightedPercentOffsetRatio * Byte.MAX_VALUE));
+            for (Map.Entry<LRA, Circle> circleOfLRA : circlesOfLRAs.entrySet()) {
+                final LRA lra = circleOfLRA.getKey();
+                final Circle circle = circleOfLRA.getValue();
+                if (actuatedLRAs.contains(lra)) {
+                    circle.setFill(LRA_ACTUATED_COLOR);
+                } else {
+                    circle.setFill(LRA_STATIONARY_COLOR);
                 }
-            } catch (Exception exception) {
-                LOGGER.error("Error set haptics board LRAs!", exception);
             }
         } else {
             if (touchCircle.isVisible()) {
@@ -166,11 +160,7 @@ public class ForceHapticsView extends AbstractView {
             for (Circle lraCircle : circlesOfLRAs.values()) {
                 lraCircle.setFill(LRA_STATIONARY_COLOR);
             }
-            try {
-                viewController.getModelA().getHapticsBoardController().stopAllLRAs();
-            } catch (Exception exception) {
-                LOGGER.error("Error stopping haptics board LRAs!", exception);
-            }
+            viewController.getModelA().getHapticsBoardController().stopAllLRAs();
         }
     }
 }
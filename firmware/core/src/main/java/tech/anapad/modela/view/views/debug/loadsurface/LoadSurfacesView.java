@@ -47,7 +47,10 @@ public class LoadSurfacesView extends AbstractView {
      */
     public LoadSurfacesView(ViewController viewController) {
         this.viewController = viewController;
-        sampleResultHandler = sampleResult -> runLater(() -> handleSampleResult(sampleResult));
+        sampleResultHandler = sampleResult -> {
+            final SampleResult sampleResultCopy = sampleResult.copy();
+            runLater(() -> handleSampleResult(sampleResultCopy));
+        };
         nodeGroup.setClip(new Rectangle(VIEW_WIDTH, VIEW_HEIGHT));
 
         final Rectangle background = new Rectangle(VIEW_WIDTH, VIEW_HEIGHT);
@@ -8,12 +8,10 @@ import javafx.scene.paint.LinearGradient;
 import javafx.scene.paint.Stop;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.TextAlignment;
-import tech.anapad.modela.touchscreen.driver.Touch;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
 import tech.anapad.modela.view.ViewController;
 import tech.anapad.modela.view.views.AbstractView;
 
-import java.util.List;
-
 import static javafx.scene.paint.Color.gray;
 import static javafx.scene.paint.Color.rgb;
 import static javafx.scene.paint.CycleMethod.NO_CYCLE;
@@ -66,18 +64,18 @@ public class TouchesView extends AbstractView {
     /**
      * Called to process touchscreen touches.
      *
-     * @param touches the {@link Touch}es
+     * @param touchFrame the {@link TouchFrame}
      */
-    public void processRawTouches(List<Touch> touches) {
+    public void processRawTouches(TouchFrame touchFrame) {
         // Clear canvas
         graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
 
-        for (Touch touch : touches) {
+        for (int index = 0; index < touchFrame.getCount(); index++) {
             // Draw touch area
-            final double radius = touch.getSize() * 10;
+            final double radius = touchFrame.getSize(index) * 10;
             final double radiusHalf = radius / 2;
-            final double drawX = touch.getX();
-            final double drawY = touch.getY();
+            final double drawX = touchFrame.getX(index);
+            final double drawY = touchFrame.getY(index);
             graphics.setFill(MODE_PROPERTY.get() == LIGHT ? TRANSLUCENT_WHITE : TRANSLUCENT_BLACK);
             graphics.fillOval(drawX - radiusHalf, drawY - radiusHalf, radius, radius);
 
@@ -85,7 +83,7 @@ public class TouchesView extends AbstractView {
             graphics.setFill(TEXT_COLOR_PROPERTY.get());
             graphics.setTextAlign(TextAlignment.CENTER);
             graphics.setTextBaseline(VPos.BOTTOM);
-            graphics.fillText(String.valueOf(touch.getID()), drawX, drawY - radiusHalf - 10);
+            graphics.fillText(String.valueOf(touchFrame.getID(index)), drawX, drawY - radiusHalf - 10);
         }
     }
 
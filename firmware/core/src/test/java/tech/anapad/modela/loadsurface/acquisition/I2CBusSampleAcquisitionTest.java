@@ -0,0 +1,131 @@
+package tech.anapad.modela.loadsurface.acquisition;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.anapad.modela.loadsurface.adc.ADC;
+import tech.anapad.modela.loadsurface.i2cmultiplexer.Channel;
+import tech.anapad.modela.loadsurface.i2cmultiplexer.I2CMultiplexer;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+import tech.anapad.modela.util.filter.FilterChain;
+import tech.anapad.modela.util.i2c.simulated.SimulatedI2CBus;
+import tech.anapad.modela.util.i2c.simulated.SimulatedI2CHardware;
+import tech.anapad.modela.util.location.Location;
+
+import static java.lang.Thread.sleep;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.anapad.modela.loadsurface.adc.ADC.SAMPLES_PER_SECOND;
+import static tech.anapad.modela.util.i2c.simulated.SimulatedI2CHardware.LOAD_SURFACE_I2C_DEVICE_INDEX;
+import static tech.anapad.modela.util.location.Location.loc;
+
+/**
+ * {@link I2CBusSampleAcquisitionTest} is a drift detection check for {@link I2CBusSampleAcquisition} on
+ * {@link SimulatedI2CHardware}, so that an {@link ADC} whose clock runs fast or slow resynchronizes the sample cycles
+ * instead of having its conversions skipped or read twice unnoticed.
+ */
+public class I2CBusSampleAcquisitionTest {
+
+    private static final long TRANSACTION_LATENCY_NANOS = MICROSECONDS.toNanos(100);
+    private static final long DEADLINE_MARGIN_NANOS = MICROSECONDS.toNanos(100);
+    private static final long ACQUISITION_MILLIS = SECONDS.toMillis(2);
+
+    private SimulatedI2CHardware hardware;
+    private SimulatedI2CBus i2cBus;
+    private I2CMultiplexer i2cMultiplexer;
+    private Channel[] channels;
+    private ADC[] adcs;
+    private Location[] adcLocations;
+
+    @BeforeEach
+    public void startHardware() throws Exception {
+        hardware = new SimulatedI2CHardware(TRANSACTION_LATENCY_NANOS);
+        i2cBus = hardware.startI2CBus(LOAD_SURFACE_I2C_DEVICE_INDEX);
+        i2cMultiplexer = new I2CMultiplexer(i2cBus);
+        channels = Channel.values();
+        adcs = new ADC[SampleFrame.CHANNEL_COUNT];
+        adcLocations = new Location[SampleFrame.CHANNEL_COUNT];
+        for (int index = 0; index < adcs.length; index++) {
+            adcLocations[index] = loc(index % 2 * 100, index / 2 * 50);
+            adcs[index] = new ADC(i2cBus, index + 1, adcLocations[index],
+                    FilterChain.parse("smoothing:25", 1, SAMPLES_PER_SECOND),
+                    FilterChain.parse("smoothing:25", 1, SAMPLES_PER_SECOND));
+            i2cMultiplexer.setChannel(channels[index]);
+            adcs[index].configure();
+        }
+    }
+
+    @AfterEach
+    public void stopHardware() throws Exception {
+        i2cBus.stop();
+    }
+
+    @Test
+    public void nominalClocksDoNotDrift() throws Exception {
+        final SampleFrameRingBuffer ringBuffer = acquire();
+
+        assertEquals(0, ringBuffer.getLateDriftCount());
+        assertEquals(0, ringBuffer.getEarlyDriftCount());
+        assertEquals(1, ringBuffer.getSynchronizationCount());
+    }
+
+    @Test
+    public void fastClockIsDetectedAsEarlyDrift() throws Exception {
+        hardware.getADCs().get(2).setClockRate(1.01);
+        final SampleFrameRingBuffer ringBuffer = acquire();
+
+        assertTrue(ringBuffer.getEarlyDriftCount() > 0, "A fast ADC clock wasn't detected");
+        assertResynchronizedOnDrift(ringBuffer);
+    }
+
+    @Test
+    public void slowClockIsDetectedAsLateDrift() throws Exception {
+        hardware.getADCs().get(1).setClockRate(0.99);
+        final SampleFrameRingBuffer ringBuffer = acquire();
+
+        assertTrue(ringBuffer.getLateDriftCount() > 0, "A slow ADC clock wasn't detected");
+        assertResynchronizedOnDrift(ringBuffer);
+    }
+
+    /**
+     * Asserts that every drift resynchronized the sample cycles, except for a drift right before the stop.
+     *
+     * @param ringBuffer the {@link SampleFrameRingBuffer}
+     */
+    private static void assertResynchronizedOnDrift(SampleFrameRingBuffer ringBuffer) {
+        final long driftCount = ringBuffer.getEarlyDriftCount() + ringBuffer.getLateDriftCount();
+        final long synchronizationCount = ringBuffer.getSynchronizationCount();
+        assertTrue(synchronizationCount == 1 + driftCount || synchronizationCount == driftCount,
+                () -> synchronizationCount + " synchronizations for " + driftCount + " drifts");
+    }
+
+    /**
+     * Runs an {@link I2CBusSampleAcquisition} that reads all channels every cycle while a consumer drains its
+     * {@link SampleFrameRingBuffer}.
+     *
+     * @return the {@link SampleFrameRingBuffer} of the stopped {@link I2CBusSampleAcquisition}
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private SampleFrameRingBuffer acquire() throws Exception {
+        final I2CBusSampleAcquisition sampleAcquisition = new I2CBusSampleAcquisition(i2cBus, i2cMultiplexer,
+                channels, adcs, new ChannelPriority(adcLocations, 1), DEADLINE_MARGIN_NANOS, 64, 0);
+        final SampleFrameRingBuffer ringBuffer = sampleAcquisition.getRingBuffer();
+        final SampleFrame sampleFrame = new SampleFrame();
+        sampleAcquisition.start();
+        try {
+            final long endMillis = System.currentTimeMillis() + ACQUISITION_MILLIS;
+            while (System.currentTimeMillis() < endMillis) {
+                while (ringBuffer.poll(sampleFrame)) {}
+                sleep(1);
+            }
+        } finally {
+            sampleAcquisition.stop();
+        }
+        assertEquals(0, ringBuffer.getErrorCount());
+        assertTrue(ringBuffer.getWrittenFrameCount() > 0, "No frames were acquired");
+        return ringBuffer;
+    }
+}
@@ -0,0 +1,226 @@
+package tech.anapad.modela.loadsurface.forcemap;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.loadsurface.LoadSurfaceController;
+import tech.anapad.modela.touchscreen.frame.TouchFrame;
+import tech.anapad.modela.util.location.Location;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.hypot;
+import static java.lang.System.nanoTime;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.anapad.modela.view.ViewController.VIEW_HEIGHT;
+import static tech.anapad.modela.view.ViewController.VIEW_WIDTH;
+
+/**
+ * {@link ForceDecompositionSolverTest} checks that a {@link ForceDecompositionSolver} separates a light touch from a
+ * hard press within the rectangle of the load cells, which inverse distance weighting can't, that it falls back to
+ * weighting outside of that rectangle, and that a solve doesn't allocate. The channel values are generated by a rigid
+ * plate on four equal springs, which isn't the bilinear model of the {@link ForceDecompositionSolver}.
+ */
+public class ForceDecompositionSolverTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForceDecompositionSolverTest.class);
+
+    private static final double REGULARIZATION = 0.01;
+    private static final double PRESS_DOWN_THRESHOLD = 0.004;
+    private static final double HARD_PRESS_FORCE = 0.02;
+    private static final double LIGHT_TOUCH_FORCE = 0.0005;
+    private static final double MIN_TOUCH_DISTANCE = 150;
+    private static final double CHANNEL_NOISE = 0.0002;
+    private static final int FRAME_COUNT = 20_000;
+    private static final int SOLVE_COUNT = 1_000_000;
+
+    private static final Location[] ADC_LOCATIONS = LoadSurfaceController.ADC_LOCATIONS.toArray(new Location[0]);
+    private static final double MIN_X = ADC_LOCATIONS[0].getX();
+    private static final double MIN_Y = ADC_LOCATIONS[0].getY();
+    private static final double WIDTH = ADC_LOCATIONS[1].getX() - MIN_X;
+    private static final double HEIGHT = ADC_LOCATIONS[2].getY() - MIN_Y;
+
+    private final ForceMap forceMap = ForceMap.fromLocations(ADC_LOCATIONS, VIEW_WIDTH, VIEW_HEIGHT, 16);
+    private final ForceDecompositionSolver solver = new ForceDecompositionSolver(ADC_LOCATIONS, forceMap,
+            REGULARIZATION);
+
+    @Test
+    public void lightTouchNextToHardPressIsNotPressed() {
+        final Random random = new Random(2);
+        final TouchFrame touchFrame = new TouchFrame();
+        final double[] channelValues = new double[ForceDecompositionSolver.CHANNEL_COUNT];
+        final double[] touchForces = new double[touchFrame.getCapacity()];
+        int weightedPressedCount = 0;
+        int decomposedPressedCount = 0;
+        int missedHardPressCount = 0;
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            double hardX;
+            double hardY;
+            double lightX;
+            double lightY;
+            do {
+                // Inset by a pixel, since touch locations are whole pixels
+                hardX = MIN_X + 1 + random.nextDouble() * (WIDTH - 2);
+                hardY = MIN_Y + 1 + random.nextDouble() * (HEIGHT - 2);
+                lightX = MIN_X + 1 + random.nextDouble() * (WIDTH - 2);
+                lightY = MIN_Y + 1 + random.nextDouble() * (HEIGHT - 2);
+            } while (hypot(hardX - lightX, hardY - lightY) < MIN_TOUCH_DISTANCE);
+            loadTouches(hardX, hardY, lightX, lightY, random, touchFrame, channelValues);
+
+            if (forceMap.force(touchFrame.getX(1), touchFrame.getY(1), channelValues) > PRESS_DOWN_THRESHOLD) {
+                weightedPressedCount++;
+            }
+            assertTrue(solver.solve(touchFrame, channelValues, touchForces));
+            if (touchForces[0] <= PRESS_DOWN_THRESHOLD) {
+                missedHardPressCount++;
+            }
+            if (touchForces[1] > PRESS_DOWN_THRESHOLD) {
+                decomposedPressedCount++;
+            }
+        }
+        final String counts = "pressed light touches: weighted " + weightedPressedCount + "/" + FRAME_COUNT +
+                ", decomposed " + decomposedPressedCount + "/" + FRAME_COUNT + ", missed hard presses " +
+                missedHardPressCount + "/" + FRAME_COUNT;
+        LOGGER.info("Within the load cells, {}", counts);
+
+        assertTrue(weightedPressedCount > FRAME_COUNT / 2, counts);
+        assertTrue(decomposedPressedCount < weightedPressedCount / 20, counts);
+        assertTrue(missedHardPressCount < FRAME_COUNT / 50, counts);
+    }
+
+    @Test
+    public void touchesOutsideTheLoadCellsFallBackToWeighting() {
+        final Random random = new Random(2);
+        final TouchFrame touchFrame = new TouchFrame();
+        final double[] channelValues = new double[ForceDecompositionSolver.CHANNEL_COUNT];
+        final double[] touchForces = new double[touchFrame.getCapacity()];
+        int fallbackCount = 0;
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            double hardX;
+            double hardY;
+            double lightX;
+            double lightY;
+            do {
+                hardX = random.nextDouble() * VIEW_WIDTH;
+                hardY = random.nextDouble() * VIEW_HEIGHT;
+                lightX = random.nextDouble() * VIEW_WIDTH;
+                lightY = random.nextDouble() * VIEW_HEIGHT;
+            } while (hypot(hardX - lightX, hardY - lightY) < MIN_TOUCH_DISTANCE);
+            loadTouches(hardX, hardY, lightX, lightY, random, touchFrame, channelValues);
+
+            final boolean covered = solver.isCovered(touchFrame.getX(0), touchFrame.getY(0)) &&
+                    solver.isCovered(touchFrame.getX(1), touchFrame.getY(1));
+            assertEquals(covered, solver.solve(touchFrame, channelValues, touchForces));
+            for (int touchIndex = 0; touchIndex < touchFrame.getCount(); touchIndex++) {
+                final double x = touchFrame.getX(touchIndex);
+                final double y = touchFrame.getY(touchIndex);
+                assertTrue(touchForces[touchIndex] >= 0, () -> "Negative force at " + x + ", " + y);
+                if (!covered) {
+                    assertEquals(forceMap.force(x, y, channelValues), touchForces[touchIndex]);
+                }
+            }
+            if (!covered) {
+                fallbackCount++;
+            }
+        }
+        final String count = "fell back to weighting for " + fallbackCount + "/" + FRAME_COUNT + " frames";
+        LOGGER.info("Across the view, {}", count);
+
+        assertTrue(fallbackCount > FRAME_COUNT / 2, count);
+        assertFalse(solver.isCovered(MIN_X - 1, MIN_Y + HEIGHT / 2));
+        assertFalse(solver.isCovered(MIN_X + WIDTH / 2, MIN_Y + HEIGHT + 1));
+        assertTrue(solver.isCovered(MIN_X, MIN_Y + HEIGHT));
+    }
+
+    @Test
+    public void solveDoesNotAllocate() {
+        final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        final TouchFrame[] touchFrames = new TouchFrame[9];
+        for (int index = 0; index < touchFrames.length; index++) {
+            touchFrames[index] = new TouchFrame();
+            for (int touch = 0; touch < 2 + index; touch++) {
+                touchFrames[index].addTouch(touch, 600 + 50 * touch, 200 + 10 * touch, 1);
+            }
+        }
+        final double[] channelValues = {0.01, 0.005, 0.002, 0.001};
+        final double[] touchForces = new double[touchFrames[0].getCapacity()];
+
+        solve(touchFrames, channelValues, touchForces);
+        final long threadId = Thread.currentThread().getId();
+        final long startAllocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long startNanos = nanoTime();
+        solve(touchFrames, channelValues, touchForces);
+        final double solveNanos = (double) (nanoTime() - startNanos) / SOLVE_COUNT;
+        final long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+        LOGGER.info("A solve of 2 to 10 touches took a mean of {} ns.", solveNanos);
+
+        assertEquals(0, allocatedBytes, "Bytes allocated over " + SOLVE_COUNT + " solves");
+    }
+
+    /**
+     * Solves {@link #SOLVE_COUNT} times, cycling through the given {@link TouchFrame}s.
+     *
+     * @param touchFrames   the {@link TouchFrame}s
+     * @param channelValues the channel values
+     * @param touchForces   the touch forces
+     */
+    private void solve(TouchFrame[] touchFrames, double[] channelValues, double[] touchForces) {
+        for (int index = 0; index < SOLVE_COUNT; index++) {
+            solver.solve(touchFrames[index % touchFrames.length], channelValues, touchForces);
+        }
+    }
+
+    /**
+     * Sets the given {@link TouchFrame} to a hard press and a light touch at the given locations, and the given
+     * channel values to their noisy absolute {@link #addPlateLoad(double, double, double, double[])}s.
+     *
+     * @param hardX         the X of the hard press
+     * @param hardY         the Y of the hard press
+     * @param lightX        the X of the light touch
+     * @param lightY        the Y of the light touch
+     * @param random        the {@link Random} of the noise
+     * @param touchFrame    the {@link TouchFrame} to set
+     * @param channelValues the channel values to set
+     */
+    private static void loadTouches(double hardX, double hardY, double lightX, double lightY, Random random,
+            TouchFrame touchFrame, double[] channelValues) {
+        for (int channel = 0; channel < channelValues.length; channel++) {
+            channelValues[channel] = 0;
+        }
+        addPlateLoad(hardX, hardY, HARD_PRESS_FORCE, channelValues);
+        addPlateLoad(lightX, lightY, LIGHT_TOUCH_FORCE, channelValues);
+        for (int channel = 0; channel < channelValues.length; channel++) {
+            // Like the ADC percent offsets, the channel values are absolute
+            channelValues[channel] = abs(channelValues[channel] + random.nextGaussian() * CHANNEL_NOISE);
+        }
+        touchFrame.clear();
+        touchFrame.addTouch(0, (int) hardX, (int) hardY, 1);
+        touchFrame.addTouch(1, (int) lightX, (int) lightY, 1);
+    }
+
+    /**
+     * Adds the reaction of each load cell to a force at the given location to the given channel values, where the
+     * load cells are four equal springs under a rigid plate. The reactions are planar, so they don't have the twist of
+     * the bilinear shares of the {@link ForceDecompositionSolver}, and they turn negative (i.e. the plate lifts off
+     * the load cell) outside of the rectangle of the load cells.
+     *
+     * @param x             the X of the force
+     * @param y             the Y of the force
+     * @param force         the force
+     * @param channelValues the channel values to add to
+     */
+    private static void addPlateLoad(double x, double y, double force, double[] channelValues) {
+        final double tiltX = (x - MIN_X - WIDTH / 2) / (2 * WIDTH);
+        final double tiltY = (y - MIN_Y - HEIGHT / 2) / (2 * HEIGHT);
+        channelValues[0] += force * (0.25 - tiltX - tiltY);
+        channelValues[1] += force * (0.25 + tiltX - tiltY);
+        channelValues[2] += force * (0.25 - tiltX + tiltY);
+        channelValues[3] += force * (0.25 + tiltX + tiltY);
+    }
+}
@@ -0,0 +1,89 @@
+package tech.anapad.modela.loadsurface.forcemap;
+
+import org.junit.jupiter.api.Test;
+import tech.anapad.modela.loadsurface.LoadSurfaceController;
+import tech.anapad.modela.util.location.Location;
+
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.anapad.modela.util.location.Location.loc;
+import static tech.anapad.modela.view.ViewController.VIEW_HEIGHT;
+import static tech.anapad.modela.view.ViewController.VIEW_WIDTH;
+
+/**
+ * {@link ForceMapTest} is an accuracy check for a {@link ForceMap} created from the load surface ADC locations
+ * against exact inverse distance weighting, so that the bilinearly interpolated grid keeps approximating the weighting
+ * that the press thresholds were tuned with.
+ */
+public class ForceMapTest {
+
+    private static final double CELL_SIZE = 16;
+    private static final int TOUCH_COUNT = 100_000;
+    private static final double MAX_CHANNEL_VALUE = 2e-2;
+
+    private static final Location[] ADC_LOCATIONS = LoadSurfaceController.ADC_LOCATIONS.toArray(new Location[0]);
+
+    @Test
+    public void forceMatchesInverseDistanceWeighting() {
+        final ForceMap forceMap = ForceMap.fromLocations(ADC_LOCATIONS, VIEW_WIDTH, VIEW_HEIGHT, CELL_SIZE);
+        final Random random = new Random(0);
+        final double[] channelValues = new double[ADC_LOCATIONS.length];
+        double errorSum = 0;
+        double maxError = 0;
+        for (int touch = 0; touch < TOUCH_COUNT; touch++) {
+            for (int channel = 0; channel < channelValues.length; channel++) {
+                channelValues[channel] = random.nextDouble() * MAX_CHANNEL_VALUE;
+            }
+            if (touch % 2 == 0) {
+                // Equal channel values must not collapse into one, as they did when weights were keyed by value
+                channelValues[1] = channelValues[0];
+            }
+            final double x = random.nextDouble() * VIEW_WIDTH;
+            final double y = random.nextDouble() * VIEW_HEIGHT;
+            final double error = abs(forceMap.force(x, y, channelValues) -
+                    inverseDistanceWeightedForce(x, y, channelValues));
+            errorSum += error;
+            maxError = max(maxError, error);
+        }
+        final double meanError = errorSum / TOUCH_COUNT;
+        final String errors = "mean error: " + meanError + ", max error: " + maxError;
+
+        assertTrue(meanError <= 1e-5, errors);
+        assertTrue(maxError <= 1e-3, errors);
+    }
+
+    @Test
+    public void forceAtGridNodeIsExact() {
+        final ForceMap forceMap = ForceMap.fromLocations(ADC_LOCATIONS, VIEW_WIDTH, VIEW_HEIGHT, CELL_SIZE);
+        final double[] channelValues = {1e-2, 1e-2, 5e-3, 0};
+        final double x = CELL_SIZE * 40;
+        final double y = CELL_SIZE * 10;
+
+        assertEquals(inverseDistanceWeightedForce(x, y, channelValues), forceMap.force(x, y, channelValues), 1e-7);
+    }
+
+    /**
+     * Gets the exact inverse distance weighted force at the given location.
+     *
+     * @param x             the X in view pixels
+     * @param y             the Y in view pixels
+     * @param channelValues the value of each channel
+     *
+     * @return the force
+     */
+    private static double inverseDistanceWeightedForce(double x, double y, double[] channelValues) {
+        final Location location = loc(x, y);
+        double weightedSum = 0;
+        double inverseDistanceSum = 0;
+        for (int channel = 0; channel < channelValues.length; channel++) {
+            final double inverseDistance = 1 / location.distance(ADC_LOCATIONS[channel]);
+            weightedSum += channelValues[channel] * inverseDistance;
+            inverseDistanceSum += inverseDistance;
+        }
+        return weightedSum / inverseDistanceSum;
+    }
+}
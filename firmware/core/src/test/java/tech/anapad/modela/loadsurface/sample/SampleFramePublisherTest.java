@@ -0,0 +1,220 @@
+package tech.anapad.modela.loadsurface.sample;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.loadsurface.adc.ADC;
+import tech.anapad.modela.loadsurface.forcemap.ForceMap;
+import tech.anapad.modela.util.filter.FilterChain;
+import tech.anapad.modela.util.i2c.simulated.SimulatedI2CBus;
+import tech.anapad.modela.util.location.Location;
+
+import java.lang.management.ManagementFactory;
+
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.anapad.modela.loadsurface.adc.ADC.SAMPLES_PER_SECOND;
+import static tech.anapad.modela.util.location.Location.loc;
+
+/**
+ * {@link SampleFramePublisherTest} is an allocation regression check for the claim, filter, and publish cycle that
+ * the load surface sample thread runs for every acquired frame, so that the sample thread stays free of garbage
+ * collection pressure in steady state, and a consistency check of the frames that readers on the JavaFX application
+ * thread copy while the sample thread publishes.
+ */
+public class SampleFramePublisherTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampleFramePublisherTest.class);
+
+    private static final int WARMUP_CYCLE_COUNT = 200_000;
+    private static final int CYCLE_COUNT = 100_000;
+    private static final long PUBLISH_PERIOD_NANOS = MICROSECONDS.toNanos(20);
+    private static final int READ_COUNT = 1000;
+
+    @Test
+    public void steadyStateCyclesDoNotAllocate() {
+        final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threadMXBean.isThreadAllocatedMemorySupported(), "Thread allocation measurement is unsupported");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        final SimulatedI2CBus i2cBus = new SimulatedI2CBus(1, 0);
+        final int[] adcIndices = new int[SampleFrame.CHANNEL_COUNT];
+        final Location[] adcLocations = new Location[SampleFrame.CHANNEL_COUNT];
+        final ADC[] adcs = new ADC[SampleFrame.CHANNEL_COUNT];
+        for (int index = 0; index < adcs.length; index++) {
+            adcIndices[index] = index + 1;
+            adcLocations[index] = loc(index % 2 * 1920, index / 2 * 515);
+            adcs[index] = new ADC(i2cBus, adcIndices[index], adcLocations[index],
+                    FilterChain.parse("smoothing:25", 1, SAMPLES_PER_SECOND),
+                    FilterChain.parse("smoothing:25", 1, SAMPLES_PER_SECOND));
+        }
+        final SampleFramePublisher publisher = new SampleFramePublisher(adcIndices, adcLocations,
+                ForceMap.fromLocations(adcLocations, 1920, 515, 16));
+        final SampleHistory sampleHistory = new SampleHistory();
+        final SampleResult readerSampleResult = publisher.createSampleResult();
+
+        runCycles(publisher, adcs, sampleHistory, readerSampleResult, 0, WARMUP_CYCLE_COUNT);
+        final long threadId = Thread.currentThread().getId();
+        final long startAllocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        runCycles(publisher, adcs, sampleHistory, readerSampleResult, WARMUP_CYCLE_COUNT, CYCLE_COUNT);
+        final long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+
+        assertEquals(0, allocatedBytes, "Bytes allocated over " + CYCLE_COUNT + " sample frame cycles");
+        assertEquals(WARMUP_CYCLE_COUNT + CYCLE_COUNT - 1, publisher.getLatestSequence());
+    }
+
+    @Test
+    public void latestFrameIsReadWithoutWaitingForTheNextFrame() throws Exception {
+        final SampleFramePublisher publisher = new SampleFramePublisher(new int[SampleFrame.CHANNEL_COUNT],
+                new Location[SampleFrame.CHANNEL_COUNT], null);
+        final SampleFrame readerSampleFrame = new SampleFrame();
+        final SampleFrame lappedSampleFrame = new LappedSampleFrame(publisher);
+        assertFalse(publisher.copyLatest(readerSampleFrame));
+
+        // Publish with every field derived from the sequence, much faster than the ADCs convert but slowly enough
+        // that the writer can't starve the readers
+        final Thread publisherThread = new Thread(() -> {
+            for (long sequence = 0; !Thread.currentThread().isInterrupted(); sequence++) {
+                final SampleFrame sampleFrame = publisher.claim();
+                sampleFrame.setTimestampNanos(sequence);
+                for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+                    sampleFrame.getRawSamples()[channel] = (int) sequence + channel;
+                    sampleFrame.getPercentOffsetSamples()[channel] = sequence;
+                }
+                publisher.publish();
+                parkNanos(PUBLISH_PERIOD_NANOS);
+            }
+        }, "Publisher Thread");
+        publisherThread.start();
+        long copyNanos = 0;
+        long maxCopyNanos = 0;
+        try {
+            assertTrue(publisher.awaitNewerThan(-1, readerSampleFrame, SECONDS.toNanos(1)));
+            long lastSequence = -1;
+            for (int read = 0; read < READ_COUNT; read++) {
+                // Every other read is overlapped by a write of the frame that it copies
+                final boolean lapped = read % 2 == 0;
+                final SampleFrame destination = lapped ? lappedSampleFrame : readerSampleFrame;
+                final long startNanos = nanoTime();
+                assertTrue(publisher.copyLatest(destination));
+                final long readNanos = nanoTime() - startNanos;
+                if (!lapped) {
+                    copyNanos += readNanos;
+                    maxCopyNanos = max(maxCopyNanos, readNanos);
+                }
+                assertConsistent(destination);
+                assertTrue(destination.getSequence() >= lastSequence, "Read an older frame");
+                lastSequence = destination.getSequence();
+            }
+        } finally {
+            publisherThread.interrupt();
+            publisherThread.join();
+        }
+        LOGGER.info("Copied the latest sample frame in a mean of {} ns, max {} ns.", copyNanos / (READ_COUNT / 2),
+                maxCopyNanos);
+
+        // Once the writer is idle, waiting for the next frame times out, but the latest frame is still copied
+        final long latestSequence = publisher.getLatestSequence();
+        assertFalse(publisher.awaitNewerThan(latestSequence, readerSampleFrame, MILLISECONDS.toNanos(10)));
+        assertTrue(publisher.copyLatest(readerSampleFrame));
+        assertEquals(latestSequence, readerSampleFrame.getSequence());
+        assertConsistent(readerSampleFrame);
+    }
+
+    /**
+     * Asserts that the fields of the given {@link SampleFrame}, which the publisher thread of
+     * {@link #latestFrameIsReadWithoutWaitingForTheNextFrame()} derives from its sequence, weren't torn by a
+     * concurrent write.
+     *
+     * @param sampleFrame the {@link SampleFrame}
+     */
+    private static void assertConsistent(SampleFrame sampleFrame) {
+        final long sequence = sampleFrame.getSequence();
+        assertEquals(sequence, sampleFrame.getTimestampNanos(), "Torn timestamp");
+        for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+            assertEquals((int) sequence + channel, sampleFrame.getRawSamples()[channel], "Torn raw sample");
+            assertEquals((double) sequence, sampleFrame.getPercentOffsetSamples()[channel], "Torn percent offset sample");
+        }
+    }
+
+    /**
+     * Runs sample frame cycles the way the load surface sample thread does: claims a pooled {@link SampleFrame},
+     * filters synthetic raw samples into it, publishes it, records it in the {@link SampleHistory}, weights it at a
+     * touch, and copies it as a reader would.
+     *
+     * @param publisher          the {@link SampleFramePublisher}
+     * @param adcs               the {@link ADC}s of the channels
+     * @param sampleHistory      the {@link SampleHistory}
+     * @param readerSampleResult the reader {@link SampleResult}
+     * @param firstCycle         the index of the first cycle
+     * @param cycleCount         the number of cycles
+     */
+    private static void runCycles(SampleFramePublisher publisher, ADC[] adcs, SampleHistory sampleHistory,
+            SampleResult readerSampleResult, int firstCycle, int cycleCount) {
+        double forceSum = 0;
+        for (int cycle = firstCycle; cycle < firstCycle + cycleCount; cycle++) {
+            final long timestampNanos = cycle * 3_125_000L;
+            final boolean touched = cycle % 1000 >= 500;
+            final SampleFrame sampleFrame = publisher.claim();
+            sampleFrame.setTimestampNanos(timestampNanos);
+            sampleFrame.setReadTimestampNanos(timestampNanos);
+            double percentOffsetSampleSum = 0;
+            for (int index = 0; index < adcs.length; index++) {
+                final int rawSample = 100_000 + (touched ? 20_000 * (index + 1) : 0) + (cycle * 31 + index) % 200;
+                final double percentOffsetSample = adcs[index].filterSample(rawSample, timestampNanos, !touched);
+                sampleFrame.getChannelUpdateTimestampsNanos()[index] = timestampNanos;
+                sampleFrame.getRawSamples()[index] = adcs[index].getLastSample();
+                sampleFrame.getFilteredSamples()[index] = adcs[index].getLastAllSamplesFilterValue();
+                sampleFrame.getFilteredBaselineSamples()[index] = adcs[index].getLastBaselineSamplesFilterValue();
+                sampleFrame.getPercentOffsetSamples()[index] = percentOffsetSample;
+                percentOffsetSampleSum += percentOffsetSample;
+            }
+            sampleFrame.setPercentOffsetSampleAverage(percentOffsetSampleSum / adcs.length);
+            final SampleResult sampleResult = publisher.publish();
+            sampleHistory.record(sampleFrame, touched);
+            forceSum += sampleResult.weightedPercentOffset(cycle % 1920, cycle % 515);
+            publisher.copyLatest(readerSampleResult.getSampleFrame());
+        }
+        assertTrue(forceSum >= 0);
+    }
+
+    /**
+     * {@link LappedSampleFrame} is a {@link SampleFrame} that, on every other copy, waits until the writer has
+     * republished every pooled {@link SampleFrame} before it copies the raw samples, so that the copy is guaranteed to
+     * overlap a write of the {@link SampleFrame} that it copies.
+     */
+    private static class LappedSampleFrame extends SampleFrame {
+
+        private final SampleFramePublisher publisher;
+        private long copyCount;
+
+        /**
+         * Instantiates a new {@link LappedSampleFrame}.
+         *
+         * @param publisher the {@link SampleFramePublisher} that is written to
+         */
+        LappedSampleFrame(SampleFramePublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void copyFrom(SampleFrame sampleFrame) {
+            final long lappedSequence = publisher.getLatestSequence() + SampleFramePublisher.POOL_SIZE;
+            super.copyFrom(sampleFrame);
+            if (copyCount++ % 2 == 0) {
+                while (publisher.getLatestSequence() < lappedSequence) {
+                    Thread.onSpinWait();
+                }
+                System.arraycopy(sampleFrame.getRawSamples(), 0, getRawSamples(), 0, CHANNEL_COUNT);
+            }
+        }
+    }
+}
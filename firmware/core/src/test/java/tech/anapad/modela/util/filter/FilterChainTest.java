@@ -0,0 +1,62 @@
+package tech.anapad.modela.util.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static java.lang.Math.abs;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link FilterChainTest} checks that the response of a {@link FilterChain} stays the same in time when its sample rate
+ * changes, e.g. when the load surface ADCs switch to a lower conversion rate or a far channel is read less often.
+ */
+public class FilterChainTest {
+
+    private static final double PARSE_SAMPLE_RATE_HZ = 320;
+    private static final double STEP_SIZE = 1000;
+    private static final double SETTLED_RATIO = 0.632; // One time constant
+
+    @Test
+    public void stepResponseTimeIsIndependentOfSampleRate() {
+        for (String specification : new String[]{"smoothing:25", "biquadLowPass:20", "oneEuro:1:0.01"}) {
+            final double parseRateSeconds = stepResponseSeconds(specification, PARSE_SAMPLE_RATE_HZ);
+            for (double sampleRateHz : new double[]{160, 80}) {
+                final double seconds = stepResponseSeconds(specification, sampleRateHz);
+                assertEquals(parseRateSeconds, seconds, 1 / sampleRateHz,
+                        specification + " step response at " + sampleRateHz + " Hz");
+            }
+        }
+    }
+
+    @Test
+    public void biquadCutoffAboveNyquistFrequencyStaysStable() {
+        final FilterChain filterChain = FilterChain.parse("biquadLowPass:20", 1, PARSE_SAMPLE_RATE_HZ);
+        filterChain.setSampleRate(10);
+        filterChain.filter(0, 0);
+        double value = 0;
+        for (int sample = 0; sample < 100; sample++) {
+            value = filterChain.filter(0, STEP_SIZE);
+        }
+        assertTrue(abs(value - STEP_SIZE) < 1e-6, "Biquad settled on " + value);
+    }
+
+    /**
+     * Gets the time that the given {@link FilterChain} takes to reach {@link #SETTLED_RATIO} of a step when it is
+     * parsed at {@link #PARSE_SAMPLE_RATE_HZ} but fed samples at the given sample rate.
+     *
+     * @param specification the {@link FilterChain} specification
+     * @param sampleRateHz  the sample rate in hertz
+     *
+     * @return the step response time in seconds
+     */
+    private static double stepResponseSeconds(String specification, double sampleRateHz) {
+        final FilterChain filterChain = FilterChain.parse(specification, 1, PARSE_SAMPLE_RATE_HZ);
+        filterChain.setSampleRate(sampleRateHz);
+        filterChain.filter(0, 0);
+        int sample = 0;
+        while (filterChain.filter(0, STEP_SIZE) < STEP_SIZE * SETTLED_RATIO) {
+            sample++;
+        }
+        return (sample + 1) / sampleRateHz;
+    }
+}
@@ -0,0 +1,164 @@
+package tech.anapad.modela.util.i2c.simulated;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.anapad.modela.util.i2c.I2CException;
+import tech.anapad.modela.util.i2c.I2CTransaction;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SimulatedI2CBusTest} checks that {@link SimulatedI2CBus} applies register reads and writes, applies its
+ * configured transaction latency, and serializes concurrent transfers, so that the simulated bus keeps approximating
+ * the real bus. The throughput and the mean transfer time are logged.
+ */
+public class SimulatedI2CBusTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulatedI2CBusTest.class);
+
+    private static final short IO_PORT_EXPANDER_ADDRESS = 0x20;
+    private static final short OUTPUT_PORT_REGISTER = 0x01;
+    private static final int TRANSFER_COUNT = 2_000;
+    private static final int WARMUP_TRANSFER_COUNT = 20_000;
+
+    @Test
+    public void transfersReadBackWrittenRegisters() throws Exception {
+        final SimulatedI2CBus i2cBus = createI2CBus(0);
+        final I2CTransaction transaction = new I2CTransaction(64);
+        submitReadBackTransfers(i2cBus, transaction, WARMUP_TRANSFER_COUNT);
+
+        final long startNanos = nanoTime();
+        submitReadBackTransfers(i2cBus, transaction, TRANSFER_COUNT * 10);
+        final double transfersPerSecond = TRANSFER_COUNT * 10 / ((nanoTime() - startNanos) / 1e9);
+        LOGGER.info("Simulated I2C throughput without latency: {} transfers/s", (long) transfersPerSecond);
+
+        assertEquals(WARMUP_TRANSFER_COUNT + TRANSFER_COUNT * 10L, i2cBus.getTransferCount());
+        assertEquals((WARMUP_TRANSFER_COUNT + TRANSFER_COUNT * 10L) * 3, i2cBus.getTotalMessageCount());
+    }
+
+    @Test
+    public void transfersBlockForTransactionLatency() throws Exception {
+        final long latencyNanos = MICROSECONDS.toNanos(250);
+        final SimulatedI2CBus i2cBus = createI2CBus(latencyNanos);
+        final I2CTransaction transaction = new I2CTransaction(64);
+        submitReadBackTransfers(i2cBus, transaction, TRANSFER_COUNT / 10);
+
+        assertMinTransferNanos(i2cBus, transaction, latencyNanos);
+        i2cBus.setTransactionLatencyNanos(latencyNanos * 4);
+        assertMinTransferNanos(i2cBus, transaction, latencyNanos * 4);
+    }
+
+    @Test
+    public void concurrentTransfersAreSerialized() throws Exception {
+        final long latencyNanos = MICROSECONDS.toNanos(500);
+        final SimulatedI2CBus i2cBus = createI2CBus(latencyNanos);
+        final int transfersPerThread = 200;
+        final Thread[] threads = new Thread[4];
+        final Exception[] exceptions = new Exception[threads.length];
+        final long startNanos = nanoTime();
+        for (int index = 0; index < threads.length; index++) {
+            final int threadIndex = index;
+            threads[index] = new Thread(() -> {
+                try {
+                    submitReadBackTransfers(i2cBus, new I2CTransaction(64), transfersPerThread);
+                } catch (Exception exception) {
+                    exceptions[threadIndex] = exception;
+                }
+            });
+            threads[index].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(SECONDS.toMillis(30));
+        }
+        final long elapsedNanos = nanoTime() - startNanos;
+
+        for (Exception exception : exceptions) {
+            if (exception != null) {
+                throw exception;
+            }
+        }
+        assertEquals((long) threads.length * transfersPerThread, i2cBus.getTransferCount());
+        assertTrue(elapsedNanos >= threads.length * transfersPerThread * latencyNanos,
+                () -> "Concurrent transfers overlapped and finished after " +
+                        NANOSECONDS.toMillis(elapsedNanos) + " ms");
+    }
+
+    @Test
+    public void transferToMissingDeviceFailsWithoutBreakingTheBus() throws Exception {
+        final SimulatedI2CBus i2cBus = createI2CBus(0);
+        final I2CTransaction transaction = new I2CTransaction(64);
+        transaction.reset().writeByte((short) 0x30, (byte) 0);
+        final I2CException exception = assertThrows(I2CException.class, () -> transaction.submit(i2cBus));
+        assertEquals(121, exception.getErrorNumber());
+
+        submitReadBackTransfers(i2cBus, transaction, 1);
+        assertEquals(2, i2cBus.getTransferCount());
+    }
+
+    /**
+     * Asserts that no transfer returns before the given latency, and logs the mean transfer time.
+     *
+     * @param i2cBus       the {@link SimulatedI2CBus}
+     * @param transaction  the {@link I2CTransaction} to reuse
+     * @param latencyNanos the configured transaction latency in nanoseconds
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private static void assertMinTransferNanos(SimulatedI2CBus i2cBus, I2CTransaction transaction,
+            long latencyNanos) throws Exception {
+        long minTransferNanos = Long.MAX_VALUE;
+        long totalTransferNanos = 0;
+        for (int index = 0; index < TRANSFER_COUNT / 10; index++) {
+            final long startNanos = nanoTime();
+            submitReadBackTransfers(i2cBus, transaction, 1);
+            final long transferNanos = nanoTime() - startNanos;
+            minTransferNanos = Math.min(minTransferNanos, transferNanos);
+            totalTransferNanos += transferNanos;
+        }
+        LOGGER.info("Simulated I2C transfers with {} ns latency took a mean of {} ns.", latencyNanos,
+                totalTransferNanos / (TRANSFER_COUNT / 10));
+
+        final long finalMinTransferNanos = minTransferNanos;
+        assertTrue(minTransferNanos >= latencyNanos,
+                () -> "A transfer returned before its latency after " + finalMinTransferNanos + " ns");
+    }
+
+    /**
+     * Creates a started {@link SimulatedI2CBus} with a {@link SimulatedTCA9534}.
+     *
+     * @param latencyNanos the transaction latency in nanoseconds
+     *
+     * @return the {@link SimulatedI2CBus}
+     */
+    private static SimulatedI2CBus createI2CBus(long latencyNanos) {
+        return new SimulatedI2CBus(4, latencyNanos).addDevice(new SimulatedTCA9534(IO_PORT_EXPANDER_ADDRESS)).start();
+    }
+
+    /**
+     * Submits transfers that write the output port register of the {@link SimulatedTCA9534} and read it back, which
+     * is three messages per transfer.
+     *
+     * @param i2cBus        the {@link SimulatedI2CBus}
+     * @param transaction   the {@link I2CTransaction} to reuse
+     * @param transferCount the number of transfers
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    private static void submitReadBackTransfers(SimulatedI2CBus i2cBus, I2CTransaction transaction,
+            int transferCount) throws Exception {
+        for (int index = 0; index < transferCount; index++) {
+            final byte outputLevels = (byte) index;
+            transaction.reset().writeRegisterByte(IO_PORT_EXPANDER_ADDRESS, OUTPUT_PORT_REGISTER, outputLevels, true);
+            final int readOffset = transaction.readRegisterByte(IO_PORT_EXPANDER_ADDRESS, OUTPUT_PORT_REGISTER, true);
+            transaction.submit(i2cBus);
+            assertEquals(outputLevels, transaction.getByte(readOffset));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package tech.anapad.modela.view.util;
+
+import org.junit.jupiter.api.Test;
+import tech.anapad.modela.loadsurface.LoadSurfaceController;
+import tech.anapad.modela.loadsurface.forcemap.ForceMap;
+import tech.anapad.modela.loadsurface.sample.SampleFrame;
+import tech.anapad.modela.loadsurface.sample.SampleHistory;
+import tech.anapad.modela.util.location.Location;
+import tech.anapad.modela.view.component.button.Button;
+
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.anapad.modela.loadsurface.adc.ADC.SAMPLES_PER_SECOND;
+import static tech.anapad.modela.view.ViewController.VIEW_HEIGHT;
+import static tech.anapad.modela.view.ViewController.VIEW_WIDTH;
+
+/**
+ * {@link PressOnsetDetectorTest} replays synthetic load surface press ramps and light resting touches through the
+ * {@link PressOnsetDetector} calls that the view controller makes for each touched {@link Button}, so that in
+ * {@link PressOnsetMode#ON}, keys keep being pressed down well before the smoothed press threshold crossing, while
+ * unconfirmed press onsets never press a key.
+ */
+public class PressOnsetDetectorTest {
+
+    private static final Location[] ADC_LOCATIONS = LoadSurfaceController.ADC_LOCATIONS.toArray(new Location[0]);
+    private static final double RESULT_MAX_VALUE = Math.pow(2, 24) / 2;
+    private static final double BASELINE_SAMPLE = 1e6;
+    private static final double SMOOTHING_FACTOR = 25;
+    private static final long SAMPLE_PERIOD_NANOS = SECONDS.toNanos(1) / SAMPLES_PER_SECOND;
+    private static final int TOUCH_FRAME_SAMPLE_DIVISOR = 2; // 160 Hz touch frames
+    private static final int RAMP_SAMPLE_COUNT = 20; // About 60 ms
+    private static final int FAST_RAMP_SAMPLE_COUNT = 4; // About 12 ms
+    private static final int TOUCH_SAMPLE_COUNT = 300;
+    private static final int TOUCH_COUNT = 200;
+    private static final double PRESS_FORCE = 0.02;
+    private static final double LIGHT_TOUCH_FORCE = 0.0025;
+    private static final double NEAR_PRESS_FORCE = 0.0032; // Below the press down threshold of 0.004
+    private static final double TOUCH_X = 700;
+    private static final double TOUCH_Y = 250;
+    private static final double[] NOISES = {200, 500, 1500};
+
+    private final ForceMap forceMap = ForceMap.fromLocations(ADC_LOCATIONS, VIEW_WIDTH, VIEW_HEIGHT, 16);
+
+    @Test
+    public void confirmedOnsetsPressKeysEarly() {
+        for (double noise : NOISES) {
+            // Half presses, half light resting touches
+            final double[] peakForces = new double[TOUCH_COUNT];
+            for (int touch = 0; touch < TOUCH_COUNT; touch++) {
+                peakForces[touch] = touch % 2 == 0 ? PRESS_FORCE : LIGHT_TOUCH_FORCE;
+            }
+            final Replay shadow = replay(PressOnsetMode.SHADOW, noise, peakForces, RAMP_SAMPLE_COUNT);
+            final Replay on = replay(PressOnsetMode.ON, noise, peakForces, RAMP_SAMPLE_COUNT);
+            final double keyDownGainNanos = (shadow.pressDownNanosSum - on.pressDownNanosSum) / (TOUCH_COUNT / 2.0);
+            final String statistics = "noise " + noise + ": " + on + ", key-down gain over SHADOW " +
+                    keyDownGainNanos / 1e6 + " ms";
+
+            assertEquals(TOUCH_COUNT / 2, shadow.pressCount, statistics);
+            assertEquals(TOUCH_COUNT / 2, on.pressCount, statistics);
+            assertEquals(TOUCH_COUNT / 2, on.detector.getConfirmedOnsetCount(), statistics);
+            assertEquals(0, on.detector.getFalsePositiveCount(), statistics);
+            assertEquals(0, on.detector.getUnfollowedConfirmationCount(), statistics);
+            assertTrue(on.detector.getMeanLeadTimeNanos() >= MILLISECONDS.toNanos(20), statistics);
+            assertTrue(keyDownGainNanos >= MILLISECONDS.toNanos(20), statistics);
+        }
+    }
+
+    @Test
+    public void unconfirmedOnsetsNeverPressKeys() {
+        for (double noise : NOISES) {
+            // Fast ramps, which are steep enough for onsets, that stop just below the press down threshold
+            final double[] peakForces = new double[TOUCH_COUNT];
+            for (int touch = 0; touch < TOUCH_COUNT; touch++) {
+                peakForces[touch] = NEAR_PRESS_FORCE;
+            }
+            final Replay on = replay(PressOnsetMode.ON, noise, peakForces, FAST_RAMP_SAMPLE_COUNT);
+            final String statistics = "noise " + noise + ": " + on;
+
+            assertTrue(on.detector.getOnsetCount() > 0, statistics);
+            assertEquals(0, on.pressCount, statistics);
+            assertEquals(0, on.detector.getConfirmedOnsetCount(), statistics);
+            assertEquals(on.detector.getOnsetCount(), on.detector.getFalsePositiveCount(), statistics);
+        }
+    }
+
+    /**
+     * Replays a touch with a force ramp to each of the given peak forces on a key, and processes the touch frames
+     * with the given {@link PressOnsetMode} as the view controller does: the smoothed force is fused at the touch
+     * location, the key is pressed down and up with {@link PressOnsetDetector#processTouch(Button, double, double,
+     * double, long)} and {@link PressOnsetDetector#isPressUp(Button, double, double, double)}, and its touch is
+     * released with {@link PressOnsetDetector#recordRelease(Button)}.
+     *
+     * @param mode            the {@link PressOnsetMode}
+     * @param noise           the standard deviation of the raw sample noise
+     * @param peakForces      the peak force of each touch
+     * @param rampSampleCount the number of samples of each force ramp
+     *
+     * @return the {@link Replay}
+     */
+    private Replay replay(PressOnsetMode mode, double noise, double[] peakForces, int rampSampleCount) {
+        // Distribute the force over the channels so that the fused force at the touch location equals the force
+        final double[] channelWeights = new double[SampleFrame.CHANNEL_COUNT];
+        double weightSquareSum = 0;
+        for (int channel = 0; channel < channelWeights.length; channel++) {
+            final double[] unitChannelValues = new double[SampleFrame.CHANNEL_COUNT];
+            unitChannelValues[channel] = 1;
+            channelWeights[channel] = forceMap.force(TOUCH_X, TOUCH_Y, unitChannelValues);
+            weightSquareSum += channelWeights[channel] * channelWeights[channel];
+        }
+        final Random random = new Random(2);
+        final SampleHistory sampleHistory = new SampleHistory();
+        final Replay replay = new Replay(new PressOnsetDetector(mode, sampleHistory, forceMap));
+        final Button button = new Button() {
+            @Override
+            public boolean isPressOnsetDetectionEnabled() {
+                return true;
+            }
+        };
+        final SampleFrame sampleFrame = new SampleFrame();
+        final double[] filteredSamples = new double[SampleFrame.CHANNEL_COUNT];
+        long timestampNanos = SECONDS.toNanos(1);
+        for (double peakForce : peakForces) {
+            final int rampStart = 100 + random.nextInt(50);
+            final long rampStartNanos = timestampNanos + rampStart * SAMPLE_PERIOD_NANOS;
+            boolean pressed = false;
+            for (int channel = 0; channel < filteredSamples.length; channel++) {
+                filteredSamples[channel] = BASELINE_SAMPLE;
+            }
+            button.onTouchDown();
+            for (int sample = 0; sample < TOUCH_SAMPLE_COUNT; sample++) {
+                timestampNanos += SAMPLE_PERIOD_NANOS;
+                final double force = sample < rampStart ? 0 :
+                        peakForce * min(1, (sample - rampStart) / (double) rampSampleCount);
+                for (int channel = 0; channel < SampleFrame.CHANNEL_COUNT; channel++) {
+                    final double rawSample = BASELINE_SAMPLE + force * RESULT_MAX_VALUE *
+                            channelWeights[channel] / weightSquareSum + random.nextGaussian() * noise;
+                    filteredSamples[channel] += (rawSample - filteredSamples[channel]) / SMOOTHING_FACTOR;
+                    sampleFrame.getRawSamples()[channel] = (int) rawSample;
+                    sampleFrame.getFilteredBaselineSamples()[channel] = BASELINE_SAMPLE;
+                    sampleFrame.getPercentOffsetSamples()[channel] =
+                            abs(filteredSamples[channel] - BASELINE_SAMPLE) / RESULT_MAX_VALUE;
+                    sampleFrame.getChannelUpdateTimestampsNanos()[channel] = timestampNanos;
+                }
+                sampleFrame.setTimestampNanos(timestampNanos);
+                sampleHistory.record(sampleFrame, sample >= rampStart);
+                if (sample % TOUCH_FRAME_SAMPLE_DIVISOR != TOUCH_FRAME_SAMPLE_DIVISOR - 1) {
+                    continue;
+                }
+
+                final double smoothedForce = forceMap.force(TOUCH_X, TOUCH_Y, sampleFrame.getPercentOffsetSamples());
+                if (button.isPressedDown() &&
+                        replay.detector.isPressUp(button, TOUCH_X, TOUCH_Y, smoothedForce)) {
+                    replay.detector.recordRelease(button);
+                    button.onPressUp();
+                } else {
+                    replay.detector.processTouch(button, TOUCH_X, TOUCH_Y, smoothedForce, timestampNanos);
+                }
+                if (button.isPressedDown() && !pressed) {
+                    pressed = true;
+                    replay.pressCount++;
+                    replay.pressDownNanosSum += timestampNanos - rampStartNanos;
+                }
+            }
+            replay.detector.recordRelease(button);
+            if (button.isPressedDown()) {
+                button.onPressUp();
+            }
+            button.onTouchUp();
+        }
+        return replay;
+    }
+
+    /**
+     * {@link Replay} is the outcome of {@link #replay(PressOnsetMode, double, double[], int)}.
+     */
+    private static class Replay {
+
+        private final PressOnsetDetector detector;
+        private int pressCount;
+        private double pressDownNanosSum;
+
+        /**
+         * Instantiates a new {@link Replay}.
+         *
+         * @param detector the {@link PressOnsetDetector}
+         */
+        Replay(PressOnsetDetector detector) {
+            this.detector = detector;
+        }
+
+        @Override
+        public String toString() {
+            return detector.getMode() + ": " + pressCount + " pressed touches, " + detector.getOnsetCount() +
+                    " onsets, " + detector.getConfirmedOnsetCount() + " confirmed, " +
+                    detector.getFalsePositiveCount() + " false positives, " + detector.getMissedOnsetCount() +
+                    " missed, " + detector.getUnfollowedConfirmationCount() + " unfollowed, mean lead time " +
+                    detector.getMeanLeadTimeNanos() / 1e6 + " ms";
+        }
+    }
+}
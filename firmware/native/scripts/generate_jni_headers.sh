@@ -10,3 +10,6 @@ CORE_DIRECTORY="../core/"
 TARGET_C_HEADER_FILE="src/jni/"
 
 javac "${CORE_DIRECTORY}/src/main/java/tech/anapad/modela/util/i2c/I2CNative.java" -h "${TARGET_C_HEADER_FILE}"
+javac "${CORE_DIRECTORY}/src/main/java/tech/anapad/modela/util/gpio/GPIONative.java" -h "${TARGET_C_HEADER_FILE}"
+javac "${CORE_DIRECTORY}/src/main/java/tech/anapad/modela/loadsurface/acquisition/SampleAcquisitionNative.java" \
+    -h "${TARGET_C_HEADER_FILE}"
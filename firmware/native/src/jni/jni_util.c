@@ -0,0 +1,79 @@
+/**
+ * @file jni_util.c
+ */
+
+#include "jni_util.h"
+
+static jclass exception_class = NULL;
+static jclass i2c_exception_class = NULL;
+static jmethodID i2c_exception_constructor = NULL;
+
+/**
+ * Gets a global reference to a Java class.
+ * @param env the JNIEnv
+ * @param class_name the fully qualified class name
+ * @return the global class reference or NULL if an error occurred
+ */
+static jclass get_global_class(JNIEnv* env, const char* class_name) {
+    const jclass local_class = (*env)->FindClass(env, class_name);
+    if (local_class == NULL) {
+        return NULL;
+    }
+    const jclass global_class = (*env)->NewGlobalRef(env, local_class);
+    (*env)->DeleteLocalRef(env, local_class);
+    return global_class;
+}
+
+JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM* vm, void* reserved) {
+    JNIEnv* env;
+    if ((*vm)->GetEnv(vm, (void**) &env, JNI_VERSION_1_8) != JNI_OK) {
+        return JNI_ERR;
+    }
+
+    // Look up exception classes once so that no lookups occur in failure paths
+    exception_class = get_global_class(env, "java/lang/Exception");
+    i2c_exception_class = get_global_class(env, "tech/anapad/modela/util/i2c/I2CException");
+    if (exception_class == NULL || i2c_exception_class == NULL) {
+        return JNI_ERR;
+    }
+    i2c_exception_constructor =
+            (*env)->GetMethodID(env, i2c_exception_class, "<init>", "(Ljava/lang/String;III)V");
+    if (i2c_exception_constructor == NULL) {
+        return JNI_ERR;
+    }
+
+    return JNI_VERSION_1_8;
+}
+
+JNIEXPORT void JNICALL JNI_OnUnload(JavaVM* vm, void* reserved) {
+    JNIEnv* env;
+    if ((*vm)->GetEnv(vm, (void**) &env, JNI_VERSION_1_8) != JNI_OK) {
+        return;
+    }
+    (*env)->DeleteGlobalRef(env, exception_class);
+    (*env)->DeleteGlobalRef(env, i2c_exception_class);
+}
+
+void throw_exception(JNIEnv* env, const char* message) {
+    (*env)->ThrowNew(env, exception_class, message);
+}
+
+void throw_errno_exception(JNIEnv* env, const char* message, int32_t error_number) {
+    char detailed_message[256];
+    snprintf(detailed_message, SIZE_OF_ARRAY(detailed_message), "%s (errno: %d, %s)", message, error_number,
+            strerror(error_number));
+    (*env)->ThrowNew(env, exception_class, detailed_message);
+}
+
+void throw_i2c_exception(JNIEnv* env, const char* message, int32_t error_number, int32_t slave_address,
+        int32_t register_address) {
+    const jstring message_java = (*env)->NewStringUTF(env, message);
+    if (message_java == NULL) {
+        return; // OutOfMemoryError is pending
+    }
+    const jthrowable exception = (*env)->NewObject(env, i2c_exception_class, i2c_exception_constructor, message_java,
+            error_number, slave_address, register_address);
+    if (exception != NULL) {
+        (*env)->Throw(env, exception);
+    }
+}
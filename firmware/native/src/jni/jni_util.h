@@ -0,0 +1,61 @@
+/**
+ * @file jni_util.h
+ * @brief Utility functions for the JNI sources, which throw Java exceptions with the Java classes that are looked up
+ * once in JNI_OnLoad so that no class lookups occur in failure paths.
+ */
+
+#ifndef MODEL_A_JNI_UTIL_H
+#define MODEL_A_JNI_UTIL_H
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+#include "../util/lang/lang.h"
+#include <jni.h>
+#include <stdint.h>
+#include <stdio.h>
+#include <string.h>
+
+/**
+ * The value of the slave address of an <code>I2CException</code> when the failed request is not specific to a slave.
+ */
+#define NO_SLAVE_ADDRESS -1
+
+/**
+ * The value of the register address of an <code>I2CException</code> when the failed request is not specific to a
+ * register.
+ */
+#define NO_REGISTER_ADDRESS -1
+
+/**
+ * Throws a Java <code>Exception</code>.
+ * @param env the JNIEnv
+ * @param message the message
+ */
+void throw_exception(JNIEnv* env, const char* message);
+
+/**
+ * Throws a Java <code>Exception</code> with the given message and the description of the given errno.
+ * @param env the JNIEnv
+ * @param message the message
+ * @param error_number the errno of the failed system call
+ */
+void throw_errno_exception(JNIEnv* env, const char* message, int32_t error_number);
+
+/**
+ * Throws a Java <code>I2CException</code>.
+ * @param env the JNIEnv
+ * @param message the message
+ * @param error_number the errno of the failed system call or zero if there is none
+ * @param slave_address the slave address or NO_SLAVE_ADDRESS
+ * @param register_address the register address or NO_REGISTER_ADDRESS
+ */
+void throw_i2c_exception(JNIEnv* env, const char* message, int32_t error_number, int32_t slave_address,
+        int32_t register_address);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // MODEL_A_JNI_UTIL_H
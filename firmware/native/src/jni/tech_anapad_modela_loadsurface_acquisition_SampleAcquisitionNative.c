@@ -0,0 +1,37 @@
+/**
+ * @file tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative.
+ */
+
+#include "tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative.h"
+#include "../loadsurface/acquisition/acquisition.h"
+#include "jni_util.h"
+
+JNIEXPORT jlong JNICALL Java_tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative_start(JNIEnv* env,
+        jclass class, jint i2c_device_index, jobject ring_buffer, jint frame_capacity, jlong conversion_period_nanos,
+        jlong deadline_margin_nanos, jint max_consecutive_errors) {
+    uint8_t* ring = (*env)->GetDirectBufferAddress(env, ring_buffer);
+    if (ring == NULL || frame_capacity <= 0 ||
+            (*env)->GetDirectBufferCapacity(env, ring_buffer) < acquisition_ring_length(frame_capacity)) {
+        throw_errno_exception(env, "Invalid sample acquisition ring buffer!", EINVAL);
+        return 0;
+    }
+
+    // Concat device index with device path prefix
+    char dev_path[32];
+    snprintf(dev_path, SIZE_OF_ARRAY(dev_path), "/dev/i2c-%d", i2c_device_index);
+
+    struct acquisition* acquisition = NULL;
+    if (acquisition_start(&acquisition, dev_path, ring, frame_capacity, conversion_period_nanos, deadline_margin_nanos,
+                max_consecutive_errors) < 0) {
+        throw_errno_exception(env, "Could not start sample acquisition!", errno);
+        return 0;
+    }
+    return (jlong) (intptr_t) acquisition;
+}
+
+JNIEXPORT void JNICALL Java_tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative_stop(JNIEnv* env,
+        jclass class, jlong handle) {
+    if (acquisition_stop((struct acquisition*) (intptr_t) handle) < 0) {
+        throw_errno_exception(env, "Could not stop sample acquisition!", errno);
+    }
+}
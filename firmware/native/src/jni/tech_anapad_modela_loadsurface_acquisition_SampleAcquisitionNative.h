@@ -0,0 +1,29 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative */
+
+#ifndef _Included_tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative
+#define _Included_tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative
+ * Method:    start
+ * Signature: (ILjava/nio/ByteBuffer;IJJI)J
+ */
+JNIEXPORT jlong JNICALL Java_tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative_start(JNIEnv*, jclass,
+        jint, jobject, jint, jlong, jlong, jint);
+
+/*
+ * Class:     tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative
+ * Method:    stop
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_tech_anapad_modela_loadsurface_acquisition_SampleAcquisitionNative_stop(JNIEnv*, jclass,
+        jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -0,0 +1,43 @@
+/**
+ * @file tech_anapad_modela_util_gpio_GPIONative.
+ */
+
+#include "tech_anapad_modela_util_gpio_GPIONative.h"
+#include "../util/gpio/gpio.h"
+#include "jni_util.h"
+
+#define GPIO_CONSUMER_LABEL "model-a"
+
+JNIEXPORT jint JNICALL Java_tech_anapad_modela_util_gpio_GPIONative_startLineEvents(JNIEnv* env, jclass class,
+        jint gpio_chip_index, jint line_offset, jboolean falling_edge) {
+    // Concat chip index with device path prefix
+    char chip_dev_path[32];
+    snprintf(chip_dev_path, SIZE_OF_ARRAY(chip_dev_path), "/dev/gpiochip%d", gpio_chip_index);
+
+    const int32_t fd = gpio_line_event_start(chip_dev_path, line_offset, falling_edge, GPIO_CONSUMER_LABEL);
+    if (fd < 0) {
+        throw_errno_exception(env, "Could not request GPIO line events!", errno);
+    }
+    return fd;
+}
+
+JNIEXPORT void JNICALL Java_tech_anapad_modela_util_gpio_GPIONative_stopLineEvents(JNIEnv* env, jclass class,
+        jint fd) {
+    if (gpio_line_event_stop(fd) < 0) {
+        throw_errno_exception(env, "Could not release GPIO line events!", errno);
+    }
+}
+
+JNIEXPORT jlong JNICALL Java_tech_anapad_modela_util_gpio_GPIONative_waitForLineEvent(JNIEnv* env, jclass class,
+        jint fd, jint timeout_millis) {
+    uint64_t timestamp_nanos = 0;
+    const int32_t result = gpio_line_event_wait(fd, timeout_millis, &timestamp_nanos);
+    if (result < 0) {
+        throw_errno_exception(env, "Could not wait for GPIO line event!", errno);
+        return tech_anapad_modela_util_gpio_GPIONative_NO_EVENT;
+    }
+    if (result == 0) {
+        return tech_anapad_modela_util_gpio_GPIONative_NO_EVENT;
+    }
+    return (jlong) timestamp_nanos;
+}
@@ -0,0 +1,37 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class tech_anapad_modela_util_gpio_GPIONative */
+
+#ifndef _Included_tech_anapad_modela_util_gpio_GPIONative
+#define _Included_tech_anapad_modela_util_gpio_GPIONative
+#ifdef __cplusplus
+extern "C" {
+#endif
+#undef tech_anapad_modela_util_gpio_GPIONative_NO_EVENT
+#define tech_anapad_modela_util_gpio_GPIONative_NO_EVENT -1LL
+/*
+ * Class:     tech_anapad_modela_util_gpio_GPIONative
+ * Method:    startLineEvents
+ * Signature: (IIZ)I
+ */
+JNIEXPORT jint JNICALL Java_tech_anapad_modela_util_gpio_GPIONative_startLineEvents(JNIEnv*, jclass, jint, jint,
+        jboolean);
+
+/*
+ * Class:     tech_anapad_modela_util_gpio_GPIONative
+ * Method:    stopLineEvents
+ * Signature: (I)V
+ */
+JNIEXPORT void JNICALL Java_tech_anapad_modela_util_gpio_GPIONative_stopLineEvents(JNIEnv*, jclass, jint);
+
+/*
+ * Class:     tech_anapad_modela_util_gpio_GPIONative
+ * Method:    waitForLineEvent
+ * Signature: (II)J
+ */
+JNIEXPORT jlong JNICALL Java_tech_anapad_modela_util_gpio_GPIONative_waitForLineEvent(JNIEnv*, jclass, jint, jint);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -4,6 +4,31 @@
 
 #include "tech_anapad_modela_util_i2c_I2CNative.h"
 #include "../util/i2c/i2c.h"
+#include "jni_util.h"
+#include <errno.h>
+
+/**
+ * Gets a pointer to a region of a direct Java <code>ByteBuffer</code> and throws a Java exception if the region is
+ * invalid.
+ * @param env the JNIEnv
+ * @param buffer the direct ByteBuffer
+ * @param offset the region offset
+ * @param length the region length
+ * @return the pointer to the region or NULL if an exception was thrown
+ */
+static uint8_t* get_direct_buffer_region(JNIEnv* env, jobject buffer, jint offset, jint length) {
+    uint8_t* buffer_address = (*env)->GetDirectBufferAddress(env, buffer);
+    if (buffer_address == NULL) {
+        throw_exception(env, "I2C buffer must be a direct ByteBuffer!");
+        return NULL;
+    }
+    const jlong buffer_capacity = (*env)->GetDirectBufferCapacity(env, buffer);
+    if (offset < 0 || length < 0 || (jlong) offset + length > buffer_capacity) {
+        throw_exception(env, "I2C buffer region is out of bounds!");
+        return NULL;
+    }
+    return buffer_address + offset;
+}
 
 JNIEXPORT jint JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_start(JNIEnv* env, jclass class,
         jint i2c_device_index) {
@@ -13,9 +38,9 @@ JNIEXPORT jint JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_start(JNIEnv*
     snprintf(device_path, SIZE_OF_ARRAY(device_path), "%s%d", device_path_prefix, i2c_device_index);
 
     // Start I2C
-    const uint32_t fd = i2c_start(device_path);
+    const int32_t fd = i2c_start(device_path);
     if (fd < 0) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Could not start I2C device!");
+        throw_i2c_exception(env, "Could not start I2C device!", errno, NO_SLAVE_ADDRESS, NO_REGISTER_ADDRESS);
     }
     return fd;
 }
@@ -24,7 +49,7 @@ JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_stop(JNIEnv* e
     // Stop I2C
     const int32_t status = i2c_stop(fd);
     if (status < 0) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Could not stop I2C device!");
+        throw_i2c_exception(env, "Could not stop I2C device!", errno, NO_SLAVE_ADDRESS, NO_REGISTER_ADDRESS);
     }
 }
 
@@ -32,7 +57,7 @@ JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_writeByte(JNIE
         jshort slave_address, jbyte data) {
     const int32_t status = i2c_write_byte(fd, slave_address, data);
     if (status < 0) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Could not write to I2C device!");
+        throw_i2c_exception(env, "Could not write to I2C device!", errno, slave_address, NO_REGISTER_ADDRESS);
     }
 }
 
@@ -41,19 +66,34 @@ JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_writeRegisterB
     const int32_t status =
             i2c_write_register_byte(fd, slave_address, register_address, register_data, is_8_bit_register_address);
     if (status < 0) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Could not write to I2C device!");
+        throw_i2c_exception(env, "Could not write to I2C device!", errno, slave_address, (uint16_t) register_address);
     }
 }
 
 JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_writeRegisterBytes(JNIEnv* env, jclass class, jint fd,
         jshort slave_address, jshort register_address, jbyteArray register_data, jboolean is_8_bit_register_address) {
-    int8_t* register_data_array = (*env)->GetByteArrayElements(env, register_data, 0);
+    // Copy the register data to the stack so that the Java array isn't pinned during the blocking ioctl
     const int32_t register_data_size = (*env)->GetArrayLength(env, register_data);
-    const int32_t status = i2c_write_register_bytes(fd, slave_address, register_address, (uint8_t*) register_data_array,
+    uint8_t register_data_array[register_data_size == 0 ? 1 : register_data_size];
+    (*env)->GetByteArrayRegion(env, register_data, 0, register_data_size, (jbyte*) register_data_array);
+    const int32_t status = i2c_write_register_bytes(fd, slave_address, register_address, register_data_array,
             register_data_size, is_8_bit_register_address);
-    (*env)->ReleaseByteArrayElements(env, register_data, register_data_array, 0);
     if (status < 0) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Could not write to I2C device!");
+        throw_i2c_exception(env, "Could not write to I2C device!", errno, slave_address, (uint16_t) register_address);
+    }
+}
+
+JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_writeRegisterBytesDirect(JNIEnv* env, jclass class,
+        jint fd, jshort slave_address, jshort register_address, jobject buffer, jint offset, jint length,
+        jboolean is_8_bit_register_address) {
+    uint8_t* register_data = get_direct_buffer_region(env, buffer, offset, length);
+    if (register_data == NULL) {
+        return;
+    }
+    const int32_t status = i2c_write_register_bytes(fd, slave_address, register_address, register_data, length,
+            is_8_bit_register_address);
+    if (status < 0) {
+        throw_i2c_exception(env, "Could not write to I2C device!", errno, slave_address, (uint16_t) register_address);
     }
 }
 
@@ -61,7 +101,7 @@ JNIEXPORT jbyte JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_readByte(JNIE
         jshort slave_address) {
     const int32_t byte = i2c_read_byte(fd, slave_address);
     if (byte < 0) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Could not read from I2C device!");
+        throw_i2c_exception(env, "Could not read from I2C device!", errno, slave_address, NO_REGISTER_ADDRESS);
     }
     return (int8_t) byte;
 }
@@ -71,7 +111,7 @@ JNIEXPORT jbyte JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_readRegisterB
     const int32_t register_byte =
             i2c_read_register_byte(fd, slave_address, register_address, is_8_bit_register_address);
     if (register_byte < 0) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Could not read from I2C device!");
+        throw_i2c_exception(env, "Could not read from I2C device!", errno, slave_address, (uint16_t) register_address);
     }
     return (int8_t) register_byte;
 }
@@ -82,12 +122,71 @@ JNIEXPORT jbyteArray JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_readRegi
     const int32_t status = i2c_read_register_bytes(fd, slave_address, register_address, (uint8_t*) register_bytes,
             SIZE_OF_ARRAY(register_bytes), is_8_bit_register_address);
     if (status < 0) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Could not read from I2C device!");
+        throw_i2c_exception(env, "Could not read from I2C device!", errno, slave_address, (uint16_t) register_address);
+        return NULL;
     }
     const jbyteArray register_bytes_java = (*env)->NewByteArray(env, read_size);
     if (register_bytes_java == NULL) {
-        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/Exception"), "Out of memory error!");
+        return NULL; // OutOfMemoryError is pending
     }
     (*env)->SetByteArrayRegion(env, register_bytes_java, 0, SIZE_OF_ARRAY(register_bytes), register_bytes);
     return register_bytes_java;
 }
+
+JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_readRegisterBytesDirect(JNIEnv* env, jclass class,
+        jint fd, jshort slave_address, jshort register_address, jobject buffer, jint offset, jint read_size,
+        jboolean is_8_bit_register_address) {
+    uint8_t* register_data = get_direct_buffer_region(env, buffer, offset, read_size);
+    if (register_data == NULL) {
+        return;
+    }
+    const int32_t status = i2c_read_register_bytes(fd, slave_address, register_address, register_data, read_size,
+            is_8_bit_register_address);
+    if (status < 0) {
+        throw_i2c_exception(env, "Could not read from I2C device!", errno, slave_address, (uint16_t) register_address);
+    }
+}
+
+JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_transfer(JNIEnv* env, jclass class, jint fd,
+        jshortArray slave_addresses, jshortArray flags, jshortArray lengths, jint message_count, jobject buffer) {
+    if (message_count <= 0 || message_count > I2C_TRANSFER_MAX_MESSAGES) {
+        throw_exception(env, "Invalid I2C transfer message count!");
+        return;
+    }
+
+    // Copy message metadata into native arrays
+    jshort slave_addresses_array[I2C_TRANSFER_MAX_MESSAGES];
+    jshort flags_array[I2C_TRANSFER_MAX_MESSAGES];
+    jshort lengths_array[I2C_TRANSFER_MAX_MESSAGES];
+    (*env)->GetShortArrayRegion(env, slave_addresses, 0, message_count, slave_addresses_array);
+    (*env)->GetShortArrayRegion(env, flags, 0, message_count, flags_array);
+    (*env)->GetShortArrayRegion(env, lengths, 0, message_count, lengths_array);
+    if ((*env)->ExceptionCheck(env)) {
+        return;
+    }
+
+    // Validate that all message data fits into the buffer
+    int32_t buffer_length = 0;
+    for (int32_t index = 0; index < message_count; index++) {
+        buffer_length += (uint16_t) lengths_array[index];
+    }
+    uint8_t* buffer_address = get_direct_buffer_region(env, buffer, 0, buffer_length);
+    if (buffer_address == NULL) {
+        return;
+    }
+
+    // Create messages that point into the buffer and submit them in one ioctl
+    struct i2c_msg i2c_msgs[I2C_TRANSFER_MAX_MESSAGES];
+    uint32_t buffer_offset = 0;
+    for (int32_t index = 0; index < message_count; index++) {
+        i2c_msgs[index].addr = (uint16_t) slave_addresses_array[index];
+        i2c_msgs[index].flags = (uint16_t) flags_array[index] & I2C_M_RD;
+        i2c_msgs[index].len = (uint16_t) lengths_array[index];
+        i2c_msgs[index].buf = buffer_address + buffer_offset;
+        buffer_offset += i2c_msgs[index].len;
+    }
+    const int32_t status = i2c_transfer(fd, i2c_msgs, message_count);
+    if (status < 0) {
+        throw_i2c_exception(env, "Could not transfer with I2C device!", errno, i2c_msgs[0].addr, NO_REGISTER_ADDRESS);
+    }
+}
@@ -44,6 +44,14 @@ JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_writeRegisterB
 JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_writeRegisterBytes(JNIEnv*, jclass, jint, jshort,
         jshort, jbyteArray, jboolean);
 
+/*
+ * Class:     tech_anapad_modela_util_i2c_I2CNative
+ * Method:    writeRegisterBytesDirect
+ * Signature: (ISSLjava/nio/ByteBuffer;IIZ)V
+ */
+JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_writeRegisterBytesDirect(JNIEnv*, jclass, jint,
+        jshort, jshort, jobject, jint, jint, jboolean);
+
 /*
  * Class:     tech_anapad_modela_util_i2c_I2CNative
  * Method:    readByte
@@ -67,6 +75,22 @@ JNIEXPORT jbyte JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_readRegisterB
 JNIEXPORT jbyteArray JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_readRegisterBytes(JNIEnv*, jclass, jint, jshort,
         jshort, jint, jboolean);
 
+/*
+ * Class:     tech_anapad_modela_util_i2c_I2CNative
+ * Method:    readRegisterBytesDirect
+ * Signature: (ISSLjava/nio/ByteBuffer;IIZ)V
+ */
+JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_readRegisterBytesDirect(JNIEnv*, jclass, jint,
+        jshort, jshort, jobject, jint, jint, jboolean);
+
+/*
+ * Class:     tech_anapad_modela_util_i2c_I2CNative
+ * Method:    transfer
+ * Signature: (I[S[S[SILjava/nio/ByteBuffer;)V
+ */
+JNIEXPORT void JNICALL Java_tech_anapad_modela_util_i2c_I2CNative_transfer(JNIEnv*, jclass, jint, jshortArray,
+        jshortArray, jshortArray, jint, jobject);
+
 #ifdef __cplusplus
 }
 #endif
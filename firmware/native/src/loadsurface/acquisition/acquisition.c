@@ -0,0 +1,401 @@
+/**
+ * @file acquisition.c
+ */
+
+#include "acquisition.h"
+
+#define TCA9544A_ADDRESS 0x70
+#define TCA9544A_CHANNEL_ENABLE 0b100
+#define NAU7802_ADDRESS 0x2A
+#define NAU7802_REGISTER_PU_CONTROL 0x00
+#define NAU7802_REGISTER_RESULT_START 0x12
+#define NAU7802_REGISTER_RESULT_LENGTH 3
+#define NAU7802_PU_CONTROL_CS (1 << 4)
+#define NAU7802_PU_CONTROL_CR (1 << 5)
+#define NANOS_PER_SECOND 1000000000ULL
+#define PHASE_CHECK_INTERVAL_CYCLES 64
+
+/**
+ * Gets the current <code>CLOCK_MONOTONIC</code> time.
+ * @return the time in nanoseconds
+ */
+static uint64_t monotonic_nanos(void) {
+    struct timespec timespec;
+    clock_gettime(CLOCK_MONOTONIC, &timespec);
+    return (uint64_t) timespec.tv_sec * NANOS_PER_SECOND + (uint64_t) timespec.tv_nsec;
+}
+
+/**
+ * Sleeps until the given <code>CLOCK_MONOTONIC</code> time.
+ * @param deadline_nanos the time in nanoseconds
+ */
+static void sleep_until(uint64_t deadline_nanos) {
+    struct timespec timespec;
+    timespec.tv_sec = (time_t) (deadline_nanos / NANOS_PER_SECOND);
+    timespec.tv_nsec = (long) (deadline_nanos % NANOS_PER_SECOND);
+    while (clock_nanosleep(CLOCK_MONOTONIC, TIMER_ABSTIME, &timespec, NULL) == EINTR) {}
+}
+
+static uint64_t* ring_long(struct acquisition* acquisition, uint32_t offset) {
+    return (uint64_t*) (acquisition->ring + offset);
+}
+
+static int32_t* ring_int(struct acquisition* acquisition, uint32_t offset) {
+    return (int32_t*) (acquisition->ring + offset);
+}
+
+/**
+ * Increments a ring buffer counter. Counters are only written by the acquisition thread.
+ * @param acquisition the acquisition
+ * @param offset the offset of the counter
+ * @param amount the amount to increment by
+ */
+static void increment_counter(struct acquisition* acquisition, uint32_t offset, uint64_t amount) {
+    uint64_t* counter = ring_long(acquisition, offset);
+    __atomic_store_n(counter, __atomic_load_n(counter, __ATOMIC_RELAXED) + amount, __ATOMIC_RELAXED);
+}
+
+/**
+ * Selects a TCA9544A channel.
+ * @param fd the i2c device file descriptor
+ * @param channel the channel index
+ * @return a negative number if an error occurred or zero if successful
+ */
+static int32_t select_channel(int32_t fd, uint32_t channel) {
+    return i2c_write_byte(fd, TCA9544A_ADDRESS, TCA9544A_CHANNEL_ENABLE | channel);
+}
+
+/**
+ * Synchronizes the conversion cycles of all ADCs with a rising edge of their CS bits, then selects the first channel.
+ * @param fd the i2c device file descriptor
+ * @param synchronization_nanos set to the times at which the conversion cycles of the ADCs were started
+ * @return a negative number if an error occurred or zero if successful
+ */
+static int32_t synchronize_sample_cycles(int32_t fd, uint64_t* synchronization_nanos) {
+    uint8_t pu_controls[ACQUISITION_CHANNEL_COUNT];
+    for (uint32_t channel = 0; channel < ACQUISITION_CHANNEL_COUNT; channel++) {
+        if (select_channel(fd, channel) < 0) {
+            return -1;
+        }
+        const int32_t pu_control = i2c_read_register_byte(fd, NAU7802_ADDRESS, NAU7802_REGISTER_PU_CONTROL, true);
+        if (pu_control < 0) {
+            return -1;
+        }
+        pu_controls[channel] = (uint8_t) (pu_control & ~NAU7802_PU_CONTROL_CS);
+        if (i2c_write_register_byte(fd, NAU7802_ADDRESS, NAU7802_REGISTER_PU_CONTROL, pu_controls[channel], true) < 0) {
+            return -1;
+        }
+    }
+
+    // Start the conversion cycles back-to-back with one transfer per ADC, which also selects the next channel, so that
+    // the ADCs are closely in phase
+    if (select_channel(fd, 0) < 0) {
+        return -1;
+    }
+    for (uint32_t channel = 0; channel < ACQUISITION_CHANNEL_COUNT; channel++) {
+        uint8_t pu_control_write[] = {NAU7802_REGISTER_PU_CONTROL, pu_controls[channel] | NAU7802_PU_CONTROL_CS};
+        uint8_t channel_control = TCA9544A_CHANNEL_ENABLE | ((channel + 1) % ACQUISITION_CHANNEL_COUNT);
+        struct i2c_msg i2c_msgs[] = {
+                {.addr = NAU7802_ADDRESS, .flags = 0, .len = SIZE_OF_ARRAY(pu_control_write), .buf = pu_control_write},
+                {.addr = TCA9544A_ADDRESS, .flags = 0, .len = 1, .buf = &channel_control},
+        };
+        if (i2c_transfer(fd, i2c_msgs, SIZE_OF_ARRAY(i2c_msgs)) < 0) {
+            return -1;
+        }
+        synchronization_nanos[channel] = monotonic_nanos();
+    }
+    return 0;
+}
+
+/**
+ * Samples the ADC on the currently selected channel and selects the next channel in a single combined transaction.
+ * @param fd the i2c device file descriptor
+ * @param next_channel the channel index to select
+ * @param sample set to the signed 24-bit sample if the conversion was ready
+ * @return 1 if the conversion was ready, 0 if it wasn't, or a negative number if an error occurred
+ */
+static int32_t sample_channel(int32_t fd, uint32_t next_channel, int32_t* sample) {
+    uint8_t pu_control_address = NAU7802_REGISTER_PU_CONTROL;
+    uint8_t pu_control = 0;
+    uint8_t result_address = NAU7802_REGISTER_RESULT_START;
+    uint8_t result[NAU7802_REGISTER_RESULT_LENGTH];
+    uint8_t channel_control = TCA9544A_CHANNEL_ENABLE | next_channel;
+    struct i2c_msg i2c_msgs[] = {
+            {.addr = NAU7802_ADDRESS, .flags = 0, .len = 1, .buf = &pu_control_address},
+            {.addr = NAU7802_ADDRESS, .flags = I2C_M_RD, .len = 1, .buf = &pu_control},
+            {.addr = NAU7802_ADDRESS, .flags = 0, .len = 1, .buf = &result_address},
+            {.addr = NAU7802_ADDRESS, .flags = I2C_M_RD, .len = SIZE_OF_ARRAY(result), .buf = result},
+            {.addr = TCA9544A_ADDRESS, .flags = 0, .len = 1, .buf = &channel_control},
+    };
+    if (i2c_transfer(fd, i2c_msgs, SIZE_OF_ARRAY(i2c_msgs)) < 0) {
+        return -1;
+    }
+    if ((pu_control & NAU7802_PU_CONTROL_CR) == 0) {
+        return 0;
+    }
+    // Shift left, then sign-extended shift right the value by 8 bits so the sign bit is in correct place
+    *sample = (int32_t) ((uint32_t) result[0] << 24 | (uint32_t) result[1] << 16 | (uint32_t) result[2] << 8) >> 8;
+    return 1;
+}
+
+/**
+ * Reads the CR bit of the ADC on the currently selected channel and selects the next channel in a single combined
+ * transaction.
+ * @param fd the i2c device file descriptor
+ * @param next_channel the channel index to select
+ * @return 1 if a conversion completed since the last read of the result, 0 if not, or a negative number if an error
+ * occurred
+ */
+static int32_t read_conversion_ready(int32_t fd, uint32_t next_channel) {
+    uint8_t pu_control_address = NAU7802_REGISTER_PU_CONTROL;
+    uint8_t pu_control = 0;
+    uint8_t channel_control = TCA9544A_CHANNEL_ENABLE | next_channel;
+    struct i2c_msg i2c_msgs[] = {
+            {.addr = NAU7802_ADDRESS, .flags = 0, .len = 1, .buf = &pu_control_address},
+            {.addr = NAU7802_ADDRESS, .flags = I2C_M_RD, .len = 1, .buf = &pu_control},
+            {.addr = TCA9544A_ADDRESS, .flags = 0, .len = 1, .buf = &channel_control},
+    };
+    if (i2c_transfer(fd, i2c_msgs, SIZE_OF_ARRAY(i2c_msgs)) < 0) {
+        return -1;
+    }
+    return (pu_control & NAU7802_PU_CONTROL_CR) != 0;
+}
+
+/**
+ * Checks the CR bits of all ADCs, which were read in the previous cycle, in the middle of the next cycle. A set CR bit
+ * means that the ADC completes its conversions early and would eventually complete two conversions in one cycle, so
+ * the first of them would be overwritten unnoticed. The first channel is selected again afterwards.
+ * @param fd the i2c device file descriptor
+ * @param next_cycle_nanos the time at which the conversions of the next cycle are due
+ * @param period_nanos the conversion period in nanoseconds
+ * @param phase_offsets_nanos the time by which the conversion cycle of each ADC starts before the synchronized start
+ * @return 1 if an ADC has drifted early, 0 if not or if it is too late to check, or a negative number if an error
+ * occurred
+ */
+static int32_t check_early_drift(int32_t fd, uint64_t next_cycle_nanos, uint64_t period_nanos,
+        const uint64_t* phase_offsets_nanos) {
+    // The first ADC started its conversion cycle first
+    const uint64_t check_nanos = next_cycle_nanos - phase_offsets_nanos[0] - period_nanos / 2;
+    if (monotonic_nanos() < check_nanos) {
+        sleep_until(check_nanos);
+    } else if (monotonic_nanos() + period_nanos / 4 > next_cycle_nanos) {
+        return 0;
+    }
+    int32_t drifted_early = 0;
+    for (uint32_t channel = 0; channel < ACQUISITION_CHANNEL_COUNT; channel++) {
+        const int32_t ready = read_conversion_ready(fd, (channel + 1) % ACQUISITION_CHANNEL_COUNT);
+        if (ready < 0) {
+            return -1;
+        }
+        // A check that was delayed until shortly before the conversion is due can't tell an early conversion apart
+        if (ready > 0 && monotonic_nanos() + period_nanos / 4 <= next_cycle_nanos - phase_offsets_nanos[channel]) {
+            drifted_early = 1;
+        }
+    }
+    return drifted_early;
+}
+
+/**
+ * Publishes a frame into the ring buffer or drops it if the ring buffer is full.
+ * @param acquisition the acquisition
+ * @param timestamp_nanos the time at which the conversions completed
+ * @param read_timestamp_nanos the time at which the conversions were read
+ * @param samples the samples array of length <code>ACQUISITION_CHANNEL_COUNT</code>
+ * @param updated_channels the bit mask of the channels whose samples were read in this cycle
+ */
+static void publish_frame(struct acquisition* acquisition, uint64_t timestamp_nanos, uint64_t read_timestamp_nanos,
+        const int32_t* samples, uint32_t updated_channels) {
+    uint64_t* write_sequence = ring_long(acquisition, ACQUISITION_RING_WRITE_SEQUENCE_OFFSET);
+    const uint64_t sequence = __atomic_load_n(write_sequence, __ATOMIC_RELAXED);
+    const uint64_t read_sequence =
+            __atomic_load_n(ring_long(acquisition, ACQUISITION_RING_READ_SEQUENCE_OFFSET), __ATOMIC_ACQUIRE);
+    if (sequence - read_sequence >= acquisition->frame_capacity) {
+        increment_counter(acquisition, ACQUISITION_RING_DROPPED_FRAME_COUNT_OFFSET, 1);
+        return;
+    }
+
+    uint8_t* frame = acquisition->ring + ACQUISITION_RING_FRAMES_OFFSET +
+            (sequence & (acquisition->frame_capacity - 1)) * ACQUISITION_FRAME_LENGTH;
+    memcpy(frame + ACQUISITION_FRAME_TIMESTAMP_OFFSET, &timestamp_nanos, sizeof(timestamp_nanos));
+    memcpy(frame + ACQUISITION_FRAME_READ_TIMESTAMP_OFFSET, &read_timestamp_nanos, sizeof(read_timestamp_nanos));
+    memcpy(frame + ACQUISITION_FRAME_SAMPLES_OFFSET, samples, ACQUISITION_CHANNEL_COUNT * sizeof(int32_t));
+    memcpy(frame + ACQUISITION_FRAME_UPDATED_CHANNELS_OFFSET, &updated_channels, sizeof(updated_channels));
+    __atomic_store_n(write_sequence, sequence + 1, __ATOMIC_RELEASE);
+}
+
+/**
+ * Records an I2C error.
+ * @param acquisition the acquisition
+ * @param consecutive_errors the consecutive error count
+ * @return true if the maximum number of consecutive errors has been exceeded, false otherwise
+ */
+static bool record_error(struct acquisition* acquisition, uint32_t* consecutive_errors) {
+    __atomic_store_n(ring_int(acquisition, ACQUISITION_RING_LAST_ERROR_NUMBER_OFFSET), errno, __ATOMIC_RELAXED);
+    increment_counter(acquisition, ACQUISITION_RING_ERROR_COUNT_OFFSET, 1);
+    return ++*consecutive_errors > acquisition->max_consecutive_errors;
+}
+
+/**
+ * The acquisition thread function.
+ * @param argument the acquisition
+ * @return NULL
+ */
+static void* acquisition_run(void* argument) {
+    struct acquisition* acquisition = argument;
+    const uint64_t period_nanos = acquisition->conversion_period_nanos;
+    const uint64_t margin_nanos = acquisition->deadline_margin_nanos;
+    bool synchronized = false;
+    bool failed = false;
+    uint32_t consecutive_errors = 0;
+    uint64_t next_cycle_nanos = 0;
+    uint64_t read_cycle_nanos = 0;
+    uint64_t phase_offsets_nanos[ACQUISITION_CHANNEL_COUNT];
+    uint64_t read_nanos[ACQUISITION_CHANNEL_COUNT] = {0};
+    uint32_t phase_check_cycles = 0;
+    int32_t samples[ACQUISITION_CHANNEL_COUNT];
+
+    while (__atomic_load_n(&acquisition->running, __ATOMIC_ACQUIRE)) {
+        if (!synchronized) {
+            if (synchronize_sample_cycles(acquisition->i2c_fd, phase_offsets_nanos) < 0) {
+                if ((failed = record_error(acquisition, &consecutive_errors))) {
+                    break;
+                }
+                continue;
+            }
+            // The last ADC started its cycle last, so its conversions complete last
+            const uint64_t cycle_start_nanos = phase_offsets_nanos[ACQUISITION_CHANNEL_COUNT - 1];
+            for (uint32_t channel = 0; channel < ACQUISITION_CHANNEL_COUNT; channel++) {
+                phase_offsets_nanos[channel] = cycle_start_nanos - phase_offsets_nanos[channel];
+            }
+            next_cycle_nanos = cycle_start_nanos + period_nanos;
+            increment_counter(acquisition, ACQUISITION_RING_SYNCHRONIZATION_COUNT_OFFSET, 1);
+            synchronized = true;
+        }
+
+        // An ADC that has drifted early is still ready by the deadline, so periodically check for it mid-cycle
+        if (read_cycle_nanos + period_nanos == next_cycle_nanos &&
+                ++phase_check_cycles >= PHASE_CHECK_INTERVAL_CYCLES) {
+            phase_check_cycles = 0;
+            const int32_t drifted_early =
+                    check_early_drift(acquisition->i2c_fd, next_cycle_nanos, period_nanos, phase_offsets_nanos);
+            if (drifted_early != 0) {
+                // Also resynchronize after an error, since the channel selection is unknown
+                synchronized = false;
+                if (drifted_early > 0) {
+                    increment_counter(acquisition, ACQUISITION_RING_EARLY_DRIFT_COUNT_OFFSET, 1);
+                } else if ((failed = record_error(acquisition, &consecutive_errors))) {
+                    break;
+                }
+                continue;
+            }
+        }
+
+        // Skip cycles that are more than half a period late, since the next conversion could be read instead, then
+        // sleep until the deadline of the next cycle
+        const uint64_t now_nanos = monotonic_nanos();
+        if (now_nanos >= next_cycle_nanos + period_nanos / 2) {
+            const uint64_t missed_cycles = (now_nanos - next_cycle_nanos + period_nanos / 2) / period_nanos;
+            next_cycle_nanos += missed_cycles * period_nanos;
+            increment_counter(acquisition, ACQUISITION_RING_MISSED_CYCLE_COUNT_OFFSET, missed_cycles);
+        }
+        sleep_until(next_cycle_nanos + margin_nanos);
+        const uint64_t cycle_nanos = next_cycle_nanos;
+        next_cycle_nanos += period_nanos;
+
+        // Sample ADCs back-to-back
+        uint32_t updated_channels = 0;
+        bool drifted_late = false;
+        int32_t result = 0;
+        for (uint32_t channel = 0; channel < ACQUISITION_CHANNEL_COUNT; channel++) {
+            result = sample_channel(acquisition->i2c_fd, (channel + 1) % ACQUISITION_CHANNEL_COUNT, &samples[channel]);
+            if (result < 0) {
+                break;
+            }
+            if (result > 0) {
+                updated_channels |= 1u << channel;
+                read_nanos[channel] = monotonic_nanos();
+            } else if (read_nanos[channel] + phase_offsets_nanos[channel] + period_nanos / 2 < cycle_nanos) {
+                drifted_late = true;
+            }
+            // Otherwise the last read was delayed (e.g. by preemption) until the conversion of this cycle may have
+            // completed, as it may be up to half a period early, so it may have already been read
+        }
+        if (result < 0) {
+            // The channel selection is unknown, so resynchronize, which also reselects the first channel
+            synchronized = false;
+            if ((failed = record_error(acquisition, &consecutive_errors))) {
+                break;
+            }
+            continue;
+        }
+        consecutive_errors = 0;
+        if (drifted_late) {
+            // A conversion wasn't ready by the cycle deadline, so an ADC has drifted late
+            increment_counter(acquisition, ACQUISITION_RING_LATE_DRIFT_COUNT_OFFSET, 1);
+            synchronized = false;
+            continue;
+        }
+        publish_frame(acquisition, cycle_nanos, monotonic_nanos(), samples, updated_channels);
+        if (updated_channels == ACQUISITION_ALL_CHANNELS) {
+            read_cycle_nanos = cycle_nanos;
+        }
+    }
+
+    __atomic_store_n(ring_int(acquisition, ACQUISITION_RING_STATE_OFFSET),
+            failed ? ACQUISITION_STATE_FAILED : ACQUISITION_STATE_STOPPED, __ATOMIC_RELEASE);
+    return NULL;
+}
+
+uint32_t acquisition_ring_length(uint32_t frame_capacity) {
+    return ACQUISITION_RING_FRAMES_OFFSET + frame_capacity * ACQUISITION_FRAME_LENGTH;
+}
+
+int32_t acquisition_start(struct acquisition** acquisition, const char* dev_path, uint8_t* ring,
+        uint32_t frame_capacity, uint64_t conversion_period_nanos, uint64_t deadline_margin_nanos,
+        uint32_t max_consecutive_errors) {
+    if (((uintptr_t) ring & 63) != 0 || frame_capacity == 0 || (frame_capacity & (frame_capacity - 1)) != 0 ||
+            conversion_period_nanos == 0) {
+        errno = EINVAL;
+        return -1;
+    }
+
+    struct acquisition* new_acquisition = calloc(1, sizeof(struct acquisition));
+    if (new_acquisition == NULL) {
+        return -1;
+    }
+    new_acquisition->conversion_period_nanos = conversion_period_nanos;
+    new_acquisition->deadline_margin_nanos = deadline_margin_nanos;
+    new_acquisition->max_consecutive_errors = max_consecutive_errors;
+    new_acquisition->frame_capacity = frame_capacity;
+    new_acquisition->ring = ring;
+
+    new_acquisition->i2c_fd = i2c_start(dev_path);
+    if (new_acquisition->i2c_fd < 0) {
+        free(new_acquisition);
+        return -1;
+    }
+
+    new_acquisition->running = true;
+    const int32_t create_result = pthread_create(&new_acquisition->thread, NULL, acquisition_run, new_acquisition);
+    if (create_result != 0) {
+        i2c_stop(new_acquisition->i2c_fd);
+        free(new_acquisition);
+        errno = create_result;
+        return -1;
+    }
+
+    *acquisition = new_acquisition;
+    return 0;
+}
+
+int32_t acquisition_stop(struct acquisition* acquisition) {
+    __atomic_store_n(&acquisition->running, false, __ATOMIC_RELEASE);
+    const int32_t join_result = pthread_join(acquisition->thread, NULL);
+    const int32_t stop_result = i2c_stop(acquisition->i2c_fd);
+    free(acquisition);
+    if (join_result != 0) {
+        errno = join_result;
+        return -1;
+    }
+    return stop_result;
+}
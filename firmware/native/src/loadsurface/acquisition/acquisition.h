@@ -0,0 +1,101 @@
+/**
+ * @file acquisition.h
+ * @brief A native load surface sample acquisition thread that owns the load surface I2C bus, reads the conversions of
+ * the NAU7802 ADCs behind the TCA9544A I2C multiplexer each conversion cycle, and publishes timestamped frames into a
+ * single-producer/single-consumer ring buffer that is shared with Java as a direct <code>ByteBuffer</code>.
+ */
+
+#ifndef MODEL_A_ACQUISITION_H
+#define MODEL_A_ACQUISITION_H
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+#include "../../util/i2c/i2c.h"
+#include <errno.h>
+#include <pthread.h>
+#include <stdbool.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <time.h>
+
+/*
+ * The ring buffer layout. This must match the layout in 'SampleFrameRingBuffer.java'. All values are in native byte
+ * order. The write sequence is only written by the producer and the read sequence is only written by the consumer, so
+ * they are placed on separate cache lines.
+ */
+#define ACQUISITION_RING_WRITE_SEQUENCE_OFFSET 0
+#define ACQUISITION_RING_READ_SEQUENCE_OFFSET 64
+#define ACQUISITION_RING_DROPPED_FRAME_COUNT_OFFSET 128
+#define ACQUISITION_RING_MISSED_CYCLE_COUNT_OFFSET 136
+#define ACQUISITION_RING_SYNCHRONIZATION_COUNT_OFFSET 144
+#define ACQUISITION_RING_ERROR_COUNT_OFFSET 152
+#define ACQUISITION_RING_STATE_OFFSET 160
+#define ACQUISITION_RING_LAST_ERROR_NUMBER_OFFSET 164
+#define ACQUISITION_RING_LATE_DRIFT_COUNT_OFFSET 168
+#define ACQUISITION_RING_EARLY_DRIFT_COUNT_OFFSET 176
+#define ACQUISITION_RING_FRAMES_OFFSET 192
+#define ACQUISITION_FRAME_TIMESTAMP_OFFSET 0
+#define ACQUISITION_FRAME_READ_TIMESTAMP_OFFSET 8
+#define ACQUISITION_FRAME_SAMPLES_OFFSET 16
+#define ACQUISITION_FRAME_UPDATED_CHANNELS_OFFSET 32
+#define ACQUISITION_FRAME_LENGTH 40
+#define ACQUISITION_CHANNEL_COUNT 4
+#define ACQUISITION_ALL_CHANNELS ((1u << ACQUISITION_CHANNEL_COUNT) - 1)
+
+#define ACQUISITION_STATE_RUNNING 0
+#define ACQUISITION_STATE_STOPPED 1
+#define ACQUISITION_STATE_FAILED 2
+
+/**
+ * A running acquisition. Created by <code>acquisition_start()</code> and freed by <code>acquisition_stop()</code>.
+ */
+struct acquisition {
+    int32_t i2c_fd;
+    uint64_t conversion_period_nanos;
+    uint64_t deadline_margin_nanos;
+    uint32_t max_consecutive_errors;
+    uint32_t frame_capacity;
+    uint8_t* ring;
+    pthread_t thread;
+    bool running;
+};
+
+/**
+ * Gets the length of a ring buffer.
+ * @param frame_capacity the frame capacity of the ring buffer
+ * @return the length of the ring buffer in bytes
+ */
+uint32_t acquisition_ring_length(uint32_t frame_capacity);
+
+/**
+ * Opens the I2C device and starts the acquisition thread. The ADCs must already be configured. The acquisition thread
+ * synchronizes the ADC conversion cycles before the first frame. Timestamps are <code>CLOCK_MONOTONIC</code>
+ * nanoseconds, which is the clock of Java's <code>System.nanoTime()</code> on Linux.
+ * @param acquisition set to the started acquisition if successful
+ * @param dev_path the I2C device path string
+ * @param ring the zeroed, 64-byte aligned ring buffer, which is owned by the caller and must remain valid until
+ * <code>acquisition_stop()</code> returns
+ * @param frame_capacity the frame capacity of the ring buffer (must be a power of two)
+ * @param conversion_period_nanos the conversion period of the ADCs in nanoseconds
+ * @param deadline_margin_nanos the margin in nanoseconds added to the nominal end of each conversion cycle
+ * @param max_consecutive_errors the number of consecutive I2C errors after which the acquisition fails
+ * @return a negative number if an error occurred (with errno set) or zero if successful
+ */
+int32_t acquisition_start(struct acquisition** acquisition, const char* dev_path, uint8_t* ring,
+        uint32_t frame_capacity, uint64_t conversion_period_nanos, uint64_t deadline_margin_nanos,
+        uint32_t max_consecutive_errors);
+
+/**
+ * Stops the acquisition thread, closes the I2C device, and frees the acquisition.
+ * @param acquisition the acquisition
+ * @return a negative number if an error occurred (with errno set) or zero if successful
+ */
+int32_t acquisition_stop(struct acquisition* acquisition);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // MODEL_A_ACQUISITION_H
@@ -0,0 +1,61 @@
+/**
+ * @file gpio.c
+ */
+
+#include "gpio.h"
+
+int32_t gpio_line_event_start(const char* chip_dev_path, uint32_t line_offset, bool falling_edge,
+        const char* consumer) {
+    const int32_t chip_fd = open(chip_dev_path, O_RDONLY);
+    if (chip_fd < 0) {
+        return -1;
+    }
+
+    struct gpioevent_request event_request;
+    memset(&event_request, 0, sizeof(event_request));
+    event_request.lineoffset = line_offset;
+    event_request.handleflags = GPIOHANDLE_REQUEST_INPUT;
+    event_request.eventflags = falling_edge ? GPIOEVENT_REQUEST_FALLING_EDGE : GPIOEVENT_REQUEST_RISING_EDGE;
+    strncpy(event_request.consumer_label, consumer, sizeof(event_request.consumer_label) - 1);
+
+    const int32_t result = ioctl(chip_fd, GPIO_GET_LINEEVENT_IOCTL, &event_request);
+    const int32_t request_errno = errno;
+    // The line event file descriptor stays valid after the chip file descriptor is closed
+    close(chip_fd);
+    if (result < 0) {
+        errno = request_errno;
+        return -1;
+    }
+    return event_request.fd;
+}
+
+int32_t gpio_line_event_stop(int32_t fd) {
+    return close(fd);
+}
+
+int32_t gpio_line_event_wait(int32_t fd, int32_t timeout_millis, uint64_t* timestamp_nanos) {
+    struct pollfd poll_fd;
+    poll_fd.fd = fd;
+    poll_fd.events = POLLIN | POLLPRI;
+    poll_fd.revents = 0;
+
+    const int32_t poll_result = poll(&poll_fd, 1, timeout_millis);
+    if (poll_result < 0) {
+        return errno == EINTR ? 0 : -1;
+    }
+    if (poll_result == 0) {
+        return 0;
+    }
+
+    struct gpioevent_data event_data;
+    const ssize_t read_size = read(fd, &event_data, sizeof(event_data));
+    if (read_size < 0) {
+        return -1;
+    }
+    if (read_size != sizeof(event_data)) {
+        errno = EIO;
+        return -1;
+    }
+    *timestamp_nanos = event_data.timestamp;
+    return 1;
+}
@@ -0,0 +1,56 @@
+/**
+ * @file gpio.h
+ * @brief Utility functions for GPIO line event interfacing via the Linux GPIO character device.
+ */
+
+#ifndef MODEL_A_GPIO_H
+#define MODEL_A_GPIO_H
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+#include "../lang/lang.h"
+#include <errno.h>
+#include <fcntl.h>
+#include <linux/gpio.h>
+#include <poll.h>
+#include <stdbool.h>
+#include <stdint.h>
+#include <stdio.h>
+#include <string.h>
+#include <sys/ioctl.h>
+#include <unistd.h>
+
+/**
+ * Requests edge events of a GPIO line (configured as an input) and opens a file descriptor to read them from.
+ * @param chip_dev_path the GPIO chip device path string (e.g. "/dev/gpiochip0")
+ * @param line_offset the offset of the line on the GPIO chip
+ * @param falling_edge true for falling edge events, false for rising edge events
+ * @param consumer the consumer label of the line
+ * @return the line event file descriptor integer or a negative number if an error occurred
+ */
+int32_t gpio_line_event_start(const char* chip_dev_path, uint32_t line_offset, bool falling_edge,
+        const char* consumer);
+
+/**
+ * Closes a line event file descriptor.
+ * @param fd the line event file descriptor
+ * @return a negative number if an error occurred or zero if successful
+ */
+int32_t gpio_line_event_stop(int32_t fd);
+
+/**
+ * Waits for the next edge event of a line and reads it. Events that are already queued are read immediately.
+ * @param fd the line event file descriptor
+ * @param timeout_millis the maximum time to wait in milliseconds
+ * @param timestamp_nanos set to the kernel timestamp of the event in nanoseconds if an event was read
+ * @return 1 if an event was read, 0 if the wait timed out, or a negative number if an error occurred
+ */
+int32_t gpio_line_event_wait(int32_t fd, int32_t timeout_millis, uint64_t* timestamp_nanos);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // MODEL_A_GPIO_H
@@ -178,3 +178,19 @@ int32_t i2c_read_register_bytes(uint32_t fd, uint16_t slave_address, uint16_t re
 
     return 0;
 }
+
+int32_t i2c_transfer(uint32_t fd, struct i2c_msg* i2c_msgs, uint32_t i2c_msgs_length) {
+    if (i2c_msgs_length == 0 || i2c_msgs_length > I2C_TRANSFER_MAX_MESSAGES) {
+        return -1;
+    }
+
+    struct i2c_rdwr_ioctl_data i2c_transfer;
+    i2c_transfer.msgs = i2c_msgs;
+    i2c_transfer.nmsgs = i2c_msgs_length;
+
+    if (ioctl(fd, I2C_RDWR, &i2c_transfer) < 0) {
+        return -1;
+    }
+
+    return 0;
+}
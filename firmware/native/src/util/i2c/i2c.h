@@ -21,6 +21,11 @@ extern "C" {
 #include <sys/ioctl.h>
 #include <unistd.h>
 
+/**
+ * The maximum number of messages that the Linux kernel accepts in a single <code>I2C_RDWR</code> ioctl.
+ */
+#define I2C_TRANSFER_MAX_MESSAGES I2C_RDWR_IOCTL_MAX_MSGS
+
 /**
  * Opens a file descriptor to an I2C device.
  * @param dev_path the device path string
@@ -101,6 +106,15 @@ int32_t i2c_read_register_byte(uint32_t fd, uint16_t slave_address, uint16_t reg
 int32_t i2c_read_register_bytes(uint32_t fd, uint16_t slave_address, uint16_t register_address, uint8_t* register_data,
         uint16_t register_data_length, bool is8BitRegisterAddress);
 
+/**
+ * Submits an array of I2C messages in a single <code>I2C_RDWR</code> ioctl (e.g. a combined transaction).
+ * @param fd the i2c device file descriptor
+ * @param i2c_msgs the I2C messages array
+ * @param i2c_msgs_length the length of 'i2c_msgs' (must be less than or equal to I2C_TRANSFER_MAX_MESSAGES)
+ * @return a negative number if an error occurred or zero if successful
+ */
+int32_t i2c_transfer(uint32_t fd, struct i2c_msg* i2c_msgs, uint32_t i2c_msgs_length);
+
 #ifdef __cplusplus
 }
 #endif